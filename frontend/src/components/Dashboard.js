@@ -1,4 +1,4 @@
-import React from 'react';
+import React, { useEffect, useState } from 'react';
 import {
   Box,
   Typography,
@@ -17,8 +17,8 @@ import {
   Assessment,
 } from '@mui/icons-material';
 import { useNavigate } from 'react-router-dom';
-import { useQuery } from 'react-query';
-import { getRecentPredictions, getAllPredictions, getPredictionStatistics } from '../services/api';
+import { useQuery, useQueryClient } from 'react-query';
+import { getRecentPredictions, getAllPredictions, getPredictionStatistics, subscribeToPredictionFeed } from '../services/api';
 import { useAuth } from '../contexts/AuthContext';
 
 const StatCard = ({ title, value, icon, color, trend }) => (
@@ -45,7 +45,38 @@ const StatCard = ({ title, value, icon, color, trend }) => (
 const Dashboard = () => {
   const navigate = useNavigate();
   const { user: currentUser } = useAuth();
-  
+  const queryClient = useQueryClient();
+  const [feedConnected, setFeedConnected] = useState(false);
+
+  // New predictions are pushed by the server; polling is only the fallback while the feed is down
+  useEffect(() => {
+    if (!currentUser) return undefined;
+    let active = true;
+    let retry;
+    let unsubscribe;
+    const connect = () => {
+      unsubscribe = subscribeToPredictionFeed({
+        userId: currentUser.roleType === 'ADMIN' ? null : currentUser.id || 1,
+        onOpen: () => setFeedConnected(true),
+        onPrediction: () => {
+          queryClient.invalidateQueries('dashboardRecentPredictions');
+          queryClient.invalidateQueries('dashboardStatistics');
+        },
+        onClose: () => {
+          if (!active) return;
+          setFeedConnected(false);
+          retry = setTimeout(connect, 5000);
+        },
+      });
+    };
+    connect();
+    return () => {
+      active = false;
+      clearTimeout(retry);
+      unsubscribe?.();
+    };
+  }, [currentUser, queryClient]);
+
   // Fetch recent predictions for display (limited to 5)
   const { data: recentPredictions, isLoading: isLoadingRecent, error: recentError } = useQuery(
     ['dashboardRecentPredictions', currentUser?.roleType, currentUser?.id],
@@ -58,7 +89,7 @@ const Dashboard = () => {
       }
     },
     {
-      refetchInterval: 30000, // Refetch every 30 seconds
+      refetchInterval: feedConnected ? false : 30000, // Poll every 30 seconds only without the live feed
       enabled: !!currentUser, // Only run query when user is available
     }
   );
@@ -76,7 +107,7 @@ const Dashboard = () => {
       }
     },
     {
-      refetchInterval: 30000, // Refetch every 30 seconds
+      refetchInterval: feedConnected ? false : 30000, // Poll every 30 seconds only without the live feed
       enabled: !!currentUser && currentUser?.roleType === 'ADMIN',
     }
   );
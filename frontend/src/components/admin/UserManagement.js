@@ -1,4 +1,4 @@
-import React, { useState } from 'react';
+import React, { useEffect, useState } from 'react';
 import {
   Box,
   Typography,
@@ -26,6 +26,7 @@ import {
   Grid,
   Card,
   CardContent,
+  InputAdornment,
 } from '@mui/material';
 import {
   Add,
@@ -34,9 +35,10 @@ import {
   Refresh,
   Person,
   AdminPanelSettings,
+  Search,
 } from '@mui/icons-material';
 import { useQuery, useMutation, useQueryClient } from 'react-query';
-import { getUsers, createUser, updateUser, deleteUser } from '../../services/api';
+import { searchUsers, getUserCounts, createUser, updateUser, deleteUser } from '../../services/api';
 import { useAuth } from '../../contexts/AuthContext';
 
 const UserManagement = () => {
@@ -53,19 +55,41 @@ const UserManagement = () => {
     password: '',
   });
   const [error, setError] = useState('');
+  const [searchTerm, setSearchTerm] = useState('');
+  const [debouncedSearch, setDebouncedSearch] = useState('');
+  const [matchMode, setMatchMode] = useState('CONTAINS');
+  const [page, setPage] = useState(0);
+  const rowsPerPage = 20;
   const { user: currentUser } = useAuth();
   const queryClient = useQueryClient();
 
+  // Only query once the admin stops typing
+  useEffect(() => {
+    const timer = setTimeout(() => {
+      setDebouncedSearch(searchTerm.trim());
+      setPage(0);
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [searchTerm]);
+
   const {
-    data: users,
+    data: usersPage,
     isLoading,
     error: fetchError,
     refetch,
-  } = useQuery('users', getUsers);
+  } = useQuery(
+    ['users', page, rowsPerPage, debouncedSearch, matchMode],
+    () => searchUsers({ page, size: rowsPerPage, q: debouncedSearch, match: matchMode }),
+    { keepPreviousData: true }
+  );
+  const users = usersPage?.users;
+
+  const { data: userCounts } = useQuery('userCounts', getUserCounts);
 
   const createUserMutation = useMutation(createUser, {
     onSuccess: () => {
       queryClient.invalidateQueries('users');
+      queryClient.invalidateQueries('userCounts');
       handleCloseDialog();
     },
     onError: (error) => {
@@ -78,6 +102,7 @@ const UserManagement = () => {
     {
       onSuccess: () => {
         queryClient.invalidateQueries('users');
+        queryClient.invalidateQueries('userCounts');
         handleCloseDialog();
       },
       onError: (error) => {
@@ -89,6 +114,7 @@ const UserManagement = () => {
   const deleteUserMutation = useMutation(deleteUser, {
     onSuccess: () => {
       queryClient.invalidateQueries('users');
+      queryClient.invalidateQueries('userCounts');
     },
     onError: (error) => {
       setError(error.response?.data?.message || 'Failed to delete user');
@@ -229,7 +255,7 @@ const UserManagement = () => {
       </Box>
 
       {/* Statistics Cards */}
-      {users && (
+      {userCounts && (
         <Grid container spacing={3} sx={{ mb: 3 }}>
           <Grid item xs={12} sm={4}>
             <Card>
@@ -238,7 +264,7 @@ const UserManagement = () => {
                   Total Users
                 </Typography>
                 <Typography variant="h4">
-                  {users.length}
+                  {Object.values(userCounts).reduce((sum, count) => sum + count, 0)}
                 </Typography>
               </CardContent>
             </Card>
@@ -250,7 +276,7 @@ const UserManagement = () => {
                   Administrators
                 </Typography>
                 <Typography variant="h4" color="error.main">
-                  {users.filter(u => u.roleType === 'ADMIN').length}
+                  {userCounts.ADMIN || 0}
                 </Typography>
               </CardContent>
             </Card>
@@ -262,7 +288,7 @@ const UserManagement = () => {
                   Patients
                 </Typography>
                 <Typography variant="h4" color="primary.main">
-                  {users.filter(u => u.roleType === 'PATIENT').length}
+                  {userCounts.PATIENT || 0}
                 </Typography>
               </CardContent>
             </Card>
@@ -270,6 +296,43 @@ const UserManagement = () => {
         </Grid>
       )}
 
+      {/* Search */}
+      <Paper sx={{ p: 3, mb: 3 }}>
+        <Grid container spacing={2} alignItems="center">
+          <Grid item xs={12} md={8}>
+            <TextField
+              fullWidth
+              placeholder="Search by name, email or phone..."
+              value={searchTerm}
+              onChange={(e) => setSearchTerm(e.target.value)}
+              InputProps={{
+                startAdornment: (
+                  <InputAdornment position="start">
+                    <Search />
+                  </InputAdornment>
+                ),
+              }}
+            />
+          </Grid>
+          <Grid item xs={12} md={4}>
+            <FormControl fullWidth>
+              <InputLabel>Match</InputLabel>
+              <Select
+                value={matchMode}
+                label="Match"
+                onChange={(e) => {
+                  setMatchMode(e.target.value);
+                  setPage(0);
+                }}
+              >
+                <MenuItem value="CONTAINS">Contains</MenuItem>
+                <MenuItem value="PREFIX">Starts with</MenuItem>
+              </Select>
+            </FormControl>
+          </Grid>
+        </Grid>
+      </Paper>
+
       {/* Users Table */}
       <Paper>
         <TableContainer>
@@ -350,6 +413,34 @@ const UserManagement = () => {
             </TableBody>
           </Table>
         </TableContainer>
+
+        {/* Pagination */}
+        {usersPage && usersPage.total > rowsPerPage && (
+          <Box sx={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center', p: 2 }}>
+            <Typography variant="body2" color="text.secondary">
+              Showing {page * rowsPerPage + 1} to{' '}
+              {Math.min((page + 1) * rowsPerPage, usersPage.total)} of {usersPage.total} users
+            </Typography>
+            <Box sx={{ display: 'flex', gap: 1 }}>
+              <Button
+                variant="outlined"
+                size="small"
+                disabled={page === 0}
+                onClick={() => setPage(page - 1)}
+              >
+                Previous
+              </Button>
+              <Button
+                variant="outlined"
+                size="small"
+                disabled={page >= Math.ceil(usersPage.total / rowsPerPage) - 1}
+                onClick={() => setPage(page + 1)}
+              >
+                Next
+              </Button>
+            </Box>
+          </Box>
+        )}
       </Paper>
 
       {/* Add/Edit User Dialog */}
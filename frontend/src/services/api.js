@@ -2,6 +2,10 @@ import axios from 'axios';
 
 const API_BASE_URL = process.env.REACT_APP_API_URL || 'http://localhost:8080';
 
+// For now, use hardcoded admin credentials
+// In a real app, you'd get these from the logged-in user
+const ADMIN_CREDENTIALS = btoa('Muhalek:pass123');
+
 const api = axios.create({
   baseURL: API_BASE_URL,
   headers: {
@@ -19,10 +23,7 @@ api.interceptors.request.use(
     
     // Add basic auth for admin requests
     if (config.url?.includes('/api/predictions') || config.url?.includes('/user/')) {
-      // For now, use hardcoded admin credentials
-      // In a real app, you'd get these from the logged-in user
-      const adminCredentials = btoa('Muhalek:pass123');
-      config.headers.Authorization = `Basic ${adminCredentials}`;
+      config.headers.Authorization = `Basic ${ADMIN_CREDENTIALS}`;
       console.log('Added Basic Auth for admin request');
     }
     
@@ -91,6 +92,21 @@ export const getPredictionHistory = async (page = 0, size = 10, search = '', use
   }
 };
 
+// Chart series downsampled on the server to at most `points` points per field
+export const getPredictionSeries = async (userId, { from, to, points = 300, fields } = {}) => {
+  try {
+    const params = new URLSearchParams({ points });
+    if (from) params.set('from', from);
+    if (to) params.set('to', to);
+    if (fields) params.set('fields', fields.join(','));
+    const response = await api.get(`/api/predictions/user/${userId}/series?${params}`);
+    return response.data;
+  } catch (error) {
+    console.error('Error fetching prediction series:', error);
+    throw error;
+  }
+};
+
 export const getAllPredictions = async (page = 0, size = 10) => {
   try {
     const response = await api.get(`/api/predictions/all?page=${page}&size=${size}`);
@@ -109,6 +125,60 @@ export const getAllPredictions = async (page = 0, size = 10) => {
   }
 };
 
+// Live prediction feed (server-sent events). EventSource cannot send an Authorization
+// header, so the stream is read with fetch. Returns a function that closes the feed.
+export const subscribeToPredictionFeed = ({ userId, onPrediction, onOpen, onClose }) => {
+  const controller = new AbortController();
+  const query = userId ? `?patientId=${userId}` : '';
+
+  const run = async () => {
+    const response = await fetch(`${API_BASE_URL}/api/predictions/stream${query}`, {
+      headers: {
+        Accept: 'text/event-stream',
+        Authorization: `Basic ${ADMIN_CREDENTIALS}`,
+      },
+      signal: controller.signal,
+    });
+    if (!response.ok || !response.body) {
+      throw new Error(`Prediction feed unavailable (${response.status})`);
+    }
+    onOpen?.();
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += decoder.decode(value, { stream: true });
+
+      // Events are separated by a blank line; comment lines (heartbeats) start with ':'
+      let boundary;
+      while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+        const data = buffer.slice(0, boundary)
+          .split('\n')
+          .filter(line => line.startsWith('data:'))
+          .map(line => line.slice(5))
+          .join('\n');
+        buffer = buffer.slice(boundary + 2);
+        if (data) {
+          onPrediction?.(JSON.parse(data));
+        }
+      }
+    }
+  };
+
+  run()
+    .catch((error) => {
+      if (error.name !== 'AbortError') {
+        console.error('Prediction feed error:', error);
+      }
+    })
+    .finally(() => onClose?.());
+
+  return () => controller.abort();
+};
+
 // Get statistics for all predictions (for dashboard)
 export const getPredictionStatistics = async () => {
   try {
@@ -246,6 +316,33 @@ export const getUsers = async () => {
   }
 };
 
+// Paginated admin listing; match is 'PREFIX' or 'CONTAINS' across name, email and phone
+export const searchUsers = async ({ page = 0, size = 20, q = '', match = 'CONTAINS', roleType } = {}) => {
+  try {
+    const params = { page, size, match };
+    if (q) params.q = q;
+    if (roleType) params.roleType = roleType;
+    const response = await api.get('/user', { params });
+    return {
+      users: response.data.content || [],
+      total: response.data.totalElements || 0,
+    };
+  } catch (error) {
+    console.error('Error searching users:', error);
+    throw error;
+  }
+};
+
+export const getUserCounts = async () => {
+  try {
+    const response = await api.get('/user/counts');
+    return response.data;
+  } catch (error) {
+    console.error('Error fetching user counts:', error);
+    throw error;
+  }
+};
+
 export const createUser = async (userData) => {
   try {
     // Calculate BMI if height and weight are provided
@@ -0,0 +1,25 @@
+package heat.loadgen;
+
+public enum Endpoint {
+    CREATE_PREDICTION("create", "POST /api/predictions"),
+    USER_PREDICTIONS("history", "GET /api/predictions/user/{id}"),
+    USER_PROFILE("profile", "GET /user/profile/id/{id}"),
+    LOGIN("login", "POST /auth/login");
+
+    final String key;
+    final String label;
+
+    Endpoint(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    static Endpoint byKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint in --mix: " + key);
+    }
+}
@@ -0,0 +1,66 @@
+package heat.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency from the intended send time, so a stalled server cannot hide queueing delay (coordinated omission)
+class EndpointStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    final Endpoint endpoint;
+    private final Histogram latencyMicros = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder httpErrors = new LongAdder();
+    private final LongAdder ioErrors = new LongAdder();
+
+    EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long intendedStartNanos, int status) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+        latencyMicros.recordValue(Math.min(Math.max(1, micros), MAX_LATENCY_MICROS));
+        if (status >= 200 && status < 400) {
+            ok.increment();
+        } else {
+            httpErrors.increment();
+        }
+    }
+
+    void recordFailure(long intendedStartNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+        latencyMicros.recordValue(Math.min(Math.max(1, micros), MAX_LATENCY_MICROS));
+        ioErrors.increment();
+    }
+
+    long total() {
+        return latencyMicros.getTotalCount();
+    }
+
+    String report(double seconds) {
+        return String.format("%-32s %8d %9.1f %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f",
+                endpoint.label,
+                total(),
+                total() / seconds,
+                httpErrors.sum(),
+                ioErrors.sum(),
+                millis(latencyMicros.getValueAtPercentile(50)),
+                millis(latencyMicros.getValueAtPercentile(90)),
+                millis(latencyMicros.getValueAtPercentile(99)),
+                millis(latencyMicros.getValueAtPercentile(99.9)),
+                millis(latencyMicros.getMaxValue()));
+    }
+
+    static String header() {
+        return String.format("%-32s %8s %9s %8s %7s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "req/s", "http-err", "io-err", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
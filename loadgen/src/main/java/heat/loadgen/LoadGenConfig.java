@@ -0,0 +1,76 @@
+package heat.loadgen;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Command line options, all in --name=value form
+public class LoadGenConfig {
+
+    String baseUrl = "http://localhost:8080";
+    String adminName = "loadgen-admin";
+    String adminPassword = "loadgen-admin";
+    int patients = 200;
+    double rps = 50;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(60);
+    // Simulated wearable time between two readings of the same patient
+    Duration sampleInterval = Duration.ofMinutes(1);
+    int maxInFlight = 512;
+    long seed = 42;
+
+    // Share of requests per endpoint; normalised, does not need to add up to 1
+    final Map<Endpoint, Double> mix = new LinkedHashMap<>();
+
+    LoadGenConfig() {
+        mix.put(Endpoint.CREATE_PREDICTION, 0.70);
+        mix.put(Endpoint.USER_PREDICTIONS, 0.15);
+        mix.put(Endpoint.USER_PROFILE, 0.10);
+        mix.put(Endpoint.LOGIN, 0.05);
+    }
+
+    static LoadGenConfig parse(String[] args) {
+        LoadGenConfig config = new LoadGenConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "base-url": config.baseUrl = value.replaceAll("/+$", ""); break;
+                case "admin-name": config.adminName = value; break;
+                case "admin-password": config.adminPassword = value; break;
+                case "patients": config.patients = Integer.parseInt(value); break;
+                case "rps": config.rps = Double.parseDouble(value); break;
+                case "warmup": config.warmup = Duration.ofSeconds(Long.parseLong(value)); break;
+                case "duration": config.duration = Duration.ofSeconds(Long.parseLong(value)); break;
+                case "sample-interval": config.sampleInterval = Duration.ofSeconds(Long.parseLong(value)); break;
+                case "max-in-flight": config.maxInFlight = Integer.parseInt(value); break;
+                case "seed": config.seed = Long.parseLong(value); break;
+                case "mix": config.parseMix(value); break;
+                default: throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        if (config.rps <= 0 || config.patients <= 0) {
+            throw new IllegalArgumentException("--rps and --patients must be positive");
+        }
+        return config;
+    }
+
+    // e.g. --mix=create:0.8,history:0.1,profile:0.05,login:0.05
+    private void parseMix(String value) {
+        mix.clear();
+        for (String part : value.split(",")) {
+            String[] pair = part.split(":");
+            mix.put(Endpoint.byKey(pair[0].trim()), Double.parseDouble(pair[1].trim()));
+        }
+    }
+
+    static String usage() {
+        return "Usage: LoadGenerator [--base-url=http://localhost:8080] [--admin-name=loadgen-admin]"
+                + " [--admin-password=loadgen-admin] [--patients=200] [--rps=50] [--warmup=10] [--duration=60]"
+                + " [--sample-interval=60] [--max-in-flight=512] [--seed=42]"
+                + " [--mix=create:0.7,history:0.15,profile:0.1,login:0.05]";
+    }
+}
@@ -0,0 +1,223 @@
+package heat.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop load generator for the HeatStroke API. Registers a synthetic patient population,
+ * then sends requests on a fixed schedule at the target rate whatever the response times are,
+ * and prints per-endpoint throughput and latency percentiles.
+ */
+public class LoadGenerator {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final LoadGenConfig config;
+    private final HttpClient client;
+    private final String adminAuth;
+    private final Random random;
+    private final List<SyntheticPatient> patients = new ArrayList<>();
+    private final Endpoint[] endpoints;
+    private final double[] cumulativeWeights;
+    private final LongAdder dropped = new LongAdder();
+
+    LoadGenerator(LoadGenConfig config) {
+        this.config = config;
+        this.random = new Random(config.seed);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.adminAuth = "Basic " + Base64.getEncoder().encodeToString(
+                (config.adminName + ":" + config.adminPassword).getBytes(StandardCharsets.UTF_8));
+
+        this.endpoints = config.mix.keySet().toArray(new Endpoint[0]);
+        this.cumulativeWeights = new double[endpoints.length];
+        double total = config.mix.values().stream().mapToDouble(Double::doubleValue).sum();
+        double running = 0.0;
+        for (int i = 0; i < endpoints.length; i++) {
+            running += config.mix.get(endpoints[i]) / total;
+            cumulativeWeights[i] = running;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenConfig config;
+        try {
+            config = LoadGenConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadGenConfig.usage());
+            System.exit(2);
+            return;
+        }
+
+        LoadGenerator generator = new LoadGenerator(config);
+        generator.registerPatients();
+
+        System.out.printf("Warming up for %ds at %.1f req/s%n", config.warmup.getSeconds(), config.rps);
+        generator.run(config.warmup, newStats());
+        // Like the latencies, drops during warmup are not part of the measurement
+        generator.dropped.reset();
+
+        Map<Endpoint, EndpointStats> stats = newStats();
+        System.out.printf("Measuring for %ds at %.1f req/s%n", config.duration.getSeconds(), config.rps);
+        double seconds = generator.run(config.duration, stats);
+        generator.printReport(stats, seconds);
+    }
+
+    // Sign up every synthetic patient through the public API and resolve their ids via the admin profile lookup
+    void registerPatients() throws Exception {
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000, 36);
+        double sampleMinutes = config.sampleInterval.getSeconds() / 60.0;
+        System.out.printf("Registering %d synthetic patients%n", config.patients);
+
+        for (int i = 0; i < config.patients; i++) {
+            SyntheticPatient patient = new SyntheticPatient(runId, i, sampleMinutes, new Random(random.nextLong()));
+
+            HttpResponse<String> signUp = client.send(post("/auth/sign_up", patient.signUpBody(), null),
+                    HttpResponse.BodyHandlers.ofString());
+            if (signUp.statusCode() != 201) {
+                throw new IllegalStateException("Sign-up failed with " + signUp.statusCode() + " for " + patient.name);
+            }
+
+            HttpResponse<String> profile = client.send(get("/user/profile/" + patient.email),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = ID_PATTERN.matcher(profile.body());
+            if (profile.statusCode() != 200 || !matcher.find()) {
+                throw new IllegalStateException("Could not resolve id of " + patient.email
+                        + " (HTTP " + profile.statusCode() + "); check --admin-name/--admin-password");
+            }
+            patient.id = Long.parseLong(matcher.group(1));
+            patients.add(patient);
+        }
+    }
+
+    // Returns the measured wall-clock seconds
+    double run(Duration duration, Map<Endpoint, EndpointStats> stats) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.rps);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        Semaphore inFlight = new Semaphore(config.maxInFlight);
+        long sent = 0;
+
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                dropped.increment();
+                continue;
+            }
+
+            Endpoint endpoint = pickEndpoint();
+            SyntheticPatient patient = patients.get(random.nextInt(patients.size()));
+            EndpointStats endpointStats = stats.get(endpoint);
+            long intendedStart = intended;
+
+            CompletableFuture<HttpResponse<Void>> response =
+                    client.sendAsync(request(endpoint, patient), HttpResponse.BodyHandlers.discarding());
+            response.whenComplete((r, error) -> {
+                if (error != null) {
+                    endpointStats.recordFailure(intendedStart);
+                } else {
+                    endpointStats.record(intendedStart, r.statusCode());
+                }
+                inFlight.release();
+            });
+
+            if (++sent % Math.max(1, (long) config.rps * 5) == 0) {
+                System.out.printf("  %6.1fs  %d requests sent, %d in flight%n",
+                        (System.nanoTime() - start) / 1e9, sent, config.maxInFlight - inFlight.availablePermits());
+            }
+        }
+
+        // Let outstanding requests finish so their latency is counted
+        inFlight.tryAcquire(config.maxInFlight, 30, TimeUnit.SECONDS);
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private Endpoint pickEndpoint() {
+        double roll = random.nextDouble();
+        for (int i = 0; i < endpoints.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    private HttpRequest request(Endpoint endpoint, SyntheticPatient patient) {
+        switch (endpoint) {
+            case CREATE_PREDICTION:
+                return post("/api/predictions", patient.nextReading(), adminAuth);
+            case USER_PREDICTIONS:
+                return get("/api/predictions/user/" + patient.id + "?page=0&size=20");
+            case USER_PROFILE:
+                return get("/user/profile/id/" + patient.id);
+            case LOGIN:
+                return post("/auth/login", patient.loginBody(), null);
+            default:
+                throw new IllegalArgumentException("Unsupported endpoint: " + endpoint);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(config.baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", adminAuth)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String body, String authorization) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(config.baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder.build();
+    }
+
+    private void printReport(Map<Endpoint, EndpointStats> stats, double seconds) {
+        long total = 0;
+        System.out.println();
+        System.out.println(EndpointStats.header());
+        for (EndpointStats endpointStats : stats.values()) {
+            if (endpointStats.total() > 0) {
+                System.out.println(endpointStats.report(seconds));
+                total += endpointStats.total();
+            }
+        }
+        System.out.printf("%nTotal: %d requests in %.1fs (%.1f req/s, target %.1f), %d dropped by the generator%n",
+                total, seconds, total / seconds, config.rps, dropped.sum());
+    }
+
+    private static Map<Endpoint, EndpointStats> newStats() {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+        return stats;
+    }
+}
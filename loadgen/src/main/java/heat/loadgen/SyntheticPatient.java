@@ -0,0 +1,114 @@
+package heat.loadgen;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * One simulated wearer. Each call to nextReading() advances the patient's clock by one sample
+ * interval: ambient temperature follows a daily cycle per site, humidity falls as it heats up,
+ * activity switches between rest/walk/work, and dehydration builds up until the patient drinks.
+ */
+class SyntheticPatient {
+
+    private static final double MINUTES_PER_DAY = 24 * 60;
+
+    final String name;
+    final String email;
+    final String password;
+    final char gender;
+    final int heightCm;
+    final int weightKg;
+    final int age;
+    Long id;
+
+    private final Random random;
+    private final double siteMeanTemperature;
+    private final double dailyPhaseMinutes;
+    private final double restingPulse;
+    private final double sampleMinutes;
+
+    private double clockMinutes;
+    private int activity;           // 0 = rest, 1 = walk, 2 = work
+    private double dehydration;
+
+    SyntheticPatient(String runId, int index, double sampleMinutes, Random random) {
+        this.random = random;
+        this.name = "loadgen-" + runId + "-" + index;
+        this.email = name + "@loadtest.local";
+        this.password = "pw-" + index;
+        this.gender = random.nextBoolean() ? 'M' : 'F';
+        this.heightCm = (int) Math.round(gaussian(gender == 'M' ? 176 : 163, 7, 145, 205));
+        this.weightKg = (int) Math.round(gaussian(gender == 'M' ? 78 : 64, 11, 40, 150));
+        this.age = (int) Math.round(gaussian(38, 12, 18, 75));
+        this.siteMeanTemperature = gaussian(31, 4, 22, 42);
+        this.dailyPhaseMinutes = random.nextDouble() * MINUTES_PER_DAY;
+        this.restingPulse = gaussian(72, 8, 50, 95);
+        this.sampleMinutes = sampleMinutes;
+        this.clockMinutes = random.nextDouble() * MINUTES_PER_DAY;
+        this.dehydration = random.nextDouble() * 0.3;
+    }
+
+    // JSON body for POST /api/predictions
+    String nextReading() {
+        clockMinutes += sampleMinutes;
+
+        // Markov activity switches, roughly every 20-40 simulated minutes
+        if (random.nextDouble() < sampleMinutes / 30.0) {
+            activity = random.nextInt(3);
+        }
+
+        double temperature = siteMeanTemperature
+                + 5.0 * Math.sin(2 * Math.PI * (clockMinutes - dailyPhaseMinutes) / MINUTES_PER_DAY)
+                + random.nextGaussian() * 0.4;
+        double humidity = clamp(70.0 - 1.5 * (temperature - 25.0) + random.nextGaussian() * 5.0, 10.0, 95.0);
+
+        double heatLoad = Math.max(0.0, temperature - 30.0);
+        dehydration += sampleMinutes * (0.001 + 0.0004 * heatLoad + 0.001 * activity);
+        if (random.nextDouble() < sampleMinutes / 90.0) {
+            dehydration -= 0.4;     // drink break
+        }
+        dehydration = clamp(dehydration, 0.0, 1.0);
+
+        double pulse = clamp(restingPulse + 18.0 * activity + 1.5 * heatLoad + 20.0 * dehydration
+                + random.nextGaussian() * 3.0, 40.0, 200.0);
+        double patientTemperature = clamp(36.6 + 0.08 * heatLoad + 0.3 * activity + 1.2 * dehydration
+                + random.nextGaussian() * 0.15, 35.0, 42.5);
+
+        return String.format(Locale.ROOT,
+                "{\"patientId\":%d,\"temperature\":%.2f,\"humidity\":%.2f,\"pulse\":%.1f,"
+                        + "\"dehydrationLevel\":%.2f,\"heatIndex\":%.2f,\"age\":%d,\"patientTemperature\":%.2f}",
+                id, temperature, humidity, pulse, dehydration, heatIndexCelsius(temperature, humidity),
+                age, patientTemperature);
+    }
+
+    String signUpBody() {
+        return String.format(Locale.ROOT,
+                "{\"username\":\"%s\",\"password\":\"%s\",\"email\":\"%s\",\"gender\":\"%c\",\"height\":%d,\"weight\":%d}",
+                name, password, email, gender, heightCm, weightKg);
+    }
+
+    String loginBody() {
+        return String.format("{\"username\":\"%s\",\"password\":\"%s\"}", name, password);
+    }
+
+    // NOAA Rothfusz regression, evaluated in Fahrenheit
+    static double heatIndexCelsius(double temperatureC, double humidityPercent) {
+        double t = temperatureC * 9.0 / 5.0 + 32.0;
+        double rh = humidityPercent;
+        double hi = 0.5 * (t + 61.0 + (t - 68.0) * 1.2 + rh * 0.094);
+        if (hi >= 80.0) {
+            hi = -42.379 + 2.04901523 * t + 10.14333127 * rh - 0.22475541 * t * rh
+                    - 0.00683783 * t * t - 0.05481717 * rh * rh + 0.00122874 * t * t * rh
+                    + 0.00085282 * t * rh * rh - 0.00000199 * t * t * rh * rh;
+        }
+        return (hi - 32.0) * 5.0 / 9.0;
+    }
+
+    private double gaussian(double mean, double sd, double min, double max) {
+        return clamp(mean + random.nextGaussian() * sd, min, max);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
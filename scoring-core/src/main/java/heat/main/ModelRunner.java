@@ -1,66 +1,38 @@
 package heat.main;
 
 import heat.main.enums.RiskLevel;
-import org.jpmml.evaluator.*;
-import org.jpmml.model.PMMLException;
-import org.xml.sax.SAXException;
+import heat.main.scoring.LinearExplanation;
+import heat.main.scoring.PredictionListener;
+import heat.main.scoring.Scorer;
+import heat.main.scoring.ScoringModel;
+import heat.main.tracing.Span;
+import heat.main.tracing.Tracing;
 import lombok.extern.slf4j.Slf4j;
 
-import jakarta.xml.bind.JAXBException;
-import javax.xml.parsers.ParserConfigurationException;
-import java.io.IOException;
-import java.io.InputStream;
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 public class ModelRunner {
 
-    private static ModelEvaluator<?> evaluator;
+    public static final String MODEL_RESOURCE = "model/corrected_model.pmml";
+
+    private static ScoringModel primaryModel;
+    private static volatile Scorer scorer;
     private static boolean initialized = false;
-    private static int predictionCounter = 0;
+    private static final AtomicInteger predictionCounter = new AtomicInteger();
+    private static final List<PredictionListener> listeners = new CopyOnWriteArrayList<>();
 
     static {
         initializeModel();
     }
 
     private static void initializeModel() {
-        String resourcePath = "model/corrected_model.pmml";
-
-        try (InputStream is = Thread.currentThread()
-                .getContextClassLoader()
-                .getResourceAsStream(resourcePath)) {
-
-            if (is == null) {
-                throw new IllegalStateException("PMML file not found on classpath: " + resourcePath);
-            }
-
-            evaluator = new LoadingModelEvaluatorBuilder()
-                    .load(is)
-                    .build();
-            evaluator.verify();
-            initialized = true;
-
-            log.info("Model loaded successfully!");
-            
-            // Log input fields for debugging
-            log.info("=== Model Input Fields ===");
-            for (InputField f : evaluator.getInputFields()) {
-                log.info("Input Field: {} | Type: {}", f.getName(), f.getDataType());
-            }
-
-            // Log output fields for debugging
-            log.info("=== Model Output Fields ===");
-            for (OutputField f : evaluator.getOutputFields()) {
-                log.info("Output Field: {} | Type: {}", f.getName(), f.getDataType());
-            }
-
-        } catch (ParserConfigurationException | SAXException | PMMLException | IOException | JAXBException e) {
-            e.printStackTrace();
-            throw new IllegalStateException("Failed to load/verify PMML model", e);
-        }
+        primaryModel = ScoringModel.load(MODEL_RESOURCE);
+        scorer = primaryModel;
+        initialized = true;
     }
 
     public static PredictionResult predictRisk(PredictionInput input) {
@@ -68,96 +40,35 @@ public class ModelRunner {
             throw new IllegalStateException("Model not initialized");
         }
 
-        predictionCounter++;
-        int currentPredictionId = predictionCounter;
+        int currentPredictionId = predictionCounter.incrementAndGet();
 
         try {
-            // Prepare input data for the model
-            Map<String, Object> inputData = new HashMap<>();
-            
-            // Map our input fields to model fields
-            inputData.put("Age", input.getAge());
-            inputData.put("Sex", input.getSex());
-            inputData.put("Weight (kg)", input.getWeight());
-            inputData.put("BMI", input.getBmi());
-            inputData.put("Dehydration", input.getDehydrationLevel());
-            inputData.put("Heat Index (HI)", input.getHeatIndex());
-            inputData.put("Environmental temperature (C)", input.getTemperature());
-            inputData.put("Relative Humidity", input.getHumidity());
-            inputData.put("Heart / Pulse rate (b/min)", input.getPulse());
-            inputData.put("Patient temperature", input.getPatientTemperature());
-            inputData.put("Sweating", input.getSweating());
-            inputData.put("Hot/dry skin", input.getHotDrySkin());
-
             // Log detailed patient properties
-            log.info("=== Prediction #{} ===", currentPredictionId);
-            log.info("Patient {}:", currentPredictionId);
-            log.info("  Properties: {}", inputData);
-
-            // Create input vector
-            Map<String, FieldValue> arguments = new HashMap<>();
-            for (InputField inputField : evaluator.getInputFields()) {
-                String inputName = inputField.getName();
-                Object rawValue = inputData.get(inputName);
-                
-                if (rawValue != null) {
-                    FieldValue inputValue = inputField.prepare(rawValue);
-                    arguments.put(inputName, inputValue);
-                }
-            }
-
-            // Evaluate the model
-            Map<String, ?> results = evaluator.evaluate(arguments);
-
-            // Extract results
-            Map<String, Object> resultMap = new HashMap<>();
-            for (Map.Entry<String, ?> entry : results.entrySet()) {
-                String key = entry.getKey();
-                Object value = entry.getValue();
-                resultMap.put(key, value);
+            try (Span ignored = Tracing.span("model.log")) {
+                log.info("=== Prediction #{} ===", currentPredictionId);
+                log.info("Patient {}:", currentPredictionId);
+                log.info("  Properties: {}", ScoringModel.toModelFields(input));
             }
 
-            // Get probabilities
-            // CORRECTED MAPPING: sklearn LabelEncoder sorts alphabetically
-            // 0 = "High", 1 = "Moderate", 2 = "No"
-            Double probHigh = (Double) resultMap.get("probability(0)");
-            Double probModerate = (Double) resultMap.get("probability(1)");
-            Double probNo = (Double) resultMap.get("probability(2)");
-
-            // Log raw probabilities for debugging
-            log.debug("Raw probabilities - High: {}, Moderate: {}, No: {}", probHigh, probModerate, probNo);
-
-            // Determine risk level based on highest probability
-            RiskLevel riskLevel;
-            Double maxProbability;
-            
-            if (probHigh != null && probHigh >= probModerate && probHigh >= probNo) {
-                riskLevel = RiskLevel.HIGH;
-                maxProbability = probHigh;
-            } else if (probModerate != null && probModerate >= probNo) {
-                riskLevel = RiskLevel.MEDIUM;
-                maxProbability = probModerate;
-            } else {
-                riskLevel = RiskLevel.LOW;
-                maxProbability = probNo != null ? probNo : 0.0;
+            PredictionResult result;
+            try (Span ignored = Tracing.span("model.score")) {
+                result = scorer.score(input);
             }
 
             // Log detailed prediction results
-            log.info("  Predicted Risk Label: {}", riskLevel);
-            log.info("  Predicted Probabilities: High:{}, Moderate:{}, No:{}", 
-                    String.format("%.3f", probHigh != null ? probHigh * 100 : 0.0),
-                    String.format("%.3f", probModerate != null ? probModerate * 100 : 0.0),
-                    String.format("%.3f", probNo != null ? probNo * 100 : 0.0));
-            log.info("  Confidence: {}%", String.format("%.1f", maxProbability * 100));
+            log.info("  Predicted Risk Label: {}", result.getPredictedRiskLevel());
+            log.info("  Predicted Probabilities: High:{}, Moderate:{}, No:{}",
+                    String.format("%.3f", result.getHighRiskProbability().doubleValue() * 100),
+                    String.format("%.3f", result.getModerateRiskProbability().doubleValue() * 100),
+                    String.format("%.3f", result.getLowRiskProbability().doubleValue() * 100));
+            log.info("  Confidence: {}%", String.format("%.1f", result.getPredictedProbability().doubleValue() * 100));
             log.info("=== End Prediction #{} ===", currentPredictionId);
 
-            return new PredictionResult(
-                BigDecimal.valueOf(maxProbability),
-                riskLevel,
-                BigDecimal.valueOf(probNo != null ? probNo : 0.0),
-                BigDecimal.valueOf(probModerate != null ? probModerate : 0.0),
-                BigDecimal.valueOf(probHigh != null ? probHigh : 0.0)
-            );
+            try (Span span = Tracing.span("model.listeners")) {
+                span.tag("listeners", listeners.size());
+                notifyListeners(input, result);
+            }
+            return result;
 
         } catch (Exception e) {
             log.error("Error during model prediction for Patient {}: {}", currentPredictionId, e.getMessage(), e);
@@ -165,16 +76,43 @@ public class ModelRunner {
         }
     }
 
+    private static void notifyListeners(PredictionInput input, PredictionResult result) {
+        for (PredictionListener listener : listeners) {
+            try {
+                listener.onPrediction(input, result);
+            } catch (RuntimeException e) {
+                log.warn("Prediction listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    public static void addListener(PredictionListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(PredictionListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Replaces the primary model as the scorer behind predictRisk, e.g. with an ensemble; null restores the primary
+    public static void useScorer(Scorer replacement) {
+        scorer = replacement != null ? replacement : primaryModel;
+    }
+
+    public static ScoringModel getPrimaryModel() {
+        return primaryModel;
+    }
+
     public static boolean isInitialized() {
         return initialized;
     }
 
     public static int getPredictionCount() {
-        return predictionCounter;
+        return predictionCounter.get();
     }
 
     public static void resetPredictionCounter() {
-        predictionCounter = 0;
+        predictionCounter.set(0);
         log.info("Prediction counter reset to 0");
     }
 
@@ -259,6 +197,8 @@ public class ModelRunner {
         private BigDecimal lowRiskProbability;
         private BigDecimal moderateRiskProbability;
         private BigDecimal highRiskProbability;
+        // Only set by a single linear model; combined results have no exact decomposition
+        private LinearExplanation explanation;
 
         public PredictionResult(BigDecimal predictedProbability, RiskLevel predictedRiskLevel,
                                BigDecimal lowRiskProbability, BigDecimal moderateRiskProbability, 
@@ -270,11 +210,38 @@ public class ModelRunner {
             this.highRiskProbability = highRiskProbability;
         }
 
+        // Highest probability wins; ties go to the higher risk level
+        public static PredictionResult of(double probHigh, double probModerate, double probNo) {
+            RiskLevel riskLevel;
+            double maxProbability;
+
+            if (probHigh >= probModerate && probHigh >= probNo) {
+                riskLevel = RiskLevel.HIGH;
+                maxProbability = probHigh;
+            } else if (probModerate >= probNo) {
+                riskLevel = RiskLevel.MEDIUM;
+                maxProbability = probModerate;
+            } else {
+                riskLevel = RiskLevel.LOW;
+                maxProbability = probNo;
+            }
+
+            return new PredictionResult(
+                    BigDecimal.valueOf(maxProbability),
+                    riskLevel,
+                    BigDecimal.valueOf(probNo),
+                    BigDecimal.valueOf(probModerate),
+                    BigDecimal.valueOf(probHigh)
+            );
+        }
+
         // Getters
         public BigDecimal getPredictedProbability() { return predictedProbability; }
         public RiskLevel getPredictedRiskLevel() { return predictedRiskLevel; }
         public BigDecimal getLowRiskProbability() { return lowRiskProbability; }
         public BigDecimal getModerateRiskProbability() { return moderateRiskProbability; }
         public BigDecimal getHighRiskProbability() { return highRiskProbability; }
+        public LinearExplanation getExplanation() { return explanation; }
+        public void setExplanation(LinearExplanation explanation) { this.explanation = explanation; }
     }
 }
@@ -0,0 +1,133 @@
+package heat.main.imputation;
+
+import heat.main.ModelRunner;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Fills in model features the request did not provide. Defaults and heuristics come from a
+ * rules file shipped next to the PMML model and are compiled once at load time.
+ */
+@Slf4j
+public final class FeatureImputer {
+
+    private final String version;
+    private final String model;
+
+    private final double defaultAge;
+    private final double defaultWeight;
+    private final double defaultBmi;
+    private final double defaultDehydration;
+
+    private final double humidityPercentThreshold;
+    private final double humidityMin;
+    private final double humidityMax;
+
+    private final double patientTemperaturePivot;
+    private final double patientTemperatureSlope;
+    private final double patientTemperatureMinOffset;
+    private final double patientTemperatureMaxOffset;
+
+    private final DecisionList sweating;
+    private final DecisionList hotDrySkin;
+
+    private FeatureImputer(Properties props) {
+        this.version = requireString(props, "rules.version");
+        this.model = requireString(props, "model");
+
+        this.defaultAge = requireDouble(props, "age.default");
+        this.defaultWeight = requireDouble(props, "weight.default");
+        this.defaultBmi = requireDouble(props, "bmi.default");
+        this.defaultDehydration = requireDouble(props, "dehydration.default");
+
+        this.humidityPercentThreshold = requireDouble(props, "humidity.percentThreshold");
+        this.humidityMin = requireDouble(props, "humidity.min");
+        this.humidityMax = requireDouble(props, "humidity.max");
+
+        this.patientTemperaturePivot = requireDouble(props, "patientTemperature.pivot");
+        this.patientTemperatureSlope = requireDouble(props, "patientTemperature.slope");
+        this.patientTemperatureMinOffset = requireDouble(props, "patientTemperature.minOffset");
+        this.patientTemperatureMaxOffset = requireDouble(props, "patientTemperature.maxOffset");
+
+        this.sweating = DecisionList.parse(props, "sweating");
+        this.hotDrySkin = DecisionList.parse(props, "hotDrySkin");
+    }
+
+    public static FeatureImputer load(String resourcePath) {
+        try (InputStream is = Thread.currentThread()
+                .getContextClassLoader()
+                .getResourceAsStream(resourcePath)) {
+
+            if (is == null) {
+                throw new IllegalStateException("Imputation rules not found on classpath: " + resourcePath);
+            }
+
+            Properties props = new Properties();
+            props.load(is);
+            FeatureImputer imputer = fromProperties(props);
+
+            log.info("Imputation rules v{} loaded for model {} (sweating: {} rules, hot/dry skin: {} rules)",
+                    imputer.getVersion(), imputer.getModel(), imputer.sweating.size(), imputer.hotDrySkin.size());
+            return imputer;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load imputation rules: " + resourcePath, e);
+        }
+    }
+
+    public static FeatureImputer fromProperties(Properties props) {
+        return new FeatureImputer(props);
+    }
+
+    public ModelRunner.PredictionInput impute(RawReading reading) {
+        double temperature = reading.getTemperature();
+        double dehydrationLevel = orDefault(reading.getDehydrationLevel(), defaultDehydration);
+        double heatIndex = orDefault(reading.getHeatIndex(), temperature);
+        double pulse = reading.getPulse();
+
+        // Accept either a [0,1] fraction or a [0,100] percentage, then clamp
+        double humidity = reading.getHumidity();
+        humidity = humidity > humidityPercentThreshold ? humidity / 100.0 : humidity;
+        humidity = Math.min(humidityMax, Math.max(humidityMin, humidity));
+
+        double patientTemperature = orDefault(reading.getPatientTemperature(),
+                temperature + Math.min(patientTemperatureMaxOffset,
+                        Math.max(patientTemperatureMinOffset, (temperature - patientTemperaturePivot) * patientTemperatureSlope)));
+
+        return new ModelRunner.PredictionInput(
+                orDefault(reading.getAge(), defaultAge),
+                reading.getSex(),
+                orDefault(reading.getWeight(), defaultWeight),
+                orDefault(reading.getBmi(), defaultBmi),
+                dehydrationLevel, heatIndex, temperature, humidity, pulse, patientTemperature,
+                orDefault(reading.getSweating(), sweating.evaluate(dehydrationLevel, temperature, humidity, pulse, heatIndex)),
+                orDefault(reading.getHotDrySkin(), hotDrySkin.evaluate(dehydrationLevel, temperature, humidity, pulse, heatIndex))
+        );
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    private static double orDefault(double value, double fallback) {
+        return Double.isNaN(value) ? fallback : value;
+    }
+
+    static String requireString(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalStateException("Missing imputation setting: " + key);
+        }
+        return value.trim();
+    }
+
+    static double requireDouble(Properties props, String key) {
+        return Double.parseDouble(requireString(props, key));
+    }
+}
@@ -0,0 +1,53 @@
+package heat.main.imputation;
+
+// Raw model features as received; NaN marks a value that has to be imputed
+public class RawReading {
+    private double age = Double.NaN;
+    private double sex;
+    private double weight = Double.NaN;
+    private double bmi = Double.NaN;
+    private double dehydrationLevel = Double.NaN;
+    private double heatIndex = Double.NaN;
+    private double temperature = Double.NaN;
+    private double humidity = Double.NaN;
+    private double pulse = Double.NaN;
+    private double patientTemperature = Double.NaN;
+    private double sweating = Double.NaN;
+    private double hotDrySkin = Double.NaN;
+
+    public double getAge() { return age; }
+    public void setAge(double age) { this.age = age; }
+
+    public double getSex() { return sex; }
+    public void setSex(double sex) { this.sex = sex; }
+
+    public double getWeight() { return weight; }
+    public void setWeight(double weight) { this.weight = weight; }
+
+    public double getBmi() { return bmi; }
+    public void setBmi(double bmi) { this.bmi = bmi; }
+
+    public double getDehydrationLevel() { return dehydrationLevel; }
+    public void setDehydrationLevel(double dehydrationLevel) { this.dehydrationLevel = dehydrationLevel; }
+
+    public double getHeatIndex() { return heatIndex; }
+    public void setHeatIndex(double heatIndex) { this.heatIndex = heatIndex; }
+
+    public double getTemperature() { return temperature; }
+    public void setTemperature(double temperature) { this.temperature = temperature; }
+
+    public double getHumidity() { return humidity; }
+    public void setHumidity(double humidity) { this.humidity = humidity; }
+
+    public double getPulse() { return pulse; }
+    public void setPulse(double pulse) { this.pulse = pulse; }
+
+    public double getPatientTemperature() { return patientTemperature; }
+    public void setPatientTemperature(double patientTemperature) { this.patientTemperature = patientTemperature; }
+
+    public double getSweating() { return sweating; }
+    public void setSweating(double sweating) { this.sweating = sweating; }
+
+    public double getHotDrySkin() { return hotDrySkin; }
+    public void setHotDrySkin(double hotDrySkin) { this.hotDrySkin = hotDrySkin; }
+}
@@ -0,0 +1,193 @@
+package heat.main.scoring;
+
+import heat.main.ModelRunner;
+import heat.main.enums.RiskLevel;
+import org.dmg.pmml.MiningFunction;
+import org.dmg.pmml.Model;
+import org.dmg.pmml.regression.NumericPredictor;
+import org.dmg.pmml.regression.RegressionModel;
+import org.dmg.pmml.regression.RegressionTable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exact per-feature decomposition of a linear classification model over sklearn {@code standardScaler(...)}
+ * inputs: {@code logit(k) = intercept(k) + sum_j coefficient(k, j) * (x_j - mean_j) / std_j}. The coefficients
+ * are read once from the PMML. Scoring only attaches an explanation; its inputs are standardized the first time
+ * it is read, so callers that never look at it (backfill, ensemble members, shadow scoring) pay nothing for it.
+ */
+public class LinearExplainer {
+
+    // Same label order as ScoringModel: 0 = "High", 1 = "Moderate", 2 = "No"
+    private static final Map<String, RiskLevel> TARGET_LEVELS = Map.of(
+            "0", RiskLevel.HIGH, "1", RiskLevel.MEDIUM, "2", RiskLevel.LOW);
+
+    private static final List<Feature> FEATURES = List.of(
+            new Feature("Age", "age", ModelRunner.PredictionInput::getAge),
+            new Feature("Sex", "sex", ModelRunner.PredictionInput::getSex),
+            new Feature("Weight (kg)", "weight", ModelRunner.PredictionInput::getWeight),
+            new Feature("BMI", "bmi", ModelRunner.PredictionInput::getBmi),
+            new Feature("Dehydration", "dehydrationLevel", ModelRunner.PredictionInput::getDehydrationLevel),
+            new Feature("Heat Index (HI)", "heatIndex", ModelRunner.PredictionInput::getHeatIndex),
+            new Feature("Environmental temperature (C)", "temperature", ModelRunner.PredictionInput::getTemperature),
+            new Feature("Relative Humidity", "humidity", ModelRunner.PredictionInput::getHumidity),
+            new Feature("Heart / Pulse rate (b/min)", "pulse", ModelRunner.PredictionInput::getPulse),
+            new Feature("Patient temperature", "patientTemperature", ModelRunner.PredictionInput::getPatientTemperature),
+            new Feature("Sweating", "sweating", ModelRunner.PredictionInput::getSweating),
+            new Feature("Hot/dry skin", "hotDrySkin", ModelRunner.PredictionInput::getHotDrySkin));
+
+    private static final Map<String, Integer> FEATURE_INDEX = new HashMap<>();
+
+    static {
+        for (int j = 0; j < FEATURES.size(); j++) {
+            FEATURE_INDEX.put(FEATURES.get(j).field, j);
+        }
+    }
+
+    private final String model;
+    private final double[] means;
+    private final double[] deviations;
+    private final RiskLevel[] levels;
+    private final double[] intercepts;
+    // [level][feature]
+    private final double[][] coefficients;
+
+    private LinearExplainer(String model, double[] means, double[] deviations,
+                            RiskLevel[] levels, double[] intercepts, double[][] coefficients) {
+        this.model = model;
+        this.means = means;
+        this.deviations = deviations;
+        this.levels = levels;
+        this.intercepts = intercepts;
+        this.coefficients = coefficients;
+    }
+
+    // Null when the model is not a plain linear classifier over our inputs, e.g. a tree or an interaction term
+    public static LinearExplainer fromModel(String name, Model model) {
+        if (!(model instanceof RegressionModel) || model.getMiningFunction() != MiningFunction.CLASSIFICATION) {
+            return null;
+        }
+
+        double[] means = new double[FEATURES.size()];
+        double[] deviations = new double[FEATURES.size()];
+        Arrays.fill(deviations, 1.0);
+
+        Map<String, ScalerReference> scalers = scalersByDerivedField(model);
+        List<RegressionTable> tables = ((RegressionModel) model).getRegressionTables();
+        RiskLevel[] levels = new RiskLevel[tables.size()];
+        double[] intercepts = new double[tables.size()];
+        double[][] coefficients = new double[tables.size()][FEATURES.size()];
+        for (int k = 0; k < tables.size(); k++) {
+            RegressionTable table = tables.get(k);
+            levels[k] = TARGET_LEVELS.get(String.valueOf(table.getTargetCategory()));
+            if (levels[k] == null || table.hasCategoricalPredictors() || table.hasPredictorTerms()) {
+                return null;
+            }
+            intercepts[k] = table.getIntercept().doubleValue();
+
+            for (NumericPredictor predictor : table.getNumericPredictors()) {
+                if (predictor.getExponent() != null && predictor.getExponent() != 1) {
+                    return null;
+                }
+                int j = featureIndex(predictor.getField(), scalers);
+                if (j < 0) {
+                    return null;
+                }
+                ScalerReference scaler = scalers.get(predictor.getField());
+                if (scaler != null) {
+                    means[j] = scaler.getMean();
+                    deviations[j] = scaler.getStandardDeviation();
+                }
+                coefficients[k][j] += predictor.getCoefficient().doubleValue();
+            }
+        }
+        return new LinearExplainer(name, means, deviations, levels, intercepts, coefficients);
+    }
+
+    public LinearExplanation explain(ModelRunner.PredictionInput input) {
+        return new LinearExplanation(this, input);
+    }
+
+    void standardize(ModelRunner.PredictionInput input, double[] standardized) {
+        for (int j = 0; j < standardized.length; j++) {
+            standardized[j] = (FEATURES.get(j).getter.applyAsDouble(input) - means[j]) / deviations[j];
+        }
+    }
+
+    static int featureCount() {
+        return FEATURES.size();
+    }
+
+    static Map<String, ScalerReference> scalersByDerivedField(Model model) {
+        Map<String, ScalerReference> scalers = new HashMap<>();
+        for (ScalerReference scaler : ScalerReference.fromModel(model)) {
+            scalers.put(scaler.getDerivedField(), scaler);
+        }
+        return scalers;
+    }
+
+    // Feature behind a numeric predictor, either a standardScaler(...) field or a raw input; -1 if neither
+    static int featureIndex(String predictorField, Map<String, ScalerReference> scalers) {
+        ScalerReference scaler = scalers.get(predictorField);
+        Integer j = FEATURE_INDEX.get(scaler != null ? scaler.getField() : predictorField);
+        return j != null ? j : -1;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    String getFeature(int feature) {
+        return FEATURES.get(feature).name;
+    }
+
+    double getMean(int feature) {
+        return means[feature];
+    }
+
+    double getDeviation(int feature) {
+        return deviations[feature];
+    }
+
+    int getLevelCount() {
+        return levels.length;
+    }
+
+    RiskLevel getLevel(int level) {
+        return levels[level];
+    }
+
+    // -1 when the model has no logit for the level
+    int levelIndex(RiskLevel level) {
+        for (int k = 0; k < levels.length; k++) {
+            if (levels[k] == level) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    double getIntercept(int level) {
+        return intercepts[level];
+    }
+
+    double getCoefficient(int level, int feature) {
+        return coefficients[level][feature];
+    }
+
+    private static final class Feature {
+        private final String field;
+        private final String name;
+        private final ToDoubleFunction<ModelRunner.PredictionInput> getter;
+
+        private Feature(String field, String name, ToDoubleFunction<ModelRunner.PredictionInput> getter) {
+            this.field = field;
+            this.name = name;
+            this.getter = getter;
+        }
+    }
+}
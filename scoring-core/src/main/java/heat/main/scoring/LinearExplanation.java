@@ -0,0 +1,83 @@
+package heat.main.scoring;
+
+import heat.main.ModelRunner;
+import heat.main.enums.RiskLevel;
+
+/**
+ * Why one input scored the way it did under a {@link LinearExplainer}: the standardized inputs plus the model's
+ * coefficients. Contributions are relative to the training mean, where every standardized input is zero, and
+ * add up with the intercept to the class logit. The input is standardized on first use and must not change after
+ * it was scored.
+ */
+public class LinearExplanation {
+
+    private final LinearExplainer explainer;
+    private final ModelRunner.PredictionInput input;
+    private volatile double[] standardized;
+
+    LinearExplanation(LinearExplainer explainer, ModelRunner.PredictionInput input) {
+        this.explainer = explainer;
+        this.input = input;
+    }
+
+    public String getModel() {
+        return explainer.getModel();
+    }
+
+    public int getFeatureCount() {
+        return LinearExplainer.featureCount();
+    }
+
+    public String getFeature(int feature) {
+        return explainer.getFeature(feature);
+    }
+
+    public double getValue(int feature) {
+        return explainer.getMean(feature) + standardized()[feature] * explainer.getDeviation(feature);
+    }
+
+    public double getStandardized(int feature) {
+        return standardized()[feature];
+    }
+
+    public boolean hasLevel(RiskLevel level) {
+        return explainer.levelIndex(level) >= 0;
+    }
+
+    public double getIntercept(RiskLevel level) {
+        return explainer.getIntercept(index(level));
+    }
+
+    public double getContribution(RiskLevel level, int feature) {
+        return explainer.getCoefficient(index(level), feature) * standardized()[feature];
+    }
+
+    public double getLogit(RiskLevel level) {
+        int k = index(level);
+        double[] standardized = standardized();
+        double logit = explainer.getIntercept(k);
+        for (int j = 0; j < standardized.length; j++) {
+            logit += explainer.getCoefficient(k, j) * standardized[j];
+        }
+        return logit;
+    }
+
+    // Computed again by a thread that races the first one, to the same values
+    private double[] standardized() {
+        double[] values = standardized;
+        if (values == null) {
+            values = new double[LinearExplainer.featureCount()];
+            explainer.standardize(input, values);
+            standardized = values;
+        }
+        return values;
+    }
+
+    private int index(RiskLevel level) {
+        int k = explainer.levelIndex(level);
+        if (k < 0) {
+            throw new IllegalArgumentException("Model " + getModel() + " has no logit for " + level);
+        }
+        return k;
+    }
+}
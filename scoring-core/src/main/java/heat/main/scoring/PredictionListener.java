@@ -0,0 +1,9 @@
+package heat.main.scoring;
+
+import heat.main.ModelRunner;
+
+// Notified after every successful ModelRunner.predictRisk call, on the calling thread; keep it cheap
+public interface PredictionListener {
+
+    void onPrediction(ModelRunner.PredictionInput input, ModelRunner.PredictionResult result);
+}
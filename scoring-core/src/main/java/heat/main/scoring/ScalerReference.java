@@ -0,0 +1,76 @@
+package heat.main.scoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.dmg.pmml.*;
+import org.jpmml.model.visitors.AbstractVisitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Training-time mean and standard deviation of each model input, read from the sklearn
+ * {@code standardScaler(...)} derived fields of a PMML model, i.e. {@code (field - mean) / std}.
+ */
+@Getter
+@AllArgsConstructor
+public class ScalerReference {
+
+    private final String field;
+    private final double mean;
+    private final double standardDeviation;
+    private final String derivedField;
+
+    public static List<ScalerReference> fromModel(ScoringModel model) {
+        return fromModel(model.getEvaluator().getModel());
+    }
+
+    public static List<ScalerReference> fromModel(Model model) {
+        List<ScalerReference> references = new ArrayList<>();
+        new AbstractVisitor() {
+            @Override
+            public VisitorAction visit(DerivedField derivedField) {
+                ScalerReference reference = parse(derivedField.getName(), derivedField.getExpression());
+                if (reference != null) {
+                    references.add(reference);
+                }
+                return super.visit(derivedField);
+            }
+        }.applyTo(model);
+        return Collections.unmodifiableList(references);
+    }
+
+    // Matches Apply("/", Apply("-", FieldRef, Constant), Constant) and nothing else
+    private static ScalerReference parse(String name, Expression expression) {
+        if (!isApply(expression, "/")) {
+            return null;
+        }
+        List<Expression> divide = ((Apply) expression).getExpressions();
+        if (!isApply(divide.get(0), "-") || !(divide.get(1) instanceof Constant)) {
+            return null;
+        }
+        List<Expression> subtract = ((Apply) divide.get(0)).getExpressions();
+        if (!(subtract.get(0) instanceof FieldRef) || !(subtract.get(1) instanceof Constant)) {
+            return null;
+        }
+
+        double mean = constant(subtract.get(1));
+        double standardDeviation = constant(divide.get(1));
+        if (!(standardDeviation > 0.0)) {
+            return null;
+        }
+        return new ScalerReference(((FieldRef) subtract.get(0)).getField(), mean, standardDeviation, name);
+    }
+
+    private static boolean isApply(Expression expression, String function) {
+        return expression instanceof Apply
+                && function.equals(((Apply) expression).getFunction())
+                && ((Apply) expression).getExpressions().size() == 2;
+    }
+
+    private static double constant(Expression expression) {
+        Object value = ((Constant) expression).getValue();
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(String.valueOf(value));
+    }
+}
@@ -0,0 +1,9 @@
+package heat.main.scoring;
+
+import heat.main.ModelRunner;
+
+// Anything that turns one prediction input into a risk result: a single model or a combination of models
+public interface Scorer {
+
+    ModelRunner.PredictionResult score(ModelRunner.PredictionInput input);
+}
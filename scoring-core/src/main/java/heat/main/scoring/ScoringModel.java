@@ -0,0 +1,146 @@
+package heat.main.scoring;
+
+import heat.main.ModelRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.jpmml.evaluator.*;
+import org.jpmml.model.PMMLException;
+import org.xml.sax.SAXException;
+
+import jakarta.xml.bind.JAXBException;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+// One verified PMML classification model with the probability(0..2) outputs of corrected_model.pmml
+@Slf4j
+public class ScoringModel implements Scorer {
+
+    public static final String FILE_PREFIX = "file:";
+
+    private final String name;
+    private final ModelEvaluator<?> evaluator;
+    private final LinearExplainer explainer;
+
+    private ScoringModel(String name, ModelEvaluator<?> evaluator) {
+        this.name = name;
+        this.evaluator = evaluator;
+        this.explainer = LinearExplainer.fromModel(name, evaluator.getModel());
+    }
+
+    public static ScoringModel load(String resourcePath) {
+        try (InputStream is = open(resourcePath)) {
+
+            ModelEvaluator<?> evaluator = new LoadingModelEvaluatorBuilder()
+                    .load(is)
+                    .build();
+            evaluator.verify();
+
+            ScoringModel model = new ScoringModel(modelName(resourcePath), evaluator);
+            log.info("Model {} loaded successfully! Linear explanations: {}", model.getName(), model.explainer != null);
+
+            // Log input fields for debugging
+            log.info("=== Model Input Fields ===");
+            for (InputField f : evaluator.getInputFields()) {
+                log.info("Input Field: {} | Type: {}", f.getName(), f.getDataType());
+            }
+
+            // Log output fields for debugging
+            log.info("=== Model Output Fields ===");
+            for (OutputField f : evaluator.getOutputFields()) {
+                log.info("Output Field: {} | Type: {}", f.getName(), f.getDataType());
+            }
+            return model;
+
+        } catch (ParserConfigurationException | SAXException | PMMLException | IOException | JAXBException e) {
+            throw new IllegalStateException("Failed to load/verify PMML model " + resourcePath, e);
+        }
+    }
+
+    // A classpath resource, or a file when prefixed with "file:", e.g. a refreshed candidate under review
+    public static InputStream open(String resourcePath) throws IOException {
+        if (resourcePath.startsWith(FILE_PREFIX)) {
+            return Files.newInputStream(Path.of(resourcePath.substring(FILE_PREFIX.length())));
+        }
+        InputStream is = Thread.currentThread()
+                .getContextClassLoader()
+                .getResourceAsStream(resourcePath);
+        if (is == null) {
+            throw new IllegalStateException("PMML file not found on classpath: " + resourcePath);
+        }
+        return is;
+    }
+
+    @Override
+    public ModelRunner.PredictionResult score(ModelRunner.PredictionInput input) {
+        Map<String, Object> inputData = toModelFields(input);
+
+        Map<String, FieldValue> arguments = new HashMap<>();
+        for (InputField inputField : evaluator.getInputFields()) {
+            String inputName = inputField.getName();
+            Object rawValue = inputData.get(inputName);
+
+            if (rawValue != null) {
+                arguments.put(inputName, inputField.prepare(rawValue));
+            }
+        }
+
+        Map<String, ?> results = evaluator.evaluate(arguments);
+
+        // CORRECTED MAPPING: sklearn LabelEncoder sorts alphabetically
+        // 0 = "High", 1 = "Moderate", 2 = "No"
+        Double probHigh = (Double) results.get("probability(0)");
+        Double probModerate = (Double) results.get("probability(1)");
+        Double probNo = (Double) results.get("probability(2)");
+
+        log.debug("{} raw probabilities - High: {}, Moderate: {}, No: {}", name, probHigh, probModerate, probNo);
+
+        ModelRunner.PredictionResult result = ModelRunner.PredictionResult.of(
+                probHigh != null ? probHigh : 0.0,
+                probModerate != null ? probModerate : 0.0,
+                probNo != null ? probNo : 0.0);
+        if (explainer != null) {
+            result.setExplanation(explainer.explain(input));
+        }
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ModelEvaluator<?> getEvaluator() {
+        return evaluator;
+    }
+
+    // Null for models that are not linear over our inputs
+    public LinearExplainer getExplainer() {
+        return explainer;
+    }
+
+    // Map our input fields to model fields
+    public static Map<String, Object> toModelFields(ModelRunner.PredictionInput input) {
+        Map<String, Object> inputData = new HashMap<>();
+        inputData.put("Age", input.getAge());
+        inputData.put("Sex", input.getSex());
+        inputData.put("Weight (kg)", input.getWeight());
+        inputData.put("BMI", input.getBmi());
+        inputData.put("Dehydration", input.getDehydrationLevel());
+        inputData.put("Heat Index (HI)", input.getHeatIndex());
+        inputData.put("Environmental temperature (C)", input.getTemperature());
+        inputData.put("Relative Humidity", input.getHumidity());
+        inputData.put("Heart / Pulse rate (b/min)", input.getPulse());
+        inputData.put("Patient temperature", input.getPatientTemperature());
+        inputData.put("Sweating", input.getSweating());
+        inputData.put("Hot/dry skin", input.getHotDrySkin());
+        return inputData;
+    }
+
+    private static String modelName(String resourcePath) {
+        String fileName = resourcePath.substring(resourcePath.lastIndexOf('/') + 1);
+        return fileName.endsWith(".pmml") ? fileName.substring(0, fileName.length() - ".pmml".length()) : fileName;
+    }
+}
@@ -0,0 +1,236 @@
+package heat.main.scoring;
+
+import heat.main.ModelRunner;
+import heat.main.enums.RiskLevel;
+import org.dmg.pmml.Header;
+import org.dmg.pmml.Model;
+import org.dmg.pmml.PMML;
+import org.dmg.pmml.regression.NumericPredictor;
+import org.dmg.pmml.regression.RegressionModel;
+import org.dmg.pmml.regression.RegressionTable;
+import org.jpmml.model.PMMLUtil;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Multinomial logistic regression over the standardized inputs of a {@link LinearExplainer}, refined with
+ * mini-batch SGD on labelled outcomes. It starts from the explainer's coefficients and an L2 penalty pulls it
+ * back towards them, so a few hundred outcomes adjust the model instead of replacing it. The scaler is kept
+ * as it is, so the result drops into the same PMML.
+ */
+public class SoftmaxSgd {
+
+    private static final double MAX_GRADIENT_NORM = 1.0;
+
+    private final LinearExplainer start;
+    private final double[] intercepts;
+    // [level][feature], on standardized inputs
+    private final double[][] coefficients;
+
+    public SoftmaxSgd(LinearExplainer start) {
+        this.start = start;
+        int levels = start.getLevelCount();
+        this.intercepts = new double[levels];
+        this.coefficients = new double[levels][LinearExplainer.featureCount()];
+        for (int k = 0; k < levels; k++) {
+            intercepts[k] = start.getIntercept(k);
+            for (int j = 0; j < coefficients[k].length; j++) {
+                coefficients[k][j] = start.getCoefficient(k, j);
+            }
+        }
+    }
+
+    /** Outcomes for levels the model does not have are skipped. */
+    public void train(List<ModelRunner.PredictionInput> inputs, List<RiskLevel> outcomes,
+                      int epochs, int batchSize, double learningRate, double l2, long seed) {
+        List<double[]> rows = new ArrayList<>(inputs.size());
+        List<Integer> labels = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            int k = start.levelIndex(outcomes.get(i));
+            if (k >= 0) {
+                double[] standardized = new double[LinearExplainer.featureCount()];
+                start.standardize(inputs.get(i), standardized);
+                rows.add(standardized);
+                labels.add(k);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<Integer> order = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            order.add(i);
+        }
+        Random random = new Random(seed);
+        int levels = intercepts.length;
+        double[] probabilities = new double[levels];
+        double[] interceptGradient = new double[levels];
+        double[][] coefficientGradient = new double[levels][LinearExplainer.featureCount()];
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Collections.shuffle(order, random);
+            for (int from = 0; from < order.size(); from += batchSize) {
+                int to = Math.min(order.size(), from + batchSize);
+                for (int k = 0; k < levels; k++) {
+                    interceptGradient[k] = 0.0;
+                    Arrays.fill(coefficientGradient[k], 0.0);
+                }
+                for (int b = from; b < to; b++) {
+                    double[] x = rows.get(order.get(b));
+                    int label = labels.get(order.get(b));
+                    softmax(x, probabilities);
+                    for (int k = 0; k < levels; k++) {
+                        double error = probabilities[k] - (k == label ? 1.0 : 0.0);
+                        interceptGradient[k] += error;
+                        for (int j = 0; j < x.length; j++) {
+                            coefficientGradient[k][j] += error * x[j];
+                        }
+                    }
+                }
+                double scale = 1.0 / (to - from);
+                double norm = 0.0;
+                for (int k = 0; k < levels; k++) {
+                    interceptGradient[k] = interceptGradient[k] * scale + l2 * (intercepts[k] - start.getIntercept(k));
+                    norm += interceptGradient[k] * interceptGradient[k];
+                    for (int j = 0; j < coefficients[k].length; j++) {
+                        coefficientGradient[k][j] = coefficientGradient[k][j] * scale
+                                + l2 * (coefficients[k][j] - start.getCoefficient(k, j));
+                        norm += coefficientGradient[k][j] * coefficientGradient[k][j];
+                    }
+                }
+                // Readings far outside the training distribution standardize to large values; clipping keeps
+                // one such batch from throwing the coefficients off
+                double step = learningRate * Math.min(1.0, MAX_GRADIENT_NORM / Math.sqrt(norm));
+                for (int k = 0; k < levels; k++) {
+                    intercepts[k] -= step * interceptGradient[k];
+                    for (int j = 0; j < coefficients[k].length; j++) {
+                        coefficients[k][j] -= step * coefficientGradient[k][j];
+                    }
+                }
+            }
+        }
+    }
+
+    public double probability(ModelRunner.PredictionInput input, RiskLevel level) {
+        int k = start.levelIndex(level);
+        if (k < 0) {
+            return 0.0;
+        }
+        double[] standardized = new double[LinearExplainer.featureCount()];
+        start.standardize(input, standardized);
+        double[] probabilities = new double[intercepts.length];
+        softmax(standardized, probabilities);
+        return probabilities[k];
+    }
+
+    // Mean negative log-likelihood of the outcomes; NaN when none is for a level of the model
+    public double logLoss(List<ModelRunner.PredictionInput> inputs, List<RiskLevel> outcomes) {
+        double loss = 0.0;
+        int counted = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            if (start.levelIndex(outcomes.get(i)) >= 0) {
+                loss -= Math.log(Math.max(probability(inputs.get(i), outcomes.get(i)), 1e-15));
+                counted++;
+            }
+        }
+        return counted > 0 ? loss / counted : Double.NaN;
+    }
+
+    // Share of outcomes that are the most probable level
+    public double accuracy(List<ModelRunner.PredictionInput> inputs, List<RiskLevel> outcomes) {
+        double[] standardized = new double[LinearExplainer.featureCount()];
+        double[] probabilities = new double[intercepts.length];
+        int correct = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            start.standardize(inputs.get(i), standardized);
+            softmax(standardized, probabilities);
+            int best = 0;
+            for (int k = 1; k < probabilities.length; k++) {
+                if (probabilities[k] > probabilities[best]) {
+                    best = k;
+                }
+            }
+            if (start.getLevel(best) == outcomes.get(i)) {
+                correct++;
+            }
+        }
+        return inputs.isEmpty() ? Double.NaN : (double) correct / inputs.size();
+    }
+
+    /**
+     * Writes {@code baseResource} with this model's intercepts and coefficients in its regression tables;
+     * everything else, including the scaler, is copied unchanged.
+     */
+    public void writePmml(String baseResource, String description, OutputStream out) {
+        PMML pmml;
+        try (InputStream is = ScoringModel.open(baseResource)) {
+            pmml = PMMLUtil.unmarshal(is);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read base PMML " + baseResource, e);
+        }
+
+        RegressionModel model = null;
+        for (Model candidate : pmml.getModels()) {
+            if (candidate instanceof RegressionModel) {
+                model = (RegressionModel) candidate;
+                break;
+            }
+        }
+        if (model == null || model.getRegressionTables().size() != intercepts.length) {
+            throw new IllegalStateException(baseResource + " does not have the regression tables of this model");
+        }
+
+        Map<String, ScalerReference> scalers = LinearExplainer.scalersByDerivedField(model);
+        for (int k = 0; k < intercepts.length; k++) {
+            RegressionTable table = model.getRegressionTables().get(k);
+            table.setIntercept(intercepts[k]);
+            boolean[] written = new boolean[LinearExplainer.featureCount()];
+            for (NumericPredictor predictor : table.getNumericPredictors()) {
+                int j = LinearExplainer.featureIndex(predictor.getField(), scalers);
+                if (j < 0) {
+                    throw new IllegalStateException("Unknown predictor " + predictor.getField() + " in " + baseResource);
+                }
+                // A feature listed twice keeps its whole coefficient on the first entry
+                predictor.setCoefficient(written[j] ? 0.0 : coefficients[k][j]);
+                written[j] = true;
+            }
+        }
+
+        Header header = pmml.getHeader() != null ? pmml.getHeader() : new Header();
+        header.setDescription(description);
+        pmml.setHeader(header);
+        try {
+            PMMLUtil.marshal(pmml, out);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to write PMML", e);
+        }
+    }
+
+    private void softmax(double[] standardized, double[] probabilities) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < intercepts.length; k++) {
+            double logit = intercepts[k];
+            for (int j = 0; j < standardized.length; j++) {
+                logit += coefficients[k][j] * standardized[j];
+            }
+            probabilities[k] = logit;
+            max = Math.max(max, logit);
+        }
+        double sum = 0.0;
+        for (int k = 0; k < probabilities.length; k++) {
+            probabilities[k] = Math.exp(probabilities[k] - max);
+            sum += probabilities[k];
+        }
+        for (int k = 0; k < probabilities.length; k++) {
+            probabilities[k] /= sum;
+        }
+    }
+}
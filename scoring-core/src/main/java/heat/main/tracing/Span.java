@@ -0,0 +1,104 @@
+package heat.main.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed stage of a {@link Trace}. Closing it ends the stage; spans opened while it is open
+ * become its children. Outside a trace {@link Tracing#span} hands out a shared no-op instance, so
+ * instrumented code costs a thread-local lookup when nothing is being traced.
+ */
+public class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, null, null, null, 0L);
+
+    private final Trace trace;
+    private final Span parent;
+    private final String spanId;
+    private final String name;
+    private final long startNanos;
+    private long endNanos = -1;
+
+    private Map<String, String> attributes;
+    private Map<String, Long> counts;
+    private Map<String, Long> timings;
+
+    Span(Trace trace, Span parent, String spanId, String name, long startNanos) {
+        this.trace = trace;
+        this.parent = parent;
+        this.spanId = spanId;
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    public Span tag(String key, Object value) {
+        if (trace != null) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+
+    public void addCount(String key, long delta) {
+        if (trace != null) {
+            if (counts == null) {
+                counts = new LinkedHashMap<>();
+            }
+            counts.merge(key, delta, Long::sum);
+        }
+    }
+
+    public void addTime(String key, long nanos) {
+        if (trace != null) {
+            if (timings == null) {
+                timings = new LinkedHashMap<>();
+            }
+            timings.merge(key, nanos, Long::sum);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (trace == null || endNanos >= 0) {
+            return;
+        }
+        endNanos = System.nanoTime();
+        trace.closed(this);
+    }
+
+    public Span getParent() {
+        return parent;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    // Still-open spans (e.g. after an exception skipped a close) report zero
+    public long getDurationNanos() {
+        return endNanos >= 0 ? endNanos - startNanos : 0L;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes != null ? attributes : Collections.emptyMap();
+    }
+
+    public Map<String, Long> getCounts() {
+        return counts != null ? counts : Collections.emptyMap();
+    }
+
+    public Map<String, Long> getTimings() {
+        return timings != null ? timings : Collections.emptyMap();
+    }
+}
@@ -0,0 +1,81 @@
+package heat.main.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** The spans of one traced unit of work, confined to the thread that started it until it ends. */
+public class Trace {
+
+    // A runaway loop of instrumented calls should not turn one trace into a memory problem
+    private static final int MAX_SPANS = 256;
+
+    private final String traceId;
+    private final String remoteParentId;
+    private final long startEpochMillis = System.currentTimeMillis();
+    private final List<Span> spans = new ArrayList<>();
+    private Span current;
+    private int droppedSpans;
+
+    Trace(String traceId, String remoteParentId) {
+        this.traceId = traceId;
+        this.remoteParentId = remoteParentId;
+    }
+
+    Span open(String name) {
+        if (spans.size() >= MAX_SPANS) {
+            droppedSpans++;
+            return Span.NOOP;
+        }
+        Span span = new Span(this, current, randomHex(8), name, System.nanoTime());
+        spans.add(span);
+        current = span;
+        return span;
+    }
+
+    void closed(Span span) {
+        if (current == span) {
+            current = span.getParent();
+        }
+    }
+
+    Span current() {
+        return current;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    // Span id of the caller when the trace was continued from a traceparent header
+    public String getRemoteParentId() {
+        return remoteParentId;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public Span getRoot() {
+        return spans.get(0);
+    }
+
+    public List<Span> getSpans() {
+        return Collections.unmodifiableList(spans);
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    static String randomHex(int bytes) {
+        StringBuilder hex = new StringBuilder(bytes * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < bytes; i++) {
+            int b = random.nextInt(256);
+            hex.append(Character.forDigit(b >>> 4, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package heat.main.tracing;
+
+/**
+ * Thread-bound tracing entry point. Whoever owns a unit of work (an HTTP request, a job) calls
+ * {@link #begin} and {@link #end}; code in between wraps its stages with
+ * {@code try (Span span = Tracing.span("name")) { ... }}.
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    /** Starts a trace with a root span on this thread; a null trace id starts a new one. */
+    public static Trace begin(String rootName, String traceId, String remoteParentId) {
+        Trace trace = new Trace(traceId != null ? traceId : Trace.randomHex(16), remoteParentId);
+        CURRENT.set(trace);
+        trace.open(rootName);
+        return trace;
+    }
+
+    /** Ends the trace on this thread, closing its root span; null when none was active. */
+    public static Trace end() {
+        Trace trace = CURRENT.get();
+        if (trace == null) {
+            return null;
+        }
+        CURRENT.remove();
+        trace.getRoot().close();
+        return trace;
+    }
+
+    public static Span span(String name) {
+        Trace trace = CURRENT.get();
+        return trace != null ? trace.open(name) : Span.NOOP;
+    }
+
+    /** The innermost open span, for attaching counts and timings; a no-op span outside a trace. */
+    public static Span current() {
+        Trace trace = CURRENT.get();
+        Span span = trace != null ? trace.current() : null;
+        return span != null ? span : Span.NOOP;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+}
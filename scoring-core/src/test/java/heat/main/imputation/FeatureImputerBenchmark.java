@@ -0,0 +1,79 @@
+package heat.main.imputation;
+
+import heat.main.ModelRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imputation cost per reading, rules file against the old if/else chain, over a mix of readings
+ * that sends the chain down different branches. Not part of the test run; start it with
+ * <pre>
+ *   mvn -pl scoring-core test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp scoring-core/target/test-classes:scoring-core/target/classes:$(cat scoring-core/target/cp.txt) \
+ *       heat.main.imputation.FeatureImputerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeatureImputerBenchmark {
+
+    private static final int READINGS = 4096;
+
+    private FeatureImputer imputer;
+    private Reading[] readings;
+    private RawReading[] rawReadings;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        imputer = FeatureImputer.load("model/corrected_model.imputation.properties");
+        Random random = new Random(42);
+        readings = new Reading[READINGS];
+        rawReadings = new RawReading[READINGS];
+        for (int i = 0; i < READINGS; i++) {
+            readings[i] = new Reading(random.nextBoolean() ? 1.0 : 0.0, null, 70.0, null,
+                    20 + random.nextDouble() * 25, random.nextDouble() * 100, 60 + random.nextDouble() * 80,
+                    random.nextInt(4) == 0 ? null : random.nextDouble(), null, null, null, null);
+            rawReadings[i] = readings[i].toRaw();
+        }
+    }
+
+    @Benchmark
+    public ModelRunner.PredictionInput rules() {
+        return imputer.impute(rawReadings[next++ & (READINGS - 1)]);
+    }
+
+    @Benchmark
+    public ModelRunner.PredictionInput legacyChain() {
+        return LegacyImputation.impute(readings[next++ & (READINGS - 1)]);
+    }
+
+    // Picking the next reading alone, the floor under both
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        blackhole.consume(rawReadings[next++ & (READINGS - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FeatureImputerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
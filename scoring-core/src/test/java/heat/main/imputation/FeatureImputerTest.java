@@ -0,0 +1,114 @@
+package heat.main.imputation;
+
+import heat.main.ModelRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The rules file shipped with corrected_model must impute exactly what the if/else chain in
+ * RiskPredictionService did before the rules were moved out of the code.
+ */
+class FeatureImputerTest {
+
+    private static final FeatureImputer IMPUTER = FeatureImputer.load("model/corrected_model.imputation.properties");
+
+    private static final String[] FEATURES = {
+            "age", "sex", "weight", "bmi", "dehydrationLevel", "heatIndex",
+            "temperature", "humidity", "pulse", "patientTemperature", "sweating", "hotDrySkin"};
+
+    @ParameterizedTest
+    @MethodSource("edgeReadings")
+    void matchesLegacyChain(Double temperature, Double humidity, Double dehydrationLevel, Double heatIndex,
+                            Double patientTemperature, Double sweating, Double hotDrySkin) {
+        Reading reading = new Reading(1.0, null, 82.5, null, temperature, humidity, 95.0,
+                dehydrationLevel, heatIndex, patientTemperature, sweating, hotDrySkin);
+        assertSameFeatures(LegacyImputation.impute(reading), IMPUTER.impute(reading.toRaw()), reading);
+    }
+
+    @Test
+    void matchesLegacyChainOnRandomReadings() {
+        Random random = new Random(20261019L);
+        for (int i = 0; i < 200_000; i++) {
+            Reading reading = new Reading(
+                    random.nextBoolean() ? 1.0 : 0.0,
+                    maybe(random, 18 + random.nextInt(70)),
+                    maybe(random, 40 + random.nextDouble() * 80),
+                    maybe(random, 16 + random.nextDouble() * 20),
+                    round(random.nextDouble() * 60 - 5),
+                    round(random.nextDouble() * 120 - 10),
+                    round(50 + random.nextDouble() * 120),
+                    maybe(random, round(random.nextDouble() * 1.2)),
+                    maybe(random, round(random.nextDouble() * 60)),
+                    maybe(random, round(35 + random.nextDouble() * 7)),
+                    maybe(random, round(random.nextDouble())),
+                    maybe(random, round(random.nextDouble())));
+            assertSameFeatures(LegacyImputation.impute(reading), IMPUTER.impute(reading.toRaw()), reading);
+        }
+    }
+
+    // Every optional value missing or given, around each threshold of the chain and outside the valid ranges
+    static Stream<Arguments> edgeReadings() {
+        Double[] temperatures = {-10.0, 0.0, 24.9, 25.0, 30.0, 32.0, 32.000001, 35.0, 35.000001, 45.0, 60.0};
+        Double[] humidities = {-5.0, 0.0, 0.5, 1.0, 1.000001, 55.0, 100.0, 150.0};
+        Double[] dehydrationLevels = {null, -0.1, 0.0, 0.5, 0.500001, 0.7, 0.700001, 0.8, 0.800001, 1.0, 5.0};
+        Double[] heatIndexes = {null, 41.0};
+        Double[] patientTemperatures = {null, 38.2};
+        Double[] sweatings = {null, 0.4};
+        Double[] hotDrySkins = {null, 0.6};
+
+        List<Arguments> arguments = new ArrayList<>();
+        for (Double temperature : temperatures) {
+            for (Double humidity : humidities) {
+                for (Double dehydrationLevel : dehydrationLevels) {
+                    for (Double heatIndex : heatIndexes) {
+                        for (Double patientTemperature : patientTemperatures) {
+                            for (Double sweating : sweatings) {
+                                for (Double hotDrySkin : hotDrySkins) {
+                                    arguments.add(Arguments.of(temperature, humidity, dehydrationLevel, heatIndex,
+                                            patientTemperature, sweating, hotDrySkin));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return arguments.stream();
+    }
+
+    private static void assertSameFeatures(ModelRunner.PredictionInput expected, ModelRunner.PredictionInput actual,
+                                           Reading reading) {
+        double[] e = toArray(expected);
+        double[] a = toArray(actual);
+        for (int i = 0; i < e.length; i++) {
+            int feature = i;
+            assertEquals(Double.doubleToLongBits(e[i]), Double.doubleToLongBits(a[i]),
+                    () -> FEATURES[feature] + " differs for " + reading + ": expected " + e[feature] + ", got " + a[feature]);
+        }
+    }
+
+    private static double[] toArray(ModelRunner.PredictionInput input) {
+        return new double[]{
+                input.getAge(), input.getSex(), input.getWeight(), input.getBmi(),
+                input.getDehydrationLevel(), input.getHeatIndex(), input.getTemperature(), input.getHumidity(),
+                input.getPulse(), input.getPatientTemperature(), input.getSweating(), input.getHotDrySkin()};
+    }
+
+    private static Double maybe(Random random, double value) {
+        return random.nextInt(3) == 0 ? null : value;
+    }
+
+    // Readings arrive as NUMERIC(5,2)
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,79 @@
+package heat.main.imputation;
+
+import heat.main.ModelRunner;
+
+// The if/else chain RiskPredictionService.predictRiskLevel used before the imputation rules file, kept as the reference
+final class LegacyImputation {
+
+    private LegacyImputation() {
+    }
+
+    static ModelRunner.PredictionInput impute(Reading req) {
+        double age = req.age() != null ? req.age() : 30.0;
+
+        double sex = req.sex();
+
+        double weight = req.weight() != null ? req.weight() : 70.0;
+        double bmi = req.bmi() != null ? req.bmi() : 25.0;
+
+        double temperature = req.temperature();
+        // Normalize humidity: accept either [0,1] fraction or [0,100] percentage
+        double humidity = req.humidity();
+        if (humidity > 1.0) {
+            humidity = humidity / 100.0;
+        }
+        // Clamp to [0,1] to avoid invalid values reaching the model
+        if (humidity < 0.0) {
+            humidity = 0.0;
+        } else if (humidity > 1.0) {
+            humidity = 1.0;
+        }
+        double pulse = req.pulse();
+        double dehydrationLevel = req.dehydrationLevel() != null ? req.dehydrationLevel() : 0.5;
+        double heatIndex = req.heatIndex() != null ? req.heatIndex() : temperature;
+
+        double patientTemperature;
+        double sweating;
+        double hotDrySkin;
+
+        if (req.patientTemperature() != null) {
+            patientTemperature = req.patientTemperature();
+        } else {
+            // Patient temp is usually 0.5-2°C higher than environmental in heat stress
+            double tempIncrease = Math.min(2.0, Math.max(0.5, (temperature - 25.0) * 0.1));
+            patientTemperature = temperature + tempIncrease;
+        }
+
+        if (req.sweating() != null) {
+            sweating = req.sweating();
+        } else {
+            if (dehydrationLevel > 0.8) {
+                sweating = 0.0; // No sweating when severely dehydrated
+            } else if (dehydrationLevel > 0.5) {
+                sweating = 0.3; // Reduced sweating when moderately dehydrated
+            } else if (temperature > 35.0) {
+                sweating = 1.0; // Full sweating in hot conditions
+            } else {
+                sweating = 0.7; // Normal sweating
+            }
+        }
+
+        if (req.hotDrySkin() != null) {
+            hotDrySkin = req.hotDrySkin();
+        } else {
+            // Hot/dry skin occurs with high dehydration and high temperature
+            if (dehydrationLevel > 0.7 && temperature > 32.0) {
+                hotDrySkin = 1.0; // Hot/dry skin likely
+            } else if (dehydrationLevel > 0.5 && temperature > 35.0) {
+                hotDrySkin = 0.5; // Partially hot/dry skin
+            } else {
+                hotDrySkin = 0.0; // Normal skin
+            }
+        }
+
+        return new ModelRunner.PredictionInput(
+                age, sex, weight, bmi, dehydrationLevel, heatIndex,
+                temperature, humidity, pulse, patientTemperature, sweating, hotDrySkin
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package heat.main.imputation;
+
+// A reading as the request and patient profile provide it; null where a value was not given
+record Reading(double sex, Double age, Double weight, Double bmi,
+               Double temperature, Double humidity, Double pulse, Double dehydrationLevel, Double heatIndex,
+               Double patientTemperature, Double sweating, Double hotDrySkin) {
+
+    RawReading toRaw() {
+        RawReading raw = new RawReading();
+        raw.setSex(sex);
+        raw.setAge(orNaN(age));
+        raw.setWeight(orNaN(weight));
+        raw.setBmi(orNaN(bmi));
+        raw.setTemperature(orNaN(temperature));
+        raw.setHumidity(orNaN(humidity));
+        raw.setPulse(orNaN(pulse));
+        raw.setDehydrationLevel(orNaN(dehydrationLevel));
+        raw.setHeatIndex(orNaN(heatIndex));
+        raw.setPatientTemperature(orNaN(patientTemperature));
+        raw.setSweating(orNaN(sweating));
+        raw.setHotDrySkin(orNaN(hotDrySkin));
+        return raw;
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
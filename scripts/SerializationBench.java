@@ -0,0 +1,94 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import heat.main.enums.RiskLevel;
+import heat.main.prediction.dto.CompactPredictionPage;
+import heat.main.prediction.dto.RiskPredictionViewDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Serializes one listing page with the default Page JSON and with the compact JSON and CBOR
+ * representations, using mappers configured like the server's, and prints time and size per page.
+ * Run through scripts/serialization-bench.sh.
+ */
+public class SerializationBench {
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 3000;
+
+        Page<RiskPredictionViewDto> page = new PageImpl<>(items(size), PageRequest.of(0, size), 50L * size);
+        CompactPredictionPage compact = CompactPredictionPage.of(page);
+        // Spring Boot's defaults: ISO-8601 dates instead of timestamps
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        System.out.printf("%-24s %12s %12s %10s%n", "format (" + size + " items)", "us/page", "bytes", "vs page");
+        double baseline = run("page json", json, page, millis, 0);
+        run("compact json", json, compact, millis, baseline);
+        run("compact cbor", cbor, compact, millis, baseline);
+    }
+
+    private static double run(String name, ObjectMapper mapper, Object value, long millis, double baseline) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+        measure(mapper, value, out, millis);
+        long[] result = measure(mapper, value, out, millis);
+        double micros = result[0] / 1000.0 / result[1];
+        System.out.printf("%-24s %12.1f %12d %10s%n", name, micros, out.size(),
+                baseline > 0 ? String.format("%.2fx", baseline / micros) : "");
+        return micros;
+    }
+
+    // {elapsed nanos, iterations}; the first call is warm-up
+    private static long[] measure(ObjectMapper mapper, Object value, ByteArrayOutputStream out, long millis) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000L;
+        long iterations = 0;
+        long now;
+        do {
+            out.reset();
+            mapper.writeValue(out, value);
+            iterations++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return new long[]{now - start, iterations};
+    }
+
+    private static List<RiskPredictionViewDto> items(int size) {
+        Random random = new Random(42);
+        LocalDateTime timestamp = LocalDateTime.of(2025, 7, 1, 12, 0);
+        List<RiskPredictionViewDto> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(RiskPredictionViewDto.builder()
+                    .id(100_000L + i)
+                    .userId(1L + random.nextInt(500))
+                    .temperature(decimal(25 + random.nextDouble() * 20, 2))
+                    .humidity(decimal(20 + random.nextDouble() * 70, 2))
+                    .pulse(decimal(60 + random.nextDouble() * 80, 2))
+                    .dehydrationLevel(decimal(random.nextDouble() * 5, 2))
+                    .heatIndex(decimal(25 + random.nextDouble() * 30, 2))
+                    .predictedProbability(decimal(random.nextDouble(), 4))
+                    .predictedRiskLevel(RiskLevel.values()[random.nextInt(3)])
+                    .assessmentTimestamp(timestamp.plusSeconds(37L * i))
+                    .notes(i % 10 == 0 ? "reported dizziness" : null)
+                    .build());
+        }
+        return items;
+    }
+
+    private static BigDecimal decimal(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
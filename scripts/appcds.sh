@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Builds a fast-start layout of the server: the Spring Boot fat jar unpacked into a plain
+# application jar plus lib/, and an AppCDS archive recorded from a training run.
+#
+#   mvn -pl server -am package -DskipTests
+#   TRAINING_DB_URL=jdbc:postgresql://localhost:5433/scratch \
+#     TRAINING_DB_USER=heatstr TRAINING_DB_PASSWORD=heatstr scripts/appcds.sh   # -> server/target/appcds/
+#   java -XX:SharedArchiveFile=server/target/appcds/heatstroke.jsa -jar server/target/appcds/heatstroke.jar
+#
+# CDS cannot share classes loaded from jars nested inside the fat jar, hence the unpacking.
+# The archive is only valid for the JDK build that recorded it and this exact lib/ content;
+# a mismatch makes the JVM warn and start without it.
+#
+# The archive only holds classes the training run loaded, so record the production archive against
+# PostgreSQL: TRAINING_DB_URL names a scratch database whose heatstr schema is dropped and recreated.
+# Without it the run uses the loadtest profile's H2, and the PostgreSQL driver and dialect classes are
+# missing from the archive (they still load, just not from it).
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+FAT_JAR="$(realpath "${1:-$ROOT/server/target/HeatStroke-1.0-SNAPSHOT.jar}")"
+OUT="${2:-$ROOT/server/target/appcds}"
+MAIN_CLASS=heat.main.HeatStrokeApplication
+
+rm -rf "$OUT"
+mkdir -p "$OUT/lib" "$OUT/unpacked"
+(cd "$OUT/unpacked" && jar xf "$FAT_JAR")
+mv "$OUT"/unpacked/BOOT-INF/lib/*.jar "$OUT/lib/"
+
+# Keep the fat jar's classpath order; the manifest Class-Path is wrapped at 72 bytes per line
+{
+  echo "Main-Class: $MAIN_CLASS"
+  sed -n 's|^- "BOOT-INF/lib/\(.*\)"$|lib/\1|p' "$OUT/unpacked/BOOT-INF/classpath.idx" \
+    | tr '\n' ' ' | sed 's/ $//; s/^/Class-Path: /' | fold -w 71 | sed '2,$s/^/ /'
+  echo
+} > "$OUT/MANIFEST.MF"
+jar --create --file "$OUT/heatstroke.jar" --manifest "$OUT/MANIFEST.MF" -C "$OUT/unpacked/BOOT-INF/classes" .
+rm -rf "$OUT/unpacked" "$OUT/MANIFEST.MF"
+
+WORK="$(mktemp -d)"
+trap 'rm -rf "$WORK"' EXIT
+if [ -n "${TRAINING_DB_URL:-}" ]; then
+  echo 'CREATE SCHEMA IF NOT EXISTS heatstr;' > "$WORK/schema.sql"
+  DATABASE_ARGS=(
+    --spring.datasource.url="$TRAINING_DB_URL"
+    --spring.datasource.username="${TRAINING_DB_USER:-heatstr}"
+    --spring.datasource.password="${TRAINING_DB_PASSWORD:-heatstr}"
+    --spring.sql.init.mode=always
+    --spring.sql.init.schema-locations="file:$WORK/schema.sql"
+    --spring.jpa.hibernate.ddl-auto=create
+  )
+else
+  echo "TRAINING_DB_URL not set: recording against H2, the archive will not cover PostgreSQL" >&2
+  DATABASE_ARGS=(--spring.profiles.active=loadtest)
+fi
+
+# Training run; it exits by itself when done
+java -XX:ArchiveClassesAtExit="$OUT/heatstroke.jsa" -Xlog:cds=error \
+  -jar "$OUT/heatstroke.jar" \
+  "${DATABASE_ARGS[@]}" \
+  --server.port=0 \
+  --heat.startup.training-run=true \
+  --heat.journal.directory="$WORK/journal" \
+  --logging.level.root=WARN
+
+echo "AppCDS archive: $OUT/heatstroke.jsa ($(du -h "$OUT/heatstroke.jsa" | cut -f1))"
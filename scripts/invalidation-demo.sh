@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Two instances against one PostgreSQL database: a prediction saved on the first shows up on the
+# second's ward board, and a patient renamed on the second is renamed on the first's, through the
+# LISTEN/NOTIFY invalidation bus rather than the periodic board resync. Uses the loadtest profile's
+# seeded admin, with the schema generated from the entities.
+#
+#   scripts/invalidation-demo.sh [jdbc-url] [username] [password]
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+URL="${1:-jdbc:postgresql://localhost:5433/heatstr}"
+DB_USER="${2:-heatstr}"
+DB_PASSWORD="${3:-heatstr}"
+AUTH="loadgen-admin:loadgen-admin"
+JSON="Content-Type: application/json"
+PIDS=()
+
+(cd "$ROOT" && mvn -B -q -pl server -am install -DskipTests)
+trap 'kill "${PIDS[@]}" 2>/dev/null || true' EXIT
+
+for port in 8080 8081; do
+  java -jar "$ROOT/server/target/HeatStroke-1.0-SNAPSHOT.jar" --spring.profiles.active=loadtest \
+    --server.port="$port" --spring.jpa.hibernate.ddl-auto=update \
+    --spring.datasource.url="$URL" --spring.datasource.driver-class-name=org.postgresql.Driver \
+    --spring.datasource.username="$DB_USER" --spring.datasource.password="$DB_PASSWORD" \
+    > "$ROOT/server/target/invalidation-$port.log" 2>&1 &
+  PIDS+=($!)
+  # One after the other, so only the first creates the schema
+  until curl -s -o /dev/null "localhost:$port/auth/login"; do sleep 1; done
+done
+
+patient=$(curl -s -u "$AUTH" -H "$JSON" localhost:8080/user/add \
+  -d "{\"name\":\"demo-$RANDOM\",\"gender\":\"F\",\"roleType\":\"PATIENT\",\"weight\":60,\"height\":165}" \
+  | sed -E 's/.*"id":([0-9]+).*/\1/')
+curl -s -o /dev/null -u "$AUTH" -H "$JSON" localhost:8080/api/predictions \
+  -d "{\"patientId\":$patient,\"temperature\":39,\"humidity\":70,\"pulse\":120,\"dehydrationLevel\":1,\"heatIndex\":45}"
+sleep 0.2
+echo "8081 board after a prediction on 8080:"
+curl -s -u "$AUTH" "localhost:8081/api/predictions/board?size=100" | grep -o "\"patientId\":$patient,\"patientName\":\"[^\"]*\"" \
+  || echo "  patient $patient missing"
+
+curl -s -o /dev/null -u "$AUTH" -H "$JSON" -X PUT "localhost:8081/user/update/$patient" -d '{"name":"renamed-on-8081"}'
+sleep 0.2
+echo "8080 board after a rename on 8081:"
+curl -s -u "$AUTH" "localhost:8080/api/predictions/board?size=100" | grep -o "\"patientId\":$patient,\"patientName\":\"[^\"]*\"" \
+  || echo "  patient $patient missing"
+
+for port in 8080 8081; do
+  echo "$port: $(curl -s -u "$AUTH" "localhost:$port/admin/invalidation")"
+done
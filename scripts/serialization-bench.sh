@@ -0,0 +1,14 @@
+#!/usr/bin/env bash
+# Time and size of one prediction listing page in the default Page JSON and in the compact JSON
+# and CBOR representations (Accept: application/vnd.heat.compact+json or application/cbor).
+#
+#   scripts/serialization-bench.sh [items-per-page] [millis-per-format]
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+CP_FILE="$ROOT/server/target/bench.classpath"
+
+(cd "$ROOT" && mvn -B -q -pl server -am install -DskipTests \
+  && mvn -B -q -pl server dependency:build-classpath -Dmdep.outputFile="$CP_FILE")
+
+java -cp "$ROOT/server/target/classes:$(cat "$CP_FILE")" "$ROOT/scripts/SerializationBench.java" "$@"
@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+# Time from JVM launch to the first successful prediction, for the plain fat jar and for the
+# AppCDS layout built by scripts/appcds.sh. With TRAINING_DB_URL set (the same scratch database
+# the archive was recorded against) it starts on PostgreSQL as production does; without it on the
+# loadtest profile's H2, which says nothing about a PostgreSQL start.
+#
+#   scripts/startup-bench.sh [runs]
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+FAT_JAR="$ROOT/server/target/HeatStroke-1.0-SNAPSHOT.jar"
+CDS_DIR="$ROOT/server/target/appcds"
+if [ -n "${TRAINING_DB_URL:-}" ]; then
+  DATABASE_ARGS=(
+    --spring.datasource.url="$TRAINING_DB_URL"
+    --spring.datasource.username="${TRAINING_DB_USER:-heatstr}"
+    --spring.datasource.password="${TRAINING_DB_PASSWORD:-heatstr}"
+  )
+  # The training run's admin, the first account in the freshly created schema
+  CREDENTIALS=training-admin:training-admin
+else
+  DATABASE_ARGS=(--spring.profiles.active=loadtest)
+  CREDENTIALS=loadgen-admin:loadgen-admin
+fi
+BODY='{"patientId":1,"temperature":38,"humidity":70,"pulse":110,"dehydrationLevel":0.4,"heatIndex":40}'
+
+[ -f "$CDS_DIR/heatstroke.jsa" ] || { echo "Run scripts/appcds.sh first" >&2; exit 1; }
+
+# Prints milliseconds from launch to the first 200 from POST /api/predictions
+first_prediction_ms() {
+  local journal start pid ms=""
+  journal="$(mktemp -d)"
+  start=$(date +%s%N)
+  java "$@" "${DATABASE_ARGS[@]}" --server.port="$PORT" \
+    --heat.journal.directory="$journal" --logging.level.root=WARN > /dev/null 2>&1 &
+  pid=$!
+  for _ in $(seq 1 12000); do
+    if [ "$(curl -s -o /dev/null -w '%{http_code}' -u "$CREDENTIALS" \
+          -H 'Content-Type: application/json' -d "$BODY" "localhost:$PORT/api/predictions")" = 200 ]; then
+      ms=$(( ($(date +%s%N) - start) / 1000000 ))
+      break
+    fi
+    kill -0 "$pid" 2>/dev/null || break
+    sleep 0.01
+  done
+  kill "$pid" 2>/dev/null; wait "$pid" 2>/dev/null || true
+  rm -rf "$journal"
+  [ -n "$ms" ] || { echo "server did not answer: java $*" >&2; exit 1; }
+  echo "$ms"
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'; }
+
+declare -A results
+for mode in fat-jar appcds; do
+  samples=()
+  for _ in $(seq 1 "$RUNS"); do
+    if [ "$mode" = fat-jar ]; then
+      samples+=("$(first_prediction_ms -jar "$FAT_JAR")")
+    else
+      samples+=("$(first_prediction_ms -XX:SharedArchiveFile="$CDS_DIR/heatstroke.jsa" -Xlog:cds=off -jar "$CDS_DIR/heatstroke.jar")")
+    fi
+  done
+  results[$mode]=$(printf '%s\n' "${samples[@]}" | median)
+  echo "$mode: ${samples[*]} ms"
+done
+
+echo
+printf '%-8s %8s\n' mode "median time to first prediction (ms)"
+for mode in fat-jar appcds; do printf '%-8s %8s\n' "$mode" "${results[$mode]}"; done
@@ -0,0 +1,230 @@
+package heat.main.admission;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows latency instead of being fixed. Each completed call feeds its
+ * round-trip time into a gradient: while calls run close to the no-load latency the limit grows
+ * by a small queue allowance, and as latency climbs past {@code rttTolerance} times that baseline
+ * the limit is scaled down proportionally. The no-load baseline is the lowest RTT seen, allowed
+ * to drift upwards slowly so that a permanently slower backend does not pin the limit at the floor.
+ *
+ * <p>Critical calls may use the whole limit and wait ahead of routine ones; routine calls only get
+ * {@code routineShare} of it, so there is always headroom for critical traffic.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        CRITICAL,
+        ROUTINE
+    }
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DRIFT = 0.001;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double routineShare;
+    private final int maxQueued;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition criticalTurn = lock.newCondition();
+    private final Condition routineTurn = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waitingCritical;
+    private int waitingRoutine;
+    private double noLoadRttNanos = Double.NaN;
+    private double lastRttNanos = Double.NaN;
+
+    private final LongAdder[] admitted = {new LongAdder(), new LongAdder()};
+    private final LongAdder[] rejected = {new LongAdder(), new LongAdder()};
+    private final LongAdder queuedTotal = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double rttTolerance, double routineShare, int maxQueued) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit bounds [" + minLimit + ", " + maxLimit + "]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.routineShare = routineShare;
+        this.maxQueued = maxQueued;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Waits up to {@code timeout} for a slot. Returns null when the call should be shed, either
+     * because the wait timed out or because too many callers are already queued.
+     */
+    public Permit acquire(Priority priority, long timeout, TimeUnit unit) {
+        lock.lock();
+        try {
+            if (canEnter(priority)) {
+                return enter(priority);
+            }
+            if (waitingCritical + waitingRoutine >= maxQueued) {
+                rejected[priority.ordinal()].increment();
+                return null;
+            }
+
+            queuedTotal.increment();
+            Condition turn = priority == Priority.CRITICAL ? criticalTurn : routineTurn;
+            adjustWaiting(priority, 1);
+            boolean granted = false;
+            try {
+                long remaining = unit.toNanos(timeout);
+                while (!canEnter(priority)) {
+                    if (remaining <= 0) {
+                        rejected[priority.ordinal()].increment();
+                        return null;
+                    }
+                    remaining = turn.awaitNanos(remaining);
+                }
+                granted = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected[priority.ordinal()].increment();
+                return null;
+            } finally {
+                adjustWaiting(priority, -1);
+                if (priority == Priority.CRITICAL && (!granted || waitingCritical == 0)) {
+                    // Routine waiters were held back by this one, and a critical one giving up may have
+                    // taken the wake-up meant for the next
+                    signalWaiters(true);
+                } else if (!granted) {
+                    signalWaiters(false);
+                }
+            }
+            return enter(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Snapshot snapshot() {
+        lock.lock();
+        try {
+            return new Snapshot(
+                    (int) limit,
+                    inFlight,
+                    waitingCritical,
+                    waitingRoutine,
+                    nanosToMillis(noLoadRttNanos),
+                    nanosToMillis(lastRttNanos),
+                    admitted[Priority.CRITICAL.ordinal()].sum(),
+                    admitted[Priority.ROUTINE.ordinal()].sum(),
+                    rejected[Priority.CRITICAL.ordinal()].sum(),
+                    rejected[Priority.ROUTINE.ordinal()].sum(),
+                    queuedTotal.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canEnter(Priority priority) {
+        if (priority == Priority.CRITICAL) {
+            return inFlight < (int) limit;
+        }
+        return waitingCritical == 0 && inFlight < Math.max(1, (int) (limit * routineShare));
+    }
+
+    private Permit enter(Priority priority) {
+        inFlight++;
+        admitted[priority.ordinal()].increment();
+        return new Permit(System.nanoTime());
+    }
+
+    private void adjustWaiting(Priority priority, int delta) {
+        if (priority == Priority.CRITICAL) {
+            waitingCritical += delta;
+        } else {
+            waitingRoutine += delta;
+        }
+    }
+
+    private void onComplete(long rttNanos) {
+        lock.lock();
+        try {
+            int before = (int) limit;
+            inFlight--;
+            lastRttNanos = rttNanos;
+            if (Double.isNaN(noLoadRttNanos) || rttNanos < noLoadRttNanos) {
+                noLoadRttNanos = rttNanos;
+            } else {
+                noLoadRttNanos += (rttNanos - noLoadRttNanos) * BASELINE_DRIFT;
+            }
+
+            // Only move the limit when it is actually being used, otherwise idle periods inflate it
+            if (inFlight + 1 >= (int) (limit * routineShare)) {
+                double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * noLoadRttNanos / rttNanos));
+                double target = limit * gradient + Math.sqrt(limit);
+                limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+            }
+
+            // A grown limit frees more than the one slot this call held
+            signalWaiters((int) limit > before);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Critical waiters first: routine ones cannot enter while any is waiting. Woken waiters recheck.
+    private void signalWaiters(boolean all) {
+        Condition turn = waitingCritical > 0 ? criticalTurn : waitingRoutine > 0 ? routineTurn : null;
+        if (turn == null) {
+            return;
+        }
+        if (all) {
+            turn.signalAll();
+        } else {
+            turn.signal();
+        }
+    }
+
+    private static double nanosToMillis(double nanos) {
+        return Double.isNaN(nanos) ? 0.0 : nanos / 1_000_000.0;
+    }
+
+    public final class Permit {
+        private final long startNanos;
+        private boolean released;
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                onComplete(System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Snapshot {
+        private final int limit;
+        private final int inFlight;
+        private final int waitingCritical;
+        private final int waitingRoutine;
+        private final double noLoadRttMs;
+        private final double lastRttMs;
+        private final long admittedCritical;
+        private final long admittedRoutine;
+        private final long rejectedCritical;
+        private final long rejectedRoutine;
+        private final long queuedTotal;
+    }
+}
@@ -0,0 +1,23 @@
+package heat.main.admission.controller;
+
+import heat.main.admission.dto.AdmissionStatsDto;
+import heat.main.admission.service.AdmissionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/admission")
+@RequiredArgsConstructor
+public class AdmissionController {
+
+    private final AdmissionService admissionService;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public AdmissionStatsDto getStats() {
+        return admissionService.getStats();
+    }
+}
@@ -0,0 +1,23 @@
+package heat.main.admission.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionStatsDto {
+    private boolean enabled;
+    private int limit;
+    private int inFlight;
+    private int waitingCritical;
+    private int waitingRoutine;
+    private double noLoadRttMs;
+    private double lastRttMs;
+    private long admittedCritical;
+    private long admittedRoutine;
+    private long rejectedCritical;
+    private long rejectedRoutine;
+    private long queuedTotal;
+}
@@ -0,0 +1,94 @@
+package heat.main.admission.service;
+
+import heat.main.admission.AdaptiveConcurrencyLimiter;
+import heat.main.admission.dto.AdmissionStatsDto;
+import heat.main.config.AdmissionProperties;
+import heat.main.prediction.dto.CreateRiskPredictionRequestDto;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class AdmissionService {
+
+    private final AdmissionProperties properties;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdmissionService(AdmissionProperties properties) {
+        this.properties = properties;
+        this.limiter = new AdaptiveConcurrencyLimiter(
+                properties.getInitialLimit(),
+                properties.getMinLimit(),
+                properties.getMaxLimit(),
+                properties.getRttTolerance(),
+                properties.getRoutineShare(),
+                properties.getMaxQueued());
+    }
+
+    /**
+     * Admits a prediction request, waiting briefly for a slot. Empty means the request should be
+     * shed with 429; otherwise the permit must be released once the request is done.
+     */
+    public Optional<Admission> admit(CreateRiskPredictionRequestDto req) {
+        if (!properties.isEnabled()) {
+            return Optional.of(new Admission(null));
+        }
+        AdaptiveConcurrencyLimiter.Priority priority = classify(req);
+        long waitMs = priority == AdaptiveConcurrencyLimiter.Priority.CRITICAL
+                ? properties.getCriticalWaitMs()
+                : properties.getRoutineWaitMs();
+        return Optional.ofNullable(limiter.acquire(priority, waitMs, TimeUnit.MILLISECONDS))
+                .map(Admission::new);
+    }
+
+    public int getRetryAfterSeconds() {
+        return properties.getRetryAfterSeconds();
+    }
+
+    public AdmissionStatsDto getStats() {
+        AdaptiveConcurrencyLimiter.Snapshot s = limiter.snapshot();
+        return new AdmissionStatsDto(
+                properties.isEnabled(),
+                s.getLimit(),
+                s.getInFlight(),
+                s.getWaitingCritical(),
+                s.getWaitingRoutine(),
+                s.getNoLoadRttMs(),
+                s.getLastRttMs(),
+                s.getAdmittedCritical(),
+                s.getAdmittedRoutine(),
+                s.getRejectedCritical(),
+                s.getRejectedRoutine(),
+                s.getQueuedTotal());
+    }
+
+    // Looks only at what the client sent: no model, no database
+    private AdaptiveConcurrencyLimiter.Priority classify(CreateRiskPredictionRequestDto req) {
+        if (exceeds(req.getPatientTemperature(), properties.getCriticalPatientTemperature())
+                || exceeds(req.getPulse(), properties.getCriticalPulse())) {
+            return AdaptiveConcurrencyLimiter.Priority.CRITICAL;
+        }
+        return AdaptiveConcurrencyLimiter.Priority.ROUTINE;
+    }
+
+    private static boolean exceeds(BigDecimal value, double threshold) {
+        return value != null && value.doubleValue() >= threshold;
+    }
+
+    public static final class Admission implements AutoCloseable {
+        private final AdaptiveConcurrencyLimiter.Permit permit;
+
+        private Admission(AdaptiveConcurrencyLimiter.Permit permit) {
+            this.permit = permit;
+        }
+
+        @Override
+        public void close() {
+            if (permit != null) {
+                permit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package heat.main.archive;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** One archived prediction, as decoded from a cold segment. */
+@Getter
+@AllArgsConstructor
+public class ColdRow {
+    private final long id;
+    private final long patientId;
+    private final LocalDateTime assessmentTimestamp;
+    private final BigDecimal temperature;
+    private final BigDecimal humidity;
+    private final BigDecimal pulse;
+    private final BigDecimal dehydrationLevel;
+    private final BigDecimal heatIndex;
+    private final BigDecimal predictedProbability;
+    private final RiskLevel predictedRiskLevel;
+    private final String notes;
+    private final BigDecimal latitude;
+    private final BigDecimal longitude;
+    private final String siteId;
+}
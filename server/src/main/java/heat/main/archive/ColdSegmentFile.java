@@ -0,0 +1,606 @@
+package heat.main.archive;
+
+import heat.main.enums.RiskLevel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable columnar file of archived predictions, sorted by (patient, timestamp, id) and read
+ * through a memory mapping. A directory gives each patient's run of rows; within a run
+ * timestamps and ids are delta-encoded varints, decimal columns are integers at the column's
+ * scale (2, 4 or 8 bytes wide, whichever fits the segment, the smallest value of the width
+ * standing for null), risk levels are one-byte dictionary codes and notes and site ids sit in
+ * offset-indexed string tables, where a negative offset marks null. The header carries min/max of
+ * timestamps, ids and patient ids so readers can skip segments without touching the columns.
+ *
+ * Timestamps are stored with millisecond precision, and decimals are rounded to the scales below.
+ * Version 1 segments, written before locations were archived, read with no location; versions 1
+ * and 2 did not tell an empty string from null and read both as null.
+ */
+public final class ColdSegmentFile {
+
+    private static final int MAGIC = 0x48534353; // "HSCS"
+    private static final int VERSION = 3;
+
+    private static final String[] DECIMAL_COLUMNS = {"temperature", "humidity", "pulse", "dehydrationLevel",
+            "heatIndex", "predictedProbability", "latitude", "longitude"};
+    private static final int[] SCALES = {2, 2, 2, 2, 2, 4, 6, 6};
+    private static final List<Function<ColdRow, BigDecimal>> GETTERS = List.of(
+            ColdRow::getTemperature, ColdRow::getHumidity, ColdRow::getPulse,
+            ColdRow::getDehydrationLevel, ColdRow::getHeatIndex, ColdRow::getPredictedProbability,
+            ColdRow::getLatitude, ColdRow::getLongitude);
+    private static final List<Function<ColdRow, String>> STRING_GETTERS = List.of(ColdRow::getNotes, ColdRow::getSiteId);
+    // Columns of version 1 segments
+    private static final int V1_DECIMAL_COLUMNS = 6;
+    private static final int V1_STRING_COLUMNS = 1;
+    // First version with null decimals, and with null strings kept apart from empty ones
+    private static final int NULL_DECIMALS_SINCE = 2;
+    private static final int NULL_STRINGS_SINCE = 3;
+
+    private static final int DIRECTORY_ENTRY_BYTES = 24;
+
+    private final MappedByteBuffer buffer;
+    private final int version;
+    private final int rowCount;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final long minId;
+    private final long maxId;
+    private final RiskLevel[] levels;
+    private final long[] patientIds;
+    private final int directoryOffset;
+    private final int timeOffset;
+    private final int idOffset;
+    private final int[] columnOffsets = new int[DECIMAL_COLUMNS.length];
+    private final int[] columnWidths = new int[DECIMAL_COLUMNS.length];
+    private final int levelOffset;
+    private final int[] stringOffsets = new int[STRING_GETTERS.size()];
+
+    private ColdSegmentFile(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.version = buffer.getInt(4);
+        if (buffer.getInt(0) != MAGIC || version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Not a cold segment (version 1 to " + VERSION + ")");
+        }
+        ByteBuffer header = buffer.duplicate().position(8);
+        rowCount = header.getInt();
+        int patientCount = header.getInt();
+        minTimestamp = header.getLong();
+        maxTimestamp = header.getLong();
+        minId = header.getLong();
+        maxId = header.getLong();
+
+        levels = new RiskLevel[header.get()];
+        for (int i = 0; i < levels.length; i++) {
+            byte[] name = new byte[header.get()];
+            header.get(name);
+            levels[i] = RiskLevel.valueOf(new String(name, StandardCharsets.US_ASCII));
+        }
+        directoryOffset = header.getInt();
+        timeOffset = header.getInt();
+        idOffset = header.getInt();
+        for (int i = 0; i < (version == 1 ? V1_DECIMAL_COLUMNS : DECIMAL_COLUMNS.length); i++) {
+            columnWidths[i] = header.get();
+            columnOffsets[i] = header.getInt();
+        }
+        levelOffset = header.getInt();
+        for (int i = 0; i < (version == 1 ? V1_STRING_COLUMNS : stringOffsets.length); i++) {
+            stringOffsets[i] = header.getInt();
+        }
+
+        patientIds = new long[patientCount];
+        for (int i = 0; i < patientCount; i++) {
+            patientIds[i] = buffer.getLong(directoryOffset + i * DIRECTORY_ENTRY_BYTES);
+        }
+    }
+
+    public static ColdSegmentFile open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ColdSegmentFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open cold segment " + path, e);
+        }
+    }
+
+    /**
+     * Writes the rows (any order) to {@code path} through a temporary file and an atomic rename,
+     * forced to disk before it becomes visible.
+     */
+    public static void write(Path path, List<ColdRow> input) {
+        write(path, input, VERSION);
+    }
+
+    // Older versions only for tests that check they still read back
+    static void write(Path path, List<ColdRow> input, int version) {
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("No cold segment version " + version);
+        }
+        int decimalColumns = version == 1 ? V1_DECIMAL_COLUMNS : DECIMAL_COLUMNS.length;
+        int stringColumnCount = version == 1 ? V1_STRING_COLUMNS : STRING_GETTERS.size();
+        List<ColdRow> rows = new ArrayList<>(input);
+        rows.sort(Comparator.comparingLong(ColdRow::getPatientId)
+                .thenComparing(ColdRow::getAssessmentTimestamp)
+                .thenComparingLong(ColdRow::getId));
+        int n = rows.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("Empty segment");
+        }
+
+        long[] times = new long[n];
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        long lowId = Long.MAX_VALUE;
+        long highId = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            times[i] = toMillis(rows.get(i).getAssessmentTimestamp());
+            minTime = Math.min(minTime, times[i]);
+            maxTime = Math.max(maxTime, times[i]);
+            lowId = Math.min(lowId, rows.get(i).getId());
+            highId = Math.max(highId, rows.get(i).getId());
+        }
+
+        ByteArrayOutputStream directory = new ByteArrayOutputStream();
+        ByteArrayOutputStream timeColumn = new ByteArrayOutputStream();
+        ByteArrayOutputStream idColumn = new ByteArrayOutputStream();
+        int patientCount = 0;
+        for (int start = 0; start < n; ) {
+            long patientId = rows.get(start).getPatientId();
+            int end = start;
+            while (end < n && rows.get(end).getPatientId() == patientId) {
+                end++;
+            }
+            ByteBuffer entry = ByteBuffer.allocate(DIRECTORY_ENTRY_BYTES)
+                    .putLong(patientId).putInt(start).putInt(end - start)
+                    .putInt(timeColumn.size()).putInt(idColumn.size());
+            directory.writeBytes(entry.array());
+
+            long previousTime = minTime;
+            long previousId = 0;
+            for (int i = start; i < end; i++) {
+                writeVarint(timeColumn, times[i] - previousTime);
+                writeVarint(idColumn, zigzag(rows.get(i).getId() - previousId));
+                previousTime = times[i];
+                previousId = rows.get(i).getId();
+            }
+            patientCount++;
+            start = end;
+        }
+
+        byte[][] columns = new byte[decimalColumns][];
+        int[] widths = new int[decimalColumns];
+        for (int c = 0; c < decimalColumns; c++) {
+            long[] scaled = new long[n];
+            boolean[] absent = new boolean[n];
+            long min = 0;
+            long max = 0;
+            for (int i = 0; i < n; i++) {
+                BigDecimal value = GETTERS.get(c).apply(rows.get(i));
+                if (value == null) {
+                    if (version < NULL_DECIMALS_SINCE) {
+                        throw new IllegalArgumentException(DECIMAL_COLUMNS[c] + " cannot be null in version " + version);
+                    }
+                    absent[i] = true;
+                    continue;
+                }
+                scaled[i] = value.setScale(SCALES[c], RoundingMode.HALF_UP).unscaledValue().longValueExact();
+                min = Math.min(min, scaled[i]);
+                max = Math.max(max, scaled[i]);
+            }
+            // The smallest value of each width is kept for null
+            widths[c] = min > Short.MIN_VALUE && max <= Short.MAX_VALUE ? 2
+                    : min > Integer.MIN_VALUE && max <= Integer.MAX_VALUE ? 4 : 8;
+            if (min == Long.MIN_VALUE) {
+                throw new IllegalArgumentException(DECIMAL_COLUMNS[c] + " out of range for a cold segment");
+            }
+            ByteBuffer column = ByteBuffer.allocate(n * widths[c]);
+            for (int i = 0; i < n; i++) {
+                switch (widths[c]) {
+                    case 2 -> column.putShort(absent[i] ? Short.MIN_VALUE : (short) scaled[i]);
+                    case 4 -> column.putInt(absent[i] ? Integer.MIN_VALUE : (int) scaled[i]);
+                    default -> column.putLong(absent[i] ? Long.MIN_VALUE : scaled[i]);
+                }
+            }
+            columns[c] = column.array();
+        }
+
+        RiskLevel[] dictionary = RiskLevel.values();
+        byte[] levelColumn = new byte[n];
+        for (int i = 0; i < n; i++) {
+            levelColumn[i] = (byte) rows.get(i).getPredictedRiskLevel().ordinal();
+        }
+
+        // Per string column: n + 1 offsets, then the UTF-8 bytes; a null is an offset of -1 - start
+        byte[][] stringColumns = new byte[stringColumnCount][];
+        for (int c = 0; c < stringColumns.length; c++) {
+            ByteArrayOutputStream blob = new ByteArrayOutputStream();
+            ByteBuffer offsets = ByteBuffer.allocate((n + 1) * 4);
+            for (ColdRow row : rows) {
+                String value = STRING_GETTERS.get(c).apply(row);
+                offsets.putInt(value == null && version >= NULL_STRINGS_SINCE ? -1 - blob.size() : blob.size());
+                if (value != null) {
+                    blob.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            offsets.putInt(blob.size());
+            ByteArrayOutputStream column = new ByteArrayOutputStream(offsets.capacity() + blob.size());
+            column.writeBytes(offsets.array());
+            column.writeBytes(blob.toByteArray());
+            stringColumns[c] = column.toByteArray();
+        }
+
+        int headerSize = 8 + 8 + 4 * 8 + 1 + 4 * 3 + decimalColumns * 5 + 4 + 4 * stringColumns.length;
+        for (RiskLevel level : dictionary) {
+            headerSize += 1 + level.name().length();
+        }
+        int directoryAt = headerSize;
+        int timeAt = directoryAt + directory.size();
+        int idAt = timeAt + timeColumn.size();
+        int[] columnAt = new int[decimalColumns];
+        int position = idAt + idColumn.size();
+        for (int c = 0; c < decimalColumns; c++) {
+            columnAt[c] = position;
+            position += columns[c].length;
+        }
+        int levelAt = position;
+        position += n;
+        int[] stringAt = new int[stringColumns.length];
+        for (int c = 0; c < stringColumns.length; c++) {
+            stringAt[c] = position;
+            position += stringColumns[c].length;
+        }
+        int total = position;
+
+        ByteBuffer out = ByteBuffer.allocate(total);
+        out.putInt(MAGIC).putInt(version).putInt(n).putInt(patientCount)
+                .putLong(minTime).putLong(maxTime).putLong(lowId).putLong(highId);
+        out.put((byte) dictionary.length);
+        for (RiskLevel level : dictionary) {
+            out.put((byte) level.name().length()).put(level.name().getBytes(StandardCharsets.US_ASCII));
+        }
+        out.putInt(directoryAt).putInt(timeAt).putInt(idAt);
+        for (int c = 0; c < decimalColumns; c++) {
+            out.put((byte) widths[c]).putInt(columnAt[c]);
+        }
+        out.putInt(levelAt);
+        for (int at : stringAt) {
+            out.putInt(at);
+        }
+        out.put(directory.toByteArray()).put(timeColumn.toByteArray()).put(idColumn.toByteArray());
+        for (byte[] column : columns) {
+            out.put(column);
+        }
+        out.put(levelColumn);
+        for (byte[] column : stringColumns) {
+            out.put(column);
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write cold segment " + temp, e);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot move cold segment into place " + path, e);
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getPatientCount() {
+        return patientIds.length;
+    }
+
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public long getMinPatientId() {
+        return patientIds[0];
+    }
+
+    public long getMaxPatientId() {
+        return patientIds[patientIds.length - 1];
+    }
+
+    public int countRows(long patientId) {
+        int entry = Arrays.binarySearch(patientIds, patientId);
+        return entry < 0 ? 0 : runLength(entry);
+    }
+
+    /** The patient's rows in ascending timestamp order, limited to [fromMillis, toMillis). */
+    public void forEach(long patientId, long fromMillis, long toMillis, Consumer<ColdRow> consumer) {
+        if (toMillis <= minTimestamp || fromMillis > maxTimestamp) {
+            return;
+        }
+        int entry = Arrays.binarySearch(patientIds, patientId);
+        if (entry < 0) {
+            return;
+        }
+        RunCursor cursor = new RunCursor(entry);
+        while (cursor.next()) {
+            if (cursor.time >= toMillis) {
+                return;
+            }
+            if (cursor.time >= fromMillis) {
+                consumer.accept(cursor.row(patientId));
+            }
+        }
+    }
+
+    /** The patient's rows newest first: {@code limit} of them after skipping {@code offset}. */
+    public List<ColdRow> readNewestFirst(long patientId, int offset, int limit) {
+        int entry = Arrays.binarySearch(patientIds, patientId);
+        if (entry < 0 || limit <= 0) {
+            return List.of();
+        }
+        int length = runLength(entry);
+        // Deltas only decode forwards, so walk up to the oldest wanted row and keep the tail
+        int firstWanted = Math.max(0, length - offset - limit);
+        int lastWanted = length - offset;
+        List<ColdRow> rows = new ArrayList<>(Math.max(0, lastWanted - firstWanted));
+        RunCursor cursor = new RunCursor(entry);
+        for (int i = 0; i < lastWanted && cursor.next(); i++) {
+            if (i >= firstWanted) {
+                rows.add(cursor.row(patientId));
+            }
+        }
+        Collections.reverse(rows);
+        return rows;
+    }
+
+    public ColdRow find(long patientId, long predictionId) {
+        if (predictionId < minId || predictionId > maxId) {
+            return null;
+        }
+        int entry = Arrays.binarySearch(patientIds, patientId);
+        if (entry < 0) {
+            return null;
+        }
+        RunCursor cursor = new RunCursor(entry);
+        while (cursor.next()) {
+            if (cursor.id == predictionId) {
+                return cursor.row(patientId);
+            }
+        }
+        return null;
+    }
+
+    /** Every row not of a patient in {@code skipPatient}, in file order: by patient, then timestamp. */
+    public void forEach(LongPredicate skipPatient, Consumer<ColdRow> consumer) {
+        for (int entry = 0; entry < patientIds.length; entry++) {
+            long patientId = patientIds[entry];
+            if (skipPatient.test(patientId)) {
+                continue;
+            }
+            RunCursor cursor = new RunCursor(entry);
+            while (cursor.next()) {
+                consumer.accept(cursor.row(patientId));
+            }
+        }
+    }
+
+    /**
+     * Rows of all patients but those in {@code skipPatient}, newest first (then highest id): {@code limit}
+     * of them after skipping {@code offset}. Only timestamps and ids are decoded to order the segment.
+     */
+    public List<ColdRow> readNewestFirst(LongPredicate skipPatient, int offset, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        int[] rowsInOrder = new int[rowCount];
+        long[] times = new long[rowCount];
+        long[] ids = new long[rowCount];
+        long[] patients = new long[rowCount];
+        int n = 0;
+        for (int entry = 0; entry < patientIds.length; entry++) {
+            if (skipPatient.test(patientIds[entry])) {
+                continue;
+            }
+            RunCursor cursor = new RunCursor(entry);
+            while (cursor.next()) {
+                rowsInOrder[n] = cursor.row;
+                times[cursor.row] = cursor.time;
+                ids[cursor.row] = cursor.id;
+                patients[cursor.row] = patientIds[entry];
+                n++;
+            }
+        }
+        if (offset >= n) {
+            return List.of();
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = rowsInOrder[i];
+        }
+        Arrays.sort(order, (a, b) -> times[a] != times[b]
+                ? Long.compare(times[b], times[a])
+                : Long.compare(ids[b], ids[a]));
+        int end = (int) Math.min(n, (long) offset + limit);
+        List<ColdRow> rows = new ArrayList<>(end - offset);
+        for (int i = offset; i < end; i++) {
+            int row = order[i];
+            rows.add(row(row, ids[row], patients[row], times[row]));
+        }
+        return rows;
+    }
+
+    /** The prediction whoever it belongs to, walking each patient's ids until it is found. */
+    public ColdRow find(long predictionId) {
+        if (predictionId < minId || predictionId > maxId) {
+            return null;
+        }
+        for (int entry = 0; entry < patientIds.length; entry++) {
+            RunCursor cursor = new RunCursor(entry);
+            while (cursor.next()) {
+                if (cursor.id == predictionId) {
+                    return cursor.row(patientIds[entry]);
+                }
+            }
+        }
+        return null;
+    }
+
+    private int runLength(int entry) {
+        return buffer.getInt(directoryOffset + entry * DIRECTORY_ENTRY_BYTES + 12);
+    }
+
+    private BigDecimal decimal(int column, int row) {
+        if (columnWidths[column] == 0) {
+            return null;
+        }
+        int at = columnOffsets[column] + row * columnWidths[column];
+        long unscaled;
+        boolean absent;
+        switch (columnWidths[column]) {
+            case 2 -> {
+                unscaled = buffer.getShort(at);
+                absent = unscaled == Short.MIN_VALUE;
+            }
+            case 4 -> {
+                unscaled = buffer.getInt(at);
+                absent = unscaled == Integer.MIN_VALUE;
+            }
+            default -> {
+                unscaled = buffer.getLong(at);
+                absent = unscaled == Long.MIN_VALUE;
+            }
+        }
+        // Version 1 columns have no nulls
+        return absent && version >= NULL_DECIMALS_SINCE ? null : BigDecimal.valueOf(unscaled, SCALES[column]);
+    }
+
+    private String string(int column, int row) {
+        int offsets = stringOffsets[column];
+        if (offsets == 0) {
+            return null;
+        }
+        int start = buffer.getInt(offsets + row * 4);
+        int end = buffer.getInt(offsets + (row + 1) * 4);
+        if (version < NULL_STRINGS_SINCE ? start == end : start < 0) {
+            return null;
+        }
+        // The next row's offset is negative when that row is null
+        end = end < 0 ? -1 - end : end;
+        byte[] bytes = new byte[end - start];
+        buffer.get(offsets + (rowCount + 1) * 4 + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ColdRow row(int row, long id, long patientId, long time) {
+        return new ColdRow(id, patientId,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC),
+                decimal(0, row), decimal(1, row), decimal(2, row), decimal(3, row), decimal(4, row),
+                decimal(5, row), levels[buffer.get(levelOffset + row)], string(0, row),
+                decimal(6, row), decimal(7, row), string(1, row));
+    }
+
+    // Decodes one patient's run front to back
+    private final class RunCursor {
+        private final int end;
+        private int row;
+        private int timePosition;
+        private int idPosition;
+        long time = minTimestamp;
+        long id;
+
+        RunCursor(int entry) {
+            int at = directoryOffset + entry * DIRECTORY_ENTRY_BYTES + 8;
+            row = buffer.getInt(at) - 1;
+            end = row + 1 + buffer.getInt(at + 4);
+            timePosition = timeOffset + buffer.getInt(at + 8);
+            idPosition = idOffset + buffer.getInt(at + 12);
+        }
+
+        boolean next() {
+            if (row + 1 >= end) {
+                return false;
+            }
+            row++;
+            time += readVarint(true);
+            id += unzigzag(readVarint(false));
+            return true;
+        }
+
+        ColdRow row(long patientId) {
+            return ColdSegmentFile.this.row(row, id, patientId, time);
+        }
+
+        private long readVarint(boolean timeColumn) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(timeColumn ? timePosition++ : idPosition++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,32 @@
+package heat.main.archive.controller;
+
+import heat.main.archive.dto.ArchiveRunDto;
+import heat.main.archive.dto.ArchiveStatsDto;
+import heat.main.archive.service.ColdStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final ColdStorageService coldStorage;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ArchiveStatsDto getStats() {
+        return coldStorage.getStats();
+    }
+
+    // Archives everything past the age limit now instead of waiting for the schedule
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ArchiveRunDto run() {
+        return coldStorage.archive();
+    }
+}
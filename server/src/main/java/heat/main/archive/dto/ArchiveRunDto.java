@@ -0,0 +1,20 @@
+package heat.main.archive.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveRunDto {
+    private LocalDateTime cutoff;
+    private int segmentsWritten;
+    private long rowsArchived;
+    private long bytesWritten;
+    // Rows of deleted patients removed from existing segments
+    private long rowsPurged;
+    private long durationMs;
+}
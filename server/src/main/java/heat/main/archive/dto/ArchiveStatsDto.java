@@ -0,0 +1,24 @@
+package heat.main.archive.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveStatsDto {
+    private boolean enabled;
+    private int olderThanDays;
+    private int segments;
+    // Registered segments whose file is not in this instance's archive directory
+    private int missingSegments;
+    private long rows;
+    private long bytes;
+    private double bytesPerRow;
+    private LocalDateTime oldest;
+    private LocalDateTime newest;
+    private ArchiveRunDto lastRun;
+}
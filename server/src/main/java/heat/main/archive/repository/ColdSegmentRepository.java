@@ -0,0 +1,7 @@
+package heat.main.archive.repository;
+
+import heat.main.domain.ColdSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ColdSegmentRepository extends JpaRepository<ColdSegment, String> {
+}
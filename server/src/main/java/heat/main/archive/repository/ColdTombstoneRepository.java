@@ -0,0 +1,7 @@
+package heat.main.archive.repository;
+
+import heat.main.domain.ColdTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ColdTombstoneRepository extends JpaRepository<ColdTombstone, Long> {
+}
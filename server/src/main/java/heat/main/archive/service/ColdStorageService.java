@@ -0,0 +1,649 @@
+package heat.main.archive.service;
+
+import heat.main.archive.ColdRow;
+import heat.main.archive.ColdSegmentFile;
+import heat.main.archive.dto.ArchiveRunDto;
+import heat.main.archive.dto.ArchiveStatsDto;
+import heat.main.archive.repository.ColdSegmentRepository;
+import heat.main.archive.repository.ColdTombstoneRepository;
+import heat.main.config.ArchiveProperties;
+import heat.main.domain.ColdSegment;
+import heat.main.domain.ColdTombstone;
+import heat.main.enums.RiskLevel;
+import heat.main.invalidation.EntityChange;
+import heat.main.invalidation.event.ChangesMissedEvent;
+import heat.main.invalidation.event.EntityChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Cold tier for predictions: moves rows older than heat.archive.older-than-days out of
+ * core_prediction into {@link ColdSegmentFile}s and answers per-patient reads from them.
+ * A segment becomes part of the archive in the same transaction that deletes its rows, so a
+ * prediction is always in exactly one tier; other instances see new segments after their next
+ * registry refresh.
+ *
+ * <p>Deleting a patient leaves a tombstone in core_cold_tombstone. The patient's archived rows are
+ * hidden from every read as soon as the deletion commits (on other instances once the invalidation
+ * bus or the next refresh tells them), and the next archive run rewrites the segments without them.
+ */
+@Slf4j
+@Service
+public class ColdStorageService {
+
+    private static final String EXTENSION = ".seg";
+
+    private final ArchiveProperties properties;
+    private final ColdSegmentRepository segmentRepository;
+    private final ColdTombstoneRepository tombstoneRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String selectSql;
+    private final String deleteSql;
+    private final String unregisterSql;
+    private final String deleteTombstoneSql;
+    private final Path directory;
+
+    // Newest segment first; replaced wholesale under this service's monitor
+    private volatile List<OpenSegment> segments = List.of();
+    // Deleted patients whose rows may still be in segments; replaced wholesale under the deletions lock,
+    // which unlike refresh() is never held across a query
+    private volatile Set<Long> deletedPatients = Set.of();
+    private final Object deletions = new Object();
+    private volatile int missingSegments;
+    private volatile ArchiveRunDto lastRun;
+    private final AtomicBoolean archiving = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    public ColdStorageService(ArchiveProperties properties, ColdSegmentRepository segmentRepository,
+                              ColdTombstoneRepository tombstoneRepository,
+                              JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.properties = properties;
+        this.segmentRepository = segmentRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Path.of(properties.getDirectory());
+        String prefix = schema.isEmpty() ? "" : schema + ".";
+        String table = prefix + "core_prediction";
+        // Oldest ids first walks the primary key; ids follow assessment time closely enough
+        // that consecutive segments barely overlap in time
+        this.selectSql = "SELECT id, patient_id, assessment_timestamp, temperature, humidity, pulse,"
+                + " dehydration_level, heat_index, predicted_probability, predicted_risk_level, notes,"
+                + " latitude, longitude, site_id"
+                + " FROM " + table + " WHERE assessment_timestamp < ? ORDER BY id LIMIT ?";
+        this.deleteSql = "DELETE FROM " + table + " WHERE id BETWEEN ? AND ? AND assessment_timestamp < ?";
+        this.unregisterSql = "DELETE FROM " + prefix + "core_cold_segment WHERE id = ?";
+        this.deleteTombstoneSql = "DELETE FROM " + prefix + "core_cold_tombstone WHERE patient_id = ?";
+    }
+
+    @PostConstruct
+    void start() {
+        // Before the first request, so cold rows are never missing from a listing
+        refresh();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cold-storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (properties.getRefreshSeconds() > 0) {
+            scheduler.scheduleWithFixedDelay(this::refresh, properties.getRefreshSeconds(),
+                    properties.getRefreshSeconds(), TimeUnit.SECONDS);
+        }
+        if (properties.isEnabled() && properties.getIntervalMinutes() > 0) {
+            scheduler.scheduleWithFixedDelay(this::scheduledArchive, properties.getIntervalMinutes(),
+                    properties.getIntervalMinutes(), TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public ArchiveRunDto archive() {
+        if (!properties.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Archiving is disabled (heat.archive.enabled)");
+        }
+        if (!archiving.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Archiving is already running");
+        }
+        try {
+            return archiveOlderThan(LocalDateTime.now().minusDays(properties.getOlderThanDays()));
+        } finally {
+            archiving.set(false);
+        }
+    }
+
+    private void scheduledArchive() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.warn("Scheduled archiving failed: {}", e.getMessage());
+        }
+    }
+
+    private ArchiveRunDto archiveOlderThan(LocalDateTime cutoff) {
+        long started = System.nanoTime();
+        int written = 0;
+        long rows = 0;
+        long bytes = 0;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create archive directory " + directory, e);
+        }
+        long purged = purgeDeletedPatients();
+
+        while (true) {
+            List<ColdRow> chunk = jdbcTemplate.query(selectSql, (rs, rowNum) -> new ColdRow(
+                    rs.getLong("id"),
+                    rs.getLong("patient_id"),
+                    rs.getTimestamp("assessment_timestamp").toLocalDateTime(),
+                    rs.getBigDecimal("temperature"),
+                    rs.getBigDecimal("humidity"),
+                    rs.getBigDecimal("pulse"),
+                    rs.getBigDecimal("dehydration_level"),
+                    rs.getBigDecimal("heat_index"),
+                    rs.getBigDecimal("predicted_probability"),
+                    RiskLevel.valueOf(rs.getString("predicted_risk_level")),
+                    rs.getString("notes"),
+                    rs.getBigDecimal("latitude"),
+                    rs.getBigDecimal("longitude"),
+                    rs.getString("site_id")), Timestamp.valueOf(cutoff), properties.getSegmentRows());
+            if (chunk.isEmpty()) {
+                break;
+            }
+            OpenSegment segment = writeSegment(chunk, cutoff);
+            if (segment == null) {
+                break;
+            }
+            written++;
+            rows += chunk.size();
+            bytes += segment.info.getSizeBytes();
+            if (chunk.size() < properties.getSegmentRows()) {
+                break;
+            }
+        }
+
+        ArchiveRunDto run = new ArchiveRunDto(cutoff, written, rows, bytes, purged,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        lastRun = run;
+        if (written > 0) {
+            log.info("Archived {} predictions older than {} into {} segments ({} bytes, {} ms)",
+                    rows, cutoff, written, bytes, run.getDurationMs());
+        }
+        return run;
+    }
+
+    // Null when the rows changed underneath (another instance archived them first)
+    private OpenSegment writeSegment(List<ColdRow> rows, LocalDateTime cutoff) {
+        long minId = rows.stream().mapToLong(ColdRow::getId).min().orElseThrow();
+        long maxId = rows.stream().mapToLong(ColdRow::getId).max().orElseThrow();
+        String id = String.format("pred-%019d-%019d", minId, maxId);
+        Path file = directory.resolve(id + EXTENSION);
+        ColdSegmentFile.write(file, rows);
+
+        try {
+            ColdSegmentFile segmentFile = ColdSegmentFile.open(file);
+            ColdSegment info = describe(id, segmentFile, minId, maxId, file);
+
+            Boolean committed = transactionTemplate.execute(status -> {
+                int deleted = jdbcTemplate.update(deleteSql, minId, maxId, Timestamp.valueOf(cutoff));
+                if (deleted != rows.size()) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                segmentRepository.save(info);
+                return true;
+            });
+            if (!Boolean.TRUE.equals(committed)) {
+                log.warn("Predictions {}..{} changed while being archived, segment discarded", minId, maxId);
+                Files.deleteIfExists(file);
+                return null;
+            }
+
+            OpenSegment segment = new OpenSegment(info, segmentFile);
+            replaceSegment(null, segment);
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Unregistered files are never read
+            }
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new UncheckedIOException((IOException) e);
+        }
+    }
+
+    /**
+     * Rewrites every segment holding rows of deleted patients without them, and drops the tombstones
+     * once no segment holds such rows. Returns the number of rows removed.
+     */
+    private long purgeDeletedPatients() {
+        // Segments another instance archived before the patient was deleted must be seen, or the
+        // tombstone would go while they still hold the patient's rows
+        refresh();
+        Set<Long> deleted = deletedPatients;
+        if (deleted.isEmpty()) {
+            return 0;
+        }
+        long purged = 0;
+        boolean complete = missingSegments == 0;
+        for (OpenSegment segment : segments) {
+            if (segment.hiddenRows(deleted) == 0) {
+                continue;
+            }
+            long removed = rewriteWithout(segment, deleted);
+            if (removed < 0) {
+                complete = false;
+            } else {
+                purged += removed;
+            }
+        }
+        if (complete) {
+            for (Long patientId : deleted) {
+                jdbcTemplate.update(deleteTombstoneSql, patientId);
+            }
+            refresh();
+        }
+        if (purged > 0) {
+            log.info("Purged {} archived predictions of {} deleted patients", purged, deleted.size());
+        }
+        return purged;
+    }
+
+    // -1 when another instance replaced or removed the segment first
+    private long rewriteWithout(OpenSegment segment, Set<Long> deleted) {
+        List<ColdRow> kept = new ArrayList<>(segment.info.getRowCount());
+        segment.file.forEach(deleted::contains, kept::add);
+        long removed = segment.info.getRowCount() - kept.size();
+        OpenSegment replacement = null;
+        Path file = null;
+        if (!kept.isEmpty()) {
+            long minId = kept.stream().mapToLong(ColdRow::getId).min().orElseThrow();
+            long maxId = kept.stream().mapToLong(ColdRow::getId).max().orElseThrow();
+            // A new name, so readers still holding the old file are not pulled from under
+            String id = String.format("pred-%019d-%019d-r%d", minId, maxId, System.currentTimeMillis());
+            file = directory.resolve(id + EXTENSION);
+            ColdSegmentFile.write(file, kept);
+            ColdSegmentFile segmentFile = ColdSegmentFile.open(file);
+            replacement = new OpenSegment(describe(id, segmentFile, minId, maxId, file), segmentFile);
+        }
+
+        ColdSegment info = replacement != null ? replacement.info : null;
+        Boolean committed = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(unregisterSql, segment.info.getId()) != 1) {
+                status.setRollbackOnly();
+                return false;
+            }
+            if (info != null) {
+                segmentRepository.save(info);
+            }
+            return true;
+        });
+        try {
+            if (!Boolean.TRUE.equals(committed)) {
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+                return -1;
+            }
+            Files.deleteIfExists(directory.resolve(segment.info.getId() + EXTENSION));
+        } catch (IOException e) {
+            log.warn("Cannot delete cold segment file: {}", e.getMessage());
+        }
+
+        replaceSegment(segment, replacement);
+        return removed;
+    }
+
+    // Holds refresh()'s monitor: a refresh that read the registry before this change committed would
+    // otherwise overwrite it. One that read it after may already hold the new segment, so ids are replaced.
+    private synchronized void replaceSegment(OpenSegment removed, OpenSegment added) {
+        List<OpenSegment> updated = new ArrayList<>(segments);
+        if (removed != null) {
+            updated.removeIf(segment -> segment.info.getId().equals(removed.info.getId()));
+        }
+        if (added != null) {
+            updated.removeIf(segment -> segment.info.getId().equals(added.info.getId()));
+            updated.add(added);
+        }
+        updated.sort(NEWEST_FIRST);
+        segments = List.copyOf(updated);
+    }
+
+    /** Records the patient's deletion in the caller's transaction; their archived rows are hidden once it commits. */
+    public void forgetPatient(long patientId) {
+        tombstoneRepository.save(ColdTombstone.builder()
+                .patientId(patientId)
+                .deletedAt(LocalDateTime.now())
+                .build());
+    }
+
+    // Deletions on this instance and, through the invalidation bus, on the others
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        EntityChange change = event.getChange();
+        if (change.getType() == EntityChange.Type.USER && change.getAction() == EntityChange.Action.DELETED) {
+            synchronized (deletions) {
+                Set<Long> updated = new HashSet<>(deletedPatients);
+                updated.add(change.getId());
+                deletedPatients = Set.copyOf(updated);
+            }
+        }
+    }
+
+    @EventListener
+    public void onChangesMissed(ChangesMissedEvent event) {
+        refresh();
+    }
+
+    private static ColdSegment describe(String id, ColdSegmentFile segmentFile, long minId, long maxId, Path file) {
+        try {
+            return ColdSegment.builder()
+                    .id(id)
+                    .rowCount(segmentFile.getRowCount())
+                    .patientCount(segmentFile.getPatientCount())
+                    .minPredictionId(minId)
+                    .maxPredictionId(maxId)
+                    .minPatientId(segmentFile.getMinPatientId())
+                    .maxPatientId(segmentFile.getMaxPatientId())
+                    .minTimestamp(toLocal(segmentFile.getMinTimestamp()))
+                    .maxTimestamp(toLocal(segmentFile.getMaxTimestamp()))
+                    .sizeBytes(Files.size(file))
+                    .createdAt(LocalDateTime.now())
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read cold segment " + file, e);
+        }
+    }
+
+    synchronized void refresh() {
+        List<ColdSegment> registered;
+        Set<Long> before = deletedPatients;
+        List<Long> tombstones;
+        try {
+            registered = segmentRepository.findAll();
+            tombstones = tombstoneRepository.findAll().stream().map(ColdTombstone::getPatientId).toList();
+        } catch (DataAccessException e) {
+            log.warn("Cold segment registry unavailable: {}", e.getMessage());
+            return;
+        }
+        // Deletions heard while the tombstones were read may have committed after that read
+        synchronized (deletions) {
+            Set<Long> updated = new HashSet<>(tombstones);
+            deletedPatients.stream().filter(id -> !before.contains(id)).forEach(updated::add);
+            deletedPatients = Set.copyOf(updated);
+        }
+
+        Map<String, OpenSegment> open = new HashMap<>();
+        segments.forEach(segment -> open.put(segment.info.getId(), segment));
+        List<OpenSegment> updated = new ArrayList<>(registered.size());
+        int missing = 0;
+        for (ColdSegment info : registered) {
+            OpenSegment segment = open.get(info.getId());
+            if (segment == null) {
+                Path file = directory.resolve(info.getId() + EXTENSION);
+                if (!Files.exists(file)) {
+                    missing++;
+                    continue;
+                }
+                segment = new OpenSegment(info, ColdSegmentFile.open(file));
+            }
+            updated.add(segment);
+        }
+        if (missing > 0 && missing != missingSegments) {
+            log.warn("{} registered cold segments are not in {}; their predictions cannot be read here",
+                    missing, directory.toAbsolutePath());
+        }
+        updated.sort(NEWEST_FIRST);
+        segments = List.copyOf(updated);
+        missingSegments = missing;
+    }
+
+    public long count(long patientId) {
+        if (deletedPatients.contains(patientId)) {
+            return 0;
+        }
+        long count = 0;
+        for (OpenSegment segment : segments) {
+            if (segment.covers(patientId)) {
+                count += segment.file.countRows(patientId);
+            }
+        }
+        return count;
+    }
+
+    /** The patient's archived rows, newest first. */
+    public List<ColdRow> readNewestFirst(long patientId, long offset, int limit) {
+        if (deletedPatients.contains(patientId)) {
+            return List.of();
+        }
+        List<ColdRow> rows = new ArrayList<>(Math.min(limit, 1024));
+        long skip = offset;
+        for (OpenSegment segment : segments) {
+            if (rows.size() >= limit) {
+                break;
+            }
+            if (!segment.covers(patientId)) {
+                continue;
+            }
+            int inSegment = segment.file.countRows(patientId);
+            if (skip >= inSegment) {
+                skip -= inSegment;
+                continue;
+            }
+            rows.addAll(segment.file.readNewestFirst(patientId, (int) skip, limit - rows.size()));
+            skip = 0;
+        }
+        return rows;
+    }
+
+    /** The patient's archived rows in [from, to), oldest first. */
+    public void forEach(long patientId, LocalDateTime from, LocalDateTime to, Consumer<ColdRow> consumer) {
+        if (deletedPatients.contains(patientId)) {
+            return;
+        }
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+        List<OpenSegment> current = segments;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            OpenSegment segment = current.get(i);
+            if (segment.covers(patientId)) {
+                segment.file.forEach(patientId, fromMillis, toMillis, consumer);
+            }
+        }
+    }
+
+    public ColdRow find(long patientId, long predictionId) {
+        if (deletedPatients.contains(patientId)) {
+            return null;
+        }
+        for (OpenSegment segment : segments) {
+            if (segment.covers(patientId) && predictionId >= segment.info.getMinPredictionId()
+                    && predictionId <= segment.info.getMaxPredictionId()) {
+                ColdRow row = segment.file.find(patientId, predictionId);
+                if (row != null) {
+                    return row;
+                }
+            }
+        }
+        return null;
+    }
+
+    public LocalDateTime firstTimestamp(long patientId) {
+        if (deletedPatients.contains(patientId)) {
+            return null;
+        }
+        List<OpenSegment> current = segments;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            OpenSegment segment = current.get(i);
+            int inSegment = segment.covers(patientId) ? segment.file.countRows(patientId) : 0;
+            if (inSegment > 0) {
+                return segment.file.readNewestFirst(patientId, inSegment - 1, 1).get(0).getAssessmentTimestamp();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Identifies the archive as this instance reads it: changes whenever a segment is added, rewritten or
+     * removed and whenever a patient is deleted, and is the same on instances that see the same state.
+     */
+    public String getVersion() {
+        List<OpenSegment> current = segments;
+        long rows = 0;
+        int ids = 0;
+        for (OpenSegment segment : current) {
+            rows += segment.info.getRowCount();
+            ids += segment.info.getId().hashCode();
+        }
+        Set<Long> deleted = deletedPatients;
+        int patients = 0;
+        for (Long patientId : deleted) {
+            patients += Long.hashCode(patientId);
+        }
+        return current.size() + "." + rows + "." + Integer.toHexString(ids) + "." + deleted.size()
+                + "." + Integer.toHexString(patients);
+    }
+
+    /** All archived rows but those of deleted patients. */
+    public long countAll() {
+        Set<Long> deleted = deletedPatients;
+        long count = 0;
+        for (OpenSegment segment : segments) {
+            count += segment.info.getRowCount() - segment.hiddenRows(deleted);
+        }
+        return count;
+    }
+
+    /**
+     * All patients' archived rows, newest first. Segments are taken newest first and ordered within
+     * themselves; they barely overlap in time, so the order is exact up to those overlaps.
+     */
+    public List<ColdRow> readAllNewestFirst(long offset, int limit) {
+        Set<Long> deleted = deletedPatients;
+        List<ColdRow> rows = new ArrayList<>(Math.min(limit, 1024));
+        long skip = offset;
+        for (OpenSegment segment : segments) {
+            if (rows.size() >= limit) {
+                break;
+            }
+            long visible = segment.info.getRowCount() - segment.hiddenRows(deleted);
+            if (skip >= visible) {
+                skip -= visible;
+                continue;
+            }
+            rows.addAll(segment.file.readNewestFirst(deleted::contains, (int) skip, limit - rows.size()));
+            skip = 0;
+        }
+        return rows;
+    }
+
+    /** An archived prediction of any patient, e.g. one whose outcome is reported late. */
+    public ColdRow find(long predictionId) {
+        Set<Long> deleted = deletedPatients;
+        for (OpenSegment segment : segments) {
+            if (predictionId >= segment.info.getMinPredictionId() && predictionId <= segment.info.getMaxPredictionId()) {
+                ColdRow row = segment.file.find(predictionId);
+                if (row != null) {
+                    return deleted.contains(row.getPatientId()) ? null : row;
+                }
+            }
+        }
+        return null;
+    }
+
+    public ArchiveStatsDto getStats() {
+        List<OpenSegment> current = segments;
+        long rows = current.stream().mapToLong(s -> s.info.getRowCount()).sum();
+        long bytes = current.stream().mapToLong(s -> s.info.getSizeBytes()).sum();
+        return new ArchiveStatsDto(
+                properties.isEnabled(),
+                properties.getOlderThanDays(),
+                current.size(),
+                missingSegments,
+                rows,
+                bytes,
+                rows > 0 ? (double) bytes / rows : 0,
+                current.stream().map(s -> s.info.getMinTimestamp()).min(Comparator.naturalOrder()).orElse(null),
+                current.stream().map(s -> s.info.getMaxTimestamp()).max(Comparator.naturalOrder()).orElse(null),
+                lastRun);
+    }
+
+    private static final Comparator<OpenSegment> NEWEST_FIRST = Comparator
+            .comparing((OpenSegment s) -> s.info.getMaxTimestamp()).reversed()
+            .thenComparing(s -> s.info.getMaxPredictionId(), Comparator.reverseOrder());
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static final class OpenSegment {
+        private final ColdSegment info;
+        private final ColdSegmentFile file;
+
+        OpenSegment(ColdSegment info, ColdSegmentFile file) {
+            this.info = info;
+            this.file = file;
+        }
+
+        boolean covers(long patientId) {
+            return patientId >= info.getMinPatientId() && patientId <= info.getMaxPatientId();
+        }
+
+        // Rows of deleted patients still in this segment
+        long hiddenRows(Set<Long> deleted) {
+            long hidden = 0;
+            for (Long patientId : deleted) {
+                if (covers(patientId)) {
+                    hidden += file.countRows(patientId);
+                }
+            }
+            return hidden;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package heat.main.backfill.controller;
+
+import heat.main.backfill.dto.BackfillRunDto;
+import heat.main.backfill.dto.StartBackfillRequestDto;
+import heat.main.backfill.service.BackfillService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/backfill/runs")
+@RequiredArgsConstructor
+public class BackfillController {
+
+    private final BackfillService backfillService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<BackfillRunDto> getRuns() {
+        return backfillService.getRuns();
+    }
+
+    @GetMapping("/{runId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BackfillRunDto getRun(@PathVariable String runId) {
+        return backfillService.getRun(runId);
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BackfillRunDto> start(@RequestBody(required = false) @Valid StartBackfillRequestDto request) {
+        BackfillRunDto run = backfillService.start(request != null ? request : new StartBackfillRequestDto());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+    }
+
+    @PostMapping("/{runId}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BackfillRunDto> resume(@PathVariable String runId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(backfillService.resume(runId));
+    }
+
+    @PostMapping("/{runId}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BackfillRunDto cancel(@PathVariable String runId) {
+        return backfillService.cancel(runId);
+    }
+}
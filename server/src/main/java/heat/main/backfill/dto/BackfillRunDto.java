@@ -0,0 +1,27 @@
+package heat.main.backfill.dto;
+
+import heat.main.enums.BackfillStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillRunDto {
+    private String id;
+    private String modelVersion;
+    private BackfillStatus status;
+    private long totalRows;
+    private long rowsDone;
+    private long rowsChanged;           // re-scored risk level differs from the stored one
+    private int partitions;
+    private int partitionsCompleted;
+    private double rowsPerSecond;       // since this instance started or resumed the run
+    private Long etaSeconds;            // null when not running or no throughput yet
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,25 @@
+package heat.main.backfill.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StartBackfillRequestDto {
+
+    // Generated from the start time when absent
+    @Size(max = 64)
+    @Pattern(regexp = "[A-Za-z0-9._-]+")
+    private String runId;
+
+    // Classpath PMML resource; defaults to the production model
+    private String modelResource;
+
+    // Classpath imputation rules; defaults to heat.model.imputation-rules
+    private String imputationRules;
+}
@@ -0,0 +1,11 @@
+package heat.main.backfill.repository;
+
+import heat.main.domain.BackfillPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BackfillPartitionRepository extends JpaRepository<BackfillPartition, Long> {
+
+    List<BackfillPartition> findByRunIdOrderByFromId(String runId);
+}
@@ -0,0 +1,14 @@
+package heat.main.backfill.repository;
+
+import heat.main.domain.BackfillRun;
+import heat.main.enums.BackfillStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BackfillRunRepository extends JpaRepository<BackfillRun, String> {
+
+    List<BackfillRun> findAllByOrderByCreatedAtDesc();
+
+    List<BackfillRun> findByStatus(BackfillStatus status);
+}
@@ -0,0 +1,631 @@
+package heat.main.backfill.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import heat.main.ModelRunner;
+import heat.main.backfill.dto.BackfillRunDto;
+import heat.main.backfill.dto.StartBackfillRequestDto;
+import heat.main.backfill.repository.BackfillPartitionRepository;
+import heat.main.backfill.repository.BackfillRunRepository;
+import heat.main.config.BackfillProperties;
+import heat.main.domain.BackfillPartition;
+import heat.main.domain.BackfillRun;
+import heat.main.enums.BackfillStatus;
+import heat.main.imputation.FeatureImputer;
+import heat.main.imputation.RawReading;
+import heat.main.scoring.ScoringModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Re-scores historical predictions with a given model into core_prediction_rescore. A run splits
+ * the id space into partitions, streams each one with a forward-only cursor on a work-stealing
+ * pool and commits every result batch together with the partition checkpoint, so an interrupted
+ * run resumes where it left off without duplicating rows. One run at a time per instance.
+ *
+ * <p>The instance running a backfill renews a lease on its run. Another instance marks a RUNNING run
+ * INTERRUPTED, and may resume it, only once that lease has expired.
+ *
+ * <p>Only the vitals are stored with a prediction; sex, weight and BMI come from the patient's
+ * current profile and everything else is imputed, as for a live request that omits it.
+ */
+@Slf4j
+@Service
+public class BackfillService {
+
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final BackfillProperties properties;
+    private final BackfillRunRepository runRepository;
+    private final BackfillPartitionRepository partitionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<HikariDataSource> pools;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate batchTransaction;
+    private final String defaultImputationRules;
+
+    private final String rangeSql;
+    private final String selectSql;
+    private final String insertSql;
+    private final String checkpointSql;
+    private final String claimSql;
+    private final String expireSql;
+    private final String heartbeatSql;
+    private final String finishSql;
+    // Unique per process, also across restarts of one container
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "#"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    private final Object lock = new Object();
+    private volatile ActiveRun active;
+    private ScheduledExecutorService scheduler;
+
+    public BackfillService(BackfillProperties properties,
+                           BackfillRunRepository runRepository,
+                           BackfillPartitionRepository partitionRepository,
+                           JdbcTemplate jdbcTemplate,
+                           ObjectProvider<HikariDataSource> pools,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema,
+                           @Value("${heat.model.imputation-rules}") String defaultImputationRules) {
+        this.properties = properties;
+        this.runRepository = runRepository;
+        this.partitionRepository = partitionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.pools = pools.orderedStream().collect(Collectors.toList());
+        this.defaultImputationRules = defaultImputationRules;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Read-only, so the cursor is served by the read pool (or replica)
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        // Result batches commit on their own while the partition's cursor stays open
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        String prefix = schema.isEmpty() ? "" : schema + ".";
+        this.rangeSql = "SELECT min(id), max(id), count(*) FROM " + prefix + "core_prediction";
+        this.selectSql = "SELECT p.id, p.temperature, p.humidity, p.pulse, p.dehydration_level, p.heat_index,"
+                + " p.predicted_risk_level, u.gender, u.weight, u.bmi"
+                + " FROM " + prefix + "core_prediction p JOIN " + prefix + "core_user u ON u.id = p.patient_id"
+                + " WHERE p.id > ? AND p.id < ? ORDER BY p.id";
+        this.insertSql = "INSERT INTO " + prefix + "core_prediction_rescore"
+                + " (run_id, prediction_id, predicted_probability, predicted_risk_level,"
+                + " low_probability, moderate_probability, high_probability) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        this.checkpointSql = "UPDATE " + prefix + "core_backfill_partition"
+                + " SET last_id = ?, rows_done = rows_done + ?, rows_changed = rows_changed + ?, completed = ?"
+                + " WHERE id = ?";
+        String run = prefix + "core_backfill_run";
+        // A run can be taken unless it is completed or another instance still holds its lease
+        String available = " WHERE id = ? AND status <> 'COMPLETED'"
+                + " AND (status <> 'RUNNING' OR heartbeat_at IS NULL OR heartbeat_at < ?)";
+        this.claimSql = "UPDATE " + run + " SET status = 'RUNNING', owner = ?, heartbeat_at = ?,"
+                + " finished_at = NULL, error = NULL" + available;
+        this.expireSql = "UPDATE " + run + " SET status = 'INTERRUPTED'" + available + " AND status = 'RUNNING'";
+        this.heartbeatSql = "UPDATE " + run + " SET heartbeat_at = ? WHERE id = ? AND owner = ? AND status = 'RUNNING'";
+        this.finishSql = "UPDATE " + run + " SET status = ?, finished_at = ?, error = ? WHERE id = ? AND owner = ?";
+    }
+
+    @PostConstruct
+    void startHeartbeat() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "backfill-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::heartbeat, properties.getHeartbeatSeconds(),
+                properties.getHeartbeatSeconds(), TimeUnit.SECONDS);
+    }
+
+    // Then once per lease, for instances that go away while this one is up
+    @EventListener(ApplicationReadyEvent.class)
+    void startRecovery() {
+        recoverInterrupted();
+        scheduler.scheduleWithFixedDelay(this::recoverInterrupted, properties.getLeaseSeconds(),
+                properties.getLeaseSeconds(), TimeUnit.SECONDS);
+    }
+
+    // Runs still RUNNING under an expired lease belonged to an instance that went away mid-run
+    void recoverInterrupted() {
+        List<String> interrupted = new ArrayList<>();
+        try {
+            Timestamp expired = Timestamp.valueOf(LocalDateTime.now().minusSeconds(properties.getLeaseSeconds()));
+            for (BackfillRun run : runRepository.findByStatus(BackfillStatus.RUNNING)) {
+                if (jdbcTemplate.update(expireSql, run.getId(), expired) == 1) {
+                    interrupted.add(run.getId());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not check for abandoned backfill runs: {}", e.getMessage());
+            return;
+        }
+        if (interrupted.isEmpty()) {
+            return;
+        }
+        log.warn("Backfill runs abandoned by their instance: {}", interrupted);
+
+        if (properties.isResumeInterrupted() && active == null) {
+            try {
+                resume(interrupted.get(0));
+            } catch (ResponseStatusException e) {
+                // Another instance resumed it first, or this one started a run meanwhile
+                log.info("Backfill {} not resumed here: {}", interrupted.get(0), e.getReason());
+            }
+        }
+    }
+
+    // Losing the lease means another instance took the run over; this one stops writing to it
+    private void heartbeat() {
+        ActiveRun current = active;
+        if (current == null || current.isStopping()) {
+            return;
+        }
+        try {
+            if (jdbcTemplate.update(heartbeatSql, Timestamp.valueOf(LocalDateTime.now()), current.id, owner) == 0) {
+                log.warn("Backfill {} lost its lease to another instance, stopping", current.id);
+                current.stop(BackfillStatus.INTERRUPTED);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the lease of backfill {}: {}", current.id, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        ActiveRun current = active;
+        if (current == null) {
+            return;
+        }
+        current.stop(BackfillStatus.INTERRUPTED);
+        current.pool.shutdown();
+        try {
+            current.pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public BackfillRunDto start(StartBackfillRequestDto request) {
+        String modelResource = request.getModelResource() != null ? request.getModelResource() : ModelRunner.MODEL_RESOURCE;
+        String imputationRules = request.getImputationRules() != null ? request.getImputationRules() : defaultImputationRules;
+        Scoring scoring = Scoring.load(modelResource, imputationRules);
+
+        synchronized (lock) {
+            requireIdle();
+            String runId = request.getRunId() != null
+                    ? request.getRunId()
+                    : "rescore-" + LocalDateTime.now().format(RUN_ID_FORMAT);
+            if (runRepository.existsById(runId)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Backfill run " + runId + " already exists");
+            }
+
+            BackfillRun run = transactionTemplate.execute(status -> plan(runId, modelResource, imputationRules, scoring));
+            launch(run, scoring);
+            return toDto(run);
+        }
+    }
+
+    public BackfillRunDto resume(String runId) {
+        synchronized (lock) {
+            requireIdle();
+            BackfillRun run = findRun(runId);
+            if (run.getStatus() == BackfillStatus.COMPLETED) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Backfill run " + runId + " is already completed");
+            }
+            Scoring scoring = Scoring.load(run.getModelResource(), run.getImputationRules());
+
+            LocalDateTime now = LocalDateTime.now();
+            int claimed = jdbcTemplate.update(claimSql, owner, Timestamp.valueOf(now), runId,
+                    Timestamp.valueOf(now.minusSeconds(properties.getLeaseSeconds())));
+            if (claimed == 0) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Backfill run " + runId + " is running on another instance");
+            }
+            run.setStatus(BackfillStatus.RUNNING);
+            run.setOwner(owner);
+            run.setHeartbeatAt(now);
+            run.setFinishedAt(null);
+            run.setError(null);
+
+            launch(run, scoring);
+            return toDto(run);
+        }
+    }
+
+    public BackfillRunDto cancel(String runId) {
+        ActiveRun current = active;
+        if (current == null || !current.id.equals(runId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Backfill run " + runId + " is not running");
+        }
+        current.stop(BackfillStatus.CANCELLED);
+        return getRun(runId);
+    }
+
+    public BackfillRunDto getRun(String runId) {
+        return toDto(findRun(runId));
+    }
+
+    public List<BackfillRunDto> getRuns() {
+        return runRepository.findAllByOrderByCreatedAtDesc().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private BackfillRun plan(String runId, String modelResource, String imputationRules, Scoring scoring) {
+        BackfillRun run = runRepository.save(BackfillRun.builder()
+                .id(runId)
+                .modelResource(modelResource)
+                .imputationRules(imputationRules)
+                .modelVersion(scoring.version)
+                .status(BackfillStatus.RUNNING)
+                .createdAt(LocalDateTime.now())
+                .owner(owner)
+                .heartbeatAt(LocalDateTime.now())
+                .build());
+
+        // Rows inserted after this point are not part of the run
+        jdbcTemplate.query(rangeSql, rs -> {
+            long count = rs.getLong(3);
+            run.setTotalRows(count);
+            if (count == 0) {
+                return;
+            }
+            long minId = rs.getLong(1);
+            long maxId = rs.getLong(2);
+            List<BackfillPartition> partitions = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += properties.getPartitionSize()) {
+                partitions.add(BackfillPartition.builder()
+                        .runId(runId)
+                        .fromId(from)
+                        .toId(Math.min(from + properties.getPartitionSize(), maxId + 1))
+                        .lastId(from - 1)
+                        .build());
+            }
+            partitionRepository.saveAll(partitions);
+        });
+        return runRepository.save(run);
+    }
+
+    private void launch(BackfillRun run, Scoring scoring) {
+        List<BackfillPartition> partitions = partitionRepository.findByRunIdOrderByFromId(run.getId());
+        long done = partitions.stream().mapToLong(BackfillPartition::getRowsDone).sum();
+        List<BackfillPartition> pending = partitions.stream()
+                .filter(partition -> !partition.isCompleted())
+                .collect(Collectors.toList());
+
+        int parallelism = parallelism();
+        ActiveRun current = new ActiveRun(run.getId(), run.getTotalRows(), done, scoring,
+                Executors.newWorkStealingPool(parallelism));
+        active = current;
+        log.info("Backfill {} started with {}: {} of {} partitions pending, {} workers",
+                run.getId(), scoring.version, pending.size(), partitions.size(), parallelism);
+
+        CompletableFuture<?>[] tasks = pending.stream()
+                .map(partition -> CompletableFuture.runAsync(() -> process(current, partition), current.pool))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).whenComplete((ignored, error) -> finish(current));
+    }
+
+    // Workers beyond half of a pool would leave requests waiting for connections, or, on a single pool,
+    // leave no connection for the batch commits of workers holding a cursor
+    private int parallelism() {
+        int wanted = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        // With one pool each worker takes both of its connections from it
+        int connectionsPerWorker = pools.size() == 1 ? 2 : 1;
+        int cap = wanted;
+        for (HikariDataSource pool : pools) {
+            cap = Math.min(cap, Math.max(1, pool.getMaximumPoolSize() / 2 / connectionsPerWorker));
+        }
+        if (cap < wanted && properties.getParallelism() > 0) {
+            log.warn("Backfill parallelism {} lowered to {} to leave connections for requests", wanted, cap);
+        }
+        return cap;
+    }
+
+    private void process(ActiveRun run, BackfillPartition partition) {
+        if (run.isStopping()) {
+            return;
+        }
+        PartitionWork work = new PartitionWork(partition, properties.getBatchSize());
+        try {
+            readTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(selectSql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(properties.getFetchSize());
+                statement.setLong(1, partition.getLastId());
+                statement.setLong(2, partition.getToId());
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                if (run.isStopping()) {
+                    throw new PartitionStopped();
+                }
+                work.add(rs, run.scoring.rescore(rs));
+                if (work.isFull()) {
+                    flush(run, work, false);
+                }
+            }));
+            flush(run, work, true);
+            logProgress(run, partition);
+        } catch (PartitionStopped e) {
+            // Everything up to the last committed batch is kept; the rest is picked up on resume
+        } catch (RuntimeException e) {
+            run.fail(e);
+            log.error("Backfill {} failed in partition [{}, {}): {}",
+                    run.id, partition.getFromId(), partition.getToId(), e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void logProgress(ActiveRun run, BackfillPartition partition) {
+        long rowsDone = run.baselineDone + run.processed.sum();
+        double rate = run.rowsPerSecond();
+        log.info("Backfill {}: partition [{}, {}) done, {}/{} rows, {} rows/s, ETA {}s",
+                run.id, partition.getFromId(), partition.getToId(), rowsDone, run.totalRows,
+                String.format("%.0f", rate), rate > 0 ? (long) (Math.max(0, run.totalRows - rowsDone) / rate) : "?");
+    }
+
+    private void flush(ActiveRun run, PartitionWork work, boolean completed) {
+        List<Object[]> rows = work.rows;
+        long changed = work.changed;
+        long lastId = work.lastId;
+        batchTransaction.executeWithoutResult(status -> {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(insertSql, rows);
+            }
+            jdbcTemplate.update(checkpointSql, lastId, rows.size(), changed, completed, work.partition.getId());
+        });
+        run.processed.add(rows.size());
+        run.changed.add(changed);
+        work.reset();
+    }
+
+    private void finish(ActiveRun current) {
+        BackfillStatus status = current.failure != null
+                ? BackfillStatus.FAILED
+                : current.stopStatus != null ? current.stopStatus : BackfillStatus.COMPLETED;
+        try {
+            // Not if another instance has taken the run over meanwhile
+            jdbcTemplate.update(finishSql, status.name(),
+                    status == BackfillStatus.INTERRUPTED ? null : Timestamp.valueOf(LocalDateTime.now()),
+                    current.failure != null ? String.valueOf(current.failure.getMessage()) : null,
+                    current.id, owner);
+        } catch (RuntimeException e) {
+            // Left RUNNING; marked interrupted once its lease expires
+            log.warn("Could not record the end of backfill {}: {}", current.id, e.getMessage());
+        }
+        log.info("Backfill {} {}: {} rows re-scored by this instance, {} with a different risk level, {} rows/s",
+                current.id, status, current.processed.sum(), current.changed.sum(),
+                String.format("%.0f", current.rowsPerSecond()));
+
+        synchronized (lock) {
+            if (active == current) {
+                active = null;
+            }
+        }
+        current.pool.shutdown();
+    }
+
+    private BackfillRunDto toDto(BackfillRun run) {
+        List<BackfillPartition> partitions = partitionRepository.findByRunIdOrderByFromId(run.getId());
+        long rowsDone = 0;
+        long rowsChanged = 0;
+        int completed = 0;
+        for (BackfillPartition partition : partitions) {
+            rowsDone += partition.getRowsDone();
+            rowsChanged += partition.getRowsChanged();
+            completed += partition.isCompleted() ? 1 : 0;
+        }
+
+        double rate = 0.0;
+        Long eta = null;
+        ActiveRun current = active;
+        if (current != null && current.id.equals(run.getId())) {
+            rate = current.rowsPerSecond();
+            if (rate > 0) {
+                eta = (long) (Math.max(0, run.getTotalRows() - rowsDone) / rate);
+            }
+        }
+
+        return new BackfillRunDto(
+                run.getId(),
+                run.getModelVersion(),
+                run.getStatus(),
+                run.getTotalRows(),
+                rowsDone,
+                rowsChanged,
+                partitions.size(),
+                completed,
+                rate,
+                eta,
+                run.getCreatedAt(),
+                run.getFinishedAt(),
+                run.getError());
+    }
+
+    private BackfillRun findRun(String runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Backfill run " + runId + " not found"));
+    }
+
+    private void requireIdle() {
+        ActiveRun current = active;
+        if (current != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Backfill run " + current.id + " is still running");
+        }
+    }
+
+    private static BigDecimal probability(BigDecimal value) {
+        return value.setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+
+    // The model and rules a run scores with, loaded on their own so the live model is not touched
+    private static class Scoring {
+        private final ScoringModel model;
+        private final FeatureImputer imputer;
+        private final String version;
+
+        private Scoring(ScoringModel model, FeatureImputer imputer) {
+            this.model = model;
+            this.imputer = imputer;
+            this.version = model.getName() + "@" + imputer.getVersion();
+        }
+
+        static Scoring load(String modelResource, String imputationRules) {
+            try {
+                return new Scoring(ScoringModel.load(modelResource), FeatureImputer.load(imputationRules));
+            } catch (IllegalStateException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+
+        ModelRunner.PredictionResult rescore(ResultSet rs) throws SQLException {
+            RawReading reading = new RawReading();
+            // Compared by first character: CHAR columns may come back blank-padded
+            String gender = rs.getString("gender");
+            reading.setSex(gender != null && !gender.isEmpty() && gender.charAt(0) == 'M' ? 1.0 : 0.0);
+            reading.setWeight(toDouble(rs.getBigDecimal("weight")));
+            reading.setBmi(toDouble(rs.getBigDecimal("bmi")));
+            reading.setTemperature(toDouble(rs.getBigDecimal("temperature")));
+            reading.setHumidity(toDouble(rs.getBigDecimal("humidity")));
+            reading.setPulse(toDouble(rs.getBigDecimal("pulse")));
+            reading.setDehydrationLevel(toDouble(rs.getBigDecimal("dehydration_level")));
+            reading.setHeatIndex(toDouble(rs.getBigDecimal("heat_index")));
+            return model.score(imputer.impute(reading));
+        }
+    }
+
+    // Result rows of one partition not yet committed
+    private static class PartitionWork {
+        private final BackfillPartition partition;
+        private final int batchSize;
+        private final String runId;
+        private List<Object[]> rows;
+        private long changed;
+        private long lastId;
+
+        PartitionWork(BackfillPartition partition, int batchSize) {
+            this.partition = partition;
+            this.batchSize = batchSize;
+            this.runId = partition.getRunId();
+            this.rows = new ArrayList<>(batchSize);
+            this.lastId = partition.getLastId();
+        }
+
+        void add(ResultSet rs, ModelRunner.PredictionResult result) throws SQLException {
+            lastId = rs.getLong("id");
+            if (!result.getPredictedRiskLevel().name().equals(rs.getString("predicted_risk_level"))) {
+                changed++;
+            }
+            rows.add(new Object[]{
+                    runId,
+                    lastId,
+                    probability(result.getPredictedProbability()),
+                    result.getPredictedRiskLevel().name(),
+                    probability(result.getLowRiskProbability()),
+                    probability(result.getModerateRiskProbability()),
+                    probability(result.getHighRiskProbability())
+            });
+        }
+
+        boolean isFull() {
+            return rows.size() >= batchSize;
+        }
+
+        void reset() {
+            rows = new ArrayList<>(batchSize);
+            changed = 0;
+        }
+    }
+
+    private static class ActiveRun {
+        private final String id;
+        private final long totalRows;
+        private final long baselineDone;
+        private final Scoring scoring;
+        private final ExecutorService pool;
+        private final long startedNanos = System.nanoTime();
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder changed = new LongAdder();
+
+        private volatile BackfillStatus stopStatus;
+        private volatile Throwable failure;
+
+        ActiveRun(String id, long totalRows, long baselineDone, Scoring scoring, ExecutorService pool) {
+            this.id = id;
+            this.totalRows = totalRows;
+            this.baselineDone = baselineDone;
+            this.scoring = scoring;
+            this.pool = pool;
+        }
+
+        void stop(BackfillStatus status) {
+            if (stopStatus == null) {
+                stopStatus = status;
+            }
+        }
+
+        // The first failure stops the other partitions; the run can be resumed once the cause is fixed
+        void fail(Throwable error) {
+            if (failure == null) {
+                failure = error;
+            }
+        }
+
+        boolean isStopping() {
+            return stopStatus != null || failure != null;
+        }
+
+        double rowsPerSecond() {
+            double seconds = (System.nanoTime() - startedNanos) / 1e9;
+            return seconds > 0 ? processed.sum() / seconds : 0.0;
+        }
+    }
+
+    private static class PartitionStopped extends RuntimeException {
+        PartitionStopped() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package heat.main.board;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** The latest prediction of one patient, as shown on the ward board. */
+@Getter
+@AllArgsConstructor
+public class BoardEntry {
+    private final Long patientId;
+    private final String patientName;
+    private final Long predictionId;
+    private final RiskLevel riskLevel;
+    private final BigDecimal probability;
+    private final LocalDateTime assessmentTimestamp;
+    private final BigDecimal temperature;
+    private final BigDecimal pulse;
+
+    /**
+     * Orders patients by severity: the risk level first, then how sure the model was. Only the
+     * probability of the predicted level is stored, so a confident LOW ranks below an unsure one.
+     */
+    public double getRiskScore() {
+        double p = probability != null ? probability.doubleValue() : 0.0;
+        switch (riskLevel) {
+            case HIGH:
+                return 2.0 + p;
+            case MEDIUM:
+                return 1.0 + p;
+            default:
+                return 1.0 - p;
+        }
+    }
+
+    BoardEntry withPatientName(String name) {
+        return new BoardEntry(patientId, name, predictionId, riskLevel, probability, assessmentTimestamp,
+                temperature, pulse);
+    }
+
+    boolean isNewerThan(BoardEntry other) {
+        int byTime = assessmentTimestamp.compareTo(other.assessmentTimestamp);
+        return byTime != 0 ? byTime > 0 : predictionId > other.predictionId;
+    }
+}
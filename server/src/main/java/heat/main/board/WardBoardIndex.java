@@ -0,0 +1,83 @@
+package heat.main.board;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Latest prediction per patient, kept sorted by risk. Offers are order-independent: an entry only
+ * replaces the patient's current one when it is newer, so startup seeding, live events and
+ * resyncs can interleave freely. Readers may briefly see a patient twice or not at all while its
+ * entry is being replaced.
+ */
+public class WardBoardIndex {
+
+    private static final Comparator<BoardEntry> BY_RISK = Comparator
+            .comparingDouble(BoardEntry::getRiskScore).reversed()
+            .thenComparing(BoardEntry::getAssessmentTimestamp, Comparator.reverseOrder())
+            .thenComparing(BoardEntry::getPatientId);
+
+    private final Map<Long, BoardEntry> latest = new ConcurrentHashMap<>();
+    private final NavigableSet<BoardEntry> byRisk = new ConcurrentSkipListSet<>(BY_RISK);
+
+    /** Returns true when the entry became the patient's latest. */
+    public boolean offer(BoardEntry entry) {
+        boolean[] replaced = new boolean[1];
+        latest.compute(entry.getPatientId(), (patientId, current) -> {
+            if (current != null && !entry.isNewerThan(current)) {
+                return current;
+            }
+            byRisk.add(entry);
+            if (current != null) {
+                byRisk.remove(current);
+            }
+            replaced[0] = true;
+            return entry;
+        });
+        return replaced[0];
+    }
+
+    public void remove(Long patientId) {
+        latest.computeIfPresent(patientId, (id, current) -> {
+            byRisk.remove(current);
+            return null;
+        });
+    }
+
+    // Same position on the board, the entry only carries the name
+    public void rename(Long patientId, String patientName) {
+        latest.computeIfPresent(patientId, (id, current) -> {
+            BoardEntry renamed = current.withPatientName(patientName);
+            byRisk.remove(current);
+            byRisk.add(renamed);
+            return renamed;
+        });
+    }
+
+    public Optional<BoardEntry> get(Long patientId) {
+        return Optional.ofNullable(latest.get(patientId));
+    }
+
+    // Skips from the top of the skip list, so cost grows with the offset; boards are read from the top
+    public List<BoardEntry> page(int offset, int limit) {
+        List<BoardEntry> page = new ArrayList<>(Math.min(limit, 256));
+        Iterator<BoardEntry> it = byRisk.iterator();
+        for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+            it.next();
+        }
+        while (page.size() < limit && it.hasNext()) {
+            page.add(it.next());
+        }
+        return page;
+    }
+
+    public int size() {
+        return latest.size();
+    }
+}
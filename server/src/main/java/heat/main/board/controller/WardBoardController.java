@@ -0,0 +1,29 @@
+package heat.main.board.controller;
+
+import heat.main.board.dto.BoardEntryDto;
+import heat.main.board.service.WardBoardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/predictions/board")
+@RequiredArgsConstructor
+public class WardBoardController {
+
+    private final WardBoardService boardService;
+
+    // Every monitored patient's latest prediction, highest risk first
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<BoardEntryDto> getBoard(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return boardService.getBoard(page, size);
+    }
+}
@@ -0,0 +1,24 @@
+package heat.main.board.dto;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardEntryDto {
+    private Long patientId;
+    private String patientName;
+    private Long predictionId;
+    private RiskLevel predictedRiskLevel;
+    private BigDecimal predictedProbability;
+    private double riskScore;
+    private LocalDateTime assessmentTimestamp;
+    private BigDecimal temperature;
+    private BigDecimal pulse;
+}
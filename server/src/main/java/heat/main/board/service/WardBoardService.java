@@ -0,0 +1,196 @@
+package heat.main.board.service;
+
+import heat.main.board.BoardEntry;
+import heat.main.board.WardBoardIndex;
+import heat.main.board.dto.BoardEntryDto;
+import heat.main.config.BoardProperties;
+import heat.main.domain.User;
+import heat.main.enums.RiskLevel;
+import heat.main.invalidation.EntityChange;
+import heat.main.invalidation.event.ChangesMissedEvent;
+import heat.main.invalidation.event.EntityChangedEvent;
+import heat.main.prediction.dto.RiskPredictionViewDto;
+import heat.main.prediction.event.PredictionCreatedEvent;
+import heat.main.users.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the ward board from an in-memory index of each patient's latest prediction, seeded with
+ * one DISTINCT ON query at startup and kept current from prediction and user events, including
+ * those of other instances heard on the invalidation bus.
+ */
+@Slf4j
+@Service
+public class WardBoardService {
+
+    private final BoardProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final String latestSql;
+    private final String byIdSql;
+    private final String maxIdSql;
+
+    private final WardBoardIndex index = new WardBoardIndex();
+    private ScheduledExecutorService scheduler;
+
+    public WardBoardService(BoardProperties properties, JdbcTemplate jdbcTemplate, UserRepository userRepository,
+                            @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        String prefix = schema.isEmpty() ? "" : schema + ".";
+        // Walks the (patient_id, assessment_timestamp) index once, one row per patient
+        this.latestSql = "SELECT DISTINCT ON (p.patient_id) p.patient_id, u.user_name, p.id,"
+                + " p.predicted_risk_level, p.predicted_probability, p.assessment_timestamp, p.temperature, p.pulse"
+                + " FROM " + prefix + "core_prediction p JOIN " + prefix + "core_user u ON u.id = p.patient_id"
+                + " ORDER BY p.patient_id, p.assessment_timestamp DESC, p.id DESC";
+        this.byIdSql = "SELECT p.patient_id, u.user_name, p.id,"
+                + " p.predicted_risk_level, p.predicted_probability, p.assessment_timestamp, p.temperature, p.pulse"
+                + " FROM " + prefix + "core_prediction p JOIN " + prefix + "core_user u ON u.id = p.patient_id"
+                + " WHERE p.id = ?";
+        this.maxIdSql = "SELECT MAX(id) FROM " + prefix + "core_prediction";
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void seed() {
+        resync();
+        if (properties.getResyncIntervalSeconds() > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ward-board-resync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::resync, properties.getResyncIntervalSeconds(),
+                    properties.getResyncIntervalSeconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Runs after the surrounding transaction commits, or immediately when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPredictionCreated(PredictionCreatedEvent event) {
+        RiskPredictionViewDto prediction = event.getPrediction();
+        String name = index.get(prediction.getUserId())
+                .map(BoardEntry::getPatientName)
+                .orElseGet(() -> userRepository.findById(prediction.getUserId()).map(User::getName).orElse(null));
+        index.offer(new BoardEntry(
+                prediction.getUserId(),
+                name,
+                prediction.getId(),
+                prediction.getPredictedRiskLevel(),
+                prediction.getPredictedProbability(),
+                prediction.getAssessmentTimestamp(),
+                prediction.getTemperature(),
+                prediction.getPulse()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        EntityChange change = event.getChange();
+        if (change.getType() == EntityChange.Type.USER) {
+            if (change.getAction() == EntityChange.Action.DELETED) {
+                index.remove(change.getId());
+            } else if (index.get(change.getId()).isPresent()) {
+                userRepository.findById(change.getId()).ifPresentOrElse(
+                        user -> index.rename(user.getId(), user.getName()),
+                        () -> index.remove(change.getId()));
+            }
+        } else if (event.isRemote() && change.getAction() == EntityChange.Action.CREATED) {
+            // Saved by another instance; ours are offered by onPredictionCreated
+            jdbcTemplate.query(byIdSql, rs -> {
+                index.offer(toEntry(rs));
+            }, change.getId());
+        }
+    }
+
+    @EventListener
+    public void onChangesMissed(ChangesMissedEvent event) {
+        resync();
+    }
+
+    public Page<BoardEntryDto> getBoard(int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size);
+        List<BoardEntryDto> content = index.page((int) pageable.getOffset(), size).stream()
+                .map(WardBoardService::toDto)
+                .toList();
+        return new PageImpl<>(content, pageable, index.size());
+    }
+
+    void resync() {
+        Set<Long> seen = new HashSet<>();
+        long scannedThrough;
+        try {
+            Long maxId = jdbcTemplate.queryForObject(maxIdSql, Long.class);
+            scannedThrough = maxId != null ? maxId : 0;
+            jdbcTemplate.query(latestSql, rs -> {
+                BoardEntry entry = toEntry(rs);
+                seen.add(entry.getPatientId());
+                index.offer(entry);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Ward board resync failed: {}", e.getMessage());
+            return;
+        }
+
+        // Patients gone from the table were deleted. A prediction past the last id when the scan started
+        // may have committed during it and came from an event, whatever its timestamp.
+        for (BoardEntry entry : index.page(0, Integer.MAX_VALUE)) {
+            if (!seen.contains(entry.getPatientId()) && entry.getPredictionId() != null
+                    && entry.getPredictionId() <= scannedThrough) {
+                index.remove(entry.getPatientId());
+            }
+        }
+        log.debug("Ward board resynced, {} patients", index.size());
+    }
+
+    private static BoardEntry toEntry(ResultSet rs) throws SQLException {
+        return new BoardEntry(
+                rs.getLong("patient_id"),
+                rs.getString("user_name"),
+                rs.getLong("id"),
+                RiskLevel.valueOf(rs.getString("predicted_risk_level")),
+                rs.getBigDecimal("predicted_probability"),
+                rs.getTimestamp("assessment_timestamp").toLocalDateTime(),
+                rs.getBigDecimal("temperature"),
+                rs.getBigDecimal("pulse"));
+    }
+
+    private static BoardEntryDto toDto(BoardEntry entry) {
+        return new BoardEntryDto(
+                entry.getPatientId(),
+                entry.getPatientName(),
+                entry.getPredictionId(),
+                entry.getRiskLevel(),
+                entry.getProbability(),
+                entry.getRiskScore(),
+                entry.getAssessmentTimestamp(),
+                entry.getTemperature(),
+                entry.getPulse());
+    }
+}
@@ -0,0 +1,38 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 8;
+
+    private int minLimit = 2;
+
+    private int maxLimit = 64;
+
+    // Latency may rise to this multiple of the no-load RTT before the limit starts shrinking
+    private double rttTolerance = 2.0;
+
+    // Fraction of the limit routine readings may occupy; the rest is reserved for critical ones
+    private double routineShare = 0.75;
+
+    private int maxQueued = 100;
+
+    private long criticalWaitMs = 2000;
+
+    private long routineWaitMs = 100;
+
+    private int retryAfterSeconds = 2;
+
+    // Cheap pre-screen on the raw vitals: either threshold marks a reading as critical
+    private double criticalPatientTemperature = 39.0;
+
+    private double criticalPulse = 120;
+}
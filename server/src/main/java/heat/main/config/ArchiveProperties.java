@@ -0,0 +1,27 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.archive")
+public class ArchiveProperties {
+
+    // Moves aged predictions out of core_prediction into segment files. Reads need the files, so
+    // with several instances the directory must be shared storage.
+    private boolean enabled = false;
+
+    private String directory = "data/archive";
+
+    private int olderThanDays = 90;
+
+    private int segmentRows = 65536;
+
+    // 0 leaves archiving to POST /admin/archive/run
+    private long intervalMinutes = 60;
+
+    // How often the segment registry is re-read to pick up segments written by other instances
+    private long refreshSeconds = 60;
+}
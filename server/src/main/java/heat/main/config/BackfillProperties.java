@@ -0,0 +1,32 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.backfill")
+public class BackfillProperties {
+
+    // Scoring workers; 0 means one per core. Each holds a read connection while it streams a partition and
+    // a write connection while it commits a batch, so it is capped at half of each connection pool
+    private int parallelism = 0;
+
+    // Width of one partition in prediction ids; several per worker keep the pool balanced
+    private long partitionSize = 50_000;
+
+    private int fetchSize = 1000;
+
+    // Results written, and the partition checkpoint moved, once per batch
+    private int batchSize = 500;
+
+    // Continue runs abandoned by an instance that went away, whenever one is found
+    private boolean resumeInterrupted = false;
+
+    // How often a running backfill renews its lease
+    private long heartbeatSeconds = 10;
+
+    // A RUNNING run whose lease has not been renewed for this long is considered abandoned
+    private long leaseSeconds = 60;
+}
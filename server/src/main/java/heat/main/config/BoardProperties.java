@@ -0,0 +1,16 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.board")
+public class BoardProperties {
+
+    // The board is seeded once at startup and re-read after the invalidation bus reconnects; other
+    // instances' predictions and journal replays arrive as events. A periodic re-read scans every
+    // patient's latest prediction, so it stays off (0) unless something bypasses the events.
+    private long resyncIntervalSeconds = 0;
+}
@@ -1,7 +1,9 @@
 package heat.main.config;
 
 import heat.main.domain.User;
-import heat.main.users.service.UserSerivce;
+import heat.main.tracing.Span;
+import heat.main.tracing.Tracing;
+import heat.main.users.service.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,14 +19,15 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserSerivce userService;
+    private final UserCache userCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userService.getAllUsers().stream()
-                .filter(u -> u.getName().equals(username))
-                .findFirst()
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        User user;
+        try (Span ignored = Tracing.span("auth.load-user")) {
+            user = userCache.findByName(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        }
 
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getName())
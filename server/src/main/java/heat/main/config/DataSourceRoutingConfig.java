@@ -0,0 +1,81 @@
+package heat.main.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import heat.main.datasource.DataSourceRole;
+import heat.main.datasource.ReplicaLagMonitor;
+import heat.main.datasource.RoutingDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Two Hikari pools behind one DataSource: writes and ordinary transactions use the primary pool,
+ * {@code @Transactional(readOnly = true)} uses the read pool. The read pool points at
+ * heat.datasource.routing.replica-url when set, otherwise at the primary database so that heavy
+ * listings cannot exhaust the connections the write path needs.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "heat.datasource.routing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public HikariDataSource writeDataSource(DataSourceProperties dataSourceProperties,
+                                            RoutingDataSourceProperties routingProperties) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("heat-write");
+        pool.setMaximumPoolSize(routingProperties.getWritePoolSize());
+        return pool;
+    }
+
+    @Bean
+    public HikariDataSource readDataSource(DataSourceProperties dataSourceProperties,
+                                           RoutingDataSourceProperties routingProperties) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (StringUtils.hasText(routingProperties.getReplicaUrl())) {
+            pool.setJdbcUrl(routingProperties.getReplicaUrl());
+            if (routingProperties.getReplicaUsername() != null) {
+                pool.setUsername(routingProperties.getReplicaUsername());
+                pool.setPassword(routingProperties.getReplicaPassword());
+            }
+        }
+        pool.setPoolName("heat-read");
+        pool.setMaximumPoolSize(routingProperties.getReadPoolSize());
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    public RoutingDataSource routingDataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                               @Qualifier("readDataSource") DataSource readDataSource) {
+        RoutingDataSource routing = new RoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                DataSourceRole.PRIMARY, writeDataSource,
+                DataSourceRole.READ, readDataSource));
+        routing.setDefaultTargetDataSource(writeDataSource);
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // Lag only matters for a real replica; a read pool on the primary is never behind
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "heat.datasource.routing", name = "replica-url")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("readDataSource") DataSource readDataSource,
+                                               RoutingDataSource routingDataSource,
+                                               RoutingDataSourceProperties routingProperties) {
+        return new ReplicaLagMonitor(readDataSource, routingDataSource,
+                routingProperties.getMaxReplicaLagMs(), routingProperties.getLagCheckIntervalMs());
+    }
+}
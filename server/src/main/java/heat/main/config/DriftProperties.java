@@ -0,0 +1,28 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.drift")
+public class DriftProperties {
+
+    private boolean enabled = true;
+
+    // Reports cover the current and the previous window, so between one and two windows of traffic
+    private long windowMinutes = 60;
+
+    // KLL accuracy parameter; rank error is roughly 1.7 / sketch-size
+    private int sketchSize = 200;
+
+    // Independent sketches per field so concurrent predictions rarely contend; merged on report
+    private int stripes = 8;
+
+    // A field is flagged once its mean shift (in training standard deviations) or the log of its
+    // spread ratio reaches this
+    private double threshold = 0.5;
+
+    private long minSamples = 100;
+}
@@ -0,0 +1,40 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.model.ensemble")
+public class EnsembleProperties {
+
+    private boolean enabled = false;
+
+    private Strategy strategy = Strategy.AVERAGE;
+
+    // Pooled members that have not answered within the budget are left out of the combined result
+    private long latencyBudgetMs = 50;
+
+    private int poolParallelism = 2;
+
+    // Pooled evaluations waiting for a thread; beyond this a member is skipped instead of queueing past its budget
+    private int poolQueueCapacity = 32;
+
+    private List<Member> members = new ArrayList<>();
+
+    public enum Strategy {
+        AVERAGE, VOTE
+    }
+
+    @Data
+    public static class Member {
+        private String resource;
+        private double weight = 1.0;
+        // Cheap members run on the request thread, expensive ones on the ensemble pool
+        private boolean inline = true;
+    }
+}
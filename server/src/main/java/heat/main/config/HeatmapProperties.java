@@ -0,0 +1,18 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.heatmap")
+public class HeatmapProperties {
+
+    // Geohash characters per grid cell: 5 is about 4.9 x 4.9 km, 6 about 1.2 x 0.6 km
+    private int precision = 5;
+
+    // Counts cover the last window-minutes, expired bucket-minutes at a time
+    private long windowMinutes = 1440;
+    private long bucketMinutes = 60;
+}
@@ -0,0 +1,21 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.idempotency")
+public class IdempotencyProperties {
+
+    // Keys are remembered in memory for between (generations - 1) and generations windows;
+    // older retries still resolve through the unique constraint, just with a database lookup
+    private long windowMinutes = 10;
+
+    private int generations = 3;
+
+    private int expectedKeysPerWindow = 100_000;
+
+    private double falsePositiveRate = 0.01;
+}
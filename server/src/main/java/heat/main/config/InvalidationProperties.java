@@ -0,0 +1,22 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.invalidation")
+public class InvalidationProperties {
+
+    // Broadcast user and prediction changes to the other instances over Postgres LISTEN/NOTIFY
+    private boolean enabled = true;
+
+    // Every instance sharing the database has to use the same channel
+    private String channel = "heat_invalidation";
+
+    private long reconnectSeconds = 5;
+
+    // A half-open connection delivers nothing without failing; a SELECT 1 this often has to answer in as long
+    private long keepaliveSeconds = 15;
+}
@@ -0,0 +1,37 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.journal")
+public class JournalProperties {
+
+    private boolean enabled = true;
+
+    private String directory = "data/journal";
+
+    // 16384 records of 1 KiB = 16 MiB per segment file
+    private int recordsPerSegment = 16384;
+
+    // Older segments are deleted once nothing in them is waiting for the database
+    private int retainedSegments = 64;
+
+    // How often dirty pages are flushed; a process crash loses nothing, an OS crash up to this much
+    private long forceIntervalMs = 200;
+
+    private long replayIntervalSeconds = 10;
+
+    private int replayBatchSize = 500;
+
+    // A write to core_prediction that takes longer is left to the replay and the client gets 202 Accepted
+    private long persistBudgetMs = 2000;
+
+    // Writes run on their own threads so that the request can stop waiting; more than the pool can take
+    // at once are queued, and past the queue they go straight to the replay
+    private int persistThreads = 10;
+
+    private int persistQueueCapacity = 100;
+}
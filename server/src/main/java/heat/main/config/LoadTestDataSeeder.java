@@ -0,0 +1,51 @@
+package heat.main.config;
+
+import heat.main.domain.User;
+import heat.main.enums.RoleType;
+import heat.main.users.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Creates the admin account the load generator authenticates with; only active in the loadtest profile
+@Slf4j
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${heat.loadtest.admin-name}")
+    private String adminName;
+
+    @Value("${heat.loadtest.admin-password}")
+    private String adminPassword;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (userRepository.findByName(adminName).isPresent()) {
+            return;
+        }
+
+        userRepository.save(User.builder()
+                .name(adminName)
+                .email(adminName + "@loadtest.local")
+                .password(passwordEncoder.encode(adminPassword))
+                .roleType(RoleType.ADMIN)
+                .gender('M')
+                .height(new BigDecimal("175"))
+                .weight(new BigDecimal("70"))
+                .bmi(new BigDecimal("22.86"))
+                .build());
+        log.warn("Load-test admin '{}' created", adminName);
+    }
+}
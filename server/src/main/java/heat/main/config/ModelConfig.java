@@ -0,0 +1,23 @@
+package heat.main.config;
+
+import heat.main.ModelRunner;
+import heat.main.imputation.FeatureImputer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class ModelConfig {
+
+    @Bean
+    public FeatureImputer featureImputer(@Value("${heat.model.imputation-rules}") String rulesPath) {
+        FeatureImputer imputer = FeatureImputer.load(rulesPath);
+        if (!ModelRunner.MODEL_RESOURCE.endsWith(imputer.getModel())) {
+            log.warn("Imputation rules {} target model {}, but {} is loaded",
+                    rulesPath, imputer.getModel(), ModelRunner.MODEL_RESOURCE);
+        }
+        return imputer;
+    }
+}
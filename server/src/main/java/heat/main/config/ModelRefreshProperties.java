@@ -0,0 +1,31 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.model.refresh")
+public class ModelRefreshProperties {
+
+    // Refresh on a schedule; a refresh can always be started from /admin/models/candidates/refresh
+    private boolean enabled = false;
+
+    private long intervalMinutes = 1440;
+
+    // Scheduled refreshes wait until this many outcomes arrived since the model they start from
+    private int minNewOutcomes = 50;
+
+    private int epochs = 20;
+
+    private int batchSize = 32;
+
+    private double learningRate = 0.05;
+
+    // Pull towards the starting coefficients, so a small batch of outcomes adjusts the model instead of replacing it
+    private double l2 = 0.1;
+
+    // Candidate PMML files are written here
+    private String directory = "data/models";
+}
@@ -0,0 +1,30 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled = true;
+
+    private int writePoolSize = 10;
+
+    private int readPoolSize = 10;
+
+    // When unset the read pool connects to spring.datasource.url
+    private String replicaUrl;
+
+    private String replicaUsername;
+
+    private String replicaPassword;
+
+    // Reads fall back to the primary while the replica is further behind than this,
+    // and a user's reads stay on the primary for this long after one of their writes
+    private long maxReplicaLagMs = 5000;
+
+    private long lagCheckIntervalMs = 1000;
+}
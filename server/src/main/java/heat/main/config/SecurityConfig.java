@@ -1,5 +1,6 @@
 package heat.main.config;
 
+import heat.main.tracing.TracingPasswordEncoder;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -32,6 +33,7 @@ public class SecurityConfig {
                 .authorizeRequests()
                 .antMatchers("/auth/**").permitAll()
                 .antMatchers("/user/**").hasRole("ADMIN")
+                .antMatchers("/admin/**").hasRole("ADMIN")
                 .antMatchers(HttpMethod.GET, "/api/predictions/**").permitAll()
                 .antMatchers(HttpMethod.POST, "/api/predictions/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
@@ -45,7 +47,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TracingPasswordEncoder(new BCryptPasswordEncoder());
     }
 
     @Bean
@@ -0,0 +1,26 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.model.shadow")
+public class ShadowProperties {
+
+    private boolean enabled = false;
+
+    private String resource;
+
+    // Fraction of live predictions that are also scored by the shadow model
+    private double sampleRate = 0.1;
+
+    private int poolSize = 1;
+
+    // Work beyond this backlog is dropped rather than slowing down or queueing behind live traffic
+    private int queueCapacity = 256;
+
+    // Also keep each disagreement in core_shadow_disagreement
+    private boolean recordDisagreements = false;
+}
@@ -0,0 +1,14 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.single-flight")
+public class SingleFlightProperties {
+
+    // Identical concurrent reads of the hot listings and profiles share one query
+    private boolean enabled = true;
+}
@@ -0,0 +1,23 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.startup")
+public class StartupProperties {
+
+    // Exercise the request paths once the application is up, then exit; used to record an AppCDS
+    // archive (see scripts/appcds.sh). It writes an account and predictions, so run it against a
+    // disposable database: the loadtest profile's H2, or a scratch PostgreSQL for a production archive.
+    private boolean trainingRun = false;
+
+    private int trainingRequests = 30;
+
+    // Admin account the training run signs in with, created when missing
+    private String trainingAdminName = "training-admin";
+
+    private String trainingAdminPassword = "training-admin";
+}
@@ -0,0 +1,32 @@
+package heat.main.config;
+
+import heat.main.tracing.TraceFilter;
+import heat.main.tracing.TracingSessionEventListener;
+import heat.main.tracing.service.TraceStore;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "heat.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+
+    // Outside the security filter chain, so basic auth and its password check are timed too
+    @Bean
+    public FilterRegistrationBean<TraceFilter> traceFilter(TracingProperties properties, TraceStore traceStore) {
+        FilterRegistrationBean<TraceFilter> registration =
+                new FilterRegistrationBean<>(new TraceFilter(properties, traceStore));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 100);
+        return registration;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer tracingSessionEvents() {
+        return hibernateProperties -> hibernateProperties.put(
+                AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, TracingSessionEventListener.class.getName());
+    }
+}
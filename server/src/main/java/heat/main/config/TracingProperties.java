@@ -0,0 +1,42 @@
+package heat.main.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "heat.tracing")
+public class TracingProperties {
+
+    private boolean enabled = true;
+
+    // Every matching request is traced; this is the share kept in the recent buffer and exported.
+    // Traces slower than slow-threshold-ms are always kept.
+    private double sampleRate = 1.0;
+
+    private List<String> paths = new ArrayList<>(List.of("/api/**", "/auth/**"));
+
+    private int recentCapacity = 256;
+
+    private int slowCapacity = 64;
+
+    private long slowThresholdMs = 500;
+
+    private Otlp otlp = new Otlp();
+
+    @Data
+    public static class Otlp {
+        // OTLP/HTTP collector base URL, e.g. http://localhost:4318; empty disables the exporter
+        private String endpoint = "";
+        private String serviceName = "heatstroke";
+        private int batchSize = 128;
+        private long flushIntervalMs = 2000;
+        // Traces waiting for export beyond this are dropped rather than slowing requests down
+        private int queueCapacity = 2048;
+        private long timeoutMs = 2000;
+    }
+}
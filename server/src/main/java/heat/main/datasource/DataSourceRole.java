@@ -0,0 +1,6 @@
+package heat.main.datasource;
+
+public enum DataSourceRole {
+    PRIMARY,
+    READ
+}
@@ -0,0 +1,82 @@
+package heat.main.datasource;
+
+import heat.main.config.RoutingDataSourceProperties;
+import heat.main.invalidation.EntityChange;
+import heat.main.invalidation.event.EntityChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which users were written to recently so their reads can skip the replica until it
+ * has had time to catch up (at most heat.datasource.routing.max-replica-lag-ms, past which the
+ * read pool is taken out of rotation anyway).
+ */
+@Component
+@RequiredArgsConstructor
+public class ReadYourWritesGuard {
+
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final RoutingDataSourceProperties properties;
+
+    private final Map<Long, Long> primaryUntil = new ConcurrentHashMap<>();
+
+    public void recordWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The window starts when the write becomes visible, not when it was issued
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark(userId);
+                }
+            });
+        } else {
+            mark(userId);
+        }
+    }
+
+    // A user written on another instance is just as new to the replica as one written here
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isRemote() && event.getChange().getType() == EntityChange.Type.USER) {
+            mark(event.getChange().getId());
+        }
+    }
+
+    // Call at the start of a read-only transaction, before the first query
+    public void beforeRead(Long userId) {
+        Long until = userId != null ? primaryUntil.get(userId) : null;
+        if (until == null) {
+            return;
+        }
+        if (until - System.nanoTime() > 0) {
+            RoutingDataSource.pinToPrimary();
+        } else {
+            primaryUntil.remove(userId, until);
+        }
+    }
+
+    // True while the user's reads still have to go to the primary
+    public boolean isPinned(Long userId) {
+        Long until = userId != null ? primaryUntil.get(userId) : null;
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    private void mark(Long userId) {
+        long now = System.nanoTime();
+        primaryUntil.put(userId, now + TimeUnit.MILLISECONDS.toNanos(properties.getMaxReplicaLagMs()));
+        if (primaryUntil.size() > CLEANUP_THRESHOLD) {
+            primaryUntil.values().removeIf(until -> until - now <= 0);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package heat.main.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls a streaming Postgres replica for its replay lag and takes the read pool out of the
+ * routing while it is too far behind (or unreachable). An idle replica that has replayed
+ * everything it received reports zero lag rather than the age of the last transaction.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final String LAG_QUERY = "SELECT CASE"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)"
+            + " END";
+
+    private final DataSource replica;
+    private final RoutingDataSource routing;
+    private final long maxLagMs;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile long lastLagMs = -1;
+
+    public ReplicaLagMonitor(DataSource replica, RoutingDataSource routing, long maxLagMs, long intervalMs) {
+        this.replica = replica;
+        this.routing = routing;
+        this.maxLagMs = maxLagMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+
+    private void check() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            lastLagMs = rs.getLong(1);
+            usable = lastLagMs <= maxLagMs;
+        } catch (Exception e) {
+            lastLagMs = -1;
+            usable = false;
+            log.debug("Replica lag check failed: {}", e.getMessage());
+        }
+
+        if (usable != routing.isReadPoolUsable()) {
+            log.warn(usable
+                    ? "Replica caught up (lag {}ms), routing reads to it again"
+                    : "Replica lag {}ms over budget or unreachable, routing reads to the primary", lastLagMs);
+            routing.setReadPoolUsable(usable);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,52 @@
+package heat.main.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the read pool and everything else to the primary. Must sit
+ * behind a LazyConnectionDataSourceProxy: the transaction manager only marks a transaction
+ * read-only after it has begun, so the physical connection has to be fetched lazily.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private volatile boolean readPoolUsable = true;
+
+    /**
+     * Keeps the rest of the current transaction on the primary, for reads that must see a
+     * write the replica may not have replayed yet. Cleared when the transaction completes.
+     */
+    public static void pinToPrimary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || PINNED_TO_PRIMARY.get() != null) {
+            return;
+        }
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PINNED_TO_PRIMARY.remove();
+            }
+        });
+    }
+
+    public void setReadPoolUsable(boolean readPoolUsable) {
+        this.readPoolUsable = readPoolUsable;
+    }
+
+    public boolean isReadPoolUsable() {
+        return readPoolUsable;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (readPoolUsable
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && PINNED_TO_PRIMARY.get() == null) {
+            return DataSourceRole.READ;
+        }
+        return DataSourceRole.PRIMARY;
+    }
+}
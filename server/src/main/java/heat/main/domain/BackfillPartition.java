@@ -0,0 +1,44 @@
+package heat.main.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+// One id range of a backfill run; lastId is the checkpoint, committed together with each result batch
+@Entity
+@Table(name = "core_backfill_partition")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillPartition {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, length = 64)
+    private String runId;
+
+    // [fromId, toId)
+    @Column(name = "from_id", nullable = false)
+    private long fromId;
+
+    @Column(name = "to_id", nullable = false)
+    private long toId;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "rows_done", nullable = false)
+    private long rowsDone;
+
+    // Rows whose re-scored risk level differs from the stored one
+    @Column(name = "rows_changed", nullable = false)
+    private long rowsChanged;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+}
@@ -0,0 +1,55 @@
+package heat.main.domain;
+
+import heat.main.enums.BackfillStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "core_backfill_run")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillRun {
+    @Id
+    @Column(name = "id", length = 64)
+    private String id;
+
+    @Column(name = "model_resource", nullable = false)
+    private String modelResource;
+
+    @Column(name = "imputation_rules", nullable = false)
+    private String imputationRules;
+
+    // model@rules version the rows were re-scored with
+    @Column(name = "model_version", nullable = false, length = 100)
+    private String modelVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private BackfillStatus status;
+
+    @Column(name = "total_rows", nullable = false)
+    private long totalRows;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+
+    // Instance running it; another may take a RUNNING run over only once heartbeatAt is older than the lease
+    @Column(name = "owner")
+    private String owner;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+}
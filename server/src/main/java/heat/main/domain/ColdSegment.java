@@ -0,0 +1,53 @@
+package heat.main.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// Registry of archived prediction segments; a segment file only counts once its row is committed
+@Entity
+@Table(name = "core_cold_segment")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColdSegment {
+    // Also the file name, without the .seg extension
+    @Id
+    @Column(name = "id", length = 64)
+    private String id;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    @Column(name = "patient_count", nullable = false)
+    private int patientCount;
+
+    @Column(name = "min_prediction_id", nullable = false)
+    private long minPredictionId;
+
+    @Column(name = "max_prediction_id", nullable = false)
+    private long maxPredictionId;
+
+    @Column(name = "min_patient_id", nullable = false)
+    private long minPatientId;
+
+    @Column(name = "max_patient_id", nullable = false)
+    private long maxPatientId;
+
+    @Column(name = "min_timestamp", nullable = false)
+    private LocalDateTime minTimestamp;
+
+    @Column(name = "max_timestamp", nullable = false)
+    private LocalDateTime maxTimestamp;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,25 @@
+package heat.main.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// A deleted patient whose rows may still be in cold segments; they are hidden at once and purged by the next archive run
+@Entity
+@Table(name = "core_cold_tombstone")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColdTombstone {
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
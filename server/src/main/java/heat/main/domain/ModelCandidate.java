@@ -0,0 +1,68 @@
+package heat.main.domain;
+
+import heat.main.enums.ModelCandidateStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "core_model_candidate")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModelCandidate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "version", nullable = false, unique = true, length = 100)
+    private String version;
+
+    // Version the refresh started from: the deployed model or an earlier candidate
+    @Column(name = "started_from", nullable = false, length = 100)
+    private String startedFrom;
+
+    // Outcomes up to this id are part of the candidate
+    @Column(name = "through_outcome_id", nullable = false)
+    private long throughOutcomeId;
+
+    @Column(name = "training_rows", nullable = false)
+    private int trainingRows;
+
+    // Metrics on the training outcomes, before and after the refresh
+    @Column(name = "start_log_loss")
+    private Double startLogLoss;
+
+    @Column(name = "log_loss")
+    private Double logLoss;
+
+    @Column(name = "start_accuracy")
+    private Double startAccuracy;
+
+    @Column(name = "accuracy")
+    private Double accuracy;
+
+    @Column(name = "file_path", nullable = false)
+    private String filePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private ModelCandidateStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "reviewed_by", length = 100)
+    private String reviewedBy;
+
+    @Column(name = "reviewed_at")
+    private LocalDateTime reviewedAt;
+
+    @Column(name = "review_notes", columnDefinition = "TEXT")
+    private String reviewNotes;
+}
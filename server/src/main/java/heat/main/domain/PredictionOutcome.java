@@ -0,0 +1,53 @@
+package heat.main.domain;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "core_prediction_outcome")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionOutcome {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "prediction_id", nullable = false, unique = true)
+    private Long predictionId;
+
+    // Risk level the clinician confirmed
+    @Enumerated(EnumType.STRING)
+    @Column(name = "outcome", nullable = false, length = 16)
+    private RiskLevel outcome;
+
+    // Findings the prediction had to impute; null when not observed
+    @Column(name = "age", precision = 5, scale = 2)
+    private BigDecimal age;
+
+    @Column(name = "patient_temperature", precision = 5, scale = 2)
+    private BigDecimal patientTemperature;
+
+    @Column(name = "sweating")
+    private Boolean sweating;
+
+    @Column(name = "hot_dry_skin")
+    private Boolean hotDrySkin;
+
+    @Column(name = "notes", columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(name = "reported_by", nullable = false, length = 100)
+    private String reportedBy;
+
+    @Column(name = "reported_at", nullable = false)
+    private LocalDateTime reportedAt;
+}
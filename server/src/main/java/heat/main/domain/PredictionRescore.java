@@ -0,0 +1,51 @@
+package heat.main.domain;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+// Written in batches by the backfill job with plain JDBC; mapped so the schema exists wherever ddl-auto is used
+@Entity
+@Table(name = "core_prediction_rescore")
+@IdClass(PredictionRescore.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionRescore {
+    @Id
+    @Column(name = "run_id", length = 64)
+    private String runId;
+
+    @Id
+    @Column(name = "prediction_id")
+    private Long predictionId;
+
+    @Column(name = "predicted_probability", nullable = false, precision = 6, scale = 4)
+    private BigDecimal predictedProbability;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "predicted_risk_level", nullable = false, length = 16)
+    private RiskLevel predictedRiskLevel;
+
+    @Column(name = "low_probability", nullable = false, precision = 6, scale = 4)
+    private BigDecimal lowProbability;
+
+    @Column(name = "moderate_probability", nullable = false, precision = 6, scale = 4)
+    private BigDecimal moderateProbability;
+
+    @Column(name = "high_probability", nullable = false, precision = 6, scale = 4)
+    private BigDecimal highProbability;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String runId;
+        private Long predictionId;
+    }
+}
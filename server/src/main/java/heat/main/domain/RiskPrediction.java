@@ -52,4 +52,20 @@ public class RiskPrediction {
 
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
+
+    @Column(name = "idempotency_key", unique = true, length = 160)
+    private String idempotencyKey;
+
+    @Column(name = "latitude", precision = 9, scale = 6)
+    private BigDecimal latitude;
+
+    @Column(name = "longitude", precision = 9, scale = 6)
+    private BigDecimal longitude;
+
+    // Full-precision geohash of latitude/longitude, indexed for cell lookups
+    @Column(name = "geohash", length = 12)
+    private String geohash;
+
+    @Column(name = "site_id", length = 64)
+    private String siteId;
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package heat.main.domain;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "core_shadow_disagreement")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShadowDisagreement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "shadow_model", nullable = false, length = 100)
+    private String shadowModel;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "primary_risk_level", nullable = false, length = 16)
+    private RiskLevel primaryRiskLevel;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "shadow_risk_level", nullable = false, length = 16)
+    private RiskLevel shadowRiskLevel;
+
+    @Column(name = "primary_probability", nullable = false, precision = 6, scale = 4)
+    private BigDecimal primaryProbability;
+
+    @Column(name = "shadow_probability", nullable = false, precision = 6, scale = 4)
+    private BigDecimal shadowProbability;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -1,5 +1,6 @@
 package heat.main.domain;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import heat.main.enums.RoleType;
 import javax.persistence.*;
 import lombok.AllArgsConstructor;
@@ -11,7 +12,7 @@ import java.math.BigDecimal;
 @Entity
 @Table(name = "core_user")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
@@ -45,6 +46,8 @@ public class User {
     @Column(name = "role")
     private RoleType roleType;
 
+    // Accepted when creating a user, never serialized back
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(name = "password")
     private String password;
 
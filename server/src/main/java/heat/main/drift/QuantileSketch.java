@@ -0,0 +1,224 @@
+package heat.main.drift;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * KLL quantile sketch with running moments. Values land in level 0; when the sketch is over
+ * capacity a full level is sorted and every other item (random offset) is promoted one level up
+ * with twice the weight, so memory stays around {@code 3k} items and an update is amortized O(1).
+ * Rank error is roughly {@code 1.7 / k}. Two sketches can be {@link #merge merged}, which is what
+ * lets the monitor keep one per thread stripe and combine them when a report is asked for.
+ *
+ * <p>Not thread-safe; callers synchronize.
+ */
+public class QuantileSketch {
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private final SplittableRandom random;
+
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int retained;
+    private int maxRetained;
+
+    private long count;
+    private double sum;
+    private double sumOfSquares;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("Sketch size must be at least 8, got " + k);
+        }
+        this.k = k;
+        this.random = new SplittableRandom();
+        levels[0] = new double[capacity(0)];
+        maxRetained = capacity(0);
+    }
+
+    public void update(double value) {
+        if (sizes[0] == levels[0].length) {
+            levels[0] = Arrays.copyOf(levels[0], levels[0].length * 2);
+        }
+        levels[0][sizes[0]++] = value;
+        retained++;
+
+        count++;
+        sum += value;
+        sumOfSquares += value * value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        while (levels.length < other.levels.length) {
+            grow();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            int needed = sizes[h] + other.sizes[h];
+            if (levels[h].length < needed) {
+                levels[h] = Arrays.copyOf(levels[h], Math.max(needed, levels[h].length * 2));
+            }
+            System.arraycopy(other.levels[h], 0, levels[h], sizes[h], other.sizes[h]);
+            sizes[h] = needed;
+            retained += other.sizes[h];
+        }
+
+        count += other.count;
+        sum += other.sum;
+        sumOfSquares += other.sumOfSquares;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch(k);
+        copy.merge(this);
+        return copy;
+    }
+
+    // Estimated fraction of values <= x
+    public double cdf(double x) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long weight = 0;
+        for (int h = 0; h < levels.length; h++) {
+            double[] items = levels[h];
+            int below = 0;
+            for (int i = 0; i < sizes[h]; i++) {
+                if (items[i] <= x) {
+                    below++;
+                }
+            }
+            weight += (long) below << h;
+        }
+        return (double) weight / weightedTotal();
+    }
+
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n++] = 1L << h;
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        double target = q * weightedTotal();
+        long cumulative = 0;
+        for (Integer i : order) {
+            cumulative += weights[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return values[order[n - 1]];
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    public double getStandardDeviation() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0.0, sumOfSquares / count - mean * mean));
+    }
+
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    private long weightedTotal() {
+        long total = 0;
+        for (int h = 0; h < levels.length; h++) {
+            total += (long) sizes[h] << h;
+        }
+        return total;
+    }
+
+    // Compacts the lowest level that is over its capacity into the one above it
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (sizes[h] < capacity(h)) {
+                continue;
+            }
+            if (h + 1 == levels.length) {
+                grow();
+            }
+            double[] items = levels[h];
+            int size = sizes[h];
+            Arrays.sort(items, 0, size);
+
+            // An odd item out stays behind so the promoted weight matches what was removed
+            int kept = size % 2;
+            double leftover = items[size - 1];
+            int pairs = size / 2;
+            int needed = sizes[h + 1] + pairs;
+            if (levels[h + 1].length < needed) {
+                levels[h + 1] = Arrays.copyOf(levels[h + 1], Math.max(needed, levels[h + 1].length * 2));
+            }
+            int offset = random.nextBoolean() ? 1 : 0;
+            for (int i = 0; i < pairs; i++) {
+                levels[h + 1][sizes[h + 1]++] = items[2 * i + offset];
+            }
+            if (kept == 1) {
+                items[0] = leftover;
+            }
+            sizes[h] = kept;
+            retained -= size - kept - pairs;
+            return;
+        }
+    }
+
+    private void grow() {
+        int height = levels.length + 1;
+        levels = Arrays.copyOf(levels, height);
+        sizes = Arrays.copyOf(sizes, height);
+        levels[height - 1] = new double[Math.max(2, capacity(height - 1))];
+
+        maxRetained = 0;
+        for (int h = 0; h < height; h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    // Lower levels get geometrically smaller capacities; the top level always holds k
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)) + 1;
+    }
+}
@@ -0,0 +1,23 @@
+package heat.main.drift.controller;
+
+import heat.main.drift.dto.DriftStatsDto;
+import heat.main.drift.service.DriftMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/drift")
+@RequiredArgsConstructor
+public class DriftController {
+
+    private final DriftMonitor driftMonitor;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public DriftStatsDto getDrift() {
+        return driftMonitor.getStats();
+    }
+}
@@ -0,0 +1,22 @@
+package heat.main.drift.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriftStatsDto {
+    private boolean enabled;
+    private String model;
+    private Instant since;
+    private long predictions;
+    private double threshold;
+    private long minSamples;
+    private List<String> driftedFields;
+    private List<FieldDriftDto> fields;
+}
@@ -0,0 +1,27 @@
+package heat.main.drift.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FieldDriftDto {
+    private String field;
+    private double referenceMean;
+    private double referenceStd;
+    private long count;
+    private double mean;
+    private double std;
+    private double min;
+    private double max;
+    private double p05;
+    private double p50;
+    private double p95;
+    private double meanShift;           // (mean - referenceMean) / referenceStd
+    private double spreadRatio;         // std / referenceStd
+    private double outsideThreeSigma;   // share beyond referenceMean +/- 3 referenceStd; ~0.003 for the training data
+    private double driftScore;
+    private boolean drifted;
+}
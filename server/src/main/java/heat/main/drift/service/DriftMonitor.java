@@ -0,0 +1,212 @@
+package heat.main.drift.service;
+
+import heat.main.ModelRunner;
+import heat.main.config.DriftProperties;
+import heat.main.drift.QuantileSketch;
+import heat.main.drift.dto.DriftStatsDto;
+import heat.main.drift.dto.FieldDriftDto;
+import heat.main.scoring.PredictionListener;
+import heat.main.scoring.ScalerReference;
+import heat.main.scoring.ScoringModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares live model inputs with the training distribution baked into the PMML scaler. Each
+ * prediction updates one quantile sketch per input field; no raw rows are kept. Sketches are
+ * striped by thread and grouped into time windows, and a report merges the current and previous
+ * window.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DriftMonitor implements PredictionListener {
+
+    private final DriftProperties properties;
+
+    private List<ScalerReference> references = Collections.emptyList();
+    private String modelName;
+    private long windowMillis;
+
+    private volatile Window current;
+    private volatile Window previous;
+
+    @PostConstruct
+    void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        ScoringModel model = ModelRunner.getPrimaryModel();
+        references = ScalerReference.fromModel(model);
+        if (references.isEmpty()) {
+            log.warn("Model {} has no standard scaler fields, input drift monitoring disabled", model.getName());
+            return;
+        }
+        modelName = model.getName();
+        windowMillis = TimeUnit.MINUTES.toMillis(properties.getWindowMinutes());
+        current = new Window(System.currentTimeMillis());
+
+        ModelRunner.addListener(this);
+        log.info("Input drift monitor enabled for {} fields of {}", references.size(), modelName);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (current != null) {
+            ModelRunner.removeListener(this);
+        }
+    }
+
+    @Override
+    public void onPrediction(ModelRunner.PredictionInput input, ModelRunner.PredictionResult result) {
+        Map<String, Object> values = ScoringModel.toModelFields(input);
+        Window window = rotateIfDue(System.currentTimeMillis());
+        Stripe stripe = window.stripes[(int) (Thread.currentThread().getId() % window.stripes.length)];
+
+        synchronized (stripe) {
+            stripe.predictions++;
+            for (int i = 0; i < references.size(); i++) {
+                Object value = values.get(references.get(i).getField());
+                if (value instanceof Number && Double.isFinite(((Number) value).doubleValue())) {
+                    stripe.sketches[i].update(((Number) value).doubleValue());
+                }
+            }
+        }
+    }
+
+    public DriftStatsDto getStats() {
+        if (current == null) {
+            return new DriftStatsDto(false, null, null, 0, properties.getThreshold(), properties.getMinSamples(),
+                    Collections.emptyList(), Collections.emptyList());
+        }
+
+        Window latest = rotateIfDue(System.currentTimeMillis());
+        Window earlier = previous;
+        List<Window> windows = new ArrayList<>(2);
+        if (earlier != null) {
+            windows.add(earlier);
+        }
+        windows.add(latest);
+
+        long predictions = 0;
+        QuantileSketch[] merged = new QuantileSketch[references.size()];
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = new QuantileSketch(properties.getSketchSize());
+        }
+        for (Window window : windows) {
+            for (Stripe stripe : window.stripes) {
+                synchronized (stripe) {
+                    predictions += stripe.predictions;
+                    for (int i = 0; i < merged.length; i++) {
+                        merged[i].merge(stripe.sketches[i]);
+                    }
+                }
+            }
+        }
+
+        List<FieldDriftDto> fields = new ArrayList<>(references.size());
+        List<String> drifted = new ArrayList<>();
+        for (int i = 0; i < merged.length; i++) {
+            FieldDriftDto field = toDto(references.get(i), merged[i]);
+            fields.add(field);
+            if (field.isDrifted()) {
+                drifted.add(field.getField());
+            }
+        }
+
+        return new DriftStatsDto(
+                true,
+                modelName,
+                Instant.ofEpochMilli(windows.get(0).startedAt),
+                predictions,
+                properties.getThreshold(),
+                properties.getMinSamples(),
+                drifted,
+                fields);
+    }
+
+    private FieldDriftDto toDto(ScalerReference reference, QuantileSketch sketch) {
+        FieldDriftDto dto = new FieldDriftDto();
+        dto.setField(reference.getField());
+        dto.setReferenceMean(reference.getMean());
+        dto.setReferenceStd(reference.getStandardDeviation());
+        dto.setCount(sketch.getCount());
+        if (sketch.getCount() == 0) {
+            return dto;
+        }
+
+        double meanShift = (sketch.getMean() - reference.getMean()) / reference.getStandardDeviation();
+        double spreadRatio = sketch.getStandardDeviation() / reference.getStandardDeviation();
+        double low = reference.getMean() - 3 * reference.getStandardDeviation();
+        double high = reference.getMean() + 3 * reference.getStandardDeviation();
+        // A constant live input has no spread at all; cap the log so the score stays finite
+        double score = Math.max(Math.abs(meanShift), Math.abs(Math.log(Math.max(spreadRatio, 0.01))));
+
+        dto.setMean(sketch.getMean());
+        dto.setStd(sketch.getStandardDeviation());
+        dto.setMin(sketch.getMin());
+        dto.setMax(sketch.getMax());
+        dto.setP05(sketch.quantile(0.05));
+        dto.setP50(sketch.quantile(0.50));
+        dto.setP95(sketch.quantile(0.95));
+        dto.setMeanShift(meanShift);
+        dto.setSpreadRatio(spreadRatio);
+        dto.setOutsideThreeSigma(sketch.cdf(Math.nextDown(low)) + 1.0 - sketch.cdf(high));
+        dto.setDriftScore(score);
+        dto.setDrifted(sketch.getCount() >= properties.getMinSamples() && score >= properties.getThreshold());
+        return dto;
+    }
+
+    private Window rotateIfDue(long now) {
+        Window window = current;
+        if (now - window.startedAt < windowMillis) {
+            return window;
+        }
+        synchronized (this) {
+            window = current;
+            if (now - window.startedAt >= windowMillis) {
+                // After a quiet spell longer than a window the old one no longer describes recent traffic
+                previous = now - window.startedAt < 2 * windowMillis ? window : null;
+                window = new Window(now);
+                current = window;
+            }
+            return window;
+        }
+    }
+
+    private class Window {
+        private final long startedAt;
+        private final Stripe[] stripes;
+
+        Window(long startedAt) {
+            this.startedAt = startedAt;
+            this.stripes = new Stripe[Math.max(1, properties.getStripes())];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe(references.size(), properties.getSketchSize());
+            }
+        }
+    }
+
+    private static class Stripe {
+        private final QuantileSketch[] sketches;
+        private long predictions;
+
+        Stripe(int fields, int sketchSize) {
+            sketches = new QuantileSketch[fields];
+            for (int i = 0; i < fields; i++) {
+                sketches[i] = new QuantileSketch(sketchSize);
+            }
+        }
+    }
+}
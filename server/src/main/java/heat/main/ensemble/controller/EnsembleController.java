@@ -0,0 +1,23 @@
+package heat.main.ensemble.controller;
+
+import heat.main.ensemble.dto.EnsembleStatsDto;
+import heat.main.ensemble.service.ModelEnsemble;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/ensemble")
+@RequiredArgsConstructor
+public class EnsembleController {
+
+    private final ModelEnsemble ensemble;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public EnsembleStatsDto getStats() {
+        return ensemble.getStats();
+    }
+}
@@ -0,0 +1,20 @@
+package heat.main.ensemble.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnsembleMemberStatsDto {
+    private String model;
+    private double weight;
+    private boolean inline;
+    private long evaluations;
+    private long skipped;               // missed the latency budget
+    private long failures;
+    private double meanLatencyMs;
+    private double maxLatencyMs;
+    private double agreementRate;       // share of evaluations matching the ensemble risk level
+}
@@ -0,0 +1,20 @@
+package heat.main.ensemble.dto;
+
+import heat.main.config.EnsembleProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnsembleStatsDto {
+    private boolean enabled;
+    private EnsembleProperties.Strategy strategy;
+    private long latencyBudgetMs;
+    private long evaluations;
+    private long fallbacks;             // no member answered, primary model scored alone
+    private List<EnsembleMemberStatsDto> members;
+}
@@ -0,0 +1,249 @@
+package heat.main.ensemble.service;
+
+import heat.main.ModelRunner;
+import heat.main.config.EnsembleProperties;
+import heat.main.ensemble.dto.EnsembleMemberStatsDto;
+import heat.main.ensemble.dto.EnsembleStatsDto;
+import heat.main.enums.RiskLevel;
+import heat.main.scoring.Scorer;
+import heat.main.scoring.ScoringModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ModelEnsemble implements Scorer {
+
+    private final EnsembleProperties properties;
+
+    private final List<Member> inlineMembers = new ArrayList<>();
+    private final List<Member> pooledMembers = new ArrayList<>();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private ThreadPoolExecutor pool;
+
+    @PostConstruct
+    void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        for (EnsembleProperties.Member config : properties.getMembers()) {
+            ScoringModel model = ModelRunner.MODEL_RESOURCE.equals(config.getResource())
+                    ? ModelRunner.getPrimaryModel()
+                    : ScoringModel.load(config.getResource());
+            Member member = new Member(model, config.getWeight(), config.isInline());
+            (member.inline ? inlineMembers : pooledMembers).add(member);
+        }
+        if (inlineMembers.isEmpty() && pooledMembers.isEmpty()) {
+            inlineMembers.add(new Member(ModelRunner.getPrimaryModel(), 1.0, true));
+        }
+        if (!pooledMembers.isEmpty()) {
+            int threads = Math.max(1, properties.getPoolParallelism());
+            // A rejected evaluation is cancelled, so its member is skipped at once instead of timing out
+            pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, properties.getPoolQueueCapacity())),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "ensemble-member");
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (runnable, executor) -> ((Future<?>) runnable).cancel(false));
+        }
+
+        ModelRunner.useScorer(this);
+        log.info("Model ensemble enabled: strategy={}, inline={}, pooled={}, budget={}ms",
+                properties.getStrategy(), inlineMembers.size(), pooledMembers.size(), properties.getLatencyBudgetMs());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (properties.isEnabled()) {
+            ModelRunner.useScorer(null);
+        }
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Override
+    public ModelRunner.PredictionResult score(ModelRunner.PredictionInput input) {
+        evaluations.increment();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getLatencyBudgetMs());
+
+        // Start the expensive members first so they overlap with the inline ones
+        List<Future<ModelRunner.PredictionResult>> pending = new ArrayList<>(pooledMembers.size());
+        for (Member member : pooledMembers) {
+            pending.add(pool.submit(() -> member.score(input)));
+        }
+
+        List<Member> answered = new ArrayList<>(inlineMembers.size() + pooledMembers.size());
+        List<ModelRunner.PredictionResult> results = new ArrayList<>(inlineMembers.size() + pooledMembers.size());
+
+        for (Member member : inlineMembers) {
+            try {
+                results.add(member.score(input));
+                answered.add(member);
+            } catch (RuntimeException e) {
+                log.warn("Ensemble member {} failed: {}", member.model.getName(), e.getMessage());
+            }
+        }
+
+        for (int i = 0; i < pending.size(); i++) {
+            Member member = pooledMembers.get(i);
+            Future<ModelRunner.PredictionResult> future = pending.get(i);
+            try {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                answered.add(member);
+            } catch (TimeoutException e) {
+                // Interrupts the evaluation if it started, otherwise frees its place in the queue
+                future.cancel(true);
+                pool.remove((Runnable) future);
+                member.skipped.increment();
+            } catch (CancellationException e) {
+                member.skipped.increment();
+            } catch (ExecutionException e) {
+                log.warn("Ensemble member {} failed: {}", member.model.getName(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                pool.remove((Runnable) future);
+                member.skipped.increment();
+            }
+        }
+
+        if (results.isEmpty()) {
+            fallbacks.increment();
+            return ModelRunner.getPrimaryModel().score(input);
+        }
+
+        ModelRunner.PredictionResult combined = combine(answered, results);
+        for (int i = 0; i < answered.size(); i++) {
+            answered.get(i).contributions.increment();
+            if (results.get(i).getPredictedRiskLevel() == combined.getPredictedRiskLevel()) {
+                answered.get(i).agreements.increment();
+            }
+        }
+        return combined;
+    }
+
+    private ModelRunner.PredictionResult combine(List<Member> members, List<ModelRunner.PredictionResult> results) {
+        double totalWeight = 0.0;
+        double high = 0.0;
+        double moderate = 0.0;
+        double no = 0.0;
+        double[] votes = new double[RiskLevel.values().length];
+
+        for (int i = 0; i < results.size(); i++) {
+            double weight = members.get(i).weight;
+            ModelRunner.PredictionResult result = results.get(i);
+            totalWeight += weight;
+            high += weight * result.getHighRiskProbability().doubleValue();
+            moderate += weight * result.getModerateRiskProbability().doubleValue();
+            no += weight * result.getLowRiskProbability().doubleValue();
+            votes[result.getPredictedRiskLevel().ordinal()] += weight;
+        }
+
+        high /= totalWeight;
+        moderate /= totalWeight;
+        no /= totalWeight;
+
+        if (properties.getStrategy() == EnsembleProperties.Strategy.AVERAGE) {
+            return ModelRunner.PredictionResult.of(high, moderate, no);
+        }
+
+        // Weighted majority vote; ties go to the higher risk level
+        RiskLevel winner = RiskLevel.LOW;
+        for (RiskLevel level : RiskLevel.values()) {
+            if (votes[level.ordinal()] >= votes[winner.ordinal()]) {
+                winner = level;
+            }
+        }
+        double[] probabilities = {no, moderate, high};
+        return new ModelRunner.PredictionResult(
+                BigDecimal.valueOf(probabilities[winner.ordinal()]),
+                winner,
+                BigDecimal.valueOf(no),
+                BigDecimal.valueOf(moderate),
+                BigDecimal.valueOf(high));
+    }
+
+    public EnsembleStatsDto getStats() {
+        List<EnsembleMemberStatsDto> members = new ArrayList<>();
+        for (Member member : inlineMembers) {
+            members.add(member.toDto());
+        }
+        for (Member member : pooledMembers) {
+            members.add(member.toDto());
+        }
+        return new EnsembleStatsDto(
+                properties.isEnabled(),
+                properties.getStrategy(),
+                properties.getLatencyBudgetMs(),
+                evaluations.sum(),
+                fallbacks.sum(),
+                members);
+    }
+
+    private static class Member {
+        private final ScoringModel model;
+        private final double weight;
+        private final boolean inline;
+
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder contributions = new LongAdder();
+        private final LongAdder agreements = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Member(ScoringModel model, double weight, boolean inline) {
+            this.model = model;
+            this.weight = weight;
+            this.inline = inline;
+        }
+
+        ModelRunner.PredictionResult score(ModelRunner.PredictionInput input) {
+            long start = System.nanoTime();
+            try {
+                ModelRunner.PredictionResult result = model.score(input);
+                evaluations.increment();
+                return result;
+            } catch (RuntimeException e) {
+                failures.increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                totalNanos.add(elapsed);
+                maxNanos.accumulate(elapsed);
+            }
+        }
+
+        EnsembleMemberStatsDto toDto() {
+            long count = evaluations.sum();
+            long calls = count + failures.sum();
+            return new EnsembleMemberStatsDto(
+                    model.getName(),
+                    weight,
+                    inline,
+                    count,
+                    skipped.sum(),
+                    failures.sum(),
+                    calls > 0 ? totalNanos.sum() / 1_000_000.0 / calls : 0.0,
+                    maxNanos.get() / 1_000_000.0,
+                    contributions.sum() > 0 ? (double) agreements.sum() / contributions.sum() : 0.0);
+        }
+    }
+}
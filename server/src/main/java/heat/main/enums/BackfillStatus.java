@@ -0,0 +1,5 @@
+package heat.main.enums;
+
+public enum BackfillStatus {
+    RUNNING, INTERRUPTED, CANCELLED, FAILED, COMPLETED
+}
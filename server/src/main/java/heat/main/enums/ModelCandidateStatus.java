@@ -0,0 +1,5 @@
+package heat.main.enums;
+
+public enum ModelCandidateStatus {
+    PENDING_REVIEW, APPROVED, REJECTED
+}
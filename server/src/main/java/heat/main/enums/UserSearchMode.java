@@ -0,0 +1,6 @@
+package heat.main.enums;
+
+public enum UserSearchMode {
+    PREFIX,
+    CONTAINS
+}
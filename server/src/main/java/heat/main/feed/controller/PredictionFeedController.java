@@ -0,0 +1,36 @@
+package heat.main.feed.controller;
+
+import heat.main.enums.RiskLevel;
+import heat.main.feed.service.PredictionFeedHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.EnumSet;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/predictions")
+@RequiredArgsConstructor
+public class PredictionFeedController {
+
+    private final PredictionFeedHub hub;
+
+    // Live stream of new predictions; the unfiltered (all patients) stream is admin only, like /all
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("#patientId != null or hasRole('ADMIN')")
+    public SseEmitter stream(
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) List<RiskLevel> riskLevel
+    ) {
+        EnumSet<RiskLevel> levels = riskLevel == null || riskLevel.isEmpty()
+                ? EnumSet.allOf(RiskLevel.class)
+                : EnumSet.copyOf(riskLevel);
+        return hub.subscribe(patientId, levels);
+    }
+}
@@ -0,0 +1,225 @@
+package heat.main.feed.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import heat.main.enums.RiskLevel;
+import heat.main.prediction.dto.RiskPredictionViewDto;
+import heat.main.prediction.event.PredictionCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fan-out of new predictions to server-sent-event subscribers. Publishing only enqueues the
+ * prediction; a dispatcher thread serializes it once and hands the same payload to every
+ * matching subscriber's bounded buffer, and a small writer pool drains those buffers. A viewer
+ * whose buffer overflows is disconnected instead of slowing down everyone else.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PredictionFeedHub {
+
+    private static final FeedMessage HEARTBEAT = new FeedMessage(null, null);
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${heat.feed.buffer-size}")
+    private int bufferSize;
+
+    @Value("${heat.feed.writer-threads}")
+    private int writerThreads;
+
+    @Value("${heat.feed.heartbeat-seconds}")
+    private long heartbeatSeconds;
+
+    @Value("${heat.feed.timeout-minutes}")
+    private long timeoutMinutes;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<RiskPredictionViewDto> published = new ArrayBlockingQueue<>(4096);
+    private final LongAdder evicted = new LongAdder();
+
+    private ExecutorService writers;
+    private ScheduledExecutorService scheduler;
+    private Thread dispatcher;
+
+    @PostConstruct
+    void start() {
+        writers = Executors.newFixedThreadPool(writerThreads, daemon("prediction-feed-writer"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemon("prediction-feed-heartbeat"));
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        dispatcher = daemon("prediction-feed-dispatcher").newThread(this::dispatchLoop);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.interrupt();
+        scheduler.shutdownNow();
+        writers.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+        subscribers.clear();
+    }
+
+    public SseEmitter subscribe(Long patientId, Set<RiskLevel> riskLevels) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(emitter, patientId, riskLevels, bufferSize);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        log.debug("Feed subscriber added (patient={}, levels={}), {} connected", patientId, riskLevels, subscribers.size());
+        return emitter;
+    }
+
+    // Runs after the surrounding transaction commits, or immediately when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPredictionCreated(PredictionCreatedEvent event) {
+        if (!published.offer(event.getPrediction())) {
+            log.warn("Prediction feed backlog full, prediction {} not broadcast", event.getPrediction().getId());
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            RiskPredictionViewDto prediction;
+            try {
+                prediction = published.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            // Serialized once, shared by every subscriber
+            FeedMessage message;
+            try {
+                message = new FeedMessage(String.valueOf(prediction.getId()), objectMapper.writeValueAsString(prediction));
+            } catch (JsonProcessingException e) {
+                log.warn("Could not serialize prediction {} for the feed: {}", prediction.getId(), e.getMessage());
+                continue;
+            }
+
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.matches(prediction)) {
+                    continue;
+                }
+                if (subscriber.buffer.offer(message)) {
+                    schedule(subscriber);
+                } else {
+                    evict(subscriber, "buffer full");
+                }
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // A full buffer already means traffic is flowing; no need for a ping
+            if (subscriber.buffer.offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.buffer.isEmpty() && subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            FeedMessage next;
+            while ((next = subscriber.buffer.poll()) != null) {
+                subscriber.emitter.send(next == HEARTBEAT
+                        ? SseEmitter.event().comment("ping")
+                        : SseEmitter.event().id(next.id).name("prediction").data(next.json, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            evict(subscriber, "client gone");
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // Something may have arrived between the last poll and clearing the flag
+        schedule(subscriber);
+    }
+
+    private void evict(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            evicted.increment();
+            subscriber.buffer.clear();
+            log.debug("Feed subscriber evicted: {}", reason);
+            try {
+                subscriber.emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed by the container
+            }
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class FeedMessage {
+        private final String id;
+        private final String json;
+
+        FeedMessage(String id, String json) {
+            this.id = id;
+            this.json = json;
+        }
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final Long patientId;
+        private final Set<RiskLevel> riskLevels;
+        private final BlockingQueue<FeedMessage> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Long patientId, Set<RiskLevel> riskLevels, int bufferSize) {
+            this.emitter = emitter;
+            this.patientId = patientId;
+            this.riskLevels = riskLevels;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean matches(RiskPredictionViewDto prediction) {
+            return (patientId == null || patientId.equals(prediction.getUserId()))
+                    && riskLevels.contains(prediction.getPredictedRiskLevel());
+        }
+    }
+}
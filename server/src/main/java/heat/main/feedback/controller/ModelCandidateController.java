@@ -0,0 +1,64 @@
+package heat.main.feedback.controller;
+
+import heat.main.feedback.dto.ModelCandidateDto;
+import heat.main.feedback.dto.ReviewModelCandidateRequestDto;
+import heat.main.feedback.service.ModelRefreshService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/models/candidates")
+@RequiredArgsConstructor
+public class ModelCandidateController {
+
+    private final ModelRefreshService refreshService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<ModelCandidateDto> getCandidates() {
+        return refreshService.getCandidates();
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ModelCandidateDto getCandidate(@PathVariable Long id) {
+        return refreshService.getCandidate(id);
+    }
+
+    @GetMapping("/{id}/pmml")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Resource> getPmml(@PathVariable Long id) {
+        Resource pmml = refreshService.getPmml(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_XML)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(pmml.getFilename()).build().toString())
+                .body(pmml);
+    }
+
+    // Trains a candidate on the outcomes reported since the last one now instead of waiting for the schedule
+    @PostMapping("/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ModelCandidateDto> refresh() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(refreshService.refresh());
+    }
+
+    @PostMapping("/{id}/review")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ModelCandidateDto review(@PathVariable Long id,
+                                    @RequestBody @Valid ReviewModelCandidateRequestDto request,
+                                    Principal principal) {
+        return refreshService.review(id, request, principal.getName());
+    }
+}
@@ -0,0 +1,33 @@
+package heat.main.feedback.controller;
+
+import heat.main.feedback.dto.PredictionOutcomeDto;
+import heat.main.feedback.dto.PredictionOutcomeRequestDto;
+import heat.main.feedback.service.PredictionOutcomeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/predictions/{predictionId}/outcome")
+@RequiredArgsConstructor
+public class PredictionOutcomeController {
+
+    private final PredictionOutcomeService outcomeService;
+
+    @PutMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public PredictionOutcomeDto record(@PathVariable Long predictionId,
+                                       @RequestBody @Valid PredictionOutcomeRequestDto request,
+                                       Principal principal) {
+        return outcomeService.record(predictionId, request, principal.getName());
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public PredictionOutcomeDto get(@PathVariable Long predictionId) {
+        return outcomeService.get(predictionId);
+    }
+}
@@ -0,0 +1,28 @@
+package heat.main.feedback.dto;
+
+import heat.main.enums.ModelCandidateStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModelCandidateDto {
+    private Long id;
+    private String version;
+    private String startedFrom;
+    private long throughOutcomeId;
+    private int trainingRows;
+    private Double startLogLoss;        // on the training outcomes, before the refresh
+    private Double logLoss;
+    private Double startAccuracy;
+    private Double accuracy;
+    private ModelCandidateStatus status;
+    private LocalDateTime createdAt;
+    private String reviewedBy;
+    private LocalDateTime reviewedAt;
+    private String reviewNotes;
+}
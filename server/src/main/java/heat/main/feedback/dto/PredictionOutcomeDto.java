@@ -0,0 +1,25 @@
+package heat.main.feedback.dto;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionOutcomeDto {
+    private Long predictionId;
+    private RiskLevel predictedRiskLevel;   // null once the prediction is in cold storage
+    private RiskLevel outcome;
+    private BigDecimal age;
+    private BigDecimal patientTemperature;
+    private Boolean sweating;
+    private Boolean hotDrySkin;
+    private String notes;
+    private String reportedBy;
+    private LocalDateTime reportedAt;
+}
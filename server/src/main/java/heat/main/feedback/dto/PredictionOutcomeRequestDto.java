@@ -0,0 +1,33 @@
+package heat.main.feedback.dto;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionOutcomeRequestDto {
+
+    // Risk level confirmed on examination
+    @NotNull
+    private RiskLevel outcome;
+
+    // Findings from the examination; where given they replace the imputed values when the model is refreshed
+    @DecimalMin("0") @DecimalMax("120")
+    private BigDecimal age;
+    @DecimalMin("30") @DecimalMax("45")
+    private BigDecimal patientTemperature;
+    private Boolean sweating;
+    private Boolean hotDrySkin;
+
+    @Size(max = 2000)
+    private String notes;
+}
@@ -0,0 +1,22 @@
+package heat.main.feedback.dto;
+
+import heat.main.enums.ModelCandidateStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewModelCandidateRequestDto {
+
+    // APPROVED or REJECTED
+    @NotNull
+    private ModelCandidateStatus status;
+
+    @Size(max = 2000)
+    private String notes;
+}
@@ -0,0 +1,15 @@
+package heat.main.feedback.repository;
+
+import heat.main.domain.ModelCandidate;
+import heat.main.enums.ModelCandidateStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ModelCandidateRepository extends JpaRepository<ModelCandidate, Long> {
+
+    List<ModelCandidate> findAllByOrderByIdDesc();
+
+    Optional<ModelCandidate> findFirstByStatusNotOrderByIdDesc(ModelCandidateStatus status);
+}
@@ -0,0 +1,13 @@
+package heat.main.feedback.repository;
+
+import heat.main.domain.PredictionOutcome;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface PredictionOutcomeRepository extends JpaRepository<PredictionOutcome, Long> {
+
+    Optional<PredictionOutcome> findByPredictionId(Long predictionId);
+
+    long countByIdGreaterThan(long id);
+}
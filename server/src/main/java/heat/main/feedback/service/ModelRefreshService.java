@@ -0,0 +1,443 @@
+package heat.main.feedback.service;
+
+import heat.main.ModelRunner;
+import heat.main.archive.ColdRow;
+import heat.main.archive.service.ColdStorageService;
+import heat.main.config.ModelRefreshProperties;
+import heat.main.domain.ModelCandidate;
+import heat.main.enums.ModelCandidateStatus;
+import heat.main.enums.RiskLevel;
+import heat.main.feedback.dto.ModelCandidateDto;
+import heat.main.feedback.dto.ReviewModelCandidateRequestDto;
+import heat.main.feedback.repository.ModelCandidateRepository;
+import heat.main.feedback.repository.PredictionOutcomeRepository;
+import heat.main.imputation.FeatureImputer;
+import heat.main.imputation.RawReading;
+import heat.main.scoring.LinearExplainer;
+import heat.main.scoring.ScoringModel;
+import heat.main.scoring.SoftmaxSgd;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Refreshes the linear model from confirmed outcomes without retraining on the full dataset. A refresh
+ * starts from the newest candidate that was not rejected, or the deployed model, takes only the outcomes
+ * reported since, runs mini-batch SGD over the model's standardized inputs and writes the result as a new
+ * PMML file. The file is reloaded and checked against the trained coefficients before it is registered
+ * as a candidate for review; nothing is deployed automatically.
+ *
+ * <p>Features are rebuilt as a backfill does: vitals from the prediction or its archived copy, sex, weight
+ * and BMI from the patient's current profile, findings confirmed with the outcome, and the rest imputed.
+ */
+@Slf4j
+@Service
+public class ModelRefreshService {
+
+    // Outcomes are often confirmed after their prediction was archived; p and u are then null and the
+    // vitals come from cold storage
+    private static final String OUTCOME_COLUMNS = "SELECT o.id, o.prediction_id, o.outcome, o.age, o.patient_temperature,"
+            + " o.sweating, o.hot_dry_skin, p.patient_id, p.temperature, p.humidity, p.pulse, p.dehydration_level,"
+            + " p.heat_index, u.gender, u.weight, u.bmi";
+
+    // Verification compares the reloaded model with the trained one on this many outcomes
+    private static final int VERIFY_ROWS = 20;
+
+    private static final int VERSION_ATTEMPTS = 5;
+
+    private final ModelRefreshProperties properties;
+    private final ModelCandidateRepository candidateRepository;
+    private final PredictionOutcomeRepository outcomeRepository;
+    private final FeatureImputer featureImputer;
+    private final ColdStorageService coldStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final String outcomesSql;
+    private final String patientSql;
+    private final Path directory;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    public ModelRefreshService(ModelRefreshProperties properties,
+                               ModelCandidateRepository candidateRepository,
+                               PredictionOutcomeRepository outcomeRepository,
+                               FeatureImputer featureImputer,
+                               ColdStorageService coldStorage,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.properties = properties;
+        this.candidateRepository = candidateRepository;
+        this.outcomeRepository = outcomeRepository;
+        this.featureImputer = featureImputer;
+        this.coldStorage = coldStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.directory = Path.of(properties.getDirectory());
+
+        String prefix = schema.isEmpty() ? "" : schema + ".";
+        this.outcomesSql = OUTCOME_COLUMNS
+                + " FROM " + prefix + "core_prediction_outcome o"
+                + " LEFT JOIN " + prefix + "core_prediction p ON p.id = o.prediction_id"
+                + " LEFT JOIN " + prefix + "core_user u ON u.id = p.patient_id"
+                + " WHERE o.id > ? ORDER BY o.id";
+        this.patientSql = "SELECT gender, weight, bmi FROM " + prefix + "core_user WHERE id = ?";
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!properties.isEnabled() || properties.getIntervalMinutes() <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "model-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledRefresh, properties.getIntervalMinutes(),
+                properties.getIntervalMinutes(), TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public ModelCandidateDto refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A model refresh is already running");
+        }
+        try {
+            Start start = findStart();
+            Outcomes outcomes = loadOutcomes(start.throughOutcomeId);
+            if (outcomes.inputs.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "No outcomes reported since " + start.version);
+            }
+            return toDto(train(start, outcomes));
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    public List<ModelCandidateDto> getCandidates() {
+        return candidateRepository.findAllByOrderByIdDesc().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    public ModelCandidateDto getCandidate(Long id) {
+        return toDto(findCandidate(id));
+    }
+
+    public Resource getPmml(Long id) {
+        Path file = Path.of(findCandidate(id).getFilePath());
+        if (!Files.isReadable(file)) {
+            throw new ResponseStatusException(HttpStatus.GONE, "PMML file " + file + " is no longer available");
+        }
+        return new FileSystemResource(file);
+    }
+
+    public ModelCandidateDto review(Long id, ReviewModelCandidateRequestDto request, String reviewer) {
+        if (request.getStatus() == ModelCandidateStatus.PENDING_REVIEW) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A review either approves or rejects the candidate");
+        }
+        ModelCandidate candidate = findCandidate(id);
+        if (candidate.getStatus() != ModelCandidateStatus.PENDING_REVIEW) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Candidate " + candidate.getVersion() + " is already " + candidate.getStatus());
+        }
+        candidate.setStatus(request.getStatus());
+        candidate.setReviewedBy(reviewer);
+        candidate.setReviewedAt(LocalDateTime.now());
+        candidate.setReviewNotes(request.getNotes());
+        log.info("Model candidate {} {} by {}", candidate.getVersion(), request.getStatus(), reviewer);
+        return toDto(candidateRepository.save(candidate));
+    }
+
+    private void scheduledRefresh() {
+        try {
+            Start start = findStart();
+            long pending = outcomeRepository.countByIdGreaterThan(start.throughOutcomeId);
+            if (pending < Math.max(1, properties.getMinNewOutcomes())) {
+                log.debug("Model refresh skipped: {} new outcomes since {}", pending, start.version);
+                return;
+            }
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Scheduled model refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // A candidate builds on the previous one unless that was rejected or its file is gone
+    private Start findStart() {
+        Optional<ModelCandidate> previous = candidateRepository.findFirstByStatusNotOrderByIdDesc(ModelCandidateStatus.REJECTED)
+                .filter(candidate -> Files.isReadable(Path.of(candidate.getFilePath())));
+        String resource = previous.map(candidate -> resource(candidate.getFilePath())).orElse(ModelRunner.MODEL_RESOURCE);
+
+        ScoringModel model;
+        try {
+            model = ScoringModel.load(resource);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+        if (model.getExplainer() == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Model " + model.getName() + " is not a linear classifier and cannot be refreshed incrementally");
+        }
+        return new Start(previous.map(ModelCandidate::getVersion).orElse(model.getName()), resource,
+                model.getExplainer(), previous.map(ModelCandidate::getThroughOutcomeId).orElse(0L));
+    }
+
+    private Outcomes loadOutcomes(long afterId) {
+        Outcomes outcomes = new Outcomes(afterId);
+        readTransaction.executeWithoutResult(status -> jdbcTemplate.query(outcomesSql,
+                rs -> {
+                    RawReading reading = toReading(rs);
+                    // Skipped for good: the prediction is gone with its deleted patient
+                    if (reading != null) {
+                        outcomes.inputs.add(featureImputer.impute(reading));
+                        outcomes.levels.add(RiskLevel.valueOf(rs.getString("outcome")));
+                    }
+                    outcomes.throughId = rs.getLong("id");
+                }, afterId));
+        return outcomes;
+    }
+
+    private ModelCandidate train(Start start, Outcomes outcomes) {
+        long started = System.nanoTime();
+        SoftmaxSgd sgd = new SoftmaxSgd(start.explainer);
+        double startLogLoss = sgd.logLoss(outcomes.inputs, outcomes.levels);
+        double startAccuracy = sgd.accuracy(outcomes.inputs, outcomes.levels);
+        sgd.train(outcomes.inputs, outcomes.levels, properties.getEpochs(), Math.max(1, properties.getBatchSize()),
+                properties.getLearningRate(), properties.getL2(), outcomes.throughId);
+
+        String base = ModelRunner.MODEL_RESOURCE.substring(ModelRunner.MODEL_RESOURCE.lastIndexOf('/') + 1)
+                .replace(".pmml", "");
+        double logLoss = sgd.logLoss(outcomes.inputs, outcomes.levels);
+        double accuracy = sgd.accuracy(outcomes.inputs, outcomes.levels);
+        // Another instance may take the same revision between the count and the insert; the file is created
+        // exclusively and the version is unique, so the loser moves on to the next number
+        for (int attempt = 0; attempt < VERSION_ATTEMPTS; attempt++) {
+            String version = base + "-r" + (candidateRepository.count() + 1 + attempt);
+            Path file = directory.resolve(version + ".pmml").toAbsolutePath();
+            if (!writeCandidate(file, sgd, start, outcomes)) {
+                continue;
+            }
+            verify(file, sgd, outcomes);
+
+            ModelCandidate candidate;
+            try {
+                candidate = candidateRepository.save(ModelCandidate.builder()
+                        .version(version)
+                        .startedFrom(start.version)
+                        .throughOutcomeId(outcomes.throughId)
+                        .trainingRows(outcomes.inputs.size())
+                        .startLogLoss(finite(startLogLoss))
+                        .logLoss(finite(logLoss))
+                        .startAccuracy(finite(startAccuracy))
+                        .accuracy(finite(accuracy))
+                        .filePath(file.toString())
+                        .status(ModelCandidateStatus.PENDING_REVIEW)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                deleteQuietly(file);
+                continue;
+            }
+            log.info("Model candidate {} refreshed from {} on {} outcomes in {} ms: log loss {} -> {}",
+                    version, start.version, outcomes.inputs.size(), (System.nanoTime() - started) / 1_000_000,
+                    String.format("%.4f", startLogLoss), String.format("%.4f", logLoss));
+            return candidate;
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "No free candidate version after " + VERSION_ATTEMPTS + " attempts");
+    }
+
+    // False when the file already exists, e.g. written by another instance sharing the directory
+    private boolean writeCandidate(Path file, SoftmaxSgd sgd, Start start, Outcomes outcomes) {
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                sgd.writePmml(start.resource, "Refreshed from " + start.version + " with " + outcomes.inputs.size()
+                        + " outcomes through id " + outcomes.throughId, out);
+            }
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write candidate " + file, e);
+        }
+    }
+
+    // The exported file has to score like the coefficients that were trained, or it is not registered
+    private void verify(Path file, SoftmaxSgd sgd, Outcomes outcomes) {
+        try {
+            ScoringModel exported = ScoringModel.load(resource(file.toString()));
+            for (int i = 0; i < Math.min(VERIFY_ROWS, outcomes.inputs.size()); i++) {
+                ModelRunner.PredictionInput input = outcomes.inputs.get(i);
+                double expected = sgd.probability(input, RiskLevel.HIGH);
+                double actual = exported.score(input).getHighRiskProbability().doubleValue();
+                if (Math.abs(expected - actual) > 1e-4) {
+                    throw new IllegalStateException("Exported model scores " + actual + " instead of " + expected);
+                }
+            }
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Candidate " + file.getFileName() + " failed verification: " + e.getMessage());
+        }
+    }
+
+    // Null when the prediction is neither in core_prediction nor in cold storage
+    private RawReading toReading(ResultSet rs) throws SQLException {
+        RawReading reading = new RawReading();
+        reading.setAge(toDouble(rs.getBigDecimal("age")));
+        reading.setPatientTemperature(toDouble(rs.getBigDecimal("patient_temperature")));
+        reading.setSweating(toDouble(rs, "sweating"));
+        reading.setHotDrySkin(toDouble(rs, "hot_dry_skin"));
+
+        if (rs.getObject("patient_id") != null) {
+            setVitals(reading, rs.getBigDecimal("temperature"), rs.getBigDecimal("humidity"), rs.getBigDecimal("pulse"),
+                    rs.getBigDecimal("dehydration_level"), rs.getBigDecimal("heat_index"));
+            setProfile(reading, rs.getString("gender"), rs.getBigDecimal("weight"), rs.getBigDecimal("bmi"));
+            return reading;
+        }
+
+        ColdRow archived = coldStorage.find(rs.getLong("prediction_id"));
+        if (archived == null) {
+            return null;
+        }
+        setVitals(reading, archived.getTemperature(), archived.getHumidity(), archived.getPulse(),
+                archived.getDehydrationLevel(), archived.getHeatIndex());
+        SqlRowSet patient = jdbcTemplate.queryForRowSet(patientSql, archived.getPatientId());
+        if (!patient.next()) {
+            return null;
+        }
+        setProfile(reading, patient.getString("gender"), patient.getBigDecimal("weight"), patient.getBigDecimal("bmi"));
+        return reading;
+    }
+
+    private static void setVitals(RawReading reading, BigDecimal temperature, BigDecimal humidity, BigDecimal pulse,
+                                  BigDecimal dehydrationLevel, BigDecimal heatIndex) {
+        reading.setTemperature(toDouble(temperature));
+        reading.setHumidity(toDouble(humidity));
+        reading.setPulse(toDouble(pulse));
+        reading.setDehydrationLevel(toDouble(dehydrationLevel));
+        reading.setHeatIndex(toDouble(heatIndex));
+    }
+
+    private static void setProfile(RawReading reading, String gender, BigDecimal weight, BigDecimal bmi) {
+        // Compared by first character: CHAR columns may come back blank-padded
+        reading.setSex(gender != null && !gender.isEmpty() && gender.charAt(0) == 'M' ? 1.0 : 0.0);
+        reading.setWeight(toDouble(weight));
+        reading.setBmi(toDouble(bmi));
+    }
+
+    private ModelCandidateDto toDto(ModelCandidate candidate) {
+        return new ModelCandidateDto(
+                candidate.getId(),
+                candidate.getVersion(),
+                candidate.getStartedFrom(),
+                candidate.getThroughOutcomeId(),
+                candidate.getTrainingRows(),
+                candidate.getStartLogLoss(),
+                candidate.getLogLoss(),
+                candidate.getStartAccuracy(),
+                candidate.getAccuracy(),
+                candidate.getStatus(),
+                candidate.getCreatedAt(),
+                candidate.getReviewedBy(),
+                candidate.getReviewedAt(),
+                candidate.getReviewNotes());
+    }
+
+    private ModelCandidate findCandidate(Long id) {
+        return candidateRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Model candidate " + id + " not found"));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Unregistered either way
+        }
+    }
+
+    private static String resource(String filePath) {
+        return ScoringModel.FILE_PREFIX + filePath;
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+
+    private static double toDouble(ResultSet rs, String column) throws SQLException {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? Double.NaN : value ? 1.0 : 0.0;
+    }
+
+    private static Double finite(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
+    private static class Start {
+        private final String version;
+        private final String resource;
+        private final LinearExplainer explainer;
+        private final long throughOutcomeId;
+
+        Start(String version, String resource, LinearExplainer explainer, long throughOutcomeId) {
+            this.version = version;
+            this.resource = resource;
+            this.explainer = explainer;
+            this.throughOutcomeId = throughOutcomeId;
+        }
+    }
+
+    private static class Outcomes {
+        private final List<ModelRunner.PredictionInput> inputs = new ArrayList<>();
+        private final List<RiskLevel> levels = new ArrayList<>();
+        private long throughId;
+
+        Outcomes(long afterId) {
+            this.throughId = afterId;
+        }
+    }
+}
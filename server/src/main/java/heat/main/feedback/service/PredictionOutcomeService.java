@@ -0,0 +1,87 @@
+package heat.main.feedback.service;
+
+import heat.main.archive.ColdRow;
+import heat.main.archive.service.ColdStorageService;
+import heat.main.domain.PredictionOutcome;
+import heat.main.domain.RiskPrediction;
+import heat.main.feedback.dto.PredictionOutcomeDto;
+import heat.main.feedback.dto.PredictionOutcomeRequestDto;
+import heat.main.enums.RiskLevel;
+import heat.main.feedback.repository.PredictionOutcomeRepository;
+import heat.main.prediction.repository.RiskPredictionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class PredictionOutcomeService {
+
+    private final PredictionOutcomeRepository outcomeRepository;
+    private final RiskPredictionRepository predictionRepository;
+    private final ColdStorageService coldStorage;
+
+    /**
+     * Records the confirmed outcome of a prediction, replacing an earlier one. A replacement gets a new id,
+     * so the next model refresh trains on the corrected outcome.
+     */
+    @Transactional
+    public PredictionOutcomeDto record(Long predictionId, PredictionOutcomeRequestDto request, String reportedBy) {
+        RiskLevel predicted = predictedRiskLevel(predictionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Prediction " + predictionId + " not found"));
+
+        outcomeRepository.findByPredictionId(predictionId).ifPresent(previous -> {
+            outcomeRepository.delete(previous);
+            // Before the insert, which would otherwise hit the unique prediction_id
+            outcomeRepository.flush();
+        });
+
+        PredictionOutcome outcome = outcomeRepository.save(PredictionOutcome.builder()
+                .predictionId(predictionId)
+                .outcome(request.getOutcome())
+                .age(request.getAge())
+                .patientTemperature(request.getPatientTemperature())
+                .sweating(request.getSweating())
+                .hotDrySkin(request.getHotDrySkin())
+                .notes(request.getNotes())
+                .reportedBy(reportedBy)
+                .reportedAt(LocalDateTime.now())
+                .build());
+        return toDto(outcome, predicted);
+    }
+
+    @Transactional(readOnly = true)
+    public PredictionOutcomeDto get(Long predictionId) {
+        PredictionOutcome outcome = outcomeRepository.findByPredictionId(predictionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "No outcome recorded for prediction " + predictionId));
+        return toDto(outcome, predictedRiskLevel(predictionId).orElse(null));
+    }
+
+    // Outcomes are often confirmed long after the visit, when the prediction may already be archived
+    private Optional<RiskLevel> predictedRiskLevel(Long predictionId) {
+        return predictionRepository.findById(predictionId)
+                .map(RiskPrediction::getPredictedRiskLevel)
+                .or(() -> Optional.ofNullable(coldStorage.find(predictionId)).map(ColdRow::getPredictedRiskLevel));
+    }
+
+    private static PredictionOutcomeDto toDto(PredictionOutcome outcome, RiskLevel predicted) {
+        return new PredictionOutcomeDto(
+                outcome.getPredictionId(),
+                predicted,
+                outcome.getOutcome(),
+                outcome.getAge(),
+                outcome.getPatientTemperature(),
+                outcome.getSweating(),
+                outcome.getHotDrySkin(),
+                outcome.getNotes(),
+                outcome.getReportedBy(),
+                outcome.getReportedAt());
+    }
+}
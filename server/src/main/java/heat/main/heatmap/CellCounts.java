@@ -0,0 +1,52 @@
+package heat.main.heatmap;
+
+import heat.main.enums.RiskLevel;
+
+/** Totals of one grid cell or site over the rolling window. */
+public class CellCounts {
+
+    private final String key;
+    private final String geohash;
+    private final long[] counts = new long[RiskLevel.values().length];
+    private double heatIndexSum;
+    private long heatIndexCount;
+
+    CellCounts(String key, String geohash) {
+        this.key = key;
+        this.geohash = geohash;
+    }
+
+    void add(long[] levelCounts, double heatIndexSum, long heatIndexCount) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += levelCounts[i];
+        }
+        this.heatIndexSum += heatIndexSum;
+        this.heatIndexCount += heatIndexCount;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // The cell itself for grid cells; the latest known cell for sites, null if none had a location
+    public String getGeohash() {
+        return geohash;
+    }
+
+    public long getCount(RiskLevel level) {
+        return counts[level.ordinal()];
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Null when no prediction in the window had a heat index
+    public Double getMeanHeatIndex() {
+        return heatIndexCount == 0 ? null : heatIndexSum / heatIndexCount;
+    }
+}
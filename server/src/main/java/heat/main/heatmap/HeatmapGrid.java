@@ -0,0 +1,129 @@
+package heat.main.heatmap;
+
+import heat.main.enums.RiskLevel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling per-level counts and mean heat index for every geohash cell (at a fixed precision) and every site
+ * that had a prediction within the window. Updated one prediction at a time; queries read the cells only.
+ */
+public class HeatmapGrid {
+
+    private final int precision;
+    private final long bucketMillis;
+    private final int buckets;
+    private final ConcurrentHashMap<String, RollingCounts> cells = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RollingCounts> sites = new ConcurrentHashMap<>();
+
+    public HeatmapGrid(int precision, long windowMillis, long bucketMillis) {
+        if (precision < 1 || precision > Geohash.MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be in 1.." + Geohash.MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.bucketMillis = bucketMillis;
+        this.buckets = (int) Math.max(1, (windowMillis + bucketMillis - 1) / bucketMillis);
+    }
+
+    // Either key may be null; predictions older than the window are ignored
+    public void add(String geohash, String siteId, long epochMillis, RiskLevel level, double heatIndex, long nowMillis) {
+        long bucket = Math.min(epochMillis, nowMillis) / bucketMillis;
+        if (bucket <= nowMillis / bucketMillis - buckets) {
+            return;
+        }
+        String cell = geohash != null && geohash.length() >= precision ? geohash.substring(0, precision) : null;
+        if (cell != null) {
+            cells.compute(cell, (key, counts) -> {
+                RollingCounts updated = counts != null ? counts : new RollingCounts(buckets);
+                updated.add(bucket, level, heatIndex);
+                return updated;
+            });
+        }
+        if (siteId != null) {
+            sites.compute(siteId, (key, counts) -> {
+                RollingCounts updated = counts != null ? counts : new RollingCounts(buckets);
+                updated.add(bucket, level, heatIndex);
+                if (cell != null) {
+                    updated.setGeohash(cell);
+                }
+                return updated;
+            });
+        }
+    }
+
+    /**
+     * Cells intersecting the box, merged up to {@code queryPrecision} characters when that is coarser than
+     * the grid. A box with minLongitude > maxLongitude crosses the antimeridian.
+     */
+    public List<CellCounts> cells(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                                  int queryPrecision, long nowMillis) {
+        long currentBucket = nowMillis / bucketMillis;
+        int keyLength = Math.min(queryPrecision, precision);
+        Map<String, CellCounts> merged = new LinkedHashMap<>();
+        for (Map.Entry<String, RollingCounts> entry : cells.entrySet()) {
+            if (evictIfEmpty(cells, entry, currentBucket)) {
+                continue;
+            }
+            double[] bounds = Geohash.bounds(entry.getKey());
+            if (bounds[2] < minLatitude || bounds[0] > maxLatitude
+                    || !overlapsLongitude(bounds[1], bounds[3], minLongitude, maxLongitude)) {
+                continue;
+            }
+            String key = entry.getKey().substring(0, keyLength);
+            entry.getValue().addTo(merged.computeIfAbsent(key, k -> new CellCounts(k, k)), currentBucket);
+        }
+        List<CellCounts> result = new ArrayList<>(merged.values());
+        result.sort(Comparator.comparing(CellCounts::getKey));
+        return result;
+    }
+
+    public List<CellCounts> sites(long nowMillis) {
+        long currentBucket = nowMillis / bucketMillis;
+        List<CellCounts> result = new ArrayList<>();
+        for (Map.Entry<String, RollingCounts> entry : sites.entrySet()) {
+            if (evictIfEmpty(sites, entry, currentBucket)) {
+                continue;
+            }
+            CellCounts counts = new CellCounts(entry.getKey(), entry.getValue().getGeohash());
+            entry.getValue().addTo(counts, currentBucket);
+            result.add(counts);
+        }
+        result.sort(Comparator.comparing(CellCounts::getKey));
+        return result;
+    }
+
+    // Oldest instant still counted: the start of the oldest bucket in the window
+    public long getWindowStartMillis(long nowMillis) {
+        return (nowMillis / bucketMillis - buckets + 1) * bucketMillis;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    // Under the map's lock, so a concurrent add either lands before the check or creates a fresh entry
+    private static boolean evictIfEmpty(ConcurrentHashMap<String, RollingCounts> map,
+                                        Map.Entry<String, RollingCounts> entry, long currentBucket) {
+        if (!entry.getValue().isEmpty(currentBucket)) {
+            return false;
+        }
+        map.computeIfPresent(entry.getKey(), (key, counts) -> counts.isEmpty(currentBucket) ? null : counts);
+        return true;
+    }
+
+    private static boolean overlapsLongitude(double cellMin, double cellMax, double minLongitude, double maxLongitude) {
+        if (minLongitude <= maxLongitude) {
+            return cellMax >= minLongitude && cellMin <= maxLongitude;
+        }
+        return cellMax >= minLongitude || cellMin <= maxLongitude;
+    }
+}
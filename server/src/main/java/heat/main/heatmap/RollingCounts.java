@@ -0,0 +1,74 @@
+package heat.main.heatmap;
+
+import heat.main.enums.RiskLevel;
+
+import java.util.Arrays;
+
+// Per-level counts and heat index totals in a ring of time buckets; a slot is cleared when its bucket comes round again
+class RollingCounts {
+
+    private final long[] bucketIds;
+    // [slot][RiskLevel.ordinal()]
+    private final long[][] levels;
+    private final double[] heatIndexSums;
+    private final long[] heatIndexCounts;
+
+    // Sites only: the cell of their latest located prediction
+    private volatile String geohash;
+
+    RollingCounts(int buckets) {
+        bucketIds = new long[buckets];
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+        levels = new long[buckets][RiskLevel.values().length];
+        heatIndexSums = new double[buckets];
+        heatIndexCounts = new long[buckets];
+    }
+
+    synchronized void add(long bucket, RiskLevel level, double heatIndex) {
+        int slot = (int) Math.floorMod(bucket, (long) bucketIds.length);
+        if (bucketIds[slot] > bucket) {
+            return;
+        }
+        if (bucketIds[slot] != bucket) {
+            bucketIds[slot] = bucket;
+            Arrays.fill(levels[slot], 0);
+            heatIndexSums[slot] = 0.0;
+            heatIndexCounts[slot] = 0;
+        }
+        levels[slot][level.ordinal()]++;
+        if (!Double.isNaN(heatIndex)) {
+            heatIndexSums[slot] += heatIndex;
+            heatIndexCounts[slot]++;
+        }
+    }
+
+    // Adds the buckets in (currentBucket - buckets, currentBucket]
+    synchronized void addTo(CellCounts target, long currentBucket) {
+        for (int slot = 0; slot < bucketIds.length; slot++) {
+            if (inWindow(bucketIds[slot], currentBucket)) {
+                target.add(levels[slot], heatIndexSums[slot], heatIndexCounts[slot]);
+            }
+        }
+    }
+
+    synchronized boolean isEmpty(long currentBucket) {
+        for (long bucketId : bucketIds) {
+            if (inWindow(bucketId, currentBucket)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String getGeohash() {
+        return geohash;
+    }
+
+    void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
+    private boolean inWindow(long bucketId, long currentBucket) {
+        return bucketId != Long.MIN_VALUE && bucketId <= currentBucket && bucketId > currentBucket - bucketIds.length;
+    }
+}
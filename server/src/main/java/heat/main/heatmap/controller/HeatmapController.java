@@ -0,0 +1,37 @@
+package heat.main.heatmap.controller;
+
+import heat.main.heatmap.dto.HeatmapDto;
+import heat.main.heatmap.dto.SiteHeatDto;
+import heat.main.heatmap.service.HeatmapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/predictions/heatmap")
+@RequiredArgsConstructor
+public class HeatmapController {
+
+    private final HeatmapService heatmapService;
+
+    // Risk counts per geohash cell over the rolling window; precision below the grid's merges cells
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public HeatmapDto getHeatmap(
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) Integer precision
+    ) {
+        return heatmapService.getHeatmap(bbox, precision);
+    }
+
+    @GetMapping("/sites")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<SiteHeatDto> getSites() {
+        return heatmapService.getSites();
+    }
+}
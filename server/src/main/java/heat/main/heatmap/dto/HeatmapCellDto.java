@@ -0,0 +1,22 @@
+package heat.main.heatmap.dto;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatmapCellDto {
+    private String geohash;
+    // Cell centre and {minLatitude, minLongitude, maxLatitude, maxLongitude}
+    private double latitude;
+    private double longitude;
+    private double[] bounds;
+    private Map<RiskLevel, Long> counts;
+    private long total;
+    private Double meanHeatIndex;
+}
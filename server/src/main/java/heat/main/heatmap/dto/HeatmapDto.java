@@ -0,0 +1,18 @@
+package heat.main.heatmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatmapDto {
+    private int precision;
+    // Start of the rolling window, rounded down to a bucket
+    private LocalDateTime from;
+    private List<HeatmapCellDto> cells;
+}
@@ -0,0 +1,20 @@
+package heat.main.heatmap.dto;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SiteHeatDto {
+    private String siteId;
+    // Grid cell of the site's latest located prediction, null if it never sent a location
+    private String geohash;
+    private Map<RiskLevel, Long> counts;
+    private long total;
+    private Double meanHeatIndex;
+}
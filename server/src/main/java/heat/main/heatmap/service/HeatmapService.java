@@ -0,0 +1,203 @@
+package heat.main.heatmap.service;
+
+import heat.main.config.HeatmapProperties;
+import heat.main.enums.RiskLevel;
+import heat.main.heatmap.CellCounts;
+import heat.main.heatmap.Geohash;
+import heat.main.heatmap.HeatmapGrid;
+import heat.main.heatmap.dto.HeatmapCellDto;
+import heat.main.heatmap.dto.HeatmapDto;
+import heat.main.heatmap.dto.SiteHeatDto;
+import heat.main.invalidation.EntityChange;
+import heat.main.invalidation.event.EntityChangedEvent;
+import heat.main.prediction.dto.RiskPredictionViewDto;
+import heat.main.prediction.event.PredictionCreatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the site heatmap from an in-memory geohash grid, seeded with the predictions inside the window
+ * at startup and updated from prediction events, so a request never scans core_prediction.
+ */
+@Slf4j
+@Service
+public class HeatmapService {
+
+    private final HeatmapProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final HeatmapGrid grid;
+    private final String maxIdSql;
+    private final String seedSql;
+    private final String byIdSql;
+
+    // Events for rows up to this id are covered by the seed query; nothing is taken before seeding starts
+    private volatile long seededThrough = Long.MAX_VALUE;
+
+    public HeatmapService(HeatmapProperties properties, JdbcTemplate jdbcTemplate,
+                          @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.grid = new HeatmapGrid(properties.getPrecision(),
+                TimeUnit.MINUTES.toMillis(properties.getWindowMinutes()),
+                TimeUnit.MINUTES.toMillis(properties.getBucketMinutes()));
+        String table = (schema.isEmpty() ? "" : schema + ".") + "core_prediction";
+        this.maxIdSql = "SELECT COALESCE(MAX(id), 0) FROM " + table;
+        this.seedSql = "SELECT geohash, site_id, assessment_timestamp, predicted_risk_level, heat_index FROM " + table
+                + " WHERE assessment_timestamp >= ? AND id <= ? AND (geohash IS NOT NULL OR site_id IS NOT NULL)";
+        this.byIdSql = "SELECT geohash, site_id, assessment_timestamp, predicted_risk_level, heat_index FROM " + table
+                + " WHERE id = ? AND (geohash IS NOT NULL OR site_id IS NOT NULL)";
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void seed() {
+        long now = nowMillis();
+        long[] rows = {0};
+        try {
+            long maxId = jdbcTemplate.queryForObject(maxIdSql, Long.class);
+            seededThrough = maxId;
+            jdbcTemplate.query(seedSql, rs -> {
+                add(rs, now);
+                rows[0]++;
+            }, Timestamp.valueOf(toLocalDateTime(grid.getWindowStartMillis(now))), maxId);
+        } catch (RuntimeException e) {
+            seededThrough = 0;
+            log.warn("Heatmap seeding failed, counting new predictions only: {}", e.getMessage());
+            return;
+        }
+        log.info("Heatmap seeded from {} located prediction(s), {} cell(s)", rows[0], grid.getCellCount());
+    }
+
+    // Runs after the surrounding transaction commits, or immediately when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPredictionCreated(PredictionCreatedEvent event) {
+        RiskPredictionViewDto prediction = event.getPrediction();
+        if (prediction.getId() <= seededThrough || (prediction.getLatitude() == null && prediction.getSiteId() == null)) {
+            return;
+        }
+        String geohash = prediction.getLatitude() != null && prediction.getLongitude() != null
+                ? Geohash.encode(prediction.getLatitude().doubleValue(), prediction.getLongitude().doubleValue(),
+                grid.getPrecision())
+                : null;
+        grid.add(geohash,
+                prediction.getSiteId(),
+                toMillis(prediction.getAssessmentTimestamp()),
+                prediction.getPredictedRiskLevel(),
+                prediction.getHeatIndex() != null ? prediction.getHeatIndex().doubleValue() : Double.NaN,
+                nowMillis());
+    }
+
+    // Saved by another instance: counted here too, so every instance shows the whole cluster
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        EntityChange change = event.getChange();
+        if (event.isRemote() && change.getType() == EntityChange.Type.PREDICTION
+                && change.getAction() == EntityChange.Action.CREATED && change.getId() > seededThrough) {
+            long now = nowMillis();
+            jdbcTemplate.query(byIdSql, rs -> {
+                add(rs, now);
+            }, change.getId());
+        }
+    }
+
+    // bbox is minLongitude,minLatitude,maxLongitude,maxLatitude; the whole world when absent
+    public HeatmapDto getHeatmap(String bbox, Integer precision) {
+        double[] box = bbox != null ? parseBbox(bbox) : new double[]{-180, -90, 180, 90};
+        int queryPrecision = precision != null ? precision : grid.getPrecision();
+        if (queryPrecision < 1 || queryPrecision > grid.getPrecision()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "precision must be in 1.." + grid.getPrecision());
+        }
+
+        long now = nowMillis();
+        List<HeatmapCellDto> cells = grid.cells(box[1], box[0], box[3], box[2], queryPrecision, now).stream()
+                .map(HeatmapService::toDto)
+                .toList();
+        return new HeatmapDto(queryPrecision, toLocalDateTime(grid.getWindowStartMillis(now)), cells);
+    }
+
+    public List<SiteHeatDto> getSites() {
+        return grid.sites(nowMillis()).stream()
+                .map(site -> new SiteHeatDto(site.getKey(), site.getGeohash(), toCounts(site), site.getTotal(),
+                        site.getMeanHeatIndex()))
+                .toList();
+    }
+
+    private static double[] parseBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        double[] box = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                box[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        if (box[1] < -90 || box[3] > 90 || box[1] > box[3] || Math.abs(box[0]) > 180 || Math.abs(box[2]) > 180) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bbox is outside -180..180, -90..90 or inverted");
+        }
+        return box;
+    }
+
+    private static HeatmapCellDto toDto(CellCounts cell) {
+        double[] bounds = Geohash.bounds(cell.getGeohash());
+        return new HeatmapCellDto(
+                cell.getGeohash(),
+                (bounds[0] + bounds[2]) / 2,
+                (bounds[1] + bounds[3]) / 2,
+                bounds,
+                toCounts(cell),
+                cell.getTotal(),
+                cell.getMeanHeatIndex());
+    }
+
+    private static Map<RiskLevel, Long> toCounts(CellCounts cell) {
+        Map<RiskLevel, Long> counts = new EnumMap<>(RiskLevel.class);
+        for (RiskLevel level : RiskLevel.values()) {
+            counts.put(level, cell.getCount(level));
+        }
+        return counts;
+    }
+
+    // Assessment timestamps are local wall-clock times; both sides of every comparison use the same conversion
+    private void add(ResultSet rs, long now) throws SQLException {
+        BigDecimal heatIndex = rs.getBigDecimal("heat_index");
+        grid.add(rs.getString("geohash"),
+                rs.getString("site_id"),
+                toMillis(rs.getTimestamp("assessment_timestamp").toLocalDateTime()),
+                RiskLevel.valueOf(rs.getString("predicted_risk_level")),
+                heatIndex != null ? heatIndex.doubleValue() : Double.NaN,
+                now);
+    }
+
+    private static long nowMillis() {
+        return toMillis(LocalDateTime.now());
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000), 0, ZoneOffset.UTC);
+    }
+}
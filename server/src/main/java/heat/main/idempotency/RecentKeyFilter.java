@@ -0,0 +1,136 @@
+package heat.main.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time-windowed Bloom filter over recently seen keys. Keys go into the current generation; a
+ * lookup checks every generation, and every {@code windowMillis} the oldest generation is
+ * cleared and becomes the current one, so a key is remembered for between
+ * (generations - 1) and generations windows.
+ *
+ * <p>{@link #mightContain} never returns false for a key added within that span, so a "no"
+ * can skip the database. A "yes" is only a hint and has to be confirmed there.
+ */
+public class RecentKeyFilter {
+
+    private final AtomicLongArray[] generations;
+    private final int bits;
+    private final int hashes;
+    private final long windowMillis;
+
+    private volatile int current;
+    private volatile long rotatedAt;
+
+    public RecentKeyFilter(int generationCount, long windowMillis, int expectedKeysPerWindow, double falsePositiveRate) {
+        if (generationCount < 2) {
+            throw new IllegalArgumentException("At least two generations are needed, got " + generationCount);
+        }
+        // Standard Bloom sizing: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long optimalBits = (long) Math.ceil(-expectedKeysPerWindow * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedKeysPerWindow * Math.log(2)));
+        this.windowMillis = windowMillis;
+
+        this.generations = new AtomicLongArray[generationCount];
+        for (int i = 0; i < generationCount; i++) {
+            generations[i] = new AtomicLongArray((bits + 63) / 64);
+        }
+        this.rotatedAt = System.currentTimeMillis();
+    }
+
+    public void put(String key) {
+        rotateIfDue();
+        long h1 = hash(key);
+        long h2 = mix(h1);
+        AtomicLongArray words = generations[current];
+        for (int i = 0; i < hashes; i++) {
+            int bit = index(h1, h2, i);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long old;
+            do {
+                old = words.get(word);
+                if ((old & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, old, old | mask));
+        }
+    }
+
+    public boolean mightContain(String key) {
+        rotateIfDue();
+        long h1 = hash(key);
+        long h2 = mix(h1);
+        for (AtomicLongArray words : generations) {
+            if (contains(words, h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getBits() {
+        return bits;
+    }
+
+    public int getHashes() {
+        return hashes;
+    }
+
+    private boolean contains(AtomicLongArray words, long h1, long h2) {
+        for (int i = 0; i < hashes; i++) {
+            int bit = index(h1, h2, i);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rotateIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - rotatedAt < windowMillis) {
+            return;
+        }
+        synchronized (this) {
+            // Catch up on every window that passed, but clearing more than all of them is pointless
+            int steps = (int) Math.min(generations.length, (now - rotatedAt) / windowMillis);
+            for (int i = 0; i < steps; i++) {
+                int next = (current + 1) % generations.length;
+                AtomicLongArray words = generations[next];
+                for (int w = 0; w < words.length(); w++) {
+                    words.set(w, 0L);
+                }
+                current = next;
+            }
+            if (steps > 0) {
+                rotatedAt = now;
+            }
+        }
+    }
+
+    // Kirsch-Mitzenmacher double hashing
+    private int index(long h1, long h2, int i) {
+        return (int) (((h1 + i * h2) & Long.MAX_VALUE) % bits);
+    }
+
+    // FNV-1a 64 over the UTF-8 bytes, finished with the murmur3 avalanche
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
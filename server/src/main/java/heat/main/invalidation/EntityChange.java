@@ -0,0 +1,22 @@
+package heat.main.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/** A user or prediction row that was created, changed or deleted; in-process copies of it are stale. */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class EntityChange {
+
+    public enum Type { USER, PREDICTION }
+
+    public enum Action { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Action action;
+    private final long id;
+}
@@ -0,0 +1,50 @@
+package heat.main.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An {@link EntityChange} as sent between instances: {@code origin|sentAtMillis|TYPE|ACTION|id}. Kept far
+ * below the 8000 byte NOTIFY payload limit, and readable in pg_stat_activity or a psql LISTEN session.
+ */
+@Getter
+@AllArgsConstructor
+public class InvalidationMessage {
+
+    private static final char SEPARATOR = '|';
+
+    private final String origin;
+    private final long sentAtMillis;
+    private final EntityChange change;
+
+    public String encode() {
+        return origin + SEPARATOR + sentAtMillis + SEPARATOR + change.getType() + SEPARATOR
+                + change.getAction() + SEPARATOR + change.getId();
+    }
+
+    // Null when the payload is not a message of this format, e.g. a NOTIFY issued by hand
+    public static InvalidationMessage decode(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        // The origin may itself contain the separator, so the fixed fields are taken from the end
+        String[] fields = new String[4];
+        int end = payload.length();
+        for (int i = fields.length - 1; i >= 0; i--) {
+            int start = payload.lastIndexOf(SEPARATOR, end - 1);
+            if (start < 0) {
+                return null;
+            }
+            fields[i] = payload.substring(start + 1, end);
+            end = start;
+        }
+        try {
+            return new InvalidationMessage(payload.substring(0, end), Long.parseLong(fields[0]), new EntityChange(
+                    EntityChange.Type.valueOf(fields[1]),
+                    EntityChange.Action.valueOf(fields[2]),
+                    Long.parseLong(fields[3])));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package heat.main.invalidation.controller;
+
+import heat.main.invalidation.dto.InvalidationStatsDto;
+import heat.main.invalidation.service.InvalidationBus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/invalidation")
+@RequiredArgsConstructor
+public class InvalidationController {
+
+    private final InvalidationBus invalidationBus;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public InvalidationStatsDto getStats() {
+        return invalidationBus.getStats();
+    }
+}
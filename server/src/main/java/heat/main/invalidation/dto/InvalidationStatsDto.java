@@ -0,0 +1,21 @@
+package heat.main.invalidation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationStatsDto {
+    private String nodeId;
+    private String channel;
+    private boolean enabled;
+    private boolean listening;          // false without PostgreSQL: changes then stay on this instance
+    private long sent;
+    private long received;              // from other instances; our own notifications are skipped
+    private long ignored;               // payloads that were not invalidation messages
+    private long reconnects;
+    private Long lastLagMillis;         // sender's clock to ours, so only meaningful between synced hosts
+    private Long maxLagMillis;
+}
@@ -0,0 +1,5 @@
+package heat.main.invalidation.event;
+
+// The bus was not listening for a while (startup, lost connection); changes of other instances may have been missed
+public class ChangesMissedEvent {
+}
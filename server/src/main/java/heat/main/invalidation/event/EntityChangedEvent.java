@@ -0,0 +1,13 @@
+package heat.main.invalidation.event;
+
+import heat.main.invalidation.EntityChange;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published for a change made by this instance, inside its transaction, and for one another instance announced
+@Getter
+@AllArgsConstructor
+public class EntityChangedEvent {
+    private final EntityChange change;
+    private final boolean remote;
+}
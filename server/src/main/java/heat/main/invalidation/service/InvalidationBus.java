@@ -0,0 +1,246 @@
+package heat.main.invalidation.service;
+
+import heat.main.config.InvalidationProperties;
+import heat.main.invalidation.EntityChange;
+import heat.main.invalidation.InvalidationMessage;
+import heat.main.invalidation.dto.InvalidationStatsDto;
+import heat.main.invalidation.event.ChangesMissedEvent;
+import heat.main.invalidation.event.EntityChangedEvent;
+import heat.main.prediction.event.PredictionCreatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the in-process views of users and predictions of several instances in step through Postgres
+ * LISTEN/NOTIFY on the database they already share, without a separate broker. A change is sent with
+ * pg_notify in the transaction that makes it, so Postgres delivers it only once that commits, and the
+ * instances that hear it publish an {@link EntityChangedEvent} to their own listeners.
+ *
+ * <p>Each instance listens on one dedicated connection outside the pools. When that connection is lost
+ * everything sent meanwhile is gone, so after every (re)connect a {@link ChangesMissedEvent} tells the
+ * listeners to re-read. Without PostgreSQL, e.g. on H2, changes only reach this instance's listeners.
+ */
+@Slf4j
+@Service
+public class InvalidationBus {
+
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final int POLL_MILLIS = 1000;
+
+    private final InvalidationProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+    private final boolean postgres;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder ignored = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final AtomicLong maxLagMillis = new AtomicLong(-1);
+    private volatile long lastLagMillis = -1;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile Connection connection;
+    private Thread listener;
+
+    public InvalidationBus(InvalidationProperties properties, DataSourceProperties dataSourceProperties,
+                           JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        if (!CHANNEL.matcher(properties.getChannel()).matches()) {
+            throw new IllegalStateException("heat.invalidation.channel must be a lower-case identifier: "
+                    + properties.getChannel());
+        }
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        // pid@host, unique per instance even with several on one machine
+        this.nodeId = ManagementFactory.getRuntimeMXBean().getName();
+        this.postgres = dataSourceProperties.determineUrl() != null
+                && dataSourceProperties.determineUrl().startsWith("jdbc:postgresql:");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!postgres) {
+            log.info("Invalidation bus needs PostgreSQL; changes stay on this instance");
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        closeQuietly(connection);
+    }
+
+    // Same transaction as the change: rolled back with it, delivered once it commits
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!event.isRemote()) {
+            send(event.getChange());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPredictionCreated(PredictionCreatedEvent event) {
+        send(new EntityChange(EntityChange.Type.PREDICTION, EntityChange.Action.CREATED, event.getPrediction().getId()));
+    }
+
+    public InvalidationStatsDto getStats() {
+        long last = lastLagMillis;
+        long max = maxLagMillis.get();
+        return new InvalidationStatsDto(
+                nodeId,
+                properties.getChannel(),
+                properties.isEnabled(),
+                listening,
+                sent.sum(),
+                received.sum(),
+                ignored.sum(),
+                reconnects.sum(),
+                last >= 0 ? last : null,
+                max >= 0 ? max : null);
+    }
+
+    private void send(EntityChange change) {
+        if (!properties.isEnabled() || !postgres) {
+            return;
+        }
+        String payload = new InvalidationMessage(nodeId, System.currentTimeMillis(), change).encode();
+        jdbcTemplate.queryForRowSet("SELECT pg_notify(?, ?)", properties.getChannel(), payload);
+        sent.increment();
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection listenConnection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = listenConnection;
+                try (Statement statement = listenConnection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+                // Bounds the keepalive below; getNotifications sets its own timeout for each poll
+                int keepaliveMillis = (int) TimeUnit.SECONDS.toMillis(properties.getKeepaliveSeconds());
+                listenConnection.setNetworkTimeout(Runnable::run, keepaliveMillis);
+                listening = true;
+                if (connectedBefore) {
+                    reconnects.increment();
+                }
+                log.info("Invalidation bus {} listening on {}", nodeId, properties.getChannel());
+                connectedBefore = true;
+                publish(new ChangesMissedEvent());
+
+                long checkedAt = System.nanoTime();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                    // An empty poll looks the same on a connection the peer dropped without a FIN; a query
+                    // that gets no answer in time fails and is handled as the disconnect it is
+                    if (System.nanoTime() - checkedAt >= TimeUnit.MILLISECONDS.toNanos(keepaliveMillis)) {
+                        try (Statement statement = listenConnection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        checkedAt = System.nanoTime();
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Invalidation bus lost its connection, retrying in {}s: {}",
+                            properties.getReconnectSeconds(), e.getMessage());
+                }
+            } finally {
+                listening = false;
+                connection = null;
+            }
+            pause();
+        }
+    }
+
+    private void receive(String payload) {
+        InvalidationMessage message = InvalidationMessage.decode(payload);
+        if (message == null) {
+            ignored.increment();
+            return;
+        }
+        // Postgres also delivers our own notifications; their listeners already ran here
+        if (nodeId.equals(message.getOrigin())) {
+            return;
+        }
+        received.increment();
+        long lag = Math.max(0, System.currentTimeMillis() - message.getSentAtMillis());
+        lastLagMillis = lag;
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+        publish(new EntityChangedEvent(message.getChange(), true));
+    }
+
+    // A failing listener must not stop the bus
+    private void publish(Object event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.warn("Invalidation listener failed on {}: {}", event, e.getMessage());
+        }
+    }
+
+    private void pause() {
+        if (!running) {
+            return;
+        }
+        try {
+            TimeUnit.SECONDS.sleep(properties.getReconnectSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Shutting down
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package heat.main.journal;
+
+import heat.main.ModelRunner;
+import heat.main.enums.RiskLevel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of scored predictions in memory-mapped, fixed-size segment files.
+ *
+ * <p>Every record is {@link #RECORD_SIZE} bytes, so record n of a segment sits at a known offset
+ * and readers can walk a segment without parsing. A CRC over the record (excluding the state,
+ * which is updated in place) is written last, so a record torn by a crash fails its check and
+ * marks the end of the journal on recovery.
+ *
+ * <p>A record holds the reading as it was submitted, so a replay stores the same row the request
+ * would have, and the model features it was scored on, for retraining.
+ *
+ * <pre>
+ *   0  long    sequence
+ *   8  long    patient id
+ *  16  long    assessment timestamp, epoch millis
+ *  24  double  x12 model features, in {@link #FEATURES} order
+ * 120  double  x3 probabilities: low, moderate, high
+ * 144  int     state, see {@link State}; written with release, read with acquire ordering
+ * 148  int     CRC32C of bytes [0, 144) and [152, 1024)
+ * 152  byte    x32 model version, US-ASCII, zero padded
+ * 184  double  x7 submitted reading, in {@link #READING} order, NaN when absent
+ * 240  short   x3 UTF-8 lengths of idempotency key, site id and notes, -1 when absent
+ * 246  byte    predicted risk level (ordinal)
+ * 248  byte    x776 idempotency key, site id and notes, back to back
+ * </pre>
+ */
+@Slf4j
+public class PredictionJournal implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 1024;
+    public static final String[] FEATURES = {
+            "age", "sex", "weight", "bmi", "dehydrationLevel", "heatIndex",
+            "temperature", "humidity", "pulse", "patientTemperature", "sweating", "hotDrySkin"};
+    public static final String[] READING = {
+            "temperature", "humidity", "pulse", "dehydrationLevel", "heatIndex", "latitude", "longitude"};
+
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x48534A31; // "HSJ1"
+    private static final int FORMAT_VERSION = 2;
+    private static final int MODEL_VERSION_LENGTH = 32;
+
+    private static final int OFF_SEQUENCE = 0;
+    private static final int OFF_PATIENT = 8;
+    private static final int OFF_TIMESTAMP = 16;
+    private static final int OFF_FEATURES = 24;
+    private static final int OFF_PROBABILITIES = 120;
+    private static final int OFF_STATE = 144;
+    private static final int OFF_CRC = 148;
+    private static final int OFF_MODEL_VERSION = 152;
+    private static final int OFF_READING = 184;
+    private static final int OFF_TEXT_LENGTHS = 240;
+    private static final int OFF_RISK_LEVEL = 246;
+    private static final int OFF_TEXT = 248;
+    private static final int TEXT_CAPACITY = RECORD_SIZE - OFF_TEXT;
+
+    // The state is changed by request threads and the replay thread while others scan; int-sized so
+    // it can be accessed with memory ordering (the view handles have no byte variant)
+    private static final VarHandle STATE =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    public enum State {
+        // Appended; the database insert has not finished yet
+        PENDING,
+        PERSISTED,
+        // The insert failed for good, or the process died before it finished
+        ABANDONED,
+        // The database was unavailable; the caller was told the reading is accepted and it awaits replay
+        DEFERRED;
+
+        static final State[] VALUES = values();
+    }
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private Segment current;
+    private volatile long nextSequence;
+
+    private PredictionJournal(Path directory, int recordsPerSegment) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+    }
+
+    /**
+     * Opens (or creates) the journal in {@code directory}, finding the end of the last segment by
+     * its CRCs.
+     */
+    public static PredictionJournal open(Path directory, int recordsPerSegment) {
+        PredictionJournal journal = new PredictionJournal(directory, recordsPerSegment);
+        try {
+            Files.createDirectories(directory);
+            for (Path file : listSegments(directory)) {
+                try {
+                    Segment segment = Segment.map(file, FileChannel.MapMode.READ_WRITE);
+                    journal.segments.put(segment.firstSequence, segment);
+                } catch (IOException e) {
+                    // e.g. a crash while a new segment was being created; keep it aside for inspection
+                    Path aside = file.resolveSibling(file.getFileName() + ".corrupt");
+                    log.warn("Skipping unreadable journal segment {} ({}), moved to {}", file, e.getMessage(), aside);
+                    Files.move(file, aside);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open prediction journal in " + directory, e);
+        }
+
+        Map.Entry<Long, Segment> last = journal.segments.lastEntry();
+        if (last == null) {
+            journal.current = journal.createSegment(1);
+            journal.nextSequence = 1;
+        } else {
+            journal.current = last.getValue();
+            journal.nextSequence = journal.current.firstSequence + journal.current.countValid();
+        }
+        log.info("Prediction journal opened at {}: {} segment(s), next sequence {}",
+                directory, journal.segments.size(), journal.nextSequence);
+        return journal;
+    }
+
+    /**
+     * Reads a journal directory without opening it for writing, e.g. from the retraining job.
+     * The cursor is a view onto the mapped file and is only valid inside the callback.
+     */
+    public static void read(Path directory, long fromSequence, Consumer<Cursor> consumer) {
+        try {
+            for (Path file : listSegments(directory)) {
+                Segment segment = Segment.map(file, FileChannel.MapMode.READ_ONLY);
+                segment.forEach(fromSequence, Long.MAX_VALUE, consumer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read prediction journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a scored reading. {@code reading} is in {@link #READING} order with NaN for absent
+     * values. Returns -1, and appends nothing, when the key, site id and notes together do not fit
+     * in a record.
+     */
+    public synchronized long append(long patientId, long timestampMillis, double[] reading,
+                                    String idempotencyKey, String siteId, String notes,
+                                    ModelRunner.PredictionInput input, ModelRunner.PredictionResult result,
+                                    String modelVersion) {
+        byte[][] text = {utf8(idempotencyKey), utf8(siteId), utf8(notes)};
+        int textLength = 0;
+        for (byte[] bytes : text) {
+            textLength += bytes != null ? bytes.length : 0;
+        }
+        if (textLength > TEXT_CAPACITY) {
+            return -1;
+        }
+
+        long sequence = nextSequence;
+        if (sequence - current.firstSequence >= current.capacity) {
+            current.force();
+            current = createSegment(sequence);
+        }
+
+        MappedByteBuffer buffer = current.buffer;
+        int offset = current.offsetOf(sequence);
+        buffer.putLong(offset + OFF_SEQUENCE, sequence);
+        buffer.putLong(offset + OFF_PATIENT, patientId);
+        buffer.putLong(offset + OFF_TIMESTAMP, timestampMillis);
+
+        int f = offset + OFF_FEATURES;
+        buffer.putDouble(f, input.getAge());
+        buffer.putDouble(f + 8, input.getSex());
+        buffer.putDouble(f + 16, input.getWeight());
+        buffer.putDouble(f + 24, input.getBmi());
+        buffer.putDouble(f + 32, input.getDehydrationLevel());
+        buffer.putDouble(f + 40, input.getHeatIndex());
+        buffer.putDouble(f + 48, input.getTemperature());
+        buffer.putDouble(f + 56, input.getHumidity());
+        buffer.putDouble(f + 64, input.getPulse());
+        buffer.putDouble(f + 72, input.getPatientTemperature());
+        buffer.putDouble(f + 80, input.getSweating());
+        buffer.putDouble(f + 88, input.getHotDrySkin());
+
+        buffer.putDouble(offset + OFF_PROBABILITIES, result.getLowRiskProbability().doubleValue());
+        buffer.putDouble(offset + OFF_PROBABILITIES + 8, result.getModerateRiskProbability().doubleValue());
+        buffer.putDouble(offset + OFF_PROBABILITIES + 16, result.getHighRiskProbability().doubleValue());
+        buffer.put(offset + OFF_RISK_LEVEL, (byte) result.getPredictedRiskLevel().ordinal());
+        buffer.putInt(offset + OFF_STATE, State.PENDING.ordinal());
+
+        byte[] version = modelVersion != null ? modelVersion.getBytes(StandardCharsets.US_ASCII) : new byte[0];
+        for (int i = 0; i < MODEL_VERSION_LENGTH; i++) {
+            buffer.put(offset + OFF_MODEL_VERSION + i, i < version.length ? version[i] : 0);
+        }
+
+        for (int i = 0; i < READING.length; i++) {
+            buffer.putDouble(offset + OFF_READING + i * 8, reading[i]);
+        }
+        int t = offset + OFF_TEXT;
+        for (int i = 0; i < text.length; i++) {
+            buffer.putShort(offset + OFF_TEXT_LENGTHS + i * 2, (short) (text[i] != null ? text[i].length : -1));
+            if (text[i] != null) {
+                buffer.put(t, text[i]);
+                t += text[i].length;
+            }
+        }
+
+        // Written last: a record is only valid once its checksum is
+        buffer.putInt(offset + OFF_CRC, checksum(buffer, offset));
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    public void setState(long sequence, State state) {
+        Segment segment = segmentOf(sequence);
+        if (segment != null) {
+            STATE.setRelease(segment.buffer, segment.offsetOf(sequence) + OFF_STATE, state.ordinal());
+        }
+    }
+
+    /** Visits every valid record with a sequence in [fromSequence, nextSequence). */
+    public void scan(long fromSequence, Consumer<Cursor> consumer) {
+        long end = nextSequence;
+        Long first = segments.floorKey(fromSequence);
+        for (Segment segment : (first != null ? segments.tailMap(first) : segments).values()) {
+            if (!segment.forEach(fromSequence, end, consumer)) {
+                return;
+            }
+        }
+    }
+
+    /** Flushes dirty pages of the active segment to disk. */
+    public void force() {
+        Segment segment = current;
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Deletes the oldest segments beyond {@code keep}, but never one that still holds records
+     * waiting for the database.
+     */
+    public synchronized int trim(int keep) {
+        int removed = 0;
+        while (segments.size() > Math.max(1, keep)) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == current || oldest.hasUnsettled()) {
+                break;
+            }
+            segments.remove(oldest.firstSequence);
+            try {
+                Files.deleteIfExists(oldest.file);
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", oldest.file, e.getMessage());
+                break;
+            }
+            removed++;
+        }
+        return removed;
+    }
+
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private Segment segmentOf(long sequence) {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+        if (entry == null || sequence - entry.getKey() >= entry.getValue().capacity) {
+            return null;
+        }
+        return entry.getValue();
+    }
+
+    private Segment createSegment(long firstSequence) {
+        Path file = directory.resolve(String.format("predictions-%020d.journal", firstSequence));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putInt(8, RECORD_SIZE);
+            buffer.putInt(12, recordsPerSegment);
+            buffer.putLong(16, firstSequence);
+            buffer.force();
+            Segment segment = new Segment(file, buffer, firstSequence, recordsPerSegment);
+            segments.put(firstSequence, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment " + file, e);
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.filter(p -> p.getFileName().toString().endsWith(".journal")).sorted().forEach(files::add);
+        }
+        return files;
+    }
+
+    private static int checksum(MappedByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, OFF_STATE));
+        crc.update(buffer.slice(offset + OFF_MODEL_VERSION, RECORD_SIZE - OFF_MODEL_VERSION));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static State stateAt(MappedByteBuffer buffer, int offset) {
+        return State.VALUES[(int) STATE.getAcquire(buffer, offset + OFF_STATE)];
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final long firstSequence;
+        private final int capacity;
+
+        private Segment(Path file, MappedByteBuffer buffer, long firstSequence, int capacity) {
+            this.file = file;
+            this.buffer = buffer;
+            this.firstSequence = firstSequence;
+            this.capacity = capacity;
+        }
+
+        static Segment map(Path file, FileChannel.MapMode mode) throws IOException {
+            try (FileChannel channel = mode == FileChannel.MapMode.READ_ONLY
+                    ? FileChannel.open(file, StandardOpenOption.READ)
+                    : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() < HEADER_SIZE) {
+                    throw new IOException("Truncated journal segment: " + file);
+                }
+                MappedByteBuffer buffer = channel.map(mode, 0, channel.size());
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                if (buffer.getInt(0) == MAGIC && buffer.getInt(4) != FORMAT_VERSION) {
+                    throw new IOException("Journal segment " + file + " has format version " + buffer.getInt(4)
+                            + ", expected " + FORMAT_VERSION);
+                }
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(8) != RECORD_SIZE
+                        || channel.size() != HEADER_SIZE + (long) buffer.getInt(12) * RECORD_SIZE) {
+                    throw new IOException("Not a prediction journal segment: " + file);
+                }
+                return new Segment(file, buffer, buffer.getLong(16), buffer.getInt(12));
+            }
+        }
+
+        int offsetOf(long sequence) {
+            return HEADER_SIZE + (int) (sequence - firstSequence) * RECORD_SIZE;
+        }
+
+        boolean isValid(int index) {
+            int offset = HEADER_SIZE + index * RECORD_SIZE;
+            return buffer.getLong(offset + OFF_SEQUENCE) == firstSequence + index
+                    && buffer.getInt(offset + OFF_CRC) == checksum(buffer, offset);
+        }
+
+        int countValid() {
+            int count = 0;
+            while (count < capacity && isValid(count)) {
+                count++;
+            }
+            return count;
+        }
+
+        boolean hasUnsettled() {
+            for (int i = 0; i < capacity && isValid(i); i++) {
+                State state = stateAt(buffer, HEADER_SIZE + i * RECORD_SIZE);
+                if (state == State.PENDING || state == State.DEFERRED) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Returns false once it hits the end of the written records
+        boolean forEach(long fromSequence, long endSequence, Consumer<Cursor> consumer) {
+            Cursor cursor = new Cursor(buffer);
+            int start = (int) Math.max(0, fromSequence - firstSequence);
+            for (int i = start; i < capacity; i++) {
+                if (firstSequence + i >= endSequence || !isValid(i)) {
+                    return false;
+                }
+                cursor.offset = HEADER_SIZE + i * RECORD_SIZE;
+                consumer.accept(cursor);
+            }
+            return true;
+        }
+
+        void force() {
+            buffer.force();
+        }
+    }
+
+    /** Flyweight view of one record; reads straight from the mapped segment. */
+    public static final class Cursor {
+        private final MappedByteBuffer buffer;
+        private int offset;
+
+        private Cursor(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public long getSequence() {
+            return buffer.getLong(offset + OFF_SEQUENCE);
+        }
+
+        public long getPatientId() {
+            return buffer.getLong(offset + OFF_PATIENT);
+        }
+
+        public long getTimestampMillis() {
+            return buffer.getLong(offset + OFF_TIMESTAMP);
+        }
+
+        /** Feature {@code index} in {@link #FEATURES} order. */
+        public double getFeature(int index) {
+            return buffer.getDouble(offset + OFF_FEATURES + index * 8);
+        }
+
+        public double getLowRiskProbability() {
+            return buffer.getDouble(offset + OFF_PROBABILITIES);
+        }
+
+        public double getModerateRiskProbability() {
+            return buffer.getDouble(offset + OFF_PROBABILITIES + 8);
+        }
+
+        public double getHighRiskProbability() {
+            return buffer.getDouble(offset + OFF_PROBABILITIES + 16);
+        }
+
+        public RiskLevel getRiskLevel() {
+            return RiskLevel.values()[buffer.get(offset + OFF_RISK_LEVEL)];
+        }
+
+        public State getState() {
+            return stateAt(buffer, offset);
+        }
+
+        /** Reading value {@code index} in {@link #READING} order, NaN when it was not submitted. */
+        public double getReading(int index) {
+            return buffer.getDouble(offset + OFF_READING + index * 8);
+        }
+
+        public String getIdempotencyKey() {
+            return text(0);
+        }
+
+        public String getSiteId() {
+            return text(1);
+        }
+
+        public String getNotes() {
+            return text(2);
+        }
+
+        public String getModelVersion() {
+            byte[] bytes = new byte[MODEL_VERSION_LENGTH];
+            buffer.get(offset + OFF_MODEL_VERSION, bytes);
+            int length = 0;
+            while (length < bytes.length && bytes[length] != 0) {
+                length++;
+            }
+            return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+        }
+
+        private String text(int field) {
+            int position = offset + OFF_TEXT;
+            for (int i = 0; i < field; i++) {
+                position += Math.max(0, buffer.getShort(offset + OFF_TEXT_LENGTHS + i * 2));
+            }
+            int length = buffer.getShort(offset + OFF_TEXT_LENGTHS + field * 2);
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package heat.main.journal.service;
+
+import heat.main.config.JournalProperties;
+import heat.main.enums.RiskLevel;
+import heat.main.heatmap.Geohash;
+import heat.main.journal.PredictionJournal;
+import heat.main.prediction.dto.CreateRiskPredictionRequestDto;
+import heat.main.prediction.service.RiskPredictionService;
+import heat.main.prediction.service.ScoredPrediction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the prediction journal for this instance: appends every scored prediction before it is
+ * written to core_prediction, records how that write ended, and replays the predictions that were
+ * accepted while the database was unavailable.
+ */
+@Slf4j
+@Service
+public class PredictionJournalService {
+
+    private static final int TEMPERATURE = readingIndex("temperature");
+    private static final int HUMIDITY = readingIndex("humidity");
+    private static final int PULSE = readingIndex("pulse");
+    private static final int DEHYDRATION_LEVEL = readingIndex("dehydrationLevel");
+    private static final int HEAT_INDEX = readingIndex("heatIndex");
+    private static final int LATITUDE = readingIndex("latitude");
+    private static final int LONGITUDE = readingIndex("longitude");
+    // Position of the idempotency key in a row from toRow
+    private static final int KEY_COLUMN = 10;
+
+    private final JournalProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RiskPredictionService predictionService;
+    private final String insertSql;
+
+    private PredictionJournal journal;
+    private ScheduledExecutorService scheduler;
+    private volatile long replayFrom = Long.MAX_VALUE;
+
+    public PredictionJournalService(JournalProperties properties, JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    RiskPredictionService predictionService,
+                                    @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.predictionService = predictionService;
+        // Every journaled row carries the key it was submitted with, so a replay of a row that did get
+        // committed, or that a client retry has stored since, inserts nothing
+        this.insertSql = "INSERT INTO " + (schema.isEmpty() ? "" : schema + ".") + "core_prediction"
+                + " (patient_id, temperature, humidity, pulse, dehydration_level, heat_index,"
+                + " predicted_probability, predicted_risk_level, assessment_timestamp, notes, idempotency_key,"
+                + " latitude, longitude, geohash, site_id)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+                + " ON CONFLICT DO NOTHING";
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        journal = PredictionJournal.open(Path.of(properties.getDirectory()), properties.getRecordsPerSegment());
+        recover();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "prediction-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(journal::force,
+                properties.getForceIntervalMs(), properties.getForceIntervalMs(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::replayAndTrim,
+                properties.getReplayIntervalSeconds(), properties.getReplayIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Key for a submission that came without one; a replay needs it to tell whether the row was stored.
+     * Null when journaling is off.
+     */
+    public String newIdempotencyKey() {
+        return journal != null ? "journal:" + UUID.randomUUID() : null;
+    }
+
+    /**
+     * Returns the journal sequence of the prediction, or -1 when journaling is off or the notes are
+     * too long for a journal record.
+     */
+    public long append(CreateRiskPredictionRequestDto req, ScoredPrediction scored) {
+        if (journal == null) {
+            return -1;
+        }
+        double[] reading = new double[PredictionJournal.READING.length];
+        reading[TEMPERATURE] = toDouble(req.getTemperature());
+        reading[HUMIDITY] = toDouble(req.getHumidity());
+        reading[PULSE] = toDouble(req.getPulse());
+        reading[DEHYDRATION_LEVEL] = toDouble(req.getDehydrationLevel());
+        reading[HEAT_INDEX] = toDouble(req.getHeatIndex());
+        reading[LATITUDE] = toDouble(req.getLatitude());
+        reading[LONGITUDE] = toDouble(req.getLongitude());
+        LocalDateTime timestamp = scored.getPrediction().getAssessmentTimestamp();
+        return journal.append(req.getPatientId(), timestamp.toInstant(ZoneOffset.UTC).toEpochMilli(), reading,
+                scored.getPrediction().getIdempotencyKey(), req.getSiteId(), req.getNotes(),
+                scored.getInput(), scored.getResult(), scored.getModelVersion());
+    }
+
+    public void markPersisted(long sequence) {
+        setState(sequence, PredictionJournal.State.PERSISTED);
+    }
+
+    public void markAbandoned(long sequence) {
+        setState(sequence, PredictionJournal.State.ABANDONED);
+    }
+
+    /** Leaves the prediction for replay. False when there is no journal to replay it from. */
+    public boolean defer(long sequence) {
+        if (journal == null || sequence < 0) {
+            return false;
+        }
+        journal.setState(sequence, PredictionJournal.State.DEFERRED);
+        replayFrom = Math.min(replayFrom, sequence);
+        return true;
+    }
+
+    private void setState(long sequence, PredictionJournal.State state) {
+        if (journal != null && sequence >= 0) {
+            journal.setState(sequence, state);
+        }
+    }
+
+    // A PENDING record after a restart belongs to a request that never got an answer, so the client
+    // will retry it (or has given up); only DEFERRED ones were promised to be stored
+    private void recover() {
+        long[] counts = new long[2];
+        journal.scan(1, record -> {
+            if (record.getState() == PredictionJournal.State.PENDING) {
+                journal.setState(record.getSequence(), PredictionJournal.State.ABANDONED);
+                counts[0]++;
+            } else if (record.getState() == PredictionJournal.State.DEFERRED) {
+                replayFrom = Math.min(replayFrom, record.getSequence());
+                counts[1]++;
+            }
+        });
+        if (counts[0] > 0 || counts[1] > 0) {
+            log.warn("Prediction journal recovery: {} unfinished record(s) abandoned, {} deferred record(s) to replay",
+                    counts[0], counts[1]);
+        }
+    }
+
+    private void replayAndTrim() {
+        try {
+            replay();
+            journal.trim(properties.getRetainedSegments());
+        } catch (RuntimeException e) {
+            log.warn("Prediction journal maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void replay() {
+        long from = replayFrom;
+        if (from == Long.MAX_VALUE) {
+            return;
+        }
+        // Reset before scanning so that records deferred meanwhile are picked up next time
+        replayFrom = Long.MAX_VALUE;
+
+        List<Object[]> batch = new ArrayList<>(properties.getReplayBatchSize());
+        List<Long> sequences = new ArrayList<>(properties.getReplayBatchSize());
+        long[] replayed = new long[1];
+        boolean[] halted = new boolean[1];
+
+        journal.scan(from, record -> {
+            if (halted[0] || record.getState() != PredictionJournal.State.DEFERRED) {
+                return;
+            }
+            batch.add(toRow(record));
+            sequences.add(record.getSequence());
+            if (batch.size() >= properties.getReplayBatchSize()) {
+                halted[0] = !flush(batch, sequences, replayed);
+            }
+        });
+        if (!halted[0] && !batch.isEmpty()) {
+            halted[0] = !flush(batch, sequences, replayed);
+        }
+
+        if (halted[0]) {
+            replayFrom = Math.min(replayFrom, sequences.isEmpty() ? from : sequences.get(0));
+        }
+        if (replayed[0] > 0) {
+            log.info("Replayed {} deferred prediction(s) from the journal into core_prediction", replayed[0]);
+        }
+    }
+
+    // Returns false when the database is still unavailable; the batch is kept for the next run
+    private boolean flush(List<Object[]> batch, List<Long> sequences, long[] replayed) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] counts = jdbcTemplate.batchUpdate(insertSql, batch);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] != 0) {
+                        announce(batch.get(i));
+                    }
+                }
+            });
+        } catch (DataAccessResourceFailureException | TransientDataAccessException | TransactionException e) {
+            log.debug("Database still unavailable for journal replay: {}", e.getMessage());
+            return false;
+        } catch (DataAccessException e) {
+            // Something in the batch can never be inserted; find it one row at a time
+            for (int i = 0; i < batch.size(); i++) {
+                Object[] row = batch.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        if (jdbcTemplate.update(insertSql, row) != 0) {
+                            announce(row);
+                        }
+                    });
+                } catch (DataAccessResourceFailureException | TransientDataAccessException | TransactionException retry) {
+                    return false;
+                } catch (DataAccessException rowFailure) {
+                    log.warn("Journal record {} cannot be replayed, abandoning it: {}", sequences.get(i), rowFailure.getMessage());
+                    journal.setState(sequences.get(i), PredictionJournal.State.ABANDONED);
+                    continue;
+                }
+                journal.setState(sequences.get(i), PredictionJournal.State.PERSISTED);
+                replayed[0]++;
+            }
+            batch.clear();
+            sequences.clear();
+            return true;
+        }
+
+        for (Long sequence : sequences) {
+            journal.setState(sequence, PredictionJournal.State.PERSISTED);
+        }
+        replayed[0] += batch.size();
+        batch.clear();
+        sequences.clear();
+        return true;
+    }
+
+    // Inside the insert's transaction, so the listeners see the prediction once it commits, as for a live one
+    private void announce(Object[] row) {
+        String key = (String) row[KEY_COLUMN];
+        if (key != null) {
+            predictionService.announceReplayed(key);
+        }
+    }
+
+    // The row the submission would have stored, from the reading as it was submitted
+    private static Object[] toRow(PredictionJournal.Cursor record) {
+        RiskLevel level = record.getRiskLevel();
+        double probability = level == RiskLevel.HIGH ? record.getHighRiskProbability()
+                : level == RiskLevel.MEDIUM ? record.getModerateRiskProbability()
+                : record.getLowRiskProbability();
+        double latitude = record.getReading(LATITUDE);
+        double longitude = record.getReading(LONGITUDE);
+        boolean located = !Double.isNaN(latitude) && !Double.isNaN(longitude);
+        return new Object[]{
+                record.getPatientId(),
+                toDecimal(record.getReading(TEMPERATURE)),
+                toDecimal(record.getReading(HUMIDITY)),
+                toDecimal(record.getReading(PULSE)),
+                toDecimal(record.getReading(DEHYDRATION_LEVEL)),
+                toDecimal(record.getReading(HEAT_INDEX)),
+                BigDecimal.valueOf(probability).setScale(4, RoundingMode.HALF_UP),
+                level.name(),
+                Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.getTimestampMillis()), ZoneOffset.UTC)),
+                record.getNotes(),
+                record.getIdempotencyKey(),
+                located ? toDecimal(latitude) : null,
+                located ? toDecimal(longitude) : null,
+                located ? Geohash.encode(latitude, longitude, Geohash.MAX_PRECISION) : null,
+                record.getSiteId()
+        };
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+
+    private static BigDecimal toDecimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
+    }
+
+    private static int readingIndex(String name) {
+        for (int i = 0; i < PredictionJournal.READING.length; i++) {
+            if (PredictionJournal.READING[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unknown journal reading value: " + name);
+    }
+}
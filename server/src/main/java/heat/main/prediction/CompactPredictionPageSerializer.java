@@ -0,0 +1,151 @@
+package heat.main.prediction;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import heat.main.prediction.dto.CompactPredictionPage;
+import heat.main.prediction.dto.RiskPredictionViewDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Writes a listing page field by field instead of through bean introspection:
+ * {"page":0,"size":20,"totalElements":57,"items":[{...}]}. Items keep the RiskPredictionViewDto field
+ * names but leave out nulls, write decimals at their column scale, and write assessmentTimestamp as
+ * epoch milliseconds (UTC). Binary formats such as CBOR get the decimals as doubles.
+ */
+public class CompactPredictionPageSerializer extends StdSerializer<CompactPredictionPage> {
+
+    private static final SerializableString PAGE = new SerializedString("page");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    private static final SerializableString ITEMS = new SerializedString("items");
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString USER_ID = new SerializedString("userId");
+    private static final SerializableString TEMPERATURE = new SerializedString("temperature");
+    private static final SerializableString HUMIDITY = new SerializedString("humidity");
+    private static final SerializableString PULSE = new SerializedString("pulse");
+    private static final SerializableString DEHYDRATION_LEVEL = new SerializedString("dehydrationLevel");
+    private static final SerializableString HEAT_INDEX = new SerializedString("heatIndex");
+    private static final SerializableString BMI = new SerializedString("bmi");
+    private static final SerializableString PREDICTED_PROBABILITY = new SerializedString("predictedProbability");
+    private static final SerializableString PREDICTED_RISK_LEVEL = new SerializedString("predictedRiskLevel");
+    private static final SerializableString MODEL_VERSION = new SerializedString("modelVersion");
+    private static final SerializableString ASSESSMENT_TIMESTAMP = new SerializedString("assessmentTimestamp");
+    private static final SerializableString NOTES = new SerializedString("notes");
+    private static final SerializableString LATITUDE = new SerializedString("latitude");
+    private static final SerializableString LONGITUDE = new SerializedString("longitude");
+    private static final SerializableString SITE_ID = new SerializedString("siteId");
+
+    public CompactPredictionPageSerializer() {
+        super(CompactPredictionPage.class);
+    }
+
+    @Override
+    public void serialize(CompactPredictionPage page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        boolean binary = gen.canWriteBinaryNatively();
+        char[] digits = new char[24];
+
+        gen.writeStartObject();
+        gen.writeFieldName(PAGE);
+        gen.writeNumber(page.getPage());
+        gen.writeFieldName(SIZE);
+        gen.writeNumber(page.getSize());
+        gen.writeFieldName(TOTAL_ELEMENTS);
+        gen.writeNumber(page.getTotalElements());
+        gen.writeFieldName(ITEMS);
+        gen.writeStartArray(page.getItems(), page.getItems().size());
+        for (RiskPredictionViewDto item : page.getItems()) {
+            gen.writeStartObject();
+            writeLong(gen, ID, item.getId());
+            writeLong(gen, USER_ID, item.getUserId());
+            writeDecimal(gen, TEMPERATURE, item.getTemperature(), binary, digits);
+            writeDecimal(gen, HUMIDITY, item.getHumidity(), binary, digits);
+            writeDecimal(gen, PULSE, item.getPulse(), binary, digits);
+            writeDecimal(gen, DEHYDRATION_LEVEL, item.getDehydrationLevel(), binary, digits);
+            writeDecimal(gen, HEAT_INDEX, item.getHeatIndex(), binary, digits);
+            writeDecimal(gen, BMI, item.getBmi(), binary, digits);
+            writeDecimal(gen, PREDICTED_PROBABILITY, item.getPredictedProbability(), binary, digits);
+            if (item.getPredictedRiskLevel() != null) {
+                gen.writeFieldName(PREDICTED_RISK_LEVEL);
+                gen.writeString(item.getPredictedRiskLevel().name());
+            }
+            writeString(gen, MODEL_VERSION, item.getModelVersion());
+            writeTimestamp(gen, ASSESSMENT_TIMESTAMP, item.getAssessmentTimestamp());
+            writeString(gen, NOTES, item.getNotes());
+            writeDecimal(gen, LATITUDE, item.getLatitude(), binary, digits);
+            writeDecimal(gen, LONGITUDE, item.getLongitude(), binary, digits);
+            writeString(gen, SITE_ID, item.getSiteId());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void writeLong(JsonGenerator gen, SerializableString name, Long value) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeString(value);
+        }
+    }
+
+    private static void writeTimestamp(JsonGenerator gen, SerializableString name, LocalDateTime value) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    private static void writeDecimal(JsonGenerator gen, SerializableString name, BigDecimal value,
+                                     boolean binary, char[] digits) throws IOException {
+        if (value == null) {
+            return;
+        }
+        gen.writeFieldName(name);
+        if (binary) {
+            gen.writeNumber(value.doubleValue());
+            return;
+        }
+        // Column values have a small scale and fit a long, so format the unscaled digits directly
+        if (value.scale() < 0 || value.scale() > 9 || value.precision() > 18) {
+            gen.writeNumber(value.toPlainString());
+            return;
+        }
+        int length = formatFixed(value.unscaledValue().longValue(), value.scale(), digits);
+        gen.writeNumber(digits, digits.length - length, length);
+    }
+
+    // Right-aligned in digits; returns the number of characters written
+    static int formatFixed(long unscaled, int scale, char[] digits) {
+        boolean negative = unscaled < 0;
+        long remaining = Math.abs(unscaled);
+        int position = digits.length;
+        for (int i = 0; i < scale; i++) {
+            digits[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        if (scale > 0) {
+            digits[--position] = '.';
+        }
+        do {
+            digits[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (negative) {
+            digits[--position] = '-';
+        }
+        return digits.length - position;
+    }
+}
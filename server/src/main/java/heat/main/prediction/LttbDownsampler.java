@@ -0,0 +1,125 @@
+package heat.main.prediction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of one time series, fed in timestamp order.
+ * Buckets are equal slices of [from, to) rather than equal point counts, so the total need not be
+ * known up front; only the two most recent buckets are held in memory. The first and last points
+ * are always kept, and each non-empty bucket contributes the point forming the largest triangle
+ * with the previously kept point and the average of the next non-empty bucket.
+ */
+public class LttbDownsampler {
+
+    private final long from;
+    private final double bucketWidth;
+    private final List<double[]> selected = new ArrayList<>();
+
+    private Bucket current;
+    private Bucket next;
+    private double[] last;
+
+    /** Aims for at most {@code points} output points; at least three are always allowed. */
+    public LttbDownsampler(long from, long to, int points) {
+        this.from = from;
+        this.bucketWidth = Math.max(1.0, (double) (to - from) / Math.max(1, points - 2));
+    }
+
+    public void add(long timestamp, double value) {
+        double[] point = {timestamp, value};
+        if (selected.isEmpty()) {
+            selected.add(point);
+            return;
+        }
+        if (last != null) {
+            place(last);
+        }
+        // The latest point is held back: if the stream ends here it is kept as the last point
+        last = point;
+    }
+
+    /** The kept points as {timestamp, value} pairs in timestamp order. */
+    public List<double[]> finish() {
+        if (current != null) {
+            select(current, next != null ? next.average() : last);
+        }
+        if (next != null) {
+            select(next, last);
+        }
+        if (last != null) {
+            selected.add(last);
+        }
+        current = null;
+        next = null;
+        last = null;
+        return selected;
+    }
+
+    private void place(double[] point) {
+        long index = (long) ((point[0] - from) / bucketWidth);
+        if (current == null || current.index == index) {
+            if (current == null) {
+                current = new Bucket(index);
+            }
+            current.add(point);
+        } else if (next == null || next.index == index) {
+            if (next == null) {
+                next = new Bucket(index);
+            }
+            next.add(point);
+        } else {
+            select(current, next.average());
+            current = next;
+            next = new Bucket(index);
+            next.add(point);
+        }
+    }
+
+    private void select(Bucket bucket, double[] following) {
+        double[] a = selected.get(selected.size() - 1);
+        double[] best = null;
+        double bestArea = -1;
+        for (int i = 0; i < bucket.size; i++) {
+            double t = bucket.timestamps[i];
+            double v = bucket.values[i];
+            // Twice the triangle area; the factor does not change which point wins
+            double area = Math.abs((a[0] - following[0]) * (v - a[1]) - (a[0] - t) * (following[1] - a[1]));
+            if (area > bestArea) {
+                bestArea = area;
+                best = new double[]{t, v};
+            }
+        }
+        selected.add(best);
+    }
+
+    private static final class Bucket {
+        private final long index;
+        private double[] timestamps = new double[16];
+        private double[] values = new double[16];
+        private int size;
+        private double sumT;
+        private double sumV;
+
+        Bucket(long index) {
+            this.index = index;
+        }
+
+        void add(double[] point) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = point[0];
+            values[size] = point[1];
+            size++;
+            sumT += point[0];
+            sumV += point[1];
+        }
+
+        double[] average() {
+            return new double[]{sumT / size, sumV / size};
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package heat.main.prediction.controller;
+
+import heat.main.admission.service.AdmissionService;
+import heat.main.prediction.dto.CompactPredictionPage;
+import heat.main.prediction.dto.CreateRiskPredictionRequestDto;
+import heat.main.prediction.dto.PredictionCreatedResponseDto;
+import heat.main.prediction.dto.PredictionListing;
+import heat.main.prediction.dto.PredictionSeriesDto;
+import heat.main.prediction.dto.PredictionSubmission;
+import heat.main.prediction.dto.RiskPredictionViewDto;
+import heat.main.prediction.service.PredictionSeriesService;
+import heat.main.prediction.service.PredictionSubmissionService;
+import heat.main.prediction.service.RiskPredictionService;
+import heat.main.tracing.Span;
+import heat.main.tracing.Tracing;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/predictions")
+@RequiredArgsConstructor
+public class RiskPredictionController {
+
+    private final RiskPredictionService service;
+    private final PredictionSubmissionService submissionService;
+    private final AdmissionService admissionService;
+    private final PredictionSeriesService seriesService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PredictionCreatedResponseDto> create(
+            @RequestBody @Valid CreateRiskPredictionRequestDto req,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        // Under overload, readings that pre-screen as high risk are admitted first and routine ones are shed
+        Optional<AdmissionService.Admission> admission;
+        try (Span ignored = Tracing.span("admission")) {
+            admission = admissionService.admit(req);
+        }
+        if (admission.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(admissionService.getRetryAfterSeconds()))
+                    .build();
+        }
+
+        try (AdmissionService.Admission ignored = admission.get()) {
+            PredictionSubmission submission = submissionService.submit(req, idempotencyKey);
+            // 202: scored and journaled, stored once the database is reachable again
+            return ResponseEntity.status(submission.isDeferred() ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                    .header("Idempotent-Replayed", String.valueOf(submission.isReplayed()))
+                    .body(submission.getResponse());
+        }
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<Page<RiskPredictionViewDto>> listByUser(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
+    ) {
+        // Answer repeat polls with 304 before loading or serializing the page
+        if (request.checkNotModified(service.getUserPredictionsEtag(userId))) {
+            return null;
+        }
+        PredictionListing listing = service.getUserPredictions(userId, page, size);
+        return revalidated(listing.getEtag(), listing.getPage());
+    }
+
+    // The same history in the compact envelope, as JSON or CBOR; chosen by Accept
+    @GetMapping(value = "/user/{userId}", produces = {CompactPredictionPage.MEDIA_TYPE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CompactPredictionPage> listByUserCompact(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(compactEtag(service.getUserPredictionsEtag(userId)))) {
+            return null;
+        }
+        PredictionListing listing = service.getUserPredictions(userId, page, size);
+        return revalidated(compactEtag(listing.getEtag()), CompactPredictionPage.of(listing.getPage()));
+    }
+
+    // Downsampled chart series over [from, to); from defaults to the first prediction, to to now
+    @GetMapping("/user/{userId}/series")
+    public PredictionSeriesDto getSeries(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "300") int points,
+            @RequestParam(required = false) List<String> fields
+    ) {
+        return seriesService.getSeries(userId, from, to, points, fields);
+    }
+
+    @GetMapping("/{predictionId}/user/{userId}")
+    public RiskPredictionViewDto getOne(
+            @PathVariable Long userId,
+            @PathVariable Long predictionId
+    ) {
+        return service.getUserPredictionById(userId, predictionId);
+    }
+
+    @GetMapping("/all")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<RiskPredictionViewDto>> getAllPredictions(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(service.getAllPredictionsEtag())) {
+            return null;
+        }
+        PredictionListing listing = service.getAllPredictions(page, size);
+        return revalidated(listing.getEtag(), listing.getPage());
+    }
+
+    @GetMapping(value = "/all", produces = {CompactPredictionPage.MEDIA_TYPE, MediaType.APPLICATION_CBOR_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CompactPredictionPage> getAllPredictionsCompact(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(compactEtag(service.getAllPredictionsEtag()))) {
+            return null;
+        }
+        PredictionListing listing = service.getAllPredictions(page, size);
+        return revalidated(compactEtag(listing.getEtag()), CompactPredictionPage.of(listing.getPage()));
+    }
+
+    // A representation of its own, so a cached page in one format never validates the other
+    private static String compactEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-compact\"";
+    }
+
+    // Clients may keep the body but must revalidate it with If-None-Match before reuse
+    private static <T> ResponseEntity<T> revalidated(String etag, T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(etag)
+                .body(body);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package heat.main.prediction.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import heat.main.prediction.CompactPredictionPageSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+// Listing page for the compact media types: no Pageable/Sort envelope, see CompactPredictionPageSerializer
+@Getter
+@AllArgsConstructor
+@JsonSerialize(using = CompactPredictionPageSerializer.class)
+public class CompactPredictionPage {
+
+    public static final String MEDIA_TYPE = "application/vnd.heat.compact+json";
+
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final List<RiskPredictionViewDto> items;
+
+    public static CompactPredictionPage of(Page<RiskPredictionViewDto> page) {
+        return new CompactPredictionPage(page.getNumber(), page.getSize(), page.getTotalElements(), page.getContent());
+    }
+}
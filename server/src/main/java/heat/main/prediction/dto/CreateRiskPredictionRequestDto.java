@@ -2,7 +2,10 @@ package heat.main.prediction.dto;
 
 import lombok.*;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.math.BigDecimal;
 
 @Getter
@@ -29,4 +32,16 @@ public class CreateRiskPredictionRequestDto {
     private BigDecimal hotDrySkin;
 
     private String notes;
+
+    // Id the device assigned to this reading; a retried submission with the same id is not stored twice
+    @Size(max = 100)
+    private String readingId;
+
+    // Where the reading was taken, if known; latitude and longitude come together
+    @DecimalMin("-90") @DecimalMax("90")
+    private BigDecimal latitude;
+    @DecimalMin("-180") @DecimalMax("180")
+    private BigDecimal longitude;
+    @Size(max = 64)
+    private String siteId;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package heat.main.prediction.dto;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExplanationDto {
+    private String model;
+    private RiskLevel explainedLevel;
+    // Logit of each level for an input at the training mean
+    private Map<RiskLevel, Double> intercepts;
+    private Map<RiskLevel, Double> logits;
+    // Largest net contribution first
+    private List<FeatureContributionDto> features;
+}
@@ -0,0 +1,21 @@
+package heat.main.prediction.dto;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeatureContributionDto {
+    private String feature;
+    private double value;
+    private double standardized;
+    // Added to each level's logit
+    private Map<RiskLevel, Double> contributions;
+    // Toward the explained level: its contribution minus the mean of the other levels'
+    private double net;
+}
@@ -1,5 +1,6 @@
 package heat.main.prediction.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import heat.main.enums.RiskLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,4 +20,7 @@ public class PredictionCreatedResponseDto {
     private RiskLevel predictedRiskLevel;
     private LocalDateTime assessmentTimestamp;
     private String notes;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ExplanationDto explanation;
 }
\ No newline at end of file
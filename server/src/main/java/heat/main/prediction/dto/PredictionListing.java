@@ -0,0 +1,15 @@
+package heat.main.prediction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+// A listing page with the ETag read in the same transaction, just before it
+@Getter
+@AllArgsConstructor
+public class PredictionListing {
+
+    private final String etag;
+
+    private final Page<RiskPredictionViewDto> page;
+}
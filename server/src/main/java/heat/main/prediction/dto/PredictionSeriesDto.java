@@ -0,0 +1,21 @@
+package heat.main.prediction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionSeriesDto {
+    private Long userId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // Predictions in [from, to) before downsampling
+    private long rawPoints;
+    private Map<String, List<SeriesPointDto>> series;
+}
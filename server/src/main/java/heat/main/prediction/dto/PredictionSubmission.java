@@ -0,0 +1,17 @@
+package heat.main.prediction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PredictionSubmission {
+
+    private final PredictionCreatedResponseDto response;
+
+    // true when this is the stored result of an earlier submission with the same key
+    private final boolean replayed;
+
+    // true when the database was unavailable and the prediction waits in the journal to be stored
+    private final boolean deferred;
+}
@@ -1,5 +1,6 @@
 package heat.main.prediction.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import heat.main.enums.RiskLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -33,4 +34,12 @@ public class RiskPredictionViewDto {
     // мета
     private LocalDateTime assessmentTimestamp;
     private String notes;
+
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+    private String siteId;
+
+    // Only known while the scoring input is at hand, i.e. on the live feed, not for stored rows
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ExplanationDto explanation;
 }
@@ -0,0 +1,15 @@
+package heat.main.prediction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesPointDto {
+    private LocalDateTime timestamp;
+    private double value;
+}
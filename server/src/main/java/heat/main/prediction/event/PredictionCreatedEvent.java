@@ -0,0 +1,12 @@
+package heat.main.prediction.event;
+
+import heat.main.prediction.dto.RiskPredictionViewDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published by RiskPredictionService.create once the prediction row has been saved
+@Getter
+@AllArgsConstructor
+public class PredictionCreatedEvent {
+    private final RiskPredictionViewDto prediction;
+}
@@ -0,0 +1,11 @@
+package heat.main.prediction.repository;
+
+import java.time.LocalDateTime;
+
+// Id and timestamp of one prediction, read without loading the row
+public interface PredictionVersion {
+
+    Long getId();
+
+    LocalDateTime getAssessmentTimestamp();
+}
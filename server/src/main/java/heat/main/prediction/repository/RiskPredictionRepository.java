@@ -0,0 +1,33 @@
+package heat.main.prediction.repository;
+
+import heat.main.domain.RiskPrediction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface RiskPredictionRepository extends JpaRepository<RiskPrediction, Long> {
+
+    Page<RiskPrediction> findAllByUser_IdOrderByAssessmentTimestampDesc(Long userId, Pageable pageable);
+
+    Page<RiskPrediction> findAllByOrderByAssessmentTimestampDesc(Pageable pageable);
+
+    Optional<RiskPrediction> findByIdAndUser_Id(Long id, Long userId);
+
+    // Ids only grow, so these change with every insert, also of a reading timestamped before the newest one
+    @Query("select max(p.id) from RiskPrediction p where p.user.id = :userId")
+    Long findMaxIdByUserId(@Param("userId") Long userId);
+
+    @Query("select max(p.id) from RiskPrediction p")
+    Long findMaxId();
+
+    // Start of a patient's history, for series requested without a lower bound
+    Optional<PredictionVersion> findFirstByUser_IdOrderByAssessmentTimestampAscIdAsc(Long userId);
+
+    @EntityGraph(attributePaths = "user")
+    Optional<RiskPrediction> findByIdempotencyKey(String idempotencyKey);
+}
@@ -0,0 +1,179 @@
+package heat.main.prediction.service;
+
+import heat.main.archive.ColdRow;
+import heat.main.archive.service.ColdStorageService;
+import heat.main.datasource.ReadYourWritesGuard;
+import heat.main.prediction.LttbDownsampler;
+import heat.main.prediction.dto.PredictionSeriesDto;
+import heat.main.prediction.dto.SeriesPointDto;
+import heat.main.prediction.repository.PredictionVersion;
+import heat.main.prediction.repository.RiskPredictionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Chart series of a patient's predictions, downsampled while streaming the rows in
+ * (patient_id, assessment_timestamp) index order, after any archived ones, so the payload size
+ * depends only on the requested number of points.
+ */
+@Service
+public class PredictionSeriesService {
+
+    public static final int MIN_POINTS = 3;
+    public static final int MAX_POINTS = 5000;
+    private static final int FETCH_SIZE = 1000;
+
+    // Series name -> core_prediction column
+    private static final Map<String, String> FIELDS = new LinkedHashMap<>();
+
+    // Series name -> archived row accessor
+    private static final Map<String, Function<ColdRow, BigDecimal>> COLD_FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("predictedProbability", "predicted_probability");
+        FIELDS.put("temperature", "temperature");
+        FIELDS.put("humidity", "humidity");
+        FIELDS.put("pulse", "pulse");
+        FIELDS.put("dehydrationLevel", "dehydration_level");
+        FIELDS.put("heatIndex", "heat_index");
+
+        COLD_FIELDS.put("predictedProbability", ColdRow::getPredictedProbability);
+        COLD_FIELDS.put("temperature", ColdRow::getTemperature);
+        COLD_FIELDS.put("humidity", ColdRow::getHumidity);
+        COLD_FIELDS.put("pulse", ColdRow::getPulse);
+        COLD_FIELDS.put("dehydrationLevel", ColdRow::getDehydrationLevel);
+        COLD_FIELDS.put("heatIndex", ColdRow::getHeatIndex);
+    }
+
+    private final RiskPredictionRepository predictionRepo;
+    private final ReadYourWritesGuard readYourWrites;
+    private final ColdStorageService coldStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final String table;
+
+    public PredictionSeriesService(RiskPredictionRepository predictionRepo, ReadYourWritesGuard readYourWrites,
+                                   ColdStorageService coldStorage, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.predictionRepo = predictionRepo;
+        this.readYourWrites = readYourWrites;
+        this.coldStorage = coldStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        // Postgres only streams with a fetch size inside a transaction
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.table = (schema.isEmpty() ? "" : schema + ".") + "core_prediction";
+    }
+
+    public PredictionSeriesDto getSeries(Long userId, LocalDateTime from, LocalDateTime to, int points, List<String> fields) {
+        if (points < MIN_POINTS || points > MAX_POINTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "points must be between " + MIN_POINTS + " and " + MAX_POINTS);
+        }
+        List<String> names = fields == null || fields.isEmpty() ? new ArrayList<>(FIELDS.keySet()) : fields;
+        for (String name : names) {
+            if (!FIELDS.containsKey(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown series: " + name);
+            }
+        }
+
+        return readTransaction.execute(status -> {
+            readYourWrites.beforeRead(userId);
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from;
+            if (start == null) {
+                LocalDateTime archived = coldStorage.firstTimestamp(userId);
+                start = archived != null ? archived : predictionRepo
+                        .findFirstByUser_IdOrderByAssessmentTimestampAscIdAsc(userId)
+                        .map(PredictionVersion::getAssessmentTimestamp)
+                        .orElse(end);
+            }
+            if (!start.isBefore(end)) {
+                return new PredictionSeriesDto(userId, start, end, 0, emptySeries(names));
+            }
+            return scan(userId, start, end, points, names);
+        });
+    }
+
+    private PredictionSeriesDto scan(Long userId, LocalDateTime from, LocalDateTime to, int points, List<String> names) {
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+        LttbDownsampler[] samplers = new LttbDownsampler[names.size()];
+        for (int i = 0; i < samplers.length; i++) {
+            samplers[i] = new LttbDownsampler(fromMillis, toMillis, points);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT assessment_timestamp");
+        names.forEach(name -> sql.append(", ").append(FIELDS.get(name)));
+        sql.append(" FROM ").append(table)
+                .append(" WHERE patient_id = ? AND assessment_timestamp >= ? AND assessment_timestamp < ?")
+                .append(" ORDER BY assessment_timestamp");
+
+        // Archived rows come first: they are older than anything left in core_prediction
+        long[] rows = new long[1];
+        List<Function<ColdRow, BigDecimal>> coldGetters = names.stream().map(COLD_FIELDS::get).toList();
+        coldStorage.forEach(userId, from, to, row -> {
+            long timestamp = toMillis(row.getAssessmentTimestamp());
+            for (int i = 0; i < samplers.length; i++) {
+                samplers[i].add(timestamp, coldGetters.get(i).apply(row).doubleValue());
+            }
+            rows[0]++;
+        });
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, userId);
+            statement.setTimestamp(2, Timestamp.valueOf(from));
+            statement.setTimestamp(3, Timestamp.valueOf(to));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            long timestamp = toMillis(rs.getTimestamp(1).toLocalDateTime());
+            for (int i = 0; i < samplers.length; i++) {
+                samplers[i].add(timestamp, rs.getDouble(i + 2));
+            }
+            rows[0]++;
+        });
+
+        Map<String, List<SeriesPointDto>> series = new LinkedHashMap<>();
+        for (int i = 0; i < samplers.length; i++) {
+            List<double[]> kept = samplers[i].finish();
+            List<SeriesPointDto> dtos = new ArrayList<>(kept.size());
+            for (double[] point : kept) {
+                dtos.add(new SeriesPointDto(
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli((long) point[0]), ZoneOffset.UTC), point[1]));
+            }
+            series.put(names.get(i), dtos);
+        }
+        return new PredictionSeriesDto(userId, from, to, rows[0], series);
+    }
+
+    private static Map<String, List<SeriesPointDto>> emptySeries(List<String> names) {
+        Map<String, List<SeriesPointDto>> series = new LinkedHashMap<>();
+        names.forEach(name -> series.put(name, List.of()));
+        return series;
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
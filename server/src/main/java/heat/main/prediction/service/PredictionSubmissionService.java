@@ -0,0 +1,220 @@
+package heat.main.prediction.service;
+
+import heat.main.config.IdempotencyProperties;
+import heat.main.config.JournalProperties;
+import heat.main.idempotency.RecentKeyFilter;
+import heat.main.journal.service.PredictionJournalService;
+import heat.main.prediction.dto.CreateRiskPredictionRequestDto;
+import heat.main.prediction.dto.PredictionCreatedResponseDto;
+import heat.main.prediction.dto.PredictionSubmission;
+import heat.main.tracing.Span;
+import heat.main.tracing.Tracing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotent front door for prediction submissions. Retries carry an Idempotency-Key header or
+ * the device's reading id; a key the in-memory filter has never seen goes straight to the insert,
+ * and only possible repeats are looked up. The unique constraint on core_prediction.idempotency_key
+ * settles races between concurrent retries and anything the filter has already forgotten.
+ *
+ * <p>With the journal on, a submission for a cached account and patient reaches the journal without a
+ * query. The insert then gets heat.journal.persist-budget-ms; past that, or when it fails because the
+ * database is unavailable, the prediction is left to the journal's replay and answered with 202.
+ */
+@Slf4j
+@Service
+public class PredictionSubmissionService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final RiskPredictionService predictionService;
+    private final PredictionJournalService journal;
+    private final JournalProperties journalProperties;
+    private final RecentKeyFilter recentKeys;
+
+    private ThreadPoolExecutor persistExecutor;
+
+    public PredictionSubmissionService(RiskPredictionService predictionService, PredictionJournalService journal,
+                                       IdempotencyProperties properties, JournalProperties journalProperties) {
+        this.predictionService = predictionService;
+        this.journal = journal;
+        this.journalProperties = journalProperties;
+        this.recentKeys = new RecentKeyFilter(
+                properties.getGenerations(),
+                TimeUnit.MINUTES.toMillis(properties.getWindowMinutes()),
+                properties.getExpectedKeysPerWindow(),
+                properties.getFalsePositiveRate());
+    }
+
+    @PostConstruct
+    void init() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        persistExecutor = new ThreadPoolExecutor(
+                journalProperties.getPersistThreads(), journalProperties.getPersistThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(journalProperties.getPersistQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "prediction-persist");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (persistExecutor != null) {
+            persistExecutor.shutdown();
+        }
+    }
+
+    public PredictionSubmission submit(CreateRiskPredictionRequestDto req, String idempotencyKey) {
+        String key = resolveKey(req, idempotencyKey);
+        if (key == null) {
+            return create(req, journal.newIdempotencyKey());
+        }
+
+        if (recentKeys.mightContain(key)) {
+            Optional<PredictionCreatedResponseDto> previous;
+            try (Span ignored = Tracing.span("idempotency.check")) {
+                previous = predictionService.findByIdempotencyKey(key);
+            } catch (DataAccessResourceFailureException | TransientDataAccessException | CannotCreateTransactionException e) {
+                if (!journal.isEnabled()) {
+                    throw e;
+                }
+                // The replay stores nothing for a key that is already there, so a repeat can go to the journal
+                log.debug("Idempotency check skipped, database unavailable: {}", e.getMessage());
+                previous = Optional.empty();
+            }
+            if (previous.isPresent()) {
+                return replay(req, previous.get());
+            }
+            log.debug("Idempotency filter false positive");
+        }
+        recentKeys.put(key);
+
+        try {
+            return create(req, key);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent retry won the insert, or the key is older than the filter's memory
+            return predictionService.findByIdempotencyKey(key)
+                    .map(previous -> replay(req, previous))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private PredictionSubmission replay(CreateRiskPredictionRequestDto req, PredictionCreatedResponseDto previous) {
+        if (!previous.getPatientId().equals(req.getPatientId())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency key was already used for another patient");
+        }
+        log.debug("Replaying prediction {} for a repeated submission", previous.getId());
+        return new PredictionSubmission(previous, true, false);
+    }
+
+    // Journaled between scoring and the insert, so a reading scored while the database is slow or down is not lost
+    private PredictionSubmission create(CreateRiskPredictionRequestDto req, String key) {
+        ScoredPrediction scored;
+        try (Span ignored = Tracing.span("prediction.score")) {
+            scored = predictionService.score(req, key);
+        }
+        long sequence;
+        try (Span ignored = Tracing.span("journal.append")) {
+            sequence = journal.append(req, scored);
+        }
+        try {
+            PredictionCreatedResponseDto response;
+            try (Span ignored = Tracing.span("prediction.persist")) {
+                response = persist(scored, sequence);
+            }
+            if (response == null) {
+                journal.defer(sequence);
+                log.warn("Database did not store the prediction for patient {} within {} ms, kept in the journal for replay",
+                        req.getPatientId(), journalProperties.getPersistBudgetMs());
+                return new PredictionSubmission(predictionService.toCreatedResponse(scored), false, true);
+            }
+            return new PredictionSubmission(response, false, false);
+        } catch (DataAccessResourceFailureException | TransientDataAccessException | CannotCreateTransactionException e) {
+            if (!journal.defer(sequence)) {
+                throw e;
+            }
+            log.warn("Database unavailable, prediction for patient {} kept in the journal for replay: {}",
+                    req.getPatientId(), e.getMessage());
+            return new PredictionSubmission(predictionService.toCreatedResponse(scored), false, true);
+        } catch (RuntimeException e) {
+            journal.markAbandoned(sequence);
+            throw e;
+        }
+    }
+
+    // Null when the insert did not finish within the budget or could not even be queued. It may still
+    // commit later; the replay then finds the key taken and stores nothing.
+    private PredictionCreatedResponseDto persist(ScoredPrediction scored, long sequence) {
+        if (persistExecutor == null || sequence < 0) {
+            return store(scored, sequence);
+        }
+
+        Future<PredictionCreatedResponseDto> future;
+        try {
+            future = persistExecutor.submit(() -> store(scored, sequence));
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        try {
+            return future.get(journalProperties.getPersistBudgetMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Still queued, it never starts; already running, it finishes and marks the record itself
+            future.cancel(false);
+            persistExecutor.remove((Runnable) future);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            persistExecutor.remove((Runnable) future);
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private PredictionCreatedResponseDto store(ScoredPrediction scored, long sequence) {
+        PredictionCreatedResponseDto response = predictionService.persist(scored);
+        journal.markPersisted(sequence);
+        return response;
+    }
+
+    private static String resolveKey(CreateRiskPredictionRequestDto req, String idempotencyKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key is longer than " + MAX_KEY_LENGTH);
+            }
+            return "key:" + idempotencyKey;
+        }
+        if (req.getReadingId() != null && !req.getReadingId().isBlank()) {
+            // Reading ids are only unique per device, so scope them to the patient
+            return "reading:" + req.getPatientId() + ":" + req.getReadingId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,350 @@
+package heat.main.prediction.service;
+
+import heat.main.ModelRunner;
+import heat.main.archive.ColdRow;
+import heat.main.archive.service.ColdStorageService;
+import heat.main.datasource.ReadYourWritesGuard;
+import heat.main.domain.RiskPrediction;
+import heat.main.domain.User;
+import heat.main.enums.RiskLevel;
+import heat.main.heatmap.Geohash;
+import heat.main.imputation.FeatureImputer;
+import heat.main.imputation.RawReading;
+import heat.main.prediction.dto.CreateRiskPredictionRequestDto;
+import heat.main.prediction.dto.ExplanationDto;
+import heat.main.prediction.dto.FeatureContributionDto;
+import heat.main.prediction.dto.PredictionCreatedResponseDto;
+import heat.main.prediction.dto.PredictionListing;
+import heat.main.prediction.dto.RiskPredictionViewDto;
+import heat.main.prediction.event.PredictionCreatedEvent;
+import heat.main.prediction.repository.RiskPredictionRepository;
+import heat.main.scoring.LinearExplanation;
+import heat.main.singleflight.service.ReadCoalescer;
+import heat.main.tracing.Span;
+import heat.main.tracing.Tracing;
+import heat.main.users.service.UserCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RiskPredictionService {
+
+    private final RiskPredictionRepository predictionRepo;
+    private final UserCache userCache;
+    private final FeatureImputer featureImputer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadYourWritesGuard readYourWrites;
+    private final ColdStorageService coldStorage;
+    private final ReadCoalescer coalescer;
+
+    // Scores the reading against the patient's cached profile; nothing is read or written once it is cached
+    public ScoredPrediction score(CreateRiskPredictionRequestDto req, String idempotencyKey) {
+        log.info("Creating risk prediction for patient ID: {}", req.getPatientId());
+        if ((req.getLatitude() == null) != (req.getLongitude() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "latitude and longitude must be given together");
+        }
+
+        User patient;
+        try (Span ignored = Tracing.span("patient.lookup")) {
+            patient = userCache.findById(req.getPatientId())
+                    .orElseThrow(() -> new RuntimeException("Patient not found with id " + req.getPatientId()));
+        }
+        log.debug("Retrieved patient: {} (Gender: {}, Weight: {}, BMI: {})",
+                patient.getName(), patient.getGender(), patient.getWeight(), patient.getBmi());
+
+        // Use the model to predict risk level and probability
+        ModelRunner.PredictionInput input;
+        try (Span ignored = Tracing.span("features.impute")) {
+            input = toModelInput(req, patient);
+        }
+        ModelRunner.PredictionResult modelResult = ModelRunner.predictRisk(input);
+
+        RiskPrediction entity = RiskPrediction.builder()
+                .user(patient)
+                .temperature(req.getTemperature())
+                .humidity(req.getHumidity())
+                .pulse(req.getPulse())
+                .dehydrationLevel(req.getDehydrationLevel())
+                .heatIndex(req.getHeatIndex())
+                .predictedRiskLevel(modelResult.getPredictedRiskLevel())
+                .predictedProbability(modelResult.getPredictedProbability())
+                .assessmentTimestamp(LocalDateTime.now())
+                .notes(req.getNotes())
+                .idempotencyKey(idempotencyKey)
+                .latitude(req.getLatitude())
+                .longitude(req.getLongitude())
+                .geohash(req.getLatitude() != null
+                        ? Geohash.encode(req.getLatitude().doubleValue(), req.getLongitude().doubleValue(), Geohash.MAX_PRECISION)
+                        : null)
+                .siteId(req.getSiteId())
+                .build();
+
+        return new ScoredPrediction(entity, input, modelResult, featureImputer.getModel() + "@" + featureImputer.getVersion());
+    }
+
+    @Transactional
+    public PredictionCreatedResponseDto persist(ScoredPrediction scored) {
+        RiskPrediction savedPrediction;
+        try (Span ignored = Tracing.span("prediction.save")) {
+            savedPrediction = predictionRepo.save(scored.getPrediction());
+        }
+        readYourWrites.recordWrite(savedPrediction.getUser().getId());
+        
+        log.info("Successfully saved prediction with ID: {} for patient: {} - Risk Level: {}, Confidence: {:.1f}%", 
+                savedPrediction.getId(), 
+                savedPrediction.getUser().getName(),
+                savedPrediction.getPredictedRiskLevel(),
+                savedPrediction.getPredictedProbability().multiply(BigDecimal.valueOf(100)).doubleValue());
+
+        ExplanationDto explanation = toExplanationDto(scored.getResult());
+        try (Span ignored = Tracing.span("event.publish")) {
+            RiskPredictionViewDto view = convertToViewDto(savedPrediction);
+            view.setExplanation(explanation);
+            eventPublisher.publishEvent(new PredictionCreatedEvent(view));
+        }
+
+        PredictionCreatedResponseDto response = toCreatedResponse(savedPrediction);
+        response.setExplanation(explanation);
+        return response;
+    }
+
+    // Not read-only: the original may have been committed a moment ago by a concurrent retry
+    @Transactional
+    public Optional<PredictionCreatedResponseDto> findByIdempotencyKey(String idempotencyKey) {
+        return predictionRepo.findByIdempotencyKey(idempotencyKey).map(this::toCreatedResponse);
+    }
+
+    // For a prediction the journal replay inserted; joins the replay's transaction so listeners run on its commit
+    @Transactional
+    public void announceReplayed(String idempotencyKey) {
+        predictionRepo.findByIdempotencyKey(idempotencyKey).ifPresent(prediction -> {
+            readYourWrites.recordWrite(prediction.getUser().getId());
+            eventPublisher.publishEvent(new PredictionCreatedEvent(convertToViewDto(prediction)));
+        });
+    }
+
+    public PredictionCreatedResponseDto toCreatedResponse(ScoredPrediction scored) {
+        PredictionCreatedResponseDto response = toCreatedResponse(scored.getPrediction());
+        response.setExplanation(toExplanationDto(scored.getResult()));
+        return response;
+    }
+
+    public PredictionCreatedResponseDto toCreatedResponse(RiskPrediction prediction) {
+        return new PredictionCreatedResponseDto(
+                prediction.getId(),
+                prediction.getUser().getId(),
+                prediction.getUser().getName(),
+                prediction.getPredictedProbability(),
+                prediction.getPredictedRiskLevel(),
+                prediction.getAssessmentTimestamp(),
+                prediction.getNotes(),
+                null
+        );
+    }
+
+    // Explains the predicted level; null when the result came from a model without an exact linear decomposition
+    private static ExplanationDto toExplanationDto(ModelRunner.PredictionResult result) {
+        LinearExplanation explanation = result.getExplanation();
+        RiskLevel explained = result.getPredictedRiskLevel();
+        if (explanation == null || !explanation.hasLevel(explained)) {
+            return null;
+        }
+        List<RiskLevel> levels = new ArrayList<>();
+        Map<RiskLevel, Double> intercepts = new EnumMap<>(RiskLevel.class);
+        Map<RiskLevel, Double> logits = new EnumMap<>(RiskLevel.class);
+        for (RiskLevel level : RiskLevel.values()) {
+            if (explanation.hasLevel(level)) {
+                levels.add(level);
+                intercepts.put(level, explanation.getIntercept(level));
+                logits.put(level, explanation.getLogit(level));
+            }
+        }
+
+        List<FeatureContributionDto> features = new ArrayList<>(explanation.getFeatureCount());
+        for (int j = 0; j < explanation.getFeatureCount(); j++) {
+            Map<RiskLevel, Double> contributions = new EnumMap<>(RiskLevel.class);
+            double others = 0.0;
+            for (RiskLevel level : levels) {
+                double contribution = explanation.getContribution(level, j);
+                contributions.put(level, contribution);
+                if (level != explained) {
+                    others += contribution;
+                }
+            }
+            double net = contributions.get(explained) - (levels.size() > 1 ? others / (levels.size() - 1) : 0.0);
+            features.add(new FeatureContributionDto(explanation.getFeature(j), explanation.getValue(j),
+                    explanation.getStandardized(j), contributions, net));
+        }
+        features.sort(Comparator.comparingDouble((FeatureContributionDto f) -> Math.abs(f.getNet())).reversed());
+
+        return ExplanationDto.builder()
+                .model(explanation.getModel())
+                .explainedLevel(explained)
+                .intercepts(intercepts)
+                .logits(logits)
+                .features(features)
+                .build();
+    }
+
+    private ModelRunner.PredictionInput toModelInput(CreateRiskPredictionRequestDto req, User user) {
+        RawReading reading = new RawReading();
+        reading.setAge(toDouble(req.getAge()));
+        // Convert gender to numeric (0 for female, 1 for male)
+        reading.setSex(user.getGender() == 'M' ? 1.0 : 0.0);
+        reading.setWeight(toDouble(user.getWeight()));
+        reading.setBmi(toDouble(user.getBmi()));
+        reading.setTemperature(toDouble(req.getTemperature()));
+        reading.setHumidity(toDouble(req.getHumidity()));
+        reading.setPulse(toDouble(req.getPulse()));
+        reading.setDehydrationLevel(toDouble(req.getDehydrationLevel()));
+        reading.setHeatIndex(toDouble(req.getHeatIndex()));
+        reading.setPatientTemperature(toDouble(req.getPatientTemperature()));
+        reading.setSweating(toDouble(req.getSweating()));
+        reading.setHotDrySkin(toDouble(req.getHotDrySkin()));
+
+        // Missing features are filled in by the rules shipped with the model
+        return featureImputer.impute(reading);
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+
+    // A shift start sends many identical polls at once; concurrent ones share a single query. The
+    // ETag is read first in the same flight, so a page never carries a newer ETag than its content.
+    public PredictionListing getUserPredictions(Long userId, int page, int size) {
+        return coalescer.readForUser("predictions.user", userId, List.of(userId, page, size), () -> {
+            String etag = toEtag("user-" + userId, predictionRepo.findMaxIdByUserId(userId));
+            return new PredictionListing(etag, loadUserPredictions(userId, page, size));
+        });
+    }
+
+    private Page<RiskPredictionViewDto> loadUserPredictions(Long userId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Page<RiskPrediction> predictions = predictionRepo.findAllByUser_IdOrderByAssessmentTimestampDesc(userId, pageable);
+        long archived = coldStorage.count(userId);
+        if (archived == 0) {
+            return predictions.map(this::convertToViewDto);
+        }
+
+        // Archived rows are older than anything still in core_prediction, so they continue the hot listing
+        List<RiskPredictionViewDto> content = new ArrayList<>(size);
+        predictions.forEach(prediction -> content.add(convertToViewDto(prediction)));
+        if (content.size() < size) {
+            long coldOffset = Math.max(0, pageable.getOffset() - predictions.getTotalElements());
+            coldStorage.readNewestFirst(userId, coldOffset, size - content.size())
+                    .forEach(row -> content.add(convertToViewDto(row)));
+        }
+        return new PageImpl<>(content, pageable, predictions.getTotalElements() + archived);
+    }
+
+    // Weak ETag for a user's history, read from the patient index instead of the page body
+    public String getUserPredictionsEtag(Long userId) {
+        return coalescer.readForUser("predictions.user.etag", userId, userId, () ->
+                toEtag("user-" + userId, predictionRepo.findMaxIdByUserId(userId)));
+    }
+
+    // The all-patients view tolerates replica lag; it is read from the same pool as its ETag
+    public String getAllPredictionsEtag() {
+        return coalescer.read("predictions.all.etag", "all", () -> toEtag("all", predictionRepo.findMaxId()));
+    }
+
+    // The highest id changes with every insert. Rows only leave core_prediction by archiving, and rows
+    // leave the archive only when their patient is deleted, so the archive's version covers removals.
+    private String toEtag(String scope, Long maxId) {
+        return "W/\"" + scope + "-" + (maxId != null ? maxId : "empty") + "-" + coldStorage.getVersion() + "\"";
+    }
+
+    @Transactional(readOnly = true)
+    public RiskPredictionViewDto getUserPredictionById(Long userId, Long predictionId) {
+        readYourWrites.beforeRead(userId);
+        return predictionRepo.findByIdAndUser_Id(predictionId, userId)
+                .map(this::convertToViewDto)
+                .or(() -> Optional.ofNullable(coldStorage.find(userId, predictionId)).map(this::convertToViewDto))
+                .orElseThrow(() -> new RuntimeException("Prediction not found for user"));
+    }
+
+    public PredictionListing getAllPredictions(int page, int size) {
+        return coalescer.read("predictions.all", List.of(page, size), () -> {
+            String etag = toEtag("all", predictionRepo.findMaxId());
+            return new PredictionListing(etag, loadAllPredictions(page, size));
+        });
+    }
+
+    private Page<RiskPredictionViewDto> loadAllPredictions(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Page<RiskPrediction> predictions = predictionRepo.findAllByOrderByAssessmentTimestampDesc(pageable);
+        long archived = coldStorage.countAll();
+        if (archived == 0) {
+            return predictions.map(this::convertToViewDto);
+        }
+
+        // As for one patient, the archive continues the hot listing
+        List<RiskPredictionViewDto> content = new ArrayList<>(size);
+        predictions.forEach(prediction -> content.add(convertToViewDto(prediction)));
+        if (content.size() < size) {
+            long coldOffset = Math.max(0, pageable.getOffset() - predictions.getTotalElements());
+            coldStorage.readAllNewestFirst(coldOffset, size - content.size())
+                    .forEach(row -> content.add(convertToViewDto(row)));
+        }
+        return new PageImpl<>(content, pageable, predictions.getTotalElements() + archived);
+    }
+
+    private RiskPredictionViewDto convertToViewDto(ColdRow row) {
+        return RiskPredictionViewDto.builder()
+                .id(row.getId())
+                .userId(row.getPatientId())
+                .temperature(row.getTemperature())
+                .humidity(row.getHumidity())
+                .pulse(row.getPulse())
+                .dehydrationLevel(row.getDehydrationLevel())
+                .heatIndex(row.getHeatIndex())
+                .predictedProbability(row.getPredictedProbability())
+                .predictedRiskLevel(row.getPredictedRiskLevel())
+                .assessmentTimestamp(row.getAssessmentTimestamp())
+                .notes(row.getNotes())
+                .latitude(row.getLatitude())
+                .longitude(row.getLongitude())
+                .siteId(row.getSiteId())
+                .build();
+    }
+
+    public RiskPredictionViewDto convertToViewDto(RiskPrediction prediction) {
+        return RiskPredictionViewDto.builder()
+                .id(prediction.getId())
+                .userId(prediction.getUser().getId())
+                .temperature(prediction.getTemperature())
+                .humidity(prediction.getHumidity())
+                .pulse(prediction.getPulse())
+                .dehydrationLevel(prediction.getDehydrationLevel())
+                .heatIndex(prediction.getHeatIndex())
+                .predictedProbability(prediction.getPredictedProbability())
+                .predictedRiskLevel(prediction.getPredictedRiskLevel())
+                .assessmentTimestamp(prediction.getAssessmentTimestamp())
+                .notes(prediction.getNotes())
+                .latitude(prediction.getLatitude())
+                .longitude(prediction.getLongitude())
+                .siteId(prediction.getSiteId())
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package heat.main.prediction.service;
+
+import heat.main.ModelRunner;
+import heat.main.domain.RiskPrediction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A scored reading between RiskPredictionService.score and persist
+@Getter
+@AllArgsConstructor
+public class ScoredPrediction {
+
+    private final RiskPrediction prediction;
+
+    private final ModelRunner.PredictionInput input;
+
+    private final ModelRunner.PredictionResult result;
+
+    private final String modelVersion;
+}
@@ -0,0 +1,32 @@
+package heat.main.shadow.controller;
+
+import heat.main.shadow.dto.ShadowDisagreementDto;
+import heat.main.shadow.dto.ShadowStatsDto;
+import heat.main.shadow.service.ShadowModelService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/shadow")
+@RequiredArgsConstructor
+public class ShadowController {
+
+    private final ShadowModelService shadowModelService;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ShadowStatsDto getStats() {
+        return shadowModelService.getStats();
+    }
+
+    @GetMapping("/disagreements")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<ShadowDisagreementDto> getDisagreements(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return shadowModelService.getDisagreements(page, size);
+    }
+}
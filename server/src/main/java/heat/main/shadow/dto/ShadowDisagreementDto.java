@@ -0,0 +1,22 @@
+package heat.main.shadow.dto;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShadowDisagreementDto {
+    private Long id;
+    private String shadowModel;
+    private RiskLevel primaryRiskLevel;
+    private RiskLevel shadowRiskLevel;
+    private BigDecimal primaryProbability;
+    private BigDecimal shadowProbability;
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,23 @@
+package heat.main.shadow.dto;
+
+import heat.main.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShadowStatsDto {
+    private boolean enabled;
+    private String shadowModel;
+    private double sampleRate;
+    private long sampled;
+    private long dropped;               // rejected because the shadow pool was saturated
+    private long failures;
+    private long compared;
+    private double agreementRate;
+    private Map<RiskLevel, Map<RiskLevel, Long>> confusionMatrix;   // primary -> shadow -> count
+}
@@ -0,0 +1,11 @@
+package heat.main.shadow.repository;
+
+import heat.main.domain.ShadowDisagreement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ShadowDisagreementRepository extends JpaRepository<ShadowDisagreement, Long> {
+
+    Page<ShadowDisagreement> findAllByOrderByRecordedAtDesc(Pageable pageable);
+}
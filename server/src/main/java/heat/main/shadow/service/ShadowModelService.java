@@ -0,0 +1,156 @@
+package heat.main.shadow.service;
+
+import heat.main.ModelRunner;
+import heat.main.config.ShadowProperties;
+import heat.main.domain.ShadowDisagreement;
+import heat.main.enums.RiskLevel;
+import heat.main.scoring.PredictionListener;
+import heat.main.scoring.ScoringModel;
+import heat.main.shadow.dto.ShadowDisagreementDto;
+import heat.main.shadow.dto.ShadowStatsDto;
+import heat.main.shadow.repository.ShadowDisagreementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShadowModelService implements PredictionListener {
+
+    private static final int LEVELS = RiskLevel.values().length;
+
+    private final ShadowProperties properties;
+    private final ShadowDisagreementRepository disagreementRepository;
+
+    // primary level x shadow level, indexed by RiskLevel ordinal
+    private final AtomicLongArray confusion = new AtomicLongArray(LEVELS * LEVELS);
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private ScoringModel shadowModel;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        shadowModel = ScoringModel.load(properties.getResource());
+        executor = new ThreadPoolExecutor(
+                properties.getPoolSize(), properties.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "shadow-model");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                (runnable, pool) -> dropped.increment());
+
+        ModelRunner.addListener(this);
+        log.info("Shadow model {} enabled, sample rate {}", shadowModel.getName(), properties.getSampleRate());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            ModelRunner.removeListener(this);
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void onPrediction(ModelRunner.PredictionInput input, ModelRunner.PredictionResult primary) {
+        if (ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return;
+        }
+        sampled.increment();
+        executor.execute(() -> compare(input, primary));
+    }
+
+    private void compare(ModelRunner.PredictionInput input, ModelRunner.PredictionResult primary) {
+        ModelRunner.PredictionResult shadow;
+        try {
+            shadow = shadowModel.score(input);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.debug("Shadow model {} failed: {}", shadowModel.getName(), e.getMessage());
+            return;
+        }
+
+        RiskLevel primaryLevel = primary.getPredictedRiskLevel();
+        RiskLevel shadowLevel = shadow.getPredictedRiskLevel();
+        confusion.incrementAndGet(primaryLevel.ordinal() * LEVELS + shadowLevel.ordinal());
+
+        if (primaryLevel != shadowLevel && properties.isRecordDisagreements()) {
+            try {
+                disagreementRepository.save(ShadowDisagreement.builder()
+                        .shadowModel(shadowModel.getName())
+                        .primaryRiskLevel(primaryLevel)
+                        .shadowRiskLevel(shadowLevel)
+                        .primaryProbability(primary.getPredictedProbability())
+                        .shadowProbability(shadow.getPredictedProbability())
+                        .recordedAt(LocalDateTime.now())
+                        .build());
+            } catch (RuntimeException e) {
+                log.warn("Could not record shadow disagreement: {}", e.getMessage());
+            }
+        }
+    }
+
+    public ShadowStatsDto getStats() {
+        Map<RiskLevel, Map<RiskLevel, Long>> matrix = new EnumMap<>(RiskLevel.class);
+        long compared = 0;
+        long agreed = 0;
+        for (RiskLevel primaryLevel : RiskLevel.values()) {
+            Map<RiskLevel, Long> row = new EnumMap<>(RiskLevel.class);
+            for (RiskLevel shadowLevel : RiskLevel.values()) {
+                long count = confusion.get(primaryLevel.ordinal() * LEVELS + shadowLevel.ordinal());
+                row.put(shadowLevel, count);
+                compared += count;
+                if (primaryLevel == shadowLevel) {
+                    agreed += count;
+                }
+            }
+            matrix.put(primaryLevel, row);
+        }
+
+        return new ShadowStatsDto(
+                properties.isEnabled(),
+                shadowModel != null ? shadowModel.getName() : null,
+                properties.getSampleRate(),
+                sampled.sum(),
+                dropped.sum(),
+                failures.sum(),
+                compared,
+                compared > 0 ? (double) agreed / compared : 0.0,
+                matrix);
+    }
+
+    public Page<ShadowDisagreementDto> getDisagreements(int page, int size) {
+        return disagreementRepository.findAllByOrderByRecordedAtDesc(PageRequest.of(page, size))
+                .map(d -> new ShadowDisagreementDto(
+                        d.getId(),
+                        d.getShadowModel(),
+                        d.getPrimaryRiskLevel(),
+                        d.getShadowRiskLevel(),
+                        d.getPrimaryProbability(),
+                        d.getShadowProbability(),
+                        d.getRecordedAt()));
+    }
+}
@@ -0,0 +1,23 @@
+package heat.main.singleflight.controller;
+
+import heat.main.singleflight.dto.SingleFlightStatsDto;
+import heat.main.singleflight.service.ReadCoalescer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/single-flight")
+@RequiredArgsConstructor
+public class SingleFlightController {
+
+    private final ReadCoalescer coalescer;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public SingleFlightStatsDto getStats() {
+        return coalescer.getStats();
+    }
+}
@@ -0,0 +1,19 @@
+package heat.main.singleflight.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightStatsDto {
+    private String name;
+    private long calls;
+    private long executions;
+    private long shared;
+    private long failures;
+    private int inFlight;
+    // shared / calls
+    private double coalescingRatio;
+}
@@ -0,0 +1,19 @@
+package heat.main.singleflight.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SingleFlightStatsDto {
+    private boolean enabled;
+    private long calls;
+    private long executions;
+    private long shared;
+    private double coalescingRatio;
+    private List<FlightStatsDto> flights;
+}
@@ -0,0 +1,82 @@
+package heat.main.singleflight.service;
+
+import heat.main.config.SingleFlightProperties;
+import heat.main.datasource.ReadYourWritesGuard;
+import heat.main.singleflight.SingleFlight;
+import heat.main.singleflight.dto.FlightStatsDto;
+import heat.main.singleflight.dto.SingleFlightStatsDto;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-only transactions shared by identical concurrent calls. The caller has already passed its
+ * @PreAuthorize check when it gets here, so only results that depend on nothing but the key may be
+ * coalesced: never the principal, and never a read that must see the caller's own recent write.
+ */
+@Service
+public class ReadCoalescer {
+
+    private final SingleFlightProperties properties;
+    private final ReadYourWritesGuard readYourWrites;
+    private final TransactionTemplate readOnly;
+    private final Map<String, SingleFlight> flights = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(SingleFlightProperties properties, ReadYourWritesGuard readYourWrites,
+                         PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.readYourWrites = readYourWrites;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public <T> T read(String name, Object key, Supplier<T> loader) {
+        Supplier<T> transactional = () -> readOnly.execute(status -> loader.get());
+        // Inside a caller's transaction the result has to come from that transaction's session
+        if (!properties.isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactional.get();
+        }
+        return flights.computeIfAbsent(name, n -> new SingleFlight()).execute(key, transactional);
+    }
+
+    // A user who wrote recently reads alone: a query already in flight may have started before the write
+    public <T> T readForUser(String name, Long userId, Object key, Supplier<T> loader) {
+        Supplier<T> routed = () -> {
+            readYourWrites.beforeRead(userId);
+            return loader.get();
+        };
+        if (readYourWrites.isPinned(userId)) {
+            return readOnly.execute(status -> routed.get());
+        }
+        return read(name, key, routed);
+    }
+
+    public SingleFlightStatsDto getStats() {
+        List<FlightStatsDto> stats = new ArrayList<>();
+        long calls = 0;
+        long executions = 0;
+        long shared = 0;
+        for (Map.Entry<String, SingleFlight> entry : flights.entrySet()) {
+            SingleFlight flight = entry.getValue();
+            stats.add(new FlightStatsDto(entry.getKey(), flight.getCalls(), flight.getExecutions(), flight.getShared(),
+                    flight.getFailures(), flight.getInFlight(), ratio(flight.getShared(), flight.getCalls())));
+            calls += flight.getCalls();
+            executions += flight.getExecutions();
+            shared += flight.getShared();
+        }
+        stats.sort(Comparator.comparing(FlightStatsDto::getName));
+        return new SingleFlightStatsDto(properties.isEnabled(), calls, executions, shared, ratio(shared, calls), stats);
+    }
+
+    private static double ratio(long shared, long calls) {
+        return calls == 0 ? 0.0 : (double) shared / calls;
+    }
+}
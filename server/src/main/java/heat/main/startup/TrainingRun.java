@@ -0,0 +1,119 @@
+package heat.main.startup;
+
+import heat.main.config.StartupProperties;
+import heat.main.domain.User;
+import heat.main.enums.RoleType;
+import heat.main.users.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Drives the application through its hot paths over loopback HTTP, so that Tomcat, security,
+ * Jackson, Hibernate and the model all load the classes they need, then shuts the JVM down.
+ * Run under -XX:ArchiveClassesAtExit this records the classes a serving instance uses, including
+ * those of whichever database it runs against, so the production archive is recorded on PostgreSQL.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "heat.startup", name = "training-run", havingValue = "true")
+@RequiredArgsConstructor
+public class TrainingRun {
+
+    private final StartupProperties properties;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationContext context;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        // Off the main thread, so startup finishes the way it does in a serving instance
+        Thread thread = new Thread(this::runAndExit, "training-run");
+        thread.start();
+    }
+
+    private void runAndExit() {
+        int exitCode = 0;
+        try {
+            train();
+        } catch (Exception e) {
+            log.error("Training run failed", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private void train() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        // Set once the web server is up, so it cannot be injected like the credentials
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        String adminName = properties.getTrainingAdminName();
+        String adminPassword = properties.getTrainingAdminPassword();
+        String auth = "Basic " + Base64.getEncoder()
+                .encodeToString((adminName + ":" + adminPassword).getBytes(StandardCharsets.UTF_8));
+        Long patientId = userRepository.findByName(adminName)
+                .orElseGet(() -> userRepository.save(User.builder()
+                        .name(adminName)
+                        .email(adminName + "@training.local")
+                        .password(passwordEncoder.encode(adminPassword))
+                        .roleType(RoleType.ADMIN)
+                        .gender('M')
+                        .height(new BigDecimal("175"))
+                        .weight(new BigDecimal("70"))
+                        .bmi(new BigDecimal("22.86"))
+                        .build()))
+                .getId();
+
+        send(client, HttpRequest.newBuilder(URI.create(base + "/auth/sign_up"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"training-patient\",\"password\":\"training\","
+                        + "\"email\":\"training@training.local\",\"gender\":\"F\",\"height\":165,\"weight\":60,\"age\":35}")));
+        send(client, HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + adminName + "\",\"password\":\"" + adminPassword + "\"}")));
+
+        Random random = new Random(42);
+        for (int i = 0; i < properties.getTrainingRequests(); i++) {
+            String body = String.format(Locale.ROOT,
+                    "{\"patientId\":%d,\"temperature\":%.1f,\"humidity\":%.1f,\"pulse\":%d,\"dehydrationLevel\":%.2f,"
+                            + "\"heatIndex\":%.1f,\"readingId\":\"training-%d\"}",
+                    patientId, 20 + random.nextDouble() * 25, 20 + random.nextDouble() * 70, 60 + random.nextInt(90),
+                    random.nextDouble(), 20 + random.nextDouble() * 40, i);
+            send(client, HttpRequest.newBuilder(URI.create(base + "/api/predictions"))
+                    .header("Authorization", auth)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+        }
+
+        for (String path : new String[]{"/api/predictions/user/" + patientId, "/api/predictions/all",
+                "/api/predictions/board", "/admin/drift", "/admin/traces/stages"}) {
+            send(client, HttpRequest.newBuilder(URI.create(base + path)).header("Authorization", auth).GET());
+        }
+        log.warn("Training run finished, {} predictions submitted", properties.getTrainingRequests());
+    }
+
+    private static void send(HttpClient client, HttpRequest.Builder request) throws Exception {
+        HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 500) {
+            throw new IllegalStateException(request.build().uri() + " answered " + response.statusCode());
+        }
+    }
+}
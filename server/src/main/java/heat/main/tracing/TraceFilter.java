@@ -0,0 +1,73 @@
+package heat.main.tracing;
+
+import heat.main.config.TracingProperties;
+import heat.main.tracing.service.TraceStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Opens the root span of a request and hands the finished trace to the {@link TraceStore}.
+ * Registered ahead of Spring Security so authentication is part of the trace. A W3C traceparent
+ * header continues the caller's trace; the trace id is returned in X-Trace-Id either way.
+ */
+@RequiredArgsConstructor
+public class TraceFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private static final Pattern TRACEPARENT = Pattern.compile("00-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}");
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+
+    private final TracingProperties properties;
+    private final TraceStore traceStore;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        return properties.getPaths().stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String traceId = null;
+        String parentId = null;
+        String traceparent = request.getHeader("traceparent");
+        if (traceparent != null) {
+            Matcher matcher = TRACEPARENT.matcher(traceparent.trim());
+            if (matcher.matches() && !matcher.group(1).equals(INVALID_TRACE_ID)) {
+                traceId = matcher.group(1);
+                parentId = matcher.group(2);
+            }
+        }
+
+        Trace trace = Tracing.begin("http.request", traceId, parentId);
+        response.setHeader(TRACE_ID_HEADER, trace.getTraceId());
+        Span root = trace.getRoot().tag("http.method", request.getMethod());
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            root.tag("error", e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            root.tag("http.route", route != null ? route : urlPathHelper.getPathWithinApplication(request));
+            root.tag("http.status", response.getStatus());
+            traceStore.record(Tracing.end());
+        }
+    }
+}
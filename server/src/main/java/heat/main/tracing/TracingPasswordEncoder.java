@@ -0,0 +1,30 @@
+package heat.main.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// BCrypt is deliberately slow, and basic auth pays for it on every request
+@RequiredArgsConstructor
+public class TracingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        try (Span ignored = Tracing.span("auth.encode")) {
+            return delegate.encode(rawPassword);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        try (Span ignored = Tracing.span("auth.bcrypt")) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
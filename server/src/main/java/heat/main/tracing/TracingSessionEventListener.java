@@ -0,0 +1,62 @@
+package heat.main.tracing;
+
+import heat.main.tracing.service.TraceStore;
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Attributes JDBC work to whichever span is open when it happens. Hibernate creates one instance
+ * per session (see hibernate.session.events.auto), so the start timestamps need no synchronization.
+ */
+public class TracingSessionEventListener extends BaseSessionEventListener {
+
+    private long acquisitionStart;
+    private long statementStart;
+    private long batchStart;
+    private long flushStart;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        acquisitionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        record("jdbc.acquire", "jdbc.acquire.time", acquisitionStart);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(TraceStore.SQL_STATEMENTS, TraceStore.SQL_TIME, statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record("sql.batches", "sql.batch.time", batchStart);
+    }
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        record("flushes", "flush.time", flushStart);
+    }
+
+    private static void record(String countKey, String timeKey, long start) {
+        Span span = Tracing.current();
+        span.addCount(countKey, 1);
+        span.addTime(timeKey, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,52 @@
+package heat.main.tracing.controller;
+
+import heat.main.tracing.dto.TraceDto;
+import heat.main.tracing.dto.TracingStatsDto;
+import heat.main.tracing.service.TraceStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/traces")
+@RequiredArgsConstructor
+public class TraceController {
+
+    private final TraceStore traceStore;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<TraceDto> getRecent(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") long minDurationMs
+    ) {
+        return traceStore.getRecent(limit, minDurationMs);
+    }
+
+    @GetMapping("/slow")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<TraceDto> getSlow(@RequestParam(defaultValue = "20") int limit) {
+        return traceStore.getSlow(limit);
+    }
+
+    @GetMapping("/stages")
+    @PreAuthorize("hasRole('ADMIN')")
+    public TracingStatsDto getStages() {
+        return traceStore.getStats();
+    }
+
+    @GetMapping("/{traceId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public TraceDto getTrace(@PathVariable String traceId) {
+        return traceStore.find(traceId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Trace not found: " + traceId));
+    }
+}
@@ -0,0 +1,22 @@
+package heat.main.tracing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpanDto {
+    private String spanId;
+    private String parentSpanId;
+    private String name;
+    // Offset from the start of the trace
+    private double startMs;
+    private double durationMs;
+    private Map<String, String> attributes;
+    private Map<String, Long> counts;
+    private Map<String, Double> timingsMs;
+}
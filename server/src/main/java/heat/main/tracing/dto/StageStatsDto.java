@@ -0,0 +1,19 @@
+package heat.main.tracing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StageStatsDto {
+    private String name;
+    private long count;
+    private double avgMs;
+    private double p95Ms;
+    private double maxMs;
+    // Statements issued while this stage was the innermost open span
+    private double avgSqlStatements;
+    private double avgSqlMs;
+}
@@ -0,0 +1,25 @@
+package heat.main.tracing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraceDto {
+    private String traceId;
+    private String remoteParentId;
+    private String method;
+    private String route;
+    private int status;
+    private Instant startedAt;
+    private double durationMs;
+    private long sqlStatements;
+    private double sqlMs;
+    private int droppedSpans;
+    private List<SpanDto> spans;
+}
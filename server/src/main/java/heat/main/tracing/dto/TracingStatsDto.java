@@ -0,0 +1,24 @@
+package heat.main.tracing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TracingStatsDto {
+    private boolean enabled;
+    private double sampleRate;
+    private long tracesRecorded;
+    private long slowTracesRecorded;
+    // Stage statistics cover the traces currently in the recent buffer
+    private int tracesSampled;
+    private List<StageStatsDto> stages;
+    private String otlpEndpoint;
+    private long exported;
+    private long exportDropped;
+    private long exportFailed;
+}
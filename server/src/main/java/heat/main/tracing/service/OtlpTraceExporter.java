@@ -0,0 +1,182 @@
+package heat.main.tracing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import heat.main.config.TracingProperties;
+import heat.main.tracing.dto.SpanDto;
+import heat.main.tracing.dto.TraceDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ships recorded traces to an OpenTelemetry collector as OTLP/HTTP JSON. Requests only enqueue;
+ * a single background thread posts batches, and traces are dropped when the queue is full or the
+ * collector is unreachable.
+ */
+@Slf4j
+@Service
+public class OtlpTraceExporter {
+
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int SPAN_KIND_SERVER = 2;
+    private static final int STATUS_ERROR = 2;
+
+    private final TracingProperties.Otlp properties;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    private BlockingQueue<TraceDto> queue;
+    private HttpClient client;
+    private URI uri;
+    private ScheduledExecutorService flusher;
+
+    private final AtomicLong exported = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public OtlpTraceExporter(TracingProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties.getOtlp();
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled() && !this.properties.getEndpoint().isBlank();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        uri = URI.create(properties.getEndpoint().replaceAll("/+$", "") + "/v1/traces");
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(properties.getTimeoutMs()))
+                .build();
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "otlp-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, properties.getFlushIntervalMs(),
+                properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("Exporting traces to {}", uri);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flush();
+        }
+    }
+
+    public void offer(TraceDto trace) {
+        if (enabled && !queue.offer(trace)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void flush() {
+        List<TraceDto> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofMillis(properties.getTimeoutMs()))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(toOtlp(batch))))
+                        .build();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() / 100 == 2) {
+                    exported.addAndGet(batch.size());
+                } else {
+                    failed.addAndGet(batch.size());
+                    log.warn("OTLP collector answered {} for {} traces", response.statusCode(), batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.addAndGet(batch.size());
+                return;
+            } catch (Exception e) {
+                failed.addAndGet(batch.size());
+                log.warn("Failed to export {} traces: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private ObjectNode toOtlp(List<TraceDto> traces) {
+        ObjectNode body = objectMapper.createObjectNode();
+        ObjectNode resourceSpans = body.putArray("resourceSpans").addObject();
+        addAttribute(resourceSpans.putObject("resource").putArray("attributes"), "service.name", properties.getServiceName());
+        ObjectNode scopeSpans = resourceSpans.putArray("scopeSpans").addObject();
+        scopeSpans.putObject("scope").put("name", "heat.main.tracing");
+        ArrayNode spans = scopeSpans.putArray("spans");
+
+        for (TraceDto trace : traces) {
+            long originNanos = TimeUnit.MILLISECONDS.toNanos(trace.getStartedAt().toEpochMilli());
+            for (int i = 0; i < trace.getSpans().size(); i++) {
+                SpanDto span = trace.getSpans().get(i);
+                boolean root = i == 0;
+                long start = originNanos + (long) (span.getStartMs() * 1_000_000);
+                ObjectNode node = spans.addObject()
+                        .put("traceId", trace.getTraceId())
+                        .put("spanId", span.getSpanId())
+                        .put("name", root && trace.getRoute() != null ? trace.getMethod() + " " + trace.getRoute() : span.getName())
+                        .put("kind", root ? SPAN_KIND_SERVER : SPAN_KIND_INTERNAL)
+                        .put("startTimeUnixNano", String.valueOf(start))
+                        .put("endTimeUnixNano", String.valueOf(start + (long) (span.getDurationMs() * 1_000_000)));
+                if (span.getParentSpanId() != null) {
+                    node.put("parentSpanId", span.getParentSpanId());
+                }
+                ArrayNode attributes = node.putArray("attributes");
+                span.getAttributes().forEach((key, value) -> addAttribute(attributes, key, value));
+                span.getCounts().forEach((key, value) -> attributes.addObject().put("key", key)
+                        .putObject("value").put("intValue", String.valueOf(value)));
+                for (Map.Entry<String, Double> timing : span.getTimingsMs().entrySet()) {
+                    attributes.addObject().put("key", timing.getKey() + ".ms")
+                            .putObject("value").put("doubleValue", timing.getValue());
+                }
+                if (root && trace.getStatus() >= 500) {
+                    node.putObject("status").put("code", STATUS_ERROR);
+                }
+            }
+        }
+        return body;
+    }
+
+    private static void addAttribute(ArrayNode attributes, String key, String value) {
+        attributes.addObject().put("key", key).putObject("value").put("stringValue", value);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getExported() {
+        return exported.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+}
@@ -0,0 +1,198 @@
+package heat.main.tracing.service;
+
+import heat.main.config.TracingProperties;
+import heat.main.tracing.Span;
+import heat.main.tracing.Trace;
+import heat.main.tracing.dto.SpanDto;
+import heat.main.tracing.dto.StageStatsDto;
+import heat.main.tracing.dto.TraceDto;
+import heat.main.tracing.dto.TracingStatsDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the most recent sampled traces and, separately, the most recent slow ones in fixed-size
+ * rings, so a burst of fast requests cannot push the interesting outliers out.
+ */
+@Service
+@RequiredArgsConstructor
+public class TraceStore {
+
+    public static final String SQL_STATEMENTS = "sql.statements";
+    public static final String SQL_TIME = "sql.time";
+
+    private final TracingProperties properties;
+    private final OtlpTraceExporter exporter;
+
+    private Ring recent;
+    private Ring slow;
+
+    @PostConstruct
+    void init() {
+        recent = new Ring(properties.getRecentCapacity());
+        slow = new Ring(properties.getSlowCapacity());
+    }
+
+    public void record(Trace trace) {
+        long durationNanos = trace.getRoot().getDurationNanos();
+        boolean isSlow = durationNanos >= TimeUnit.MILLISECONDS.toNanos(properties.getSlowThresholdMs());
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+        if (!isSlow && !sampled) {
+            return;
+        }
+
+        TraceDto dto = toDto(trace);
+        if (sampled) {
+            recent.add(dto);
+        }
+        if (isSlow) {
+            slow.add(dto);
+        }
+        exporter.offer(dto);
+    }
+
+    public List<TraceDto> getRecent(int limit, long minDurationMs) {
+        return recent.newestFirst()
+                .filter(t -> t.getDurationMs() >= minDurationMs)
+                .limit(limit)
+                .toList();
+    }
+
+    public List<TraceDto> getSlow(int limit) {
+        return slow.newestFirst().limit(limit).toList();
+    }
+
+    public Optional<TraceDto> find(String traceId) {
+        return Stream.concat(recent.newestFirst(), slow.newestFirst())
+                .filter(t -> t.getTraceId().equals(traceId))
+                .findFirst();
+    }
+
+    public TracingStatsDto getStats() {
+        List<TraceDto> traces = recent.newestFirst().toList();
+
+        Map<String, List<SpanDto>> byName = new LinkedHashMap<>();
+        for (TraceDto trace : traces) {
+            for (SpanDto span : trace.getSpans()) {
+                byName.computeIfAbsent(span.getName(), n -> new ArrayList<>()).add(span);
+            }
+        }
+
+        List<StageStatsDto> stages = new ArrayList<>();
+        byName.forEach((name, spans) -> {
+            double[] durations = spans.stream().mapToDouble(SpanDto::getDurationMs).sorted().toArray();
+            double statements = spans.stream().mapToLong(s -> s.getCounts().getOrDefault(SQL_STATEMENTS, 0L)).sum();
+            double sqlMs = spans.stream().mapToDouble(s -> s.getTimingsMs().getOrDefault(SQL_TIME, 0.0)).sum();
+            stages.add(new StageStatsDto(
+                    name,
+                    durations.length,
+                    Arrays.stream(durations).average().orElse(0),
+                    durations[Math.min(durations.length - 1, (int) Math.ceil(durations.length * 0.95) - 1)],
+                    durations[durations.length - 1],
+                    statements / durations.length,
+                    sqlMs / durations.length));
+        });
+        stages.sort(Comparator.comparingDouble(StageStatsDto::getAvgMs).reversed());
+
+        return new TracingStatsDto(
+                properties.isEnabled(),
+                properties.getSampleRate(),
+                recent.added(),
+                slow.added(),
+                traces.size(),
+                stages,
+                exporter.isEnabled() ? properties.getOtlp().getEndpoint() : null,
+                exporter.getExported(),
+                exporter.getDropped(),
+                exporter.getFailed());
+    }
+
+    private static TraceDto toDto(Trace trace) {
+        Span root = trace.getRoot();
+        long originNanos = root.getStartNanos();
+        long statements = 0;
+        long sqlNanos = 0;
+
+        List<SpanDto> spans = new ArrayList<>(trace.getSpans().size());
+        for (Span span : trace.getSpans()) {
+            statements += span.getCounts().getOrDefault(SQL_STATEMENTS, 0L);
+            sqlNanos += span.getTimings().getOrDefault(SQL_TIME, 0L);
+
+            Map<String, Double> timingsMs = new LinkedHashMap<>();
+            span.getTimings().forEach((key, nanos) -> timingsMs.put(key, toMillis(nanos)));
+            spans.add(new SpanDto(
+                    span.getSpanId(),
+                    span.getParent() != null ? span.getParent().getSpanId() : trace.getRemoteParentId(),
+                    span.getName(),
+                    toMillis(span.getStartNanos() - originNanos),
+                    toMillis(span.getDurationNanos()),
+                    new LinkedHashMap<>(span.getAttributes()),
+                    new LinkedHashMap<>(span.getCounts()),
+                    timingsMs));
+        }
+
+        Map<String, String> attributes = root.getAttributes();
+        return new TraceDto(
+                trace.getTraceId(),
+                trace.getRemoteParentId(),
+                attributes.get("http.method"),
+                attributes.get("http.route"),
+                Integer.parseInt(attributes.getOrDefault("http.status", "0")),
+                Instant.ofEpochMilli(trace.getStartEpochMillis()),
+                toMillis(root.getDurationNanos()),
+                statements,
+                toMillis(sqlNanos),
+                trace.getDroppedSpans(),
+                spans);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    // Lock-free overwrite-oldest ring; readers may miss a slot being replaced, which is fine here
+    private static final class Ring {
+        private final AtomicReferenceArray<TraceDto> slots;
+        private final AtomicLong next = new AtomicLong();
+
+        Ring(int capacity) {
+            slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+        }
+
+        void add(TraceDto trace) {
+            slots.set((int) (next.getAndIncrement() % slots.length()), trace);
+        }
+
+        long added() {
+            return next.get();
+        }
+
+        Stream<TraceDto> newestFirst() {
+            long end = next.get();
+            long start = Math.max(0, end - slots.length());
+            List<TraceDto> traces = new ArrayList<>((int) (end - start));
+            for (long i = end - 1; i >= start; i--) {
+                TraceDto trace = slots.get((int) (i % slots.length()));
+                if (trace != null) {
+                    traces.add(trace);
+                }
+            }
+            return traces.stream();
+        }
+    }
+}
@@ -26,10 +26,7 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<AuthUserDto> login(@RequestBody AuthUserDto authUserDto) {
         try {
-            Optional<User> userOptional = userService.getAllUsers().stream()
-                    .filter(user -> user.getName().equals(authUserDto.getUsername()) || 
-                                   user.getEmail().equals(authUserDto.getUsername()))
-                    .findFirst();
+            Optional<User> userOptional = userService.findAccountByNameOrEmail(authUserDto.getUsername());
 
             if (!userOptional.isPresent()) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -92,8 +89,7 @@ public class AuthController {
                 log.warn("Email contains null byte, sanitizing: {}", authUserDto.getEmail());
             }
 
-            boolean userExists = userService.getAllUsers().stream()
-                    .anyMatch(user -> user.getName().equals(authUserDto.getUsername()));
+            boolean userExists = userService.findAccountByName(authUserDto.getUsername()).isPresent();
 
             if (userExists) {
                 return ResponseEntity.status(HttpStatus.CONFLICT).build();
@@ -2,14 +2,18 @@ package heat.main.users.controller;
 
 import heat.main.domain.User;
 import heat.main.enums.RoleType;
+import heat.main.enums.UserSearchMode;
+import heat.main.users.repository.UserSummary;
 import heat.main.users.service.UserSerivce;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -18,6 +22,25 @@ import java.util.Optional;
 public class UserController {
     
     private final UserSerivce userSerivce;
+
+    // Admin listing: one page of users without password hashes, optionally searched by name, email or phone
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<UserSummary> list(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "CONTAINS") UserSearchMode match,
+            @RequestParam(required = false) RoleType roleType,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return userSerivce.listUsers(q, match, roleType, page, size);
+    }
+
+    @GetMapping("/counts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<RoleType, Long> countByRole() {
+        return userSerivce.countUsersByRole();
+    }
     
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
@@ -0,0 +1,10 @@
+package heat.main.users.repository;
+
+import heat.main.enums.RoleType;
+
+public interface RoleCount {
+
+    RoleType getRoleType();
+
+    long getCount();
+}
@@ -0,0 +1,50 @@
+package heat.main.users.repository;
+
+import heat.main.domain.User;
+import heat.main.enums.RoleType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserRepository extends JpaRepository<User, Long> {
+
+    String SUMMARY_COLUMNS = "u.id as id, u.name as name, u.email as email, u.phoneNumber as phoneNumber,"
+            + " u.gender as gender, u.height as height, u.weight as weight, u.bmi as bmi, u.roleType as roleType";
+
+    String SEARCH_CONDITION = "(lower(u.name) like :pattern escape '\\'"
+            + " or lower(u.email) like :pattern escape '\\'"
+            + " or u.phoneNumber like :pattern escape '\\')";
+
+    Optional<User> findById(Long id);
+
+    List<User> findByRoleType(RoleType roleType);
+    
+    List<User> findByPhoneNumberAndRoleType(String phoneNumber, RoleType roleType);
+    
+    Optional<User> findByEmail(String email);
+    
+    Optional<User> findByName(String name);
+
+    Page<UserSummary> findAllProjectedBy(Pageable pageable);
+
+    Page<UserSummary> findProjectedByRoleType(RoleType roleType, Pageable pageable);
+
+    // pattern is already lower-cased and LIKE-escaped; served by the trigram indexes from changeset 009
+    @Query(value = "select " + SUMMARY_COLUMNS + " from User u where " + SEARCH_CONDITION,
+            countQuery = "select count(u) from User u where " + SEARCH_CONDITION)
+    Page<UserSummary> search(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query(value = "select " + SUMMARY_COLUMNS + " from User u where u.roleType = :roleType and " + SEARCH_CONDITION,
+            countQuery = "select count(u) from User u where u.roleType = :roleType and " + SEARCH_CONDITION)
+    Page<UserSummary> searchByRole(@Param("pattern") String pattern, @Param("roleType") RoleType roleType, Pageable pageable);
+
+    @Query("select u.roleType as roleType, count(u) as count from User u group by u.roleType")
+    List<RoleCount> countByRole();
+}
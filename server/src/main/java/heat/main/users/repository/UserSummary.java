@@ -0,0 +1,27 @@
+package heat.main.users.repository;
+
+import heat.main.enums.RoleType;
+
+import java.math.BigDecimal;
+
+// Columns shown on the admin user listing; never includes the password hash
+public interface UserSummary {
+
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+
+    String getPhoneNumber();
+
+    char getGender();
+
+    BigDecimal getHeight();
+
+    BigDecimal getWeight();
+
+    BigDecimal getBmi();
+
+    RoleType getRoleType();
+}
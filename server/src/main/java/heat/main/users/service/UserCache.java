@@ -0,0 +1,99 @@
+package heat.main.users.service;
+
+import heat.main.domain.User;
+import heat.main.invalidation.EntityChange;
+import heat.main.invalidation.event.ChangesMissedEvent;
+import heat.main.invalidation.event.EntityChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounts as last read from the database, so that authentication and scoring get to the prediction
+ * journal without a query and keep working while the database is slow or down. Changes evict through
+ * the same {@link EntityChangedEvent} as the other in-process views; after missed changes everything is
+ * read again. Callers get copies, as from {@link UserSerivce#findUserById}.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserCache {
+
+    // Past this many accounts the rest are read from the database every time
+    private static final int MAX_USERS = 200_000;
+
+    private final UserSerivce userService;
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+    // Bumped on every eviction; a load that overlapped one may have read the old row and is not kept
+    private final AtomicLong evictions = new AtomicLong();
+
+    public Optional<User> findById(Long id) {
+        User cached = users.get(id);
+        if (cached != null) {
+            return Optional.of(cached.toBuilder().build());
+        }
+        long seen = evictions.get();
+        Optional<User> loaded = userService.findUserById(id);
+        loaded.ifPresent(user -> keep(user, seen));
+        return loaded;
+    }
+
+    // From the primary, like every account lookup for authentication
+    public Optional<User> findByName(String name) {
+        Long id = idsByName.get(name);
+        User cached = id != null ? users.get(id) : null;
+        if (cached != null && cached.getName().equals(name)) {
+            return Optional.of(cached.toBuilder().build());
+        }
+        long seen = evictions.get();
+        Optional<User> loaded = userService.findAccountByName(name).map(user -> user.toBuilder().build());
+        loaded.ifPresent(user -> keep(user, seen));
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getChange().getType() == EntityChange.Type.USER) {
+            evict(event.getChange().getId());
+        }
+    }
+
+    @EventListener
+    public void onChangesMissed(ChangesMissedEvent event) {
+        evictions.incrementAndGet();
+        users.clear();
+        idsByName.clear();
+    }
+
+    private void keep(User user, long seen) {
+        if (users.size() >= MAX_USERS) {
+            return;
+        }
+        User copy = user.toBuilder().build();
+        users.put(copy.getId(), copy);
+        idsByName.put(copy.getName(), copy.getId());
+        // Evicted while it was being read: the copy may predate the change
+        if (evictions.get() != seen) {
+            remove(copy.getId());
+        }
+    }
+
+    private void evict(Long id) {
+        evictions.incrementAndGet();
+        remove(id);
+    }
+
+    private void remove(Long id) {
+        User removed = users.remove(id);
+        if (removed != null) {
+            idsByName.remove(removed.getName(), id);
+        }
+    }
+}
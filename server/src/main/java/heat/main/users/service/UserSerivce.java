@@ -2,14 +2,22 @@ package heat.main.users.service;
 
 import heat.main.domain.User;
 import heat.main.enums.RoleType;
+import heat.main.enums.UserSearchMode;
+import heat.main.users.repository.UserSummary;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserSerivce {
 
     List<User> getAllUsers();
 
+    Optional<User> findAccountByName(String name);
+
+    Optional<User> findAccountByNameOrEmail(String login);
+
     List<User> getAllUsersByRole(RoleType roleType);
 
     Optional<User> findUserById(Long id);
@@ -28,5 +36,9 @@ public interface UserSerivce {
     
     User updateOwnProfile(Long id, User user);
 
+    Page<UserSummary> listUsers(String query, UserSearchMode mode, RoleType roleType, int page, int size);
+
+    Map<RoleType, Long> countUsersByRole();
+
 }
 
@@ -0,0 +1,236 @@
+package heat.main.users.service;
+
+import heat.main.archive.service.ColdStorageService;
+import heat.main.datasource.ReadYourWritesGuard;
+import heat.main.domain.User;
+import heat.main.enums.RoleType;
+import heat.main.enums.UserSearchMode;
+import heat.main.invalidation.EntityChange;
+import heat.main.invalidation.event.EntityChangedEvent;
+import heat.main.singleflight.service.ReadCoalescer;
+import heat.main.users.repository.RoleCount;
+import heat.main.users.repository.UserRepository;
+import heat.main.users.repository.UserSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserServiceImpl implements UserSerivce {
+    
+    private final UserRepository userRepository;
+    private final ReadYourWritesGuard readYourWrites;
+    private final ReadCoalescer coalescer;
+    private final ColdStorageService coldStorage;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Override
+    @Transactional
+    public List<User> getAllUsers(){
+        return userRepository.findAll();
+    }
+
+    // Deliberately not read-only, so these stay on the primary: authentication, login and
+    // sign-up use them to look up accounts, and a new account must be visible immediately
+    @Override
+    @Transactional
+    public Optional<User> findAccountByName(String name) {
+        return userRepository.findByName(name);
+    }
+
+    @Override
+    @Transactional
+    public Optional<User> findAccountByNameOrEmail(String login) {
+        Optional<User> user = userRepository.findByName(login);
+        return user.isPresent() ? user : userRepository.findByEmail(login);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> getAllUsersByRole(RoleType roleType) {
+        return userRepository.findByRoleType(roleType);
+    }
+
+    // Profile screens open together at shift start; concurrent lookups of one id share a single query.
+    // The entity loaded by the flight stays in its session, so each caller gets a copy of its own.
+    @Override
+    public Optional<User> findUserById(Long id) {
+        return coalescer.readForUser("users.byId", id, id, () -> userRepository.findById(id))
+                .map(user -> user.toBuilder().build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findUserByPhoneAndRole(String phone, RoleType roleType) {
+        return userRepository.findByPhoneNumberAndRoleType(phone, roleType);
+    }
+
+    @Override
+    @Transactional
+    public User addUser(User user) {
+        User saved = userRepository.save(user);
+        readYourWrites.recordWrite(saved.getId());
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public User updateUser(Long id, User user) {
+        readYourWrites.recordWrite(id);
+        Optional<User> existingUser = userRepository.findById(id);
+        if (existingUser.isPresent()) {
+            User updatedUser = existingUser.get();
+
+            // Update only the fields that are not null
+            if (user.getName() != null) {
+                updatedUser.setName(user.getName());
+            }
+            if (user.getPhoneNumber() != null) {
+                updatedUser.setPhoneNumber(user.getPhoneNumber());
+            }
+            if (user.getRoleType() != null) {
+                updatedUser.setRoleType(user.getRoleType());
+            }
+            if (user.getEmail() != null) {
+                updatedUser.setEmail(user.getEmail());
+            }
+            if(user.getWeight()!=null){
+                updatedUser.setWeight(user.getWeight());
+            }
+            if(user.getHeight()!=null){
+                updatedUser.setHeight(user.getHeight());
+            }
+            if(user.getBmi()!=null){
+                updatedUser.setBmi(user.getBmi());
+            }
+
+            User saved = userRepository.save(updatedUser);
+            changed(EntityChange.Action.UPDATED, id);
+            return saved;
+        } else {
+            throw new RuntimeException("User not found with id " + id);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void deleteUser(Long id) {
+        readYourWrites.recordWrite(id);
+        userRepository.deleteById(id);
+        // Archived predictions have no foreign key to hold the deletion back
+        coldStorage.forgetPatient(id);
+        changed(EntityChange.Action.DELETED, id);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findUserByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findUserByName(String name) {
+        return userRepository.findByName(name);
+    }
+    
+    @Override
+    @Transactional
+    public User updateOwnProfile(Long id, User user) {
+        readYourWrites.recordWrite(id);
+        Optional<User> existingUser = userRepository.findById(id);
+        if (existingUser.isPresent()) {
+            User updatedUser = existingUser.get();
+
+            // Update only the fields that are not null
+            if (user.getName() != null) {
+                updatedUser.setName(user.getName());
+            }
+            if (user.getPhoneNumber() != null) {
+                updatedUser.setPhoneNumber(user.getPhoneNumber());
+            }
+            if (user.getEmail() != null) {
+                updatedUser.setEmail(user.getEmail());
+            }
+            if (user.getGender() != '\u0000') {
+                updatedUser.setGender(user.getGender());
+            }
+            if (user.getWeight() != null) {
+                updatedUser.setWeight(user.getWeight());
+            }
+            if (user.getHeight() != null) {
+                updatedUser.setHeight(user.getHeight());
+            }
+            
+            // Recalculate BMI when height or weight changes
+            if (user.getHeight() != null && user.getWeight() != null) {
+                java.math.BigDecimal heightInMeters = updatedUser.getHeight().divide(new java.math.BigDecimal("100"));
+                java.math.BigDecimal bmi = updatedUser.getWeight().divide(
+                    heightInMeters.multiply(heightInMeters), 
+                    2, 
+                    java.math.RoundingMode.HALF_UP
+                );
+                updatedUser.setBmi(bmi);
+            }
+
+            User saved = userRepository.save(updatedUser);
+            changed(EntityChange.Action.UPDATED, id);
+            return saved;
+        } else {
+            throw new RuntimeException("User not found with id " + id);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserSummary> listUsers(String query, UserSearchMode mode, RoleType roleType, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), Sort.by("id"));
+        String term = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+
+        if (term.isEmpty()) {
+            return roleType == null
+                    ? userRepository.findAllProjectedBy(pageable)
+                    : userRepository.findProjectedByRoleType(roleType, pageable);
+        }
+
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        String pattern = mode == UserSearchMode.PREFIX ? escaped + "%" : "%" + escaped + "%";
+        return roleType == null
+                ? userRepository.search(pattern, pageable)
+                : userRepository.searchByRole(pattern, roleType, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<RoleType, Long> countUsersByRole() {
+        Map<RoleType, Long> counts = new EnumMap<>(RoleType.class);
+        for (RoleType roleType : RoleType.values()) {
+            counts.put(roleType, 0L);
+        }
+        for (RoleCount count : userRepository.countByRole()) {
+            counts.put(count.getRoleType(), count.getCount());
+        }
+        return counts;
+    }
+
+    // Evicts copies of the user held by this and, through the invalidation bus, every other instance
+    private void changed(EntityChange.Action action, Long id) {
+        eventPublisher.publishEvent(new EntityChangedEvent(new EntityChange(EntityChange.Type.USER, action, id), false));
+    }
+}
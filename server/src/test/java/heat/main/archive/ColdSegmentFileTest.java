@@ -0,0 +1,168 @@
+package heat.main.archive;
+
+import heat.main.enums.RiskLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Every segment version still on disk must read back what was archived into it: version 1 without
+ * locations, version 2 with empty strings read as null, and the current version as written.
+ */
+class ColdSegmentFileTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 8, 30, 15, 123_000_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void currentVersionKeepsNullsEmptyStringsAndNegativeDecimals() {
+        List<ColdRow> rows = rows(true);
+        ColdSegmentFile file = write(rows, 3);
+
+        for (ColdRow expected : rows) {
+            ColdRow actual = file.find(expected.getId());
+            assertNotNull(actual, "row " + expected.getId());
+            assertSameRow(expected, actual, true, true);
+        }
+    }
+
+    @Test
+    void version2ReadsEmptyStringsAsNull() {
+        List<ColdRow> rows = rows(true);
+        ColdSegmentFile file = write(rows, 2);
+
+        for (ColdRow expected : rows) {
+            ColdRow actual = file.find(expected.getId());
+            assertNotNull(actual, "row " + expected.getId());
+            assertSameRow(expected, actual, true, false);
+        }
+    }
+
+    @Test
+    void version1ReadsWithoutLocation() {
+        List<ColdRow> rows = rows(false);
+        ColdSegmentFile file = write(rows, 1);
+
+        for (ColdRow expected : rows) {
+            ColdRow actual = file.find(expected.getId());
+            assertNotNull(actual, "row " + expected.getId());
+            assertSameRow(expected, actual, false, false);
+            assertNull(actual.getLatitude());
+            assertNull(actual.getLongitude());
+            assertNull(actual.getSiteId());
+        }
+    }
+
+    @Test
+    void version1HasNoNullDecimals() {
+        List<ColdRow> rows = List.of(row(1, 7, 0, null, "", null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ColdSegmentFile.write(directory.resolve("v1-null.seg"), rows, 1));
+    }
+
+    @Test
+    void patientRunsComeBackNewestFirst() {
+        List<ColdRow> rows = rows(true);
+        ColdSegmentFile file = write(rows, 3);
+
+        for (long patientId : new long[]{7, 8, 9}) {
+            List<ColdRow> expected = new ArrayList<>();
+            for (ColdRow row : rows) {
+                if (row.getPatientId() == patientId) {
+                    expected.add(0, row);
+                }
+            }
+            List<ColdRow> actual = file.readNewestFirst(patientId, 0, 100);
+            assertEquals(expected.size(), file.countRows(patientId));
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertSameRow(expected.get(i), actual.get(i), true, true);
+            }
+        }
+    }
+
+    private ColdSegmentFile write(List<ColdRow> rows, int version) {
+        Path path = directory.resolve("v" + version + ".seg");
+        ColdSegmentFile.write(path, rows, version);
+        ColdSegmentFile file = ColdSegmentFile.open(path);
+        assertEquals(rows.size(), file.getRowCount());
+        return file;
+    }
+
+    // Rows of three patients, in time order per patient. Version 1 had no null decimals.
+    private static List<ColdRow> rows(boolean nullDecimals) {
+        BigDecimal none = nullDecimals ? null : new BigDecimal("0.5");
+        List<ColdRow> rows = new ArrayList<>();
+        rows.add(row(101, 7, 0, new BigDecimal("-12.50"), "", new BigDecimal("-33.868820"), new BigDecimal("-151.209290")));
+        rows.add(row(102, 7, 1, none, null, null, null));
+        // The smallest short at scale 2, which must not be taken for null
+        rows.add(row(103, 7, 2, new BigDecimal("-327.68"), "Hitzschlag ☀ bei 41 °C", new BigDecimal("0.000001"), new BigDecimal("-0.000001")));
+        rows.add(row(250, 8, 0, new BigDecimal("38.25"), "notes", new BigDecimal("89.999999"), new BigDecimal("179.999999")));
+        rows.add(row(251, 8, 5, new BigDecimal("-0.01"), "", null, null));
+        rows.add(row(9000, 9, 3, new BigDecimal("21474836.47"), null, new BigDecimal("-90.000000"), new BigDecimal("-180.000000")));
+        return rows;
+    }
+
+    private static ColdRow row(long id, long patientId, int minutes, BigDecimal temperature, String notes,
+                               BigDecimal latitude, BigDecimal longitude) {
+        return new ColdRow(id, patientId, START.plusMinutes(minutes),
+                temperature,
+                new BigDecimal("-5.25"),
+                new BigDecimal("88"),
+                new BigDecimal("0.61"),
+                new BigDecimal("-40.00"),
+                new BigDecimal("0.8123"),
+                RiskLevel.values()[(int) (id % RiskLevel.values().length)],
+                notes,
+                latitude,
+                longitude,
+                notes);
+    }
+
+    private static void assertSameRow(ColdRow expected, ColdRow actual, boolean located, boolean emptyStrings) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getPatientId(), actual.getPatientId());
+        assertEquals(expected.getAssessmentTimestamp(), actual.getAssessmentTimestamp());
+        assertDecimal(expected, actual, ColdRow::getTemperature);
+        assertDecimal(expected, actual, ColdRow::getHumidity);
+        assertDecimal(expected, actual, ColdRow::getPulse);
+        assertDecimal(expected, actual, ColdRow::getDehydrationLevel);
+        assertDecimal(expected, actual, ColdRow::getHeatIndex);
+        assertDecimal(expected, actual, ColdRow::getPredictedProbability);
+        assertEquals(expected.getPredictedRiskLevel(), actual.getPredictedRiskLevel());
+        assertEquals(string(expected.getNotes(), emptyStrings), actual.getNotes());
+        if (located) {
+            assertDecimal(expected, actual, ColdRow::getLatitude);
+            assertDecimal(expected, actual, ColdRow::getLongitude);
+            assertEquals(string(expected.getSiteId(), emptyStrings), actual.getSiteId());
+        }
+    }
+
+    private static void assertDecimal(ColdRow expected, ColdRow actual, Function<ColdRow, BigDecimal> column) {
+        BigDecimal want = column.apply(expected);
+        BigDecimal got = column.apply(actual);
+        if (want == null) {
+            assertNull(got, "row " + expected.getId());
+        } else {
+            assertNotNull(got, "row " + expected.getId());
+            assertEquals(0, want.compareTo(got), "row " + expected.getId() + ": expected " + want + ", got " + got);
+        }
+    }
+
+    private static String string(String value, boolean emptyStrings) {
+        return value != null && value.isEmpty() && !emptyStrings ? null : value;
+    }
+}